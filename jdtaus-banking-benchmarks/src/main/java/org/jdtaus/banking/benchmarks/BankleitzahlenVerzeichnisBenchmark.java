@@ -0,0 +1,123 @@
+/*
+ *  jDTAUS Banking Benchmarks
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.jdtaus.banking.BankleitzahlExpirationException;
+import org.jdtaus.banking.BankleitzahlInfo;
+import org.jdtaus.banking.Bankleitzahl;
+import org.jdtaus.banking.BankleitzahlenVerzeichnis;
+import org.jdtaus.core.container.ContainerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks lookups and searches of the configured {@code BankleitzahlenVerzeichnis}.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+public class BankleitzahlenVerzeichnisBenchmark
+{
+
+    /** Text to search. */
+    @Param( { "SPARKASSE", "VOLKSBANK", "COMMERZBANK" } )
+    public String name;
+
+    /** The directory to benchmark. */
+    private BankleitzahlenVerzeichnis directory;
+
+    /** Bank codes of all head offices. */
+    private Bankleitzahl[] bankCodes;
+
+    /** The index of the next bank code to look up. */
+    private int index;
+
+    /** Gets the directory and collects the bank codes of all head offices. */
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        this.directory = (BankleitzahlenVerzeichnis) ContainerFactory.getContainer().
+            getObject( BankleitzahlenVerzeichnis.class );
+
+        final BankleitzahlInfo[] headOffices =
+            this.directory.searchBankleitzahlInfos( null, null, null, Boolean.TRUE, Boolean.FALSE );
+
+        this.bankCodes = new Bankleitzahl[ headOffices.length ];
+        for ( int i = headOffices.length - 1; i >= 0; i-- )
+        {
+            this.bankCodes[i] = headOffices[i].getBankCode();
+        }
+    }
+
+    /**
+     * Benchmarks looking up head offices.
+     *
+     * @return The head office looked up.
+     *
+     * @throws BankleitzahlExpirationException if a bank code has expired.
+     */
+    @Benchmark
+    public BankleitzahlInfo getHeadOffice() throws BankleitzahlExpirationException
+    {
+        this.index = ( this.index + 1 ) % this.bankCodes.length;
+        return this.directory.getHeadOffice( this.bankCodes[this.index] );
+    }
+
+    /**
+     * Benchmarks searching records by name.
+     *
+     * @return The records found.
+     */
+    @Benchmark
+    public BankleitzahlInfo[] searchByName()
+    {
+        return this.directory.searchBankleitzahlInfos( this.name, null, null, null, null );
+    }
+
+    /**
+     * Benchmarks searching head office records by city.
+     *
+     * @return The records found.
+     */
+    @Benchmark
+    public BankleitzahlInfo[] searchHeadOfficesByCity()
+    {
+        return this.directory.searchBankleitzahlInfos( null, null, "BERLIN", Boolean.TRUE, Boolean.FALSE );
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ *  jDTAUS Banking Benchmarks
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.benchmarks;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.Currency;
+import java.util.Date;
+import org.jdtaus.banking.AlphaNumericText27;
+import org.jdtaus.banking.Bankleitzahl;
+import org.jdtaus.banking.Kontonummer;
+import org.jdtaus.banking.Referenznummer10;
+import org.jdtaus.banking.Referenznummer11;
+import org.jdtaus.banking.Textschluessel;
+import org.jdtaus.banking.TextschluesselVerzeichnis;
+import org.jdtaus.banking.dtaus.Header;
+import org.jdtaus.banking.dtaus.LogicalFileType;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
+import org.jdtaus.banking.dtaus.Transaction;
+import org.jdtaus.banking.dtaus.ri.zka.DTAUSGenerator;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.io.util.MemoryFileOperations;
+
+/**
+ * Utility methods shared by benchmarks.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+public final class Benchmarks
+{
+
+    /** Seed of generated files. */
+    private static final long SEED = 20050101L;
+
+    /** Cached debit {@code Textschluessel}. */
+    private static Textschluessel debitTextschluessel;
+
+    /** Creates a new {@code Benchmarks} instance. */
+    private Benchmarks()
+    {
+        super();
+    }
+
+    /**
+     * Gets the {@code PhysicalFileFactory} of the reference implementation.
+     *
+     * @return The {@code PhysicalFileFactory} of the reference implementation.
+     */
+    public static PhysicalFileFactory getPhysicalFileFactory()
+    {
+        return (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+    }
+
+    /**
+     * Gets the format constant of a format name.
+     *
+     * @param name Either {@code disk} or {@code tape}.
+     *
+     * @return The {@code PhysicalFileFactory} format constant of {@code name}.
+     *
+     * @throws IllegalArgumentException if {@code name} is neither {@code disk} nor {@code tape}.
+     */
+    public static int getFormat( final String name )
+    {
+        if ( "disk".equals( name ) )
+        {
+            return PhysicalFileFactory.FORMAT_DISK;
+        }
+        if ( "tape".equals( name ) )
+        {
+            return PhysicalFileFactory.FORMAT_TAPE;
+        }
+
+        throw new IllegalArgumentException( name );
+    }
+
+    /**
+     * Creates a physical file in memory.
+     * <p>The file is generated using a fixed seed so that every benchmark run operates on equal data. All transactions
+     * use the debit {@code Textschluessel} returned by method {@link #getDebitTextschluessel()}.</p>
+     *
+     * @param format The format of the file to create.
+     * @param logicalFiles The number of logical files to create.
+     * @param transactions The number of transactions of each logical file.
+     *
+     * @return A new file holding {@code logicalFiles} logical files of {@code transactions} transactions each.
+     *
+     * @throws IOException if creating the file fails.
+     */
+    public static MemoryFileOperations createFile( final int format, final int logicalFiles, final int transactions )
+        throws IOException
+    {
+        final MemoryFileOperations ops = new MemoryFileOperations();
+        final DTAUSGenerator generator = new DTAUSGenerator();
+        generator.setSeed( SEED );
+        generator.setFormat( format );
+        generator.setLogicalFileCount( logicalFiles );
+        generator.setTransactionCount( transactions );
+        generator.setCreateDate( getHeader().getCreateDate() );
+        generator.setTextschluessel( new Textschluessel[]
+            {
+                getDebitTextschluessel()
+            }, new double[]
+            {
+                1.0D
+            } );
+
+        generator.generate( ops );
+        return ops;
+    }
+
+    /**
+     * Creates a valid debit header.
+     *
+     * @return A valid debit header.
+     */
+    public static Header getHeader()
+    {
+        final Calendar cal = Calendar.getInstance();
+        cal.set( Calendar.HOUR_OF_DAY, 0 );
+        cal.set( Calendar.MINUTE, 0 );
+        cal.set( Calendar.SECOND, 0 );
+        cal.set( Calendar.MILLISECOND, 0 );
+
+        final Header header = new Header();
+        header.setAccount( Kontonummer.valueOf( new Long( 1111111111L ) ) );
+        header.setBank( Bankleitzahl.valueOf( new Integer( 22222222 ) ) );
+        header.setBankData( Bankleitzahl.valueOf( new Integer( 33333333 ) ) );
+        header.setCurrency( Currency.getInstance( "EUR" ) );
+        header.setCustomer( AlphaNumericText27.valueOf( "JDTAUS BENCHMARKS" ) );
+        header.setReference( Referenznummer10.valueOf( new Long( 4444444444L ) ) );
+        header.setCreateDate( cal.getTime() );
+        header.setExecutionDate( cal.getTime() );
+        header.setType( LogicalFileType.LB );
+        return header;
+    }
+
+    /**
+     * Creates a valid debit transaction.
+     *
+     * @param index The index of the transaction used to vary account, reference and amount.
+     *
+     * @return A valid debit transaction.
+     */
+    public static Transaction getTransaction( final int index )
+    {
+        final Transaction transaction = new Transaction();
+        transaction.setAmount( BigInteger.valueOf( index % 100000 + 1 ) );
+        transaction.setCurrency( Currency.getInstance( "EUR" ) );
+        transaction.setExecutiveAccount( Kontonummer.valueOf( new Long( 1111111111L ) ) );
+        transaction.setExecutiveBank( Bankleitzahl.valueOf( new Integer( 22222222 ) ) );
+        transaction.setExecutiveName( AlphaNumericText27.valueOf( "JDTAUS BENCHMARKS" ) );
+        transaction.setPrimaryBank( Bankleitzahl.valueOf( new Integer( 33333333 ) ) );
+        transaction.setReference( Referenznummer11.valueOf( new Long( index ) ) );
+        transaction.setTargetAccount( Kontonummer.valueOf( new Long( index % 9999999999L + 1L ) ) );
+        transaction.setTargetBank( Bankleitzahl.valueOf( new Integer( 66666666 ) ) );
+        transaction.setTargetName( AlphaNumericText27.valueOf( "ZAHLUNGSPFLICHTIGER " + ( index % 1000 ) ) );
+        transaction.setType( getDebitTextschluessel() );
+        transaction.setDescriptions( new AlphaNumericText27[]
+            {
+                AlphaNumericText27.valueOf( "RECHNUNG " + index )
+            } );
+
+        return transaction;
+    }
+
+    /**
+     * Gets a debit {@code Textschluessel} valid today.
+     *
+     * @return A debit {@code Textschluessel} valid today.
+     *
+     * @throws IllegalStateException if no debit {@code Textschluessel} is available.
+     */
+    public static Textschluessel getDebitTextschluessel()
+    {
+        if ( debitTextschluessel != null )
+        {
+            return debitTextschluessel;
+        }
+
+        final TextschluesselVerzeichnis verzeichnis = (TextschluesselVerzeichnis) ContainerFactory.getContainer().
+            getObject( TextschluesselVerzeichnis.class );
+
+        final Textschluessel[] debits =
+            verzeichnis.searchTextschluessel( Boolean.TRUE, Boolean.FALSE, new Date() );
+
+        if ( debits.length == 0 )
+        {
+            throw new IllegalStateException();
+        }
+
+        debitTextschluessel = debits[0];
+        return debitTextschluessel;
+    }
+
+}
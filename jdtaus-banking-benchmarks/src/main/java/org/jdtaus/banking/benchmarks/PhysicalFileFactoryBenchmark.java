@@ -0,0 +1,115 @@
+/*
+ *  jDTAUS Banking Benchmarks
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.jdtaus.banking.dtaus.PhysicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFileException;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
+import org.jdtaus.core.io.util.MemoryFileOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks reading physical files using the {@code PhysicalFileFactory} of the reference implementation.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+public class PhysicalFileFactoryBenchmark
+{
+
+    /** The format of the file to read. */
+    @Param( { "disk", "tape" } )
+    public String format;
+
+    /** The number of logical files of the file to read. */
+    @Param( { "1", "10" } )
+    public int logicalFiles;
+
+    /** The number of transactions of each logical file of the file to read. */
+    @Param( { "100", "10000", "100000" } )
+    public int transactions;
+
+    /** The factory to benchmark. */
+    private PhysicalFileFactory factory;
+
+    /** The file to read. */
+    private MemoryFileOperations file;
+
+    /**
+     * Creates the file to read.
+     *
+     * @throws IOException if creating the file fails.
+     */
+    @Setup( Level.Trial )
+    public void setup() throws IOException
+    {
+        this.factory = Benchmarks.getPhysicalFileFactory();
+        this.file = Benchmarks.createFile( Benchmarks.getFormat( this.format ), this.logicalFiles, this.transactions );
+    }
+
+    /**
+     * Benchmarks detecting the format of a file.
+     *
+     * @return The format of the file.
+     *
+     * @throws PhysicalFileException if the file contains errors.
+     * @throws IOException if reading fails.
+     */
+    @Benchmark
+    public int analyse() throws PhysicalFileException, IOException
+    {
+        return this.factory.analyse( this.file );
+    }
+
+    /**
+     * Benchmarks reading a file including the checksum scans of all logical files.
+     *
+     * @return The physical file read.
+     *
+     * @throws PhysicalFileException if the file contains errors.
+     * @throws IOException if reading fails.
+     */
+    @Benchmark
+    public PhysicalFile getPhysicalFile() throws PhysicalFileException, IOException
+    {
+        return this.factory.getPhysicalFile( this.file );
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ *  jDTAUS Banking Benchmarks
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.benchmarks;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.jdtaus.banking.Textschluessel;
+import org.jdtaus.banking.TextschluesselVerzeichnis;
+import org.jdtaus.core.container.ContainerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks lookups and searches of the configured {@code TextschluesselVerzeichnis}.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+public class TextschluesselVerzeichnisBenchmark
+{
+
+    /** The directory to benchmark. */
+    private TextschluesselVerzeichnis directory;
+
+    /** All {@code Textschluessel} instances of the directory. */
+    private Textschluessel[] textschluessel;
+
+    /** The date to look up {@code Textschluessel} instances at. */
+    private Date date;
+
+    /** The index of the next {@code Textschluessel} to look up. */
+    private int index;
+
+    /** Gets the directory and collects all {@code Textschluessel} instances. */
+    @Setup( Level.Trial )
+    public void setup()
+    {
+        this.directory = (TextschluesselVerzeichnis) ContainerFactory.getContainer().
+            getObject( TextschluesselVerzeichnis.class );
+
+        this.textschluessel = this.directory.getTextschluessel();
+        this.date = new Date();
+    }
+
+    /**
+     * Benchmarks looking up {@code Textschluessel} instances by key and extension.
+     *
+     * @return The {@code Textschluessel} looked up.
+     */
+    @Benchmark
+    public Textschluessel getTextschluessel()
+    {
+        final Textschluessel t = this.next();
+        return this.directory.getTextschluessel( t.getKey(), t.getExtension() );
+    }
+
+    /**
+     * Benchmarks looking up {@code Textschluessel} instances by key, extension and date.
+     *
+     * @return The {@code Textschluessel} looked up.
+     */
+    @Benchmark
+    public Textschluessel getTextschluesselAtDate()
+    {
+        final Textschluessel t = this.next();
+        return this.directory.getTextschluessel( t.getKey(), t.getExtension(), this.date );
+    }
+
+    /**
+     * Benchmarks searching debit {@code Textschluessel} instances.
+     *
+     * @return The {@code Textschluessel} instances found.
+     */
+    @Benchmark
+    public Textschluessel[] searchTextschluessel()
+    {
+        return this.directory.searchTextschluessel( Boolean.TRUE, Boolean.FALSE, this.date );
+    }
+
+    private Textschluessel next()
+    {
+        this.index = ( this.index + 1 ) % this.textschluessel.length;
+        return this.textschluessel[this.index];
+    }
+
+}
@@ -0,0 +1,183 @@
+/*
+ *  jDTAUS Banking Benchmarks
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.benchmarks;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+import org.jdtaus.banking.AlphaNumericText27;
+import org.jdtaus.banking.Bankleitzahl;
+import org.jdtaus.banking.Kontonummer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks parsing and formatting of {@code Bankleitzahl}, {@code Kontonummer} and {@code AlphaNumericText27}.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+public class ValueTypesBenchmark
+{
+
+    /** Number of distinct values. */
+    private static final int VALUES = 1024;
+
+    /** Bank codes to parse. */
+    private String[] bankCodeStrings;
+
+    /** Bank codes to format. */
+    private Bankleitzahl[] bankCodes;
+
+    /** Account codes to parse. */
+    private String[] accountCodeStrings;
+
+    /** Account codes to format. */
+    private Kontonummer[] accountCodes;
+
+    /** Texts to parse. */
+    private String[] textStrings;
+
+    /** Texts to format. */
+    private AlphaNumericText27[] texts;
+
+    /** The index of the next value. */
+    private int index;
+
+    /**
+     * Creates the values to parse and format.
+     *
+     * @throws ParseException if creating a value fails.
+     */
+    @Setup( Level.Trial )
+    public void setup() throws ParseException
+    {
+        this.bankCodeStrings = new String[ VALUES ];
+        this.bankCodes = new Bankleitzahl[ VALUES ];
+        this.accountCodeStrings = new String[ VALUES ];
+        this.accountCodes = new Kontonummer[ VALUES ];
+        this.textStrings = new String[ VALUES ];
+        this.texts = new AlphaNumericText27[ VALUES ];
+
+        for ( int i = 0; i < VALUES; i++ )
+        {
+            this.bankCodes[i] = Bankleitzahl.valueOf( new Integer( 10000000 + i * 77777 ) );
+            this.bankCodeStrings[i] = this.bankCodes[i].format( Bankleitzahl.LETTER_FORMAT );
+            this.accountCodes[i] = Kontonummer.valueOf( new Long( 1L + i * 9765431L ) );
+            this.accountCodeStrings[i] = this.accountCodes[i].format( Kontonummer.LETTER_FORMAT );
+            this.textStrings[i] = "VERWENDUNGSZWECK " + i;
+            this.texts[i] = AlphaNumericText27.parse( this.textStrings[i] );
+        }
+    }
+
+    /**
+     * Benchmarks parsing a {@code Bankleitzahl}.
+     *
+     * @return The parsed value.
+     *
+     * @throws ParseException if parsing fails.
+     */
+    @Benchmark
+    public Bankleitzahl parseBankleitzahl() throws ParseException
+    {
+        return Bankleitzahl.parse( this.bankCodeStrings[this.next()] );
+    }
+
+    /**
+     * Benchmarks formatting a {@code Bankleitzahl}.
+     *
+     * @return The formatted value.
+     */
+    @Benchmark
+    public String formatBankleitzahl()
+    {
+        return this.bankCodes[this.next()].format( Bankleitzahl.LETTER_FORMAT );
+    }
+
+    /**
+     * Benchmarks parsing a {@code Kontonummer}.
+     *
+     * @return The parsed value.
+     *
+     * @throws ParseException if parsing fails.
+     */
+    @Benchmark
+    public Kontonummer parseKontonummer() throws ParseException
+    {
+        return Kontonummer.parse( this.accountCodeStrings[this.next()] );
+    }
+
+    /**
+     * Benchmarks formatting a {@code Kontonummer}.
+     *
+     * @return The formatted value.
+     */
+    @Benchmark
+    public String formatKontonummer()
+    {
+        return this.accountCodes[this.next()].format( Kontonummer.LETTER_FORMAT );
+    }
+
+    /**
+     * Benchmarks parsing an {@code AlphaNumericText27}.
+     *
+     * @return The parsed value.
+     *
+     * @throws ParseException if parsing fails.
+     */
+    @Benchmark
+    public AlphaNumericText27 parseAlphaNumericText27() throws ParseException
+    {
+        return AlphaNumericText27.parse( this.textStrings[this.next()] );
+    }
+
+    /**
+     * Benchmarks formatting an {@code AlphaNumericText27}.
+     *
+     * @return The formatted value.
+     */
+    @Benchmark
+    public String formatAlphaNumericText27()
+    {
+        return this.texts[this.next()].format();
+    }
+
+    private int next()
+    {
+        this.index = ( this.index + 1 ) & ( VALUES - 1 );
+        return this.index;
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ *  jDTAUS Banking Benchmarks
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.jdtaus.banking.benchmarks.Benchmarks;
+import org.jdtaus.banking.dtaus.PhysicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFileException;
+import org.jdtaus.banking.dtaus.Transaction;
+import org.jdtaus.core.io.util.MemoryFileOperations;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks transaction access of the {@code AbstractLogicalFile} implementations.
+ * <p>Located in the package of the reference implementation to be able to benchmark the protected
+ * {@code checksum()} method.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5 )
+@Measurement( iterations = 10 )
+@Fork( 1 )
+public class LogicalFileBenchmark
+{
+
+    /** Step used to visit transactions in non-sequential order. */
+    private static final int STEP = 7919;
+
+    /** The format of the logical file. */
+    @Param( { "disk", "tape" } )
+    public String format;
+
+    /** The number of transactions of the logical file. */
+    @Param( { "1000", "100000" } )
+    public int transactions;
+
+    /** The logical file to benchmark. */
+    private AbstractLogicalFile logicalFile;
+
+    /** A transaction to add or set. */
+    private Transaction transaction;
+
+    /** The index of the next transaction to access. */
+    private int index;
+
+    /**
+     * Creates the logical file to benchmark.
+     * <p>The file is re-created for every iteration, since adding transactions increases its size.</p>
+     *
+     * @throws PhysicalFileException if reading the file fails.
+     * @throws IOException if creating the file fails.
+     */
+    @Setup( Level.Iteration )
+    public void setup() throws PhysicalFileException, IOException
+    {
+        final MemoryFileOperations ops =
+            Benchmarks.createFile( Benchmarks.getFormat( this.format ), 1, this.transactions );
+
+        final PhysicalFile physicalFile = Benchmarks.getPhysicalFileFactory().getPhysicalFile( ops );
+        this.logicalFile = (AbstractLogicalFile) physicalFile.getLogicalFile( 0 );
+        this.transaction = Benchmarks.getTransaction( 0 );
+        this.index = 0;
+    }
+
+    /**
+     * Benchmarks appending a transaction.
+     *
+     * @return The index of the added transaction.
+     *
+     * @throws IOException if adding fails.
+     */
+    @Benchmark
+    public int addTransaction() throws IOException
+    {
+        return this.logicalFile.addTransaction( this.transaction );
+    }
+
+    /**
+     * Benchmarks reading a transaction.
+     *
+     * @return The transaction read.
+     *
+     * @throws IOException if reading fails.
+     */
+    @Benchmark
+    public Transaction getTransaction() throws IOException
+    {
+        return this.logicalFile.getTransaction( this.nextIndex() );
+    }
+
+    /**
+     * Benchmarks replacing a transaction with a transaction of equal length.
+     *
+     * @return The replaced transaction.
+     *
+     * @throws IOException if writing fails.
+     */
+    @Benchmark
+    public Transaction setTransaction() throws IOException
+    {
+        return this.logicalFile.setTransaction( this.nextIndex(), this.transaction );
+    }
+
+    /**
+     * Benchmarks scanning all transactions of the logical file.
+     *
+     * @return The number of transactions scanned.
+     *
+     * @throws IOException if reading fails.
+     */
+    @Benchmark
+    @BenchmarkMode( Mode.AverageTime )
+    @OutputTimeUnit( TimeUnit.MILLISECONDS )
+    public int checksum() throws IOException
+    {
+        this.logicalFile.checksum();
+        return this.logicalFile.getChecksum().getTransactionCount();
+    }
+
+    private int nextIndex()
+    {
+        this.index = ( this.index + STEP ) % this.transactions;
+        return this.index;
+    }
+
+}
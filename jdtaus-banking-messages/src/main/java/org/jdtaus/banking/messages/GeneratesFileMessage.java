@@ -0,0 +1,98 @@
+/*
+ *  jDTAUS Banking Messages
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.messages;
+
+import java.util.Locale;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.text.Message;
+
+/**
+ * Message stating that a file is being generated.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+public final class GeneratesFileMessage extends Message
+{
+
+    /** Serial version UID for backwards compatibility with 1.17.x classes. */
+    private static final long serialVersionUID = -2807016349175436131L;
+
+    /** Empty array. */
+    private static final Object[] ARGUMENTS =
+    {
+    };
+
+    /** Creates a new {@code GeneratesFileMessage} instance. */
+    public GeneratesFileMessage()
+    {
+        super();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return An empty array, since the message has no arguments.
+     */
+    public Object[] getFormatArguments( final Locale locale )
+    {
+        return ARGUMENTS;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @return The corresponding text from the message's {@code ResourceBundle}
+     * <blockquote><pre>
+     * Generating file.
+     * </pre></blockquote>
+     */
+    public String getText( final Locale locale )
+    {
+        return this.getGeneratingFileMessage( locale );
+    }
+
+    //--Messages----------------------------------------------------------------
+
+// <editor-fold defaultstate="collapsed" desc=" Generated Code ">//GEN-BEGIN:jdtausMessages
+    // This section is managed by jdtaus-container-mojo.
+
+    /**
+     * Gets the text of message <code>generatingFile</code>.
+     * <blockquote><pre>Generiert Datei.</pre></blockquote>
+     * <blockquote><pre>Generating file.</pre></blockquote>
+     *
+     * @param locale The locale of the message instance to return.
+     *
+     * @return the text of message <code>generatingFile</code>.
+     */
+    private String getGeneratingFileMessage( final Locale locale )
+    {
+        return ContainerFactory.getContainer().
+            getMessage( this, "generatingFile", locale, null );
+
+    }
+
+// </editor-fold>//GEN-END:jdtausMessages
+
+    //----------------------------------------------------------------Messages--
+}
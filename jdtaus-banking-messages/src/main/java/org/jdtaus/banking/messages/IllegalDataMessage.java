@@ -136,6 +136,55 @@ public final class IllegalDataMessage extends Message
         this.assertValidType();
     }
 
+    /**
+     * Gets the constant of the field holding illegal data.
+     *
+     * @return The constant of the field holding illegal data.
+     *
+     * @see org.jdtaus.banking.dtaus.spi.Fields
+     * @since 1.17
+     */
+    public int getField()
+    {
+        return this.field;
+    }
+
+    /**
+     * Gets the constant for the type of the field holding illegal data.
+     *
+     * @return The constant for the type of the field holding illegal data.
+     *
+     * @since 1.17
+     */
+    public int getType()
+    {
+        return this.type;
+    }
+
+    /**
+     * Gets the absolute position of the field holding illegal data.
+     *
+     * @return The absolute position of the field holding illegal data.
+     *
+     * @since 1.17
+     */
+    public long getPosition()
+    {
+        return this.position;
+    }
+
+    /**
+     * Gets the illegal data.
+     *
+     * @return The illegal data or {@code null}.
+     *
+     * @since 1.17
+     */
+    public String getInvalidData()
+    {
+        return this.invalidData;
+    }
+
     /**
      * Checks a given integer to match one of the {@code TYPE_<i>XYZ</i>} constants.
      *
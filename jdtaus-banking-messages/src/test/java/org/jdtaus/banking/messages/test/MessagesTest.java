@@ -35,7 +35,9 @@ import org.jdtaus.banking.messages.BankleitzahlExpirationMessage;
 import org.jdtaus.banking.messages.BankleitzahlReplacementMessage;
 import org.jdtaus.banking.messages.ChecksumErrorMessage;
 import org.jdtaus.banking.messages.ChecksumsFileMessage;
+import org.jdtaus.banking.messages.ConvertsFileMessage;
 import org.jdtaus.banking.messages.CurrencyConstraintMessage;
+import org.jdtaus.banking.messages.GeneratesFileMessage;
 import org.jdtaus.banking.messages.IllegalAmountMessage;
 import org.jdtaus.banking.messages.IllegalCurrencyMessage;
 import org.jdtaus.banking.messages.IllegalDataMessage;
@@ -50,6 +52,7 @@ import org.jdtaus.banking.messages.ReadsTextschluesselMessage;
 import org.jdtaus.banking.messages.SearchesBankleitzahlInfosMessage;
 import org.jdtaus.banking.messages.SearchesCurrenciesMessage;
 import org.jdtaus.banking.messages.SearchesTextschluesselMessage;
+import org.jdtaus.banking.messages.SortsTransactionsMessage;
 import org.jdtaus.banking.messages.TextschluesselConstraintMessage;
 import org.jdtaus.banking.messages.UnknownBankleitzahlMessage;
 import org.jdtaus.banking.messages.UpdatesBankleitzahlenDateiMessage;
@@ -76,6 +79,7 @@ public class MessagesTest extends TestCase
         this.assertNotNull( new AnalysesFileMessage() );
         this.assertNotNull( new ChecksumErrorMessage( c1, c2, 0L ) );
         this.assertNotNull( new ChecksumsFileMessage() );
+        this.assertNotNull( new ConvertsFileMessage() );
         this.assertNotNull( new CurrencyConstraintMessage( "DEM", new Date() ) );
         this.assertNotNull( new IllegalAmountMessage( new BigInteger( "10" ) ) );
         this.assertNotNull( new IllegalCurrencyMessage( "DEM", new Date() ) );
@@ -98,6 +102,8 @@ public class MessagesTest extends TestCase
         this.assertNotNull( new SearchesTextschluesselMessage() );
         this.assertNotNull( new ReadsCurrenciesMessage() );
         this.assertNotNull( new ReadsTextschluesselMessage() );
+        this.assertNotNull( new SortsTransactionsMessage() );
+        this.assertNotNull( new GeneratesFileMessage() );
     }
 
     private void assertNotNull( final Message message )
@@ -0,0 +1,347 @@
+/*
+ *  jDTAUS Banking RI Async
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.async;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.jdtaus.banking.dtaus.PhysicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.io.FileOperations;
+
+/**
+ * Asynchronous facade of a {@code PhysicalFileFactory}.
+ * <p>Every method returns immediately with a {@code CompletableFuture} completed by a task run on the executor of the
+ * instance. Cancelling such a future using {@code cancel(true)} interrupts the thread running the task. The reference
+ * implementation stops scanning a file when interrupted so that cancelling a future releases the thread of the
+ * executor early. Cancelling a future using {@code cancel(false)} only prevents a task not yet started from being
+ * run.</p>
+ * <p><b>Note:</b><br/>
+ * This implementation is thread-safe. The physical files it provides are not.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see org.jdtaus.banking.dtaus.ri.zka.DefaultPhysicalFileFactory
+ * @since 1.17
+ */
+public class AsyncPhysicalFileFactory
+{
+
+    /** The {@code PhysicalFileFactory} of the instance. */
+    private final PhysicalFileFactory physicalFileFactory;
+
+    /** The executor of the instance. */
+    private final Executor executor;
+
+    /**
+     * Creates a new {@code AsyncPhysicalFileFactory} instance taking an executor.
+     * <p>The {@code PhysicalFileFactory} of the instance is looked up from the container.</p>
+     *
+     * @param executor The executor to run tasks with.
+     *
+     * @throws NullPointerException if {@code executor} is {@code null}.
+     */
+    public AsyncPhysicalFileFactory( final Executor executor )
+    {
+        this( (PhysicalFileFactory) ContainerFactory.getContainer().getObject( PhysicalFileFactory.class ), executor );
+    }
+
+    /**
+     * Creates a new {@code AsyncPhysicalFileFactory} instance taking a {@code PhysicalFileFactory} and an executor.
+     *
+     * @param physicalFileFactory The {@code PhysicalFileFactory} to delegate to.
+     * @param executor The executor to run tasks with.
+     *
+     * @throws NullPointerException if either {@code physicalFileFactory} or {@code executor} is {@code null}.
+     */
+    public AsyncPhysicalFileFactory( final PhysicalFileFactory physicalFileFactory, final Executor executor )
+    {
+        super();
+
+        if ( physicalFileFactory == null )
+        {
+            throw new NullPointerException( "physicalFileFactory" );
+        }
+        if ( executor == null )
+        {
+            throw new NullPointerException( "executor" );
+        }
+
+        this.physicalFileFactory = physicalFileFactory;
+        this.executor = executor;
+    }
+
+    /**
+     * Gets the {@code PhysicalFileFactory} of the instance.
+     *
+     * @return The {@code PhysicalFileFactory} the instance delegates to.
+     */
+    public PhysicalFileFactory getPhysicalFileFactory()
+    {
+        return this.physicalFileFactory;
+    }
+
+    /**
+     * Gets the executor of the instance.
+     *
+     * @return The executor the instance runs tasks with.
+     */
+    public Executor getExecutor()
+    {
+        return this.executor;
+    }
+
+    /**
+     * Analyses a file asynchronously.
+     *
+     * @param file The file to analyse.
+     *
+     * @return A future completed with the format of {@code file}, or exceptionally with the exception thrown by method
+     * {@link PhysicalFileFactory#analyse(File)}.
+     *
+     * @throws NullPointerException if {@code file} is {@code null}.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor does not accept the task.
+     */
+    public CompletableFuture<Integer> analyse( final File file )
+    {
+        if ( file == null )
+        {
+            throw new NullPointerException( "file" );
+        }
+
+        return this.submit( () -> this.getPhysicalFileFactory().analyse( file ) );
+    }
+
+    /**
+     * Analyses a file asynchronously.
+     *
+     * @param ops The file to analyse.
+     *
+     * @return A future completed with the format of {@code ops}, or exceptionally with the exception thrown by method
+     * {@link PhysicalFileFactory#analyse(FileOperations)}.
+     *
+     * @throws NullPointerException if {@code ops} is {@code null}.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor does not accept the task.
+     */
+    public CompletableFuture<Integer> analyse( final FileOperations ops )
+    {
+        if ( ops == null )
+        {
+            throw new NullPointerException( "ops" );
+        }
+
+        return this.submit( () -> this.getPhysicalFileFactory().analyse( ops ) );
+    }
+
+    /**
+     * Reads a physical file asynchronously.
+     *
+     * @param file The file to read.
+     *
+     * @return A future completed with the physical file read from {@code file}, or exceptionally with the exception
+     * thrown by method {@link PhysicalFileFactory#getPhysicalFile(File)}.
+     *
+     * @throws NullPointerException if {@code file} is {@code null}.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor does not accept the task.
+     */
+    public CompletableFuture<PhysicalFile> getPhysicalFile( final File file )
+    {
+        if ( file == null )
+        {
+            throw new NullPointerException( "file" );
+        }
+
+        return this.submit( () -> this.getPhysicalFileFactory().getPhysicalFile( file ) );
+    }
+
+    /**
+     * Reads a physical file asynchronously.
+     *
+     * @param file The file to read.
+     * @param properties The properties to configure the physical file with.
+     *
+     * @return A future completed with the physical file read from {@code file}, or exceptionally with the exception
+     * thrown by method {@link PhysicalFileFactory#getPhysicalFile(File, Properties)}.
+     *
+     * @throws NullPointerException if either {@code file} or {@code properties} is {@code null}.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor does not accept the task.
+     */
+    public CompletableFuture<PhysicalFile> getPhysicalFile( final File file, final Properties properties )
+    {
+        if ( file == null )
+        {
+            throw new NullPointerException( "file" );
+        }
+        if ( properties == null )
+        {
+            throw new NullPointerException( "properties" );
+        }
+
+        return this.submit( () -> this.getPhysicalFileFactory().getPhysicalFile( file, properties ) );
+    }
+
+    /**
+     * Reads a physical file asynchronously.
+     *
+     * @param ops The file to read.
+     *
+     * @return A future completed with the physical file read from {@code ops}, or exceptionally with the exception
+     * thrown by method {@link PhysicalFileFactory#getPhysicalFile(FileOperations)}.
+     *
+     * @throws NullPointerException if {@code ops} is {@code null}.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor does not accept the task.
+     */
+    public CompletableFuture<PhysicalFile> getPhysicalFile( final FileOperations ops )
+    {
+        if ( ops == null )
+        {
+            throw new NullPointerException( "ops" );
+        }
+
+        return this.submit( () -> this.getPhysicalFileFactory().getPhysicalFile( ops ) );
+    }
+
+    /**
+     * Reads a physical file asynchronously.
+     *
+     * @param ops The file to read.
+     * @param properties The properties to configure the physical file with.
+     *
+     * @return A future completed with the physical file read from {@code ops}, or exceptionally with the exception
+     * thrown by method {@link PhysicalFileFactory#getPhysicalFile(FileOperations, Properties)}.
+     *
+     * @throws NullPointerException if either {@code ops} or {@code properties} is {@code null}.
+     * @throws java.util.concurrent.RejectedExecutionException if the executor does not accept the task.
+     */
+    public CompletableFuture<PhysicalFile> getPhysicalFile( final FileOperations ops, final Properties properties )
+    {
+        if ( ops == null )
+        {
+            throw new NullPointerException( "ops" );
+        }
+        if ( properties == null )
+        {
+            throw new NullPointerException( "properties" );
+        }
+
+        return this.submit( () -> this.getPhysicalFileFactory().getPhysicalFile( ops, properties ) );
+    }
+
+    /**
+     * Runs a task on the executor of the instance.
+     *
+     * @param <T> The type of the result of the task.
+     * @param task The task to run.
+     *
+     * @return A future completed by {@code task}.
+     */
+    private <T> CompletableFuture<T> submit( final Callable<T> task )
+    {
+        final InterruptibleFuture<T> future = new InterruptibleFuture<T>( task );
+        this.getExecutor().execute( future );
+        return future;
+    }
+
+    /**
+     * {@code CompletableFuture} interrupting the thread running its task when cancelled.
+     *
+     * @param <T> The type of the result of the task.
+     */
+    private static final class InterruptibleFuture<T> extends CompletableFuture<T> implements Runnable
+    {
+
+        /** The task completing the future. */
+        private final Callable<T> task;
+
+        /** The thread running the task or {@code null}. */
+        private Thread runner;
+
+        /**
+         * Creates a new {@code InterruptibleFuture} instance taking a task.
+         *
+         * @param task The task completing the future.
+         */
+        InterruptibleFuture( final Callable<T> task )
+        {
+            super();
+            this.task = task;
+        }
+
+        public void run()
+        {
+            synchronized ( this )
+            {
+                if ( this.isDone() )
+                {
+                    return;
+                }
+
+                this.runner = Thread.currentThread();
+            }
+
+            try
+            {
+                this.complete( this.task.call() );
+            }
+            catch ( final Throwable t )
+            {
+                this.completeExceptionally( t );
+            }
+            finally
+            {
+                synchronized ( this )
+                {
+                    this.runner = null;
+                }
+
+                if ( this.isCancelled() )
+                {
+                    // Clears an interrupt not consumed by the task before returning the thread to the executor.
+                    Thread.interrupted();
+                }
+            }
+        }
+
+        public boolean cancel( final boolean mayInterruptIfRunning )
+        {
+            final boolean cancelled = super.cancel( mayInterruptIfRunning );
+
+            if ( cancelled && mayInterruptIfRunning )
+            {
+                synchronized ( this )
+                {
+                    if ( this.runner != null )
+                    {
+                        this.runner.interrupt();
+                    }
+                }
+            }
+
+            return cancelled;
+        }
+
+    }
+
+}
@@ -0,0 +1,383 @@
+/*
+ *  jDTAUS Banking RI Async
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.async;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.jdtaus.banking.dtaus.Checksum;
+import org.jdtaus.banking.dtaus.CorruptedException;
+import org.jdtaus.banking.dtaus.PhysicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFileException;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.io.FileOperations;
+import org.jdtaus.core.io.util.RandomAccessFileOperations;
+import org.jdtaus.core.io.util.ReadAheadFileOperations;
+
+/**
+ * Analyses batches of files concurrently.
+ * <p>Every file of a batch is analysed, read and verified by the {@code PhysicalFileFactory} of the instance. At most
+ * {@code parallelism} files are processed at the same time, each by a task run on the executor of the instance, so
+ * that no more than {@code parallelism} files are open at any time. Files are processed in descending order of their
+ * length so that the largest files are started first and no single large file is left to be processed after all
+ * others are done.</p>
+ * <p>Files are opened read-only. The result of each file is passed to a callback as soon as the file got processed.
+ * Calls to the callback are serialized so that the callback need not be thread-safe.</p>
+ * <p><b>Note:</b><br/>
+ * This implementation is thread-safe.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see BatchResult
+ * @since 1.17
+ */
+public class BatchAnalyser
+{
+
+    /** The {@code PhysicalFileFactory} of the instance. */
+    private final PhysicalFileFactory physicalFileFactory;
+
+    /** The executor of the instance. */
+    private final Executor executor;
+
+    /** The maximum number of files processed concurrently. */
+    private final int parallelism;
+
+    /**
+     * Creates a new {@code BatchAnalyser} instance taking an executor.
+     * <p>The {@code PhysicalFileFactory} of the instance is looked up from the container and the number of files
+     * processed concurrently is set to the number of processors available.</p>
+     *
+     * @param executor The executor to run tasks with.
+     *
+     * @throws NullPointerException if {@code executor} is {@code null}.
+     */
+    public BatchAnalyser( final Executor executor )
+    {
+        this( (PhysicalFileFactory) ContainerFactory.getContainer().getObject( PhysicalFileFactory.class ), executor,
+              Runtime.getRuntime().availableProcessors() );
+
+    }
+
+    /**
+     * Creates a new {@code BatchAnalyser} instance.
+     *
+     * @param physicalFileFactory The {@code PhysicalFileFactory} to read files with.
+     * @param executor The executor to run tasks with.
+     * @param parallelism The maximum number of files to process concurrently.
+     *
+     * @throws NullPointerException if either {@code physicalFileFactory} or {@code executor} is {@code null}.
+     * @throws IllegalArgumentException if {@code parallelism} is not positive.
+     */
+    public BatchAnalyser( final PhysicalFileFactory physicalFileFactory, final Executor executor,
+                          final int parallelism )
+    {
+        super();
+
+        if ( physicalFileFactory == null )
+        {
+            throw new NullPointerException( "physicalFileFactory" );
+        }
+        if ( executor == null )
+        {
+            throw new NullPointerException( "executor" );
+        }
+        if ( parallelism <= 0 )
+        {
+            throw new IllegalArgumentException( Integer.toString( parallelism ) );
+        }
+
+        this.physicalFileFactory = physicalFileFactory;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Gets the {@code PhysicalFileFactory} of the instance.
+     *
+     * @return The {@code PhysicalFileFactory} files are read with.
+     */
+    public PhysicalFileFactory getPhysicalFileFactory()
+    {
+        return this.physicalFileFactory;
+    }
+
+    /**
+     * Gets the executor of the instance.
+     *
+     * @return The executor the instance runs tasks with.
+     */
+    public Executor getExecutor()
+    {
+        return this.executor;
+    }
+
+    /**
+     * Gets the maximum number of files processed concurrently.
+     *
+     * @return The maximum number of files processed concurrently.
+     */
+    public int getParallelism()
+    {
+        return this.parallelism;
+    }
+
+    /**
+     * Analyses the files of a directory.
+     * <p>Sub-directories are not searched.</p>
+     *
+     * @param directory The directory holding the files to analyse.
+     * @param callback The callback to pass the result of each file to.
+     *
+     * @return A future completed when all files got processed, or exceptionally with the exception thrown by
+     * {@code callback}. Cancelling the future stops processing of any file not yet started.
+     *
+     * @throws NullPointerException if either {@code directory} or {@code callback} is {@code null}.
+     * @throws IOException if listing the files of {@code directory} fails.
+     * @throws RejectedExecutionException if the executor does not accept a task. Tasks already started stop without
+     * passing further results to {@code callback}.
+     */
+    public CompletableFuture<Void> analyse( final File directory, final Consumer<BatchResult> callback )
+        throws IOException
+    {
+        if ( directory == null )
+        {
+            throw new NullPointerException( "directory" );
+        }
+        if ( callback == null )
+        {
+            throw new NullPointerException( "callback" );
+        }
+
+        final File[] files = directory.listFiles( File::isFile );
+        if ( files == null )
+        {
+            throw new IOException( directory.getAbsolutePath() );
+        }
+
+        return this.submit( files, callback );
+    }
+
+    /**
+     * Analyses a collection of files.
+     *
+     * @param files The files to analyse.
+     * @param callback The callback to pass the result of each file to.
+     *
+     * @return A future completed when all files got processed, or exceptionally with the exception thrown by
+     * {@code callback}. Cancelling the future stops processing of any file not yet started.
+     *
+     * @throws NullPointerException if either {@code files} or {@code callback} is {@code null} or {@code files}
+     * holds {@code null} elements.
+     * @throws RejectedExecutionException if the executor does not accept a task. Tasks already started stop without
+     * passing further results to {@code callback}.
+     */
+    public CompletableFuture<Void> analyse( final Collection<File> files, final Consumer<BatchResult> callback )
+    {
+        if ( files == null )
+        {
+            throw new NullPointerException( "files" );
+        }
+        if ( callback == null )
+        {
+            throw new NullPointerException( "callback" );
+        }
+
+        final File[] array = files.toArray( new File[ files.size() ] );
+        for ( int i = array.length - 1; i >= 0; i-- )
+        {
+            if ( array[i] == null )
+            {
+                throw new NullPointerException( "files[" + i + "]" );
+            }
+        }
+
+        return this.submit( array, callback );
+    }
+
+    /**
+     * Analyses a single file.
+     * <p>The file is opened read-only, analysed, read and closed again. Reading the file verifies the checksums of all
+     * its logical files.</p>
+     *
+     * @param file The file to analyse.
+     *
+     * @return The result of analysing {@code file}. Any exception analysing {@code file} is reported by the result
+     * instead of being thrown.
+     *
+     * @throws NullPointerException if {@code file} is {@code null}.
+     */
+    public BatchResult analyse( final File file )
+    {
+        if ( file == null )
+        {
+            throw new NullPointerException( "file" );
+        }
+
+        final long start = System.currentTimeMillis();
+        final long length = file.length();
+        int format = 0;
+
+        try
+        {
+            final RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" );
+
+            try
+            {
+                final FileOperations ops =
+                    new ReadAheadFileOperations( new RandomAccessFileOperations( randomAccessFile ) );
+
+                format = this.getPhysicalFileFactory().analyse( ops );
+
+                final PhysicalFile physicalFile = this.getPhysicalFileFactory().getPhysicalFile( ops );
+                final Checksum[] checksums = new Checksum[ physicalFile.getLogicalFileCount() ];
+
+                for ( int i = 0; i < checksums.length; i++ )
+                {
+                    checksums[i] = physicalFile.getLogicalFile( i ).getChecksum();
+                }
+
+                return new BatchResult( file, length, format, checksums, null, null,
+                                        System.currentTimeMillis() - start );
+
+            }
+            finally
+            {
+                randomAccessFile.close();
+            }
+        }
+        catch ( final PhysicalFileException e )
+        {
+            return new BatchResult( file, length, format, null, e.getMessages(), e,
+                                    System.currentTimeMillis() - start );
+
+        }
+        catch ( final CorruptedException e )
+        {
+            return new BatchResult( file, length, format, null, null, e, System.currentTimeMillis() - start );
+        }
+        catch ( final IOException e )
+        {
+            return new BatchResult( file, length, format, null, null, e, System.currentTimeMillis() - start );
+        }
+        catch ( final RuntimeException e )
+        { // A file the implementation fails on must not abort the batch.
+            return new BatchResult( file, length, format, null, null, e, System.currentTimeMillis() - start );
+        }
+    }
+
+    /**
+     * Submits the tasks processing a batch of files.
+     *
+     * @param files The files to process.
+     * @param callback The callback to pass the result of each file to.
+     *
+     * @return A future completed when all files got processed.
+     */
+    private CompletableFuture<Void> submit( final File[] files, final Consumer<BatchResult> callback )
+    {
+        final long[] lengths = new long[ files.length ];
+        final Integer[] order = new Integer[ files.length ];
+
+        for ( int i = files.length - 1; i >= 0; i-- )
+        {
+            lengths[i] = files[i].length();
+            order[i] = Integer.valueOf( i );
+        }
+
+        // Largest files first.
+        Arrays.sort( order, ( o1, o2 ) -> Long.compare( lengths[o2.intValue()], lengths[o1.intValue()] ) );
+
+        final File[] queue = new File[ files.length ];
+        for ( int i = order.length - 1; i >= 0; i-- )
+        {
+            queue[i] = files[order[i].intValue()];
+        }
+
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        final AtomicInteger next = new AtomicInteger();
+        final int workers = Math.min( this.getParallelism(), queue.length );
+        final AtomicInteger running = new AtomicInteger( workers );
+        final Object callbackLock = new Object();
+
+        if ( workers == 0 )
+        {
+            future.complete( null );
+        }
+
+        final Runnable worker = () ->
+        {
+            try
+            {
+                for ( int index = next.getAndIncrement(); index < queue.length && !future.isDone();
+                      index = next.getAndIncrement() )
+                {
+                    final BatchResult result = this.analyse( queue[index] );
+
+                    synchronized ( callbackLock )
+                    {
+                        if ( !future.isDone() )
+                        {
+                            callback.accept( result );
+                        }
+                    }
+                }
+            }
+            catch ( final Throwable t )
+            {
+                future.completeExceptionally( t );
+            }
+            finally
+            {
+                if ( running.decrementAndGet() == 0 )
+                {
+                    future.complete( null );
+                }
+            }
+        };
+
+        for ( int i = workers; i > 0; i-- )
+        {
+            try
+            {
+                this.getExecutor().execute( worker );
+            }
+            catch ( final RejectedExecutionException e )
+            { // Stops the workers already started from calling the callback before the future gets lost.
+                future.completeExceptionally( e );
+                running.addAndGet( -i );
+                throw e;
+            }
+        }
+
+        return future;
+    }
+
+}
@@ -0,0 +1,207 @@
+/*
+ *  jDTAUS Banking RI Async
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.async;
+
+import java.io.File;
+import org.jdtaus.banking.dtaus.Checksum;
+import org.jdtaus.core.text.Message;
+
+/**
+ * Result of analysing a single file of a batch.
+ * <p>A result either holds the format, the number of logical files and the checksums of a valid file, or the messages
+ * and the exception describing why the file could not be read.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see BatchAnalyser
+ * @since 1.17
+ */
+public final class BatchResult
+{
+
+    /** Empty array of checksums. */
+    private static final Checksum[] NO_CHECKSUMS =
+    {
+    };
+
+    /** Empty array of messages. */
+    private static final Message[] NO_MESSAGES =
+    {
+    };
+
+    /** The file of the result. */
+    private final File file;
+
+    /** The length of the file in bytes. */
+    private final long length;
+
+    /** The format of the file or {@code 0}. */
+    private final int format;
+
+    /** The checksums of the logical files of the file. */
+    private final Checksum[] checksums;
+
+    /** The messages describing the errors of the file. */
+    private final Message[] messages;
+
+    /** The exception thrown reading the file or {@code null}. */
+    private final Exception exception;
+
+    /** The time spent analysing the file in milliseconds. */
+    private final long millis;
+
+    /**
+     * Creates a new {@code BatchResult} instance.
+     *
+     * @param file The file of the result.
+     * @param length The length of {@code file} in bytes.
+     * @param format The format of {@code file} or {@code 0}, if the format could not be determined.
+     * @param checksums The checksums of the logical files of {@code file} or {@code null}.
+     * @param messages The messages describing the errors of {@code file} or {@code null}.
+     * @param exception The exception thrown reading {@code file} or {@code null}.
+     * @param millis The time spent analysing {@code file} in milliseconds.
+     */
+    BatchResult( final File file, final long length, final int format, final Checksum[] checksums,
+                 final Message[] messages, final Exception exception, final long millis )
+    {
+        super();
+        this.file = file;
+        this.length = length;
+        this.format = format;
+        this.checksums = checksums != null ? checksums : NO_CHECKSUMS;
+        this.messages = messages != null ? messages : NO_MESSAGES;
+        this.exception = exception;
+        this.millis = millis;
+    }
+
+    /**
+     * Gets the file of the result.
+     *
+     * @return The file of the result.
+     */
+    public File getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * Gets the length of the file of the result.
+     *
+     * @return The length of the file in bytes.
+     */
+    public long getLength()
+    {
+        return this.length;
+    }
+
+    /**
+     * Gets the format of the file of the result.
+     *
+     * @return Either {@code PhysicalFileFactory.FORMAT_DISK}, {@code PhysicalFileFactory.FORMAT_TAPE} or {@code 0}, if
+     * the format of the file could not be determined.
+     */
+    public int getFormat()
+    {
+        return this.format;
+    }
+
+    /**
+     * Gets the number of logical files of the file of the result.
+     *
+     * @return The number of logical files of the file or {@code 0}, if the file could not be read.
+     */
+    public int getLogicalFileCount()
+    {
+        return this.checksums.length;
+    }
+
+    /**
+     * Gets the checksums of the logical files of the file of the result.
+     *
+     * @return The checksums of the logical files of the file or an empty array, if the file could not be read.
+     */
+    public Checksum[] getChecksums()
+    {
+        final Checksum[] ret = new Checksum[ this.checksums.length ];
+        for ( int i = ret.length - 1; i >= 0; i-- )
+        {
+            ret[i] = (Checksum) this.checksums[i].clone();
+        }
+
+        return ret;
+    }
+
+    /**
+     * Gets the messages describing the errors of the file of the result.
+     *
+     * @return The messages describing the errors of the file or an empty array, if the file holds no errors.
+     */
+    public Message[] getMessages()
+    {
+        return (Message[]) this.messages.clone();
+    }
+
+    /**
+     * Gets the exception thrown reading the file of the result.
+     *
+     * @return The exception thrown reading the file or {@code null}, if the file got read successfully.
+     */
+    public Exception getException()
+    {
+        return this.exception;
+    }
+
+    /**
+     * Gets the time spent analysing the file of the result.
+     *
+     * @return The time spent analysing the file in milliseconds.
+     */
+    public long getMillis()
+    {
+        return this.millis;
+    }
+
+    /**
+     * Flag indicating the file of the result got read successfully.
+     *
+     * @return {@code true}, if the file got read successfully; {@code false}, if the file holds errors or reading
+     * failed.
+     */
+    public boolean isValid()
+    {
+        return this.exception == null;
+    }
+
+    /**
+     * Returns a string representation of the object.
+     *
+     * @return A string representation of the object.
+     */
+    public String toString()
+    {
+        return super.toString() + "{file=" + this.file + ", length=" + this.length + ", format=" + this.format
+               + ", logicalFileCount=" + this.checksums.length + ", exception=" + this.exception + ", millis="
+               + this.millis + '}';
+
+    }
+
+}
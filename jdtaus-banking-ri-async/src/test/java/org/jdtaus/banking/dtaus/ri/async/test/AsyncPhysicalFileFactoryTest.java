@@ -0,0 +1,377 @@
+/*
+ *  jDTAUS Banking RI Async
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.async.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.jdtaus.banking.dtaus.PhysicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFileException;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
+import org.jdtaus.banking.dtaus.ri.async.AsyncPhysicalFileFactory;
+import org.jdtaus.banking.dtaus.ri.zka.DTAUSGenerator;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.io.FileOperations;
+import org.jdtaus.core.io.util.MemoryFileOperations;
+
+/**
+ * Tests the {@link AsyncPhysicalFileFactory} implementation.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+public class AsyncPhysicalFileFactoryTest extends TestCase
+{
+
+    /** Executor of the tests. */
+    private ExecutorService executor;
+
+    /** {@code FileOperations} blocking reads once a given number of reads got performed. */
+    private static final class BlockingFileOperations implements FileOperations
+    {
+
+        /** The file to delegate to. */
+        private final FileOperations delegate;
+
+        /** Number of reads to perform before blocking. */
+        private final int blockAfter;
+
+        /** Counted down when reads get blocked. */
+        final CountDownLatch blocked = new CountDownLatch( 1 );
+
+        /** Counted down to resume blocked reads. */
+        final CountDownLatch resume = new CountDownLatch( 1 );
+
+        /** Number of reads performed. */
+        final AtomicInteger reads = new AtomicInteger();
+
+        BlockingFileOperations( final FileOperations delegate, final int blockAfter )
+        {
+            super();
+            this.delegate = delegate;
+            this.blockAfter = blockAfter;
+        }
+
+        public long getLength() throws IOException
+        {
+            return this.delegate.getLength();
+        }
+
+        public void setLength( final long newLength ) throws IOException
+        {
+            this.delegate.setLength( newLength );
+        }
+
+        public long getFilePointer() throws IOException
+        {
+            return this.delegate.getFilePointer();
+        }
+
+        public void setFilePointer( final long pos ) throws IOException
+        {
+            this.delegate.setFilePointer( pos );
+        }
+
+        public void write( final byte[] buf, final int off, final int len ) throws IOException
+        {
+            this.delegate.write( buf, off, len );
+        }
+
+        public int read( final byte[] buf, final int off, final int len ) throws IOException
+        {
+            if ( this.reads.incrementAndGet() == this.blockAfter )
+            {
+                this.blocked.countDown();
+
+                try
+                {
+                    this.resume.await( 10L, TimeUnit.SECONDS );
+                }
+                catch ( final InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            return this.delegate.read( buf, off, len );
+        }
+
+        public void read( final OutputStream out ) throws IOException
+        {
+            this.delegate.read( out );
+        }
+
+        public void write( final InputStream in ) throws IOException
+        {
+            this.delegate.write( in );
+        }
+
+        public void close() throws IOException
+        {
+            this.delegate.close();
+        }
+
+    }
+
+    /** {@code PhysicalFileFactory} blocking reads of files until resumed or interrupted. */
+    private static final class BlockingPhysicalFileFactory implements PhysicalFileFactory
+    {
+
+        /** The factory to delegate to. */
+        private final PhysicalFileFactory delegate =
+            (PhysicalFileFactory) ContainerFactory.getContainer().getObject( PhysicalFileFactory.class );
+
+        /** Counted down when reading a file got blocked. */
+        final CountDownLatch blocked = new CountDownLatch( 1 );
+
+        /** Counted down to resume blocked reads. */
+        final CountDownLatch resume = new CountDownLatch( 1 );
+
+        private void block()
+        {
+            this.blocked.countDown();
+
+            try
+            {
+                this.resume.await( 10L, TimeUnit.SECONDS );
+            }
+            catch ( final InterruptedException e )
+            {
+                // Keeps the interrupt for the delegate to stop its scan with.
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        public PhysicalFile createPhysicalFile( final File file, final int format ) throws IOException
+        {
+            return this.delegate.createPhysicalFile( file, format );
+        }
+
+        public PhysicalFile createPhysicalFile( final File file, final int format, final Properties properties )
+            throws IOException
+        {
+            return this.delegate.createPhysicalFile( file, format, properties );
+        }
+
+        public PhysicalFile createPhysicalFile( final FileOperations ops, final int format ) throws IOException
+        {
+            return this.delegate.createPhysicalFile( ops, format );
+        }
+
+        public PhysicalFile createPhysicalFile( final FileOperations ops, final int format,
+                                                final Properties properties ) throws IOException
+        {
+            return this.delegate.createPhysicalFile( ops, format, properties );
+        }
+
+        public int analyse( final File file ) throws PhysicalFileException, IOException
+        {
+            return this.delegate.analyse( file );
+        }
+
+        public int analyse( final FileOperations ops ) throws PhysicalFileException, IOException
+        {
+            return this.delegate.analyse( ops );
+        }
+
+        public PhysicalFile getPhysicalFile( final File file ) throws PhysicalFileException, IOException
+        {
+            this.block();
+            return this.delegate.getPhysicalFile( file );
+        }
+
+        public PhysicalFile getPhysicalFile( final File file, final Properties properties )
+            throws PhysicalFileException, IOException
+        {
+            this.block();
+            return this.delegate.getPhysicalFile( file, properties );
+        }
+
+        public PhysicalFile getPhysicalFile( final FileOperations ops ) throws PhysicalFileException, IOException
+        {
+            return this.delegate.getPhysicalFile( ops );
+        }
+
+        public PhysicalFile getPhysicalFile( final FileOperations ops, final Properties properties )
+            throws PhysicalFileException, IOException
+        {
+            return this.delegate.getPhysicalFile( ops, properties );
+        }
+
+    }
+
+    private static MemoryFileOperations createFile( final int transactions ) throws IOException
+    {
+        final MemoryFileOperations ops = new MemoryFileOperations();
+        final DTAUSGenerator generator = new DTAUSGenerator();
+        generator.setSeed( 1L );
+        generator.setFormat( PhysicalFileFactory.FORMAT_DISK );
+        generator.setLogicalFileCount( 1 );
+        generator.setTransactionCount( transactions );
+        generator.generate( ops );
+        return ops;
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    protected void tearDown() throws Exception
+    {
+        this.executor.shutdownNow();
+        super.tearDown();
+    }
+
+    public void testNullArguments() throws Exception
+    {
+        final AsyncPhysicalFileFactory factory = new AsyncPhysicalFileFactory( this.executor );
+
+        try
+        {
+            factory.analyse( (FileOperations) null );
+            Assert.fail();
+        }
+        catch ( final NullPointerException e )
+        {
+            Assert.assertNotNull( e.getMessage() );
+        }
+
+        try
+        {
+            factory.getPhysicalFile( new MemoryFileOperations(), null );
+            Assert.fail();
+        }
+        catch ( final NullPointerException e )
+        {
+            Assert.assertNotNull( e.getMessage() );
+        }
+    }
+
+    public void testGetPhysicalFile() throws Exception
+    {
+        final AsyncPhysicalFileFactory factory = new AsyncPhysicalFileFactory( this.executor );
+        final MemoryFileOperations ops = createFile( 10 );
+
+        Assert.assertEquals( PhysicalFileFactory.FORMAT_DISK,
+                             factory.analyse( ops ).get( 10L, TimeUnit.SECONDS ).intValue() );
+
+        final PhysicalFile file = factory.getPhysicalFile( ops ).get( 10L, TimeUnit.SECONDS );
+        Assert.assertEquals( 1, file.getLogicalFileCount() );
+        Assert.assertEquals( 10, file.getLogicalFile( 0 ).getChecksum().getTransactionCount() );
+    }
+
+    public void testCancel() throws Exception
+    {
+        final AsyncPhysicalFileFactory factory = new AsyncPhysicalFileFactory( this.executor );
+        final BlockingFileOperations ops = new BlockingFileOperations( createFile( 1000 ), 100 );
+        final CompletableFuture<PhysicalFile> future = factory.getPhysicalFile( ops );
+
+        Assert.assertTrue( ops.blocked.await( 10L, TimeUnit.SECONDS ) );
+        Assert.assertTrue( future.cancel( true ) );
+        ops.resume.countDown();
+
+        try
+        {
+            future.get();
+            Assert.fail();
+        }
+        catch ( final CancellationException e )
+        {
+            Assert.assertTrue( future.isCancelled() );
+        }
+
+        // The scan stops at the next record so that the thread of the executor becomes available again.
+        final CompletableFuture<Integer> next = factory.analyse( createFile( 1 ) );
+        Assert.assertEquals( PhysicalFileFactory.FORMAT_DISK, next.get( 10L, TimeUnit.SECONDS ).intValue() );
+        Assert.assertTrue( ops.reads.get() < 1000 );
+    }
+
+    public void testCancelFile() throws Exception
+    {
+        final BlockingPhysicalFileFactory blockingFactory = new BlockingPhysicalFileFactory();
+        final AsyncPhysicalFileFactory factory = new AsyncPhysicalFileFactory( blockingFactory, this.executor );
+        final File file = File.createTempFile( "jdtaus", ".dta" );
+
+        try
+        {
+            final OutputStream out = new FileOutputStream( file );
+            try
+            {
+                out.write( createFile( 1000 ).getData() );
+            }
+            finally
+            {
+                out.close();
+            }
+
+            final CompletableFuture<PhysicalFile> future = factory.getPhysicalFile( file );
+            Assert.assertTrue( blockingFactory.blocked.await( 10L, TimeUnit.SECONDS ) );
+            Assert.assertTrue( future.cancel( true ) );
+
+            // Waits for the cancelled task to release the thread of the executor.
+            Assert.assertEquals( PhysicalFileFactory.FORMAT_DISK,
+                                 factory.analyse( file ).get( 10L, TimeUnit.SECONDS ).intValue() );
+
+            // The file opened by the cancelled task got closed so that it can be opened again and deleted.
+            blockingFactory.resume.countDown();
+            final PhysicalFile reopened = factory.getPhysicalFile( file ).get( 10L, TimeUnit.SECONDS );
+            Assert.assertEquals( 1000, reopened.getLogicalFile( 0 ).getChecksum().getTransactionCount() );
+            reopened.commit();
+            Assert.assertTrue( file.delete() );
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    public void testExceptionalCompletion() throws Exception
+    {
+        final AsyncPhysicalFileFactory factory = new AsyncPhysicalFileFactory( this.executor );
+        final MemoryFileOperations ops = new MemoryFileOperations( new byte[ 10 ] );
+
+        try
+        {
+            factory.getPhysicalFile( ops ).get( 10L, TimeUnit.SECONDS );
+            Assert.fail();
+        }
+        catch ( final ExecutionException e )
+        {
+            Assert.assertNotNull( e.getCause() );
+        }
+    }
+
+}
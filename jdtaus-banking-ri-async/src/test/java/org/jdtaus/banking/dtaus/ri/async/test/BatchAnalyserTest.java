@@ -0,0 +1,224 @@
+/*
+ *  jDTAUS Banking RI Async
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.async.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
+import org.jdtaus.banking.dtaus.ri.async.BatchAnalyser;
+import org.jdtaus.banking.dtaus.ri.async.BatchResult;
+import org.jdtaus.banking.dtaus.ri.zka.DTAUSGenerator;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.io.util.MemoryFileOperations;
+
+/**
+ * Tests the {@link BatchAnalyser} implementation.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+public class BatchAnalyserTest extends TestCase
+{
+
+    /** Executor of the tests. */
+    private ExecutorService executor;
+
+    /** Files of the tests. */
+    private final List<File> files = new ArrayList<File>();
+
+    private static PhysicalFileFactory createFailingFactory()
+    {
+        return (PhysicalFileFactory) Proxy.newProxyInstance(
+            BatchAnalyserTest.class.getClassLoader(), new Class<?>[]
+            {
+                PhysicalFileFactory.class
+            }, ( proxy, method, args ) ->
+            {
+                throw new IllegalStateException( method.getName() );
+            } );
+    }
+
+    private File createFile( final int logicalFiles, final int transactions ) throws IOException
+    {
+        final MemoryFileOperations ops = new MemoryFileOperations();
+        final DTAUSGenerator generator = new DTAUSGenerator();
+        generator.setSeed( 1L );
+        generator.setFormat( PhysicalFileFactory.FORMAT_DISK );
+        generator.setLogicalFileCount( logicalFiles );
+        generator.setTransactionCount( transactions );
+        generator.generate( ops );
+        return this.createFile( ops.getData() );
+    }
+
+    private File createFile( final byte[] data ) throws IOException
+    {
+        final File file = File.createTempFile( "jdtaus", ".dta" );
+        this.files.add( file );
+
+        final OutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( data );
+        }
+        finally
+        {
+            out.close();
+        }
+
+        return file;
+    }
+
+    protected void setUp() throws Exception
+    {
+        super.setUp();
+        this.executor = Executors.newFixedThreadPool( 2 );
+    }
+
+    protected void tearDown() throws Exception
+    {
+        this.executor.shutdownNow();
+        for ( final File file : this.files )
+        {
+            file.delete();
+        }
+
+        super.tearDown();
+    }
+
+    public void testAnalyse() throws Exception
+    {
+        final BatchAnalyser analyser = new BatchAnalyser( this.executor );
+        final File small = this.createFile( 1, 1 );
+        final File large = this.createFile( 2, 100 );
+        final File corrupted = this.createFile( new byte[ 10 ] );
+        final List<BatchResult> results = new ArrayList<BatchResult>();
+
+        analyser.analyse( Arrays.asList( small, large, corrupted ), results::add ).get( 10L, TimeUnit.SECONDS );
+        Assert.assertEquals( 3, results.size() );
+
+        for ( final BatchResult result : results )
+        {
+            if ( result.getFile().equals( large ) )
+            {
+                Assert.assertTrue( result.isValid() );
+                Assert.assertEquals( PhysicalFileFactory.FORMAT_DISK, result.getFormat() );
+                Assert.assertEquals( 2, result.getLogicalFileCount() );
+                Assert.assertEquals( 100, result.getChecksums()[1].getTransactionCount() );
+            }
+            else if ( result.getFile().equals( small ) )
+            {
+                Assert.assertTrue( result.isValid() );
+                Assert.assertEquals( 1, result.getLogicalFileCount() );
+            }
+            else
+            {
+                Assert.assertFalse( result.isValid() );
+                Assert.assertNotNull( result.getException() );
+                Assert.assertEquals( 0, result.getLogicalFileCount() );
+            }
+        }
+    }
+
+    public void testLargestFirst() throws Exception
+    {
+        final BatchAnalyser analyser = new BatchAnalyser(
+            (PhysicalFileFactory) ContainerFactory.getContainer().getObject( PhysicalFileFactory.class ),
+            this.executor, 1 );
+
+        final File small = this.createFile( 1, 1 );
+        final File medium = this.createFile( 1, 10 );
+        final File large = this.createFile( 1, 100 );
+        final List<File> order = new ArrayList<File>();
+
+        analyser.analyse( Arrays.asList( small, large, medium ), r -> order.add( r.getFile() ) ).
+            get( 10L, TimeUnit.SECONDS );
+
+        Assert.assertEquals( Arrays.asList( large, medium, small ), order );
+    }
+
+    public void testRuntimeException() throws Exception
+    {
+        final BatchAnalyser analyser = new BatchAnalyser( createFailingFactory(), this.executor, 2 );
+        final List<BatchResult> results = new ArrayList<BatchResult>();
+
+        final List<File> files = Arrays.asList( this.createFile( new byte[ 10 ] ), this.createFile( new byte[ 20 ] ) );
+
+        analyser.analyse( files, results::add ).get( 10L, TimeUnit.SECONDS );
+
+        Assert.assertEquals( 2, results.size() );
+
+        for ( final BatchResult result : results )
+        {
+            Assert.assertFalse( result.isValid() );
+            Assert.assertTrue( result.getException() instanceof IllegalStateException );
+        }
+    }
+
+    public void testRejectedExecution() throws Exception
+    {
+        final List<Runnable> accepted = new ArrayList<Runnable>();
+        final BatchAnalyser analyser = new BatchAnalyser( createFailingFactory(), command ->
+        {
+            if ( !accepted.isEmpty() )
+            {
+                throw new RejectedExecutionException();
+            }
+
+            accepted.add( command );
+        }, 2 );
+
+        final List<BatchResult> results = new ArrayList<BatchResult>();
+        final List<File> files = Arrays.asList( this.createFile( new byte[ 10 ] ), this.createFile( new byte[ 20 ] ) );
+
+        try
+        {
+            analyser.analyse( files, results::add );
+            Assert.fail();
+        }
+        catch ( final RejectedExecutionException e )
+        {
+            Assert.assertEquals( 1, accepted.size() );
+        }
+
+        // The task accepted before the executor rejected the second one must not call the callback.
+        accepted.get( 0 ).run();
+        Assert.assertTrue( results.isEmpty() );
+    }
+
+    public void testEmptyBatch() throws Exception
+    {
+        final BatchAnalyser analyser = new BatchAnalyser( this.executor );
+        Assert.assertTrue( analyser.analyse( new ArrayList<File>(), r -> Assert.fail() ).isDone() );
+    }
+
+}
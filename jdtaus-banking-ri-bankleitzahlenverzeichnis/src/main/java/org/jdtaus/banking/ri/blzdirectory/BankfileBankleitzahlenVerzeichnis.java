@@ -20,19 +20,20 @@
  */
 package org.jdtaus.banking.ri.blzdirectory;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
 import java.text.DateFormat;
-import java.text.DecimalFormat;
-import java.text.NumberFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.Locale;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
+import java.util.NoSuchElementException;
 import org.jdtaus.banking.Bankleitzahl;
 import org.jdtaus.banking.BankleitzahlExpirationException;
 import org.jdtaus.banking.BankleitzahlInfo;
@@ -40,6 +41,9 @@ import org.jdtaus.banking.BankleitzahlenVerzeichnis;
 import org.jdtaus.banking.messages.OutdatedBankleitzahlenVerzeichnisMessage;
 import org.jdtaus.banking.messages.ReadsBankleitzahlenDateiMessage;
 import org.jdtaus.banking.messages.SearchesBankleitzahlInfosMessage;
+import org.jdtaus.banking.spi.OperationEvents;
+import org.jdtaus.banking.spi.OperationRecorder;
+import org.jdtaus.banking.spi.ProgressThrottle;
 import org.jdtaus.banking.util.BankleitzahlenDatei;
 import org.jdtaus.core.container.ContainerFactory;
 import org.jdtaus.core.container.PropertyException;
@@ -54,6 +58,10 @@ import org.jdtaus.core.text.spi.ApplicationLogger;
  * {@code BankleitzahlenVerzeichnis} implementation backed by bank files.
  * <p>This implementation uses bank file resources provided by any available {@link BankfileProvider}
  * implementation.</p>
+ * <p><b>Note:</b><br/>
+ * This implementation is thread-safe. Lookups read an immutable state without locking. Modified bank files are
+ * loaded by a background thread and replace the current state once completely loaded so that lookups never wait for
+ * a reload.</p>
  *
  * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
  * @version $JDTAUS$
@@ -61,30 +69,27 @@ import org.jdtaus.core.text.spi.ApplicationLogger;
 public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeichnis
 {
 
-    /** Flag indicating that initialization has been performed. */
-    private boolean initialized;
+    /** State of the instance or {@code null}, if the instance has not been initialized. */
+    private volatile Snapshot snapshot;
 
-    /** {@code BankleitzahlenDatei} delegate. */
-    private BankleitzahlenDatei bankFile;
+    /** Timestamp providers got checked for modifications. */
+    private volatile long lastModificationCheck = System.currentTimeMillis();
 
-    /** Date of expiration. */
-    private Date dateOfExpiration;
+    /** Lock guarding the start of background reloads. */
+    private final Object refreshLock = new Object();
 
-    /** Timestamp providers got checked for modifications. */
-    private long lastModificationCheck = System.currentTimeMillis();
+    /** Flag indicating a background reload is running. */
+    private boolean refreshing;
 
     /** Number of milliseconds to pass before providers are checked for modifications. */
     private Long reloadIntervalMillis;
 
-    /** Provider checked for modifications. */
-    private BankfileProvider provider;
-
-    /** Last modification of the provider checked for modifications. */
-    private long lastModifiedMillis;
-
     /** Number of bank codes for which progress monitoring gets enabled. */
     private Long monitoringThreshold;
 
+    /** Directory to keep binary snapshots of the merged bank files in. */
+    private String snapshotDirectory;
+
     /**
      * Creates a new {@code BankfileBankleitzahlenVerzeichnis} instance taking the number of milliseconds to pass before
      * resources are checked for modifications and the number of bank codes for which progress monitoring gets enabled.
@@ -108,7 +113,7 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
     /**
      * Gets the number of milliseconds to pass before providers are checked for modifications.
      *
-     * @return The number of milliseconds to pass before providers are checked for modifications.
+     * @return The number of milliseconds to pass before providers are checked for modifications. Must be positive.
      */
     public long getReloadIntervalMillis()
     {
@@ -135,11 +140,34 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
         return this.monitoringThreshold.longValue();
     }
 
+    /**
+     * Gets the directory binary snapshots of the merged bank files are kept in.
+     * <p>Merging the bank files of a provider means parsing every file and applying each update file to the records
+     * parsed so far. When a snapshot directory is configured, the result is written to a snapshot file in that
+     * directory, and subsequent loads of the same provider state read that file instead. A snapshot is used only if
+     * it got written for the same bank files, formats and dates of validity and expiration and the same last
+     * modification of the provider.</p>
+     *
+     * @return The directory binary snapshots are kept in or {@code null}, if no snapshots are used.
+     *
+     * @since 1.17
+     */
+    public File getSnapshotDirectory()
+    {
+        if ( this.snapshotDirectory == null )
+        {
+            this.snapshotDirectory = this.getDefaultSnapshotDirectory();
+        }
+
+        return this.snapshotDirectory != null && this.snapshotDirectory.trim().length() > 0
+               ? new File( this.snapshotDirectory.trim() )
+               : null;
+
+    }
+
     public Date getDateOfExpiration()
     {
-        this.assertValidProperties();
-        this.assertInitialized();
-        return (Date) this.dateOfExpiration.clone();
+        return (Date) this.getSnapshot().dateOfExpiration.clone();
     }
 
     public BankleitzahlInfo getHeadOffice( final Bankleitzahl bankCode ) throws BankleitzahlExpirationException
@@ -149,21 +177,26 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
             throw new NullPointerException( "bankCode" );
         }
 
-        this.assertValidProperties();
-        this.assertInitialized();
+        final Snapshot current = this.getSnapshot();
 
-        BankleitzahlInfo headOffice = this.bankFile.getHeadOfficeRecord( bankCode );
+        if ( current.bankFile == null )
+        {
+            return null;
+        }
+
+        BankleitzahlInfo headOffice = current.bankFile.getHeadOfficeRecord( bankCode );
 
         if ( headOffice == null )
         {
-            final BankleitzahlInfo deletedHeadOfficeRecord = this.bankFile.getDeletedHeadOfficeRecord( bankCode );
-            final BankleitzahlInfo replacementRecord = this.findReplacementBankeitzahlInfo( deletedHeadOfficeRecord );
+            final BankleitzahlInfo replacementRecord = current.replacementIndex.getReplacement( bankCode );
 
             if ( replacementRecord != null
                      && ( replacementRecord.getDeletionDate() == null
-                          || replacementRecord.getDeletionDate().before( this.getDateOfExpiration() ) ) )
+                          || replacementRecord.getDeletionDate().before( current.dateOfExpiration ) ) )
             {
-                throw new BankleitzahlExpirationException( deletedHeadOfficeRecord, replacementRecord );
+                throw new BankleitzahlExpirationException(
+                    current.replacementIndex.getDeletedHeadOffice( bankCode ), replacementRecord );
+
             }
         }
 
@@ -177,21 +210,26 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
             throw new NullPointerException( "bankCode" );
         }
 
-        this.assertValidProperties();
-        this.assertInitialized();
+        final Snapshot current = this.getSnapshot();
 
-        final BankleitzahlInfo[] branchOfficeRecords = this.bankFile.getBranchOfficeRecords( bankCode );
+        if ( current.bankFile == null )
+        {
+            return new BankleitzahlInfo[ 0 ];
+        }
+
+        final BankleitzahlInfo[] branchOfficeRecords = current.bankFile.getBranchOfficeRecords( bankCode );
 
         if ( branchOfficeRecords.length == 0 )
         {
-            final BankleitzahlInfo deletedHeadOfficeRecord = this.bankFile.getDeletedHeadOfficeRecord( bankCode );
-            final BankleitzahlInfo replacementRecord = this.findReplacementBankeitzahlInfo( deletedHeadOfficeRecord );
+            final BankleitzahlInfo replacementRecord = current.replacementIndex.getReplacement( bankCode );
 
             if ( replacementRecord != null
                      && ( replacementRecord.getDeletionDate() == null
-                          || replacementRecord.getDeletionDate().before( this.getDateOfExpiration() ) ) )
+                          || replacementRecord.getDeletionDate().before( current.dateOfExpiration ) ) )
             {
-                throw new BankleitzahlExpirationException( deletedHeadOfficeRecord, replacementRecord );
+                throw new BankleitzahlExpirationException(
+                    current.replacementIndex.getDeletedHeadOffice( bankCode ), replacementRecord );
+
             }
         }
 
@@ -209,75 +247,59 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
     public BankleitzahlInfo[] searchBankleitzahlInfos( final String name, final String postalCode, final String city,
                                                        final Boolean headOffices, final Boolean branchOffices )
     {
-        this.assertValidProperties();
-        this.assertInitialized();
-
-        final BankleitzahlInfo[] records =
-            this.bankFile == null ? new BankleitzahlInfo[ 0 ] : this.bankFile.getRecords();
-
-        final Collection col = new ArrayList( records.length );
+        final SearchIndex index = this.getSnapshot().searchIndex;
+        final Collection col = new ArrayList();
 
-        if ( records.length > 0 )
+        if ( index != null )
         {
-            final Task task = new Task();
-            task.setCancelable( true );
-            task.setDescription( new SearchesBankleitzahlInfosMessage() );
-            task.setIndeterminate( false );
-            task.setMinimum( 0 );
-            task.setMaximum( records.length - 1 );
-            task.setProgress( 0 );
+            final BankleitzahlInfo[] records = index.getRecords();
+            final SearchIndex.Query query =
+                index.createQuery( name, postalCode, city, headOffices, branchOffices );
 
-            try
+            final int candidateCount = query.getCandidateCount();
+
+            if ( candidateCount > 0 )
             {
-                if ( task.getMaximum() > this.getMonitoringThreshold() )
+                final Task task = new Task();
+                task.setCancelable( true );
+                task.setDescription( new SearchesBankleitzahlInfosMessage() );
+                task.setIndeterminate( false );
+                task.setMinimum( 0 );
+                task.setMaximum( candidateCount - 1 );
+                task.setProgress( 0 );
+
+                final boolean monitoring = task.getMaximum() > this.getMonitoringThreshold();
+                final ProgressThrottle throttle = new ProgressThrottle( task );
+
+                try
                 {
-                    this.getTaskMonitor().monitor( task );
-                }
-
-                final NumberFormat plzFmt = new DecimalFormat( "00000" );
-                final Pattern namePattern =
-                    name != null ? Pattern.compile( ".*" + name.toUpperCase() + ".*" ) : null;
+                    if ( monitoring )
+                    {
+                        this.getTaskMonitor().monitor( task );
+                    }
 
-                final Pattern postalPattern =
-                    postalCode != null ? Pattern.compile( ".*" + postalCode.toUpperCase() + ".*" ) : null;
+                    for ( int c = candidateCount - 1; c >= 0 && !task.isCancelled(); c-- )
+                    {
+                        final int i = query.getCandidate( c );
+                        throttle.setProgress( task.getMaximum() - c );
 
-                final Pattern cityPattern =
-                    city != null ? Pattern.compile( ".*" + city.toUpperCase() + ".*" ) : null;
+                        if ( query.matches( i ) )
+                        {
+                            col.add( records[i].clone() );
+                        }
+                    }
 
-                for ( int i = records.length - 1; i >= 0 && !task.isCancelled(); i-- )
-                {
-                    final String plz = plzFmt.format( records[i].getPostalCode() );
-                    task.setProgress( task.getMaximum() - i );
-
-                    if ( ( namePattern == null
-                           ? true : namePattern.matcher( records[i].getName().toUpperCase() ).matches() )
-                             && ( postalPattern == null
-                                  ? true : postalPattern.matcher( plz ).matches() )
-                             && ( cityPattern == null
-                                  ? true : cityPattern.matcher( records[i].getCity().toUpperCase() ).matches() )
-                             && ( headOffices == null
-                                  ? true : records[i].isHeadOffice() == headOffices.booleanValue() )
-                             && ( branchOffices == null
-                                  ? true : records[i].isHeadOffice() != branchOffices.booleanValue() ) )
+                    if ( task.isCancelled() )
                     {
-                        col.add( records[i].clone() );
+                        col.clear();
                     }
                 }
-
-                if ( task.isCancelled() )
-                {
-                    col.clear();
-                }
-            }
-            catch ( final PatternSyntaxException e )
-            {
-                throw (IllegalArgumentException) new IllegalArgumentException( e.getMessage() ).initCause( e );
-            }
-            finally
-            {
-                if ( task.getMaximum() > this.getMonitoringThreshold() )
+                finally
                 {
-                    this.getTaskMonitor().finish( task );
+                    if ( monitoring )
+                    {
+                        this.getTaskMonitor().finish( task );
+                    }
                 }
             }
         }
@@ -285,6 +307,142 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
         return (BankleitzahlInfo[]) col.toArray( new BankleitzahlInfo[ col.size() ] );
     }
 
+    /**
+     * Searches the directory for a page of records.
+     * <p>Records are selected the same way method
+     * {@link #searchBankleitzahlInfos(String, String, String, Boolean, Boolean)} selects records and are ordered by
+     * bank code and serial number. The ordering is stable for a given state of the directory so that consecutive
+     * pages neither repeat nor skip records. Only the records of the page requested are copied.</p>
+     *
+     * @param name Text to select records whose name matches the text or {@code null}.
+     * @param postalCode Text to select records whose postal code matches the text or {@code null}.
+     * @param city Text to select records whose city matches the text or {@code null}.
+     * @param headOffices {@code true} to select head office records; {@code false} to not select head office records;
+     * {@code null} to ignore the head office flag.
+     * @param branchOffices {@code true} to select branch office records; {@code false} to not select branch office
+     * records; {@code null} to ignore the head office flag.
+     * @param offset The number of matching records to skip.
+     * @param limit The maximum number of records to return.
+     *
+     * @return At most {@code limit} records matching the criteria starting at matching record {@code offset} or an
+     * empty array, if no such records exist.
+     *
+     * @throws IllegalArgumentException if either {@code offset} or {@code limit} is negative or {@code name},
+     * {@code postalCode} or {@code city} cannot be used for searching.
+     *
+     * @since 1.17
+     */
+    public BankleitzahlInfo[] searchBankleitzahlInfos( final String name, final String postalCode, final String city,
+                                                       final Boolean headOffices, final Boolean branchOffices,
+                                                       final int offset, final int limit )
+    {
+        if ( offset < 0 )
+        {
+            throw new IllegalArgumentException( Integer.toString( offset ) );
+        }
+        if ( limit < 0 )
+        {
+            throw new IllegalArgumentException( Integer.toString( limit ) );
+        }
+
+        final Matches matches = this.createMatches( name, postalCode, city, headOffices, branchOffices );
+        final Collection col = new ArrayList( Math.min( limit, 1024 ) );
+
+        for ( int i = offset; i > 0 && matches.hasNext(); i-- )
+        {
+            matches.skip();
+        }
+
+        while ( col.size() < limit && matches.hasNext() )
+        {
+            col.add( matches.next() );
+        }
+
+        return (BankleitzahlInfo[]) col.toArray( new BankleitzahlInfo[ col.size() ] );
+    }
+
+    /**
+     * Searches the directory for records lazily.
+     * <p>Records are selected the same way method
+     * {@link #searchBankleitzahlInfos(String, String, String, Boolean, Boolean)} selects records and are returned in
+     * ascending order of bank code and serial number. The iterator searches the state of the directory at the time
+     * of the call and matches records only when advanced, so that a caller can stop early after having consumed the
+     * records it needs. Every record returned is a copy.</p>
+     *
+     * @param name Text to select records whose name matches the text or {@code null}.
+     * @param postalCode Text to select records whose postal code matches the text or {@code null}.
+     * @param city Text to select records whose city matches the text or {@code null}.
+     * @param headOffices {@code true} to select head office records; {@code false} to not select head office records;
+     * {@code null} to ignore the head office flag.
+     * @param branchOffices {@code true} to select branch office records; {@code false} to not select branch office
+     * records; {@code null} to ignore the head office flag.
+     *
+     * @return An iterator of the {@code BankleitzahlInfo} instances matching the criteria. The iterator does not
+     * support removal of records.
+     *
+     * @throws IllegalArgumentException if {@code name}, {@code postalCode} or {@code city} cannot be used for
+     * searching.
+     *
+     * @since 1.17
+     */
+    public Iterator iterateBankleitzahlInfos( final String name, final String postalCode, final String city,
+                                              final Boolean headOffices, final Boolean branchOffices )
+    {
+        return this.createMatches( name, postalCode, city, headOffices, branchOffices );
+    }
+
+    private Matches createMatches( final String name, final String postalCode, final String city,
+                                   final Boolean headOffices, final Boolean branchOffices )
+    {
+        final SearchIndex index = this.getSnapshot().searchIndex;
+        return new Matches( index, index != null
+                                   ? index.createQuery( name, postalCode, city, headOffices, branchOffices )
+                                   : null );
+
+    }
+
+    /**
+     * Gets the records of a BIC.
+     * <p>A BIC of eight characters denotes the primary office of an institution and is treated the same as the BIC
+     * with branch code {@code XXX} appended. Case and surrounding whitespace are ignored. Records are looked up using
+     * an index built with each state of the directory.</p>
+     *
+     * @param bic The BIC to get the records of.
+     *
+     * @return The head office and branch office records carrying {@code bic} in ascending order of bank code and
+     * serial number or an empty array, if no records carry {@code bic}.
+     *
+     * @throws NullPointerException if {@code bic} is {@code null}.
+     * @throws IllegalArgumentException if {@code bic} is neither made of eight nor of eleven characters.
+     *
+     * @since 1.17
+     */
+    public BankleitzahlInfo[] getBankleitzahlInfosByBic( final String bic )
+    {
+        if ( bic == null )
+        {
+            throw new NullPointerException( "bic" );
+        }
+
+        final String normalized = SearchIndex.normalizeBic( bic );
+
+        if ( normalized == null )
+        {
+            throw new IllegalArgumentException( bic );
+        }
+
+        final SearchIndex index = this.getSnapshot().searchIndex;
+        final int[] postings = index != null ? index.getBicRecords( normalized ) : new int[ 0 ];
+        final BankleitzahlInfo[] records = new BankleitzahlInfo[ postings.length ];
+
+        for ( int i = postings.length - 1; i >= 0; i-- )
+        {
+            records[i] = (BankleitzahlInfo) index.getRecords()[postings[i]].clone();
+        }
+
+        return records;
+    }
+
     /**
      * Gets the {@code BankleitzahlenDatei} backing the instance.
      *
@@ -293,213 +451,480 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
      */
     protected BankleitzahlenDatei getBankfile()
     {
-        this.assertValidProperties();
-        this.assertInitialized();
-        return this.bankFile;
+        return this.getSnapshot().bankFile;
     }
 
     /**
-     * Initializes the instance.
+     * Gets the state of the instance.
+     * <p>The state is loaded on first use. Whenever the reload interval has passed, a background thread checks the
+     * {@code BankfileProvider} the state got loaded from for modifications and replaces the state with a new one if
+     * needed. Until the new state has been published, calls return the current state. Apart from the first call, no
+     * call ever waits for a state to be loaded.</p>
      *
-     * @throws RuntimeException if initialization fails.
+     * @return The state of the instance.
+     *
+     * @throws RuntimeException if loading the state fails.
+     * @throws PropertyException if configured properties hold invalid values.
+     */
+    private Snapshot getSnapshot()
+    {
+        final Snapshot current = this.snapshot;
+
+        if ( current == null )
+        {
+            return this.initialize();
+        }
+
+        if ( System.currentTimeMillis() - this.lastModificationCheck > this.getReloadIntervalMillis() )
+        {
+            this.refresh();
+        }
+
+        return current;
+    }
+
+    /**
+     * Loads the initial state of the instance.
+     *
+     * @return The state of the instance.
+     *
+     * @throws RuntimeException if loading the state fails.
+     * @throws PropertyException if configured properties hold invalid values.
      *
      * @see #assertValidProperties()
      */
-    private synchronized void assertInitialized()
+    private synchronized Snapshot initialize()
     {
-        Task task = null;
-        boolean logExpirationMessage = false;
+        Snapshot current = this.snapshot;
 
-        try
+        if ( current == null )
         {
-            if ( this.provider == null
-                     || System.currentTimeMillis() - this.lastModificationCheck > this.getReloadIntervalMillis() )
+            try
             {
+                this.assertValidProperties();
                 this.lastModificationCheck = System.currentTimeMillis();
-                if ( this.provider == null || this.provider.getLastModifiedMillis() != this.lastModifiedMillis )
-                {
-                    this.bankFile = null;
-                    this.dateOfExpiration = null;
-                    this.initialized = false;
+                current = this.load();
+                this.snapshot = current;
+                this.logOutdated( current );
+            }
+            catch ( final ParseException e )
+            {
+                throw new RuntimeException( e );
+            }
+            catch ( final IOException e )
+            {
+                throw new RuntimeException( e );
+            }
+        }
 
-                    if ( this.provider != null )
-                    {
-                        this.getLogger().info( this.getReloadInfoMessage(
-                            this.getLocale(), new Date( this.lastModifiedMillis ),
-                            new Date( this.provider.getLastModifiedMillis() ) ) );
+        return current;
+    }
 
-                    }
-                }
+    /**
+     * Starts a background thread checking the {@code BankfileProvider} of the current state for modifications unless
+     * such a thread is already running.
+     */
+    private void refresh()
+    {
+        synchronized ( this.refreshLock )
+        {
+            if ( this.refreshing
+                     || System.currentTimeMillis() - this.lastModificationCheck <= this.getReloadIntervalMillis() )
+            { // Started by another thread meanwhile.
+                return;
             }
 
-            if ( !this.initialized )
+            this.refreshing = true;
+            this.lastModificationCheck = System.currentTimeMillis();
+        }
+
+        try
+        {
+            final Thread thread = new Thread( this.getClass().getName() )
             {
-                final DateFormat dateFormat = new SimpleDateFormat( this.getDateOfExpirationPattern() );
-                this.dateOfExpiration = dateFormat.parse( this.getDateOfExpirationText() );
-                final BankfileProvider bankfileProvider = this.getLatestBankfileProvider();
 
-                if ( bankfileProvider != null && bankfileProvider.getBankfileCount() > 0 )
+                public void run()
                 {
-                    this.provider = bankfileProvider;
-                    this.lastModifiedMillis = bankfileProvider.getLastModifiedMillis();
-                    this.dateOfExpiration =
-                        bankfileProvider.getDateOfExpiration( bankfileProvider.getBankfileCount() - 1 );
-
-                    final URL[] rsrc = new URL[ bankfileProvider.getBankfileCount() ];
-                    for ( int i = 0; i < rsrc.length; i++ )
+                    try
                     {
-                        rsrc[i] = bankfileProvider.getBankfile( i );
+                        reload();
                     }
-
-                    task = new Task();
-                    task.setIndeterminate( false );
-                    task.setCancelable( false );
-                    task.setDescription( new ReadsBankleitzahlenDateiMessage() );
-                    task.setMinimum( 0 );
-                    task.setProgress( 0 );
-                    task.setMaximum( rsrc.length );
-                    this.getTaskMonitor().monitor( task );
-
-                    int progress = 0;
-                    long processedRecords = 0L;
-                    task.setProgress( progress++ );
-                    this.bankFile = new BankleitzahlenDatei( rsrc[0], bankfileProvider.getFormat( 0 ),
-                                                             bankfileProvider.getDateOfValidity( 0 ),
-                                                             bankfileProvider.getDateOfExpiration( 0 ) );
-
-                    processedRecords += this.bankFile.getRecords().length;
-                    for ( int i = 1; i < rsrc.length; i++ )
-                    {
-                        task.setProgress( progress++ );
-                        final BankleitzahlenDatei update =
-                            new BankleitzahlenDatei( rsrc[i], bankfileProvider.getFormat( i ),
-                                                     bankfileProvider.getDateOfValidity( i ),
-                                                     bankfileProvider.getDateOfExpiration( i ) );
-
-                        this.bankFile.update( update );
-                        processedRecords += update.getRecords().length;
-                    }
-
-                    // Log outdated records.
-                    if ( this.getLogger().isDebugEnabled() )
+                    finally
                     {
-                        for ( int i = 0, l0 = this.bankFile.getDeletedRecords().length; i < l0; i++ )
+                        synchronized ( refreshLock )
                         {
-                            final BankleitzahlInfo record = this.bankFile.getDeletedRecords()[i];
-
-                            if ( record.isHeadOffice() )
-                            {
-                                this.getLogger().debug( this.getOutdatedInfoMessage(
-                                    this.getLocale(), record.getBankCode().format( Bankleitzahl.LETTER_FORMAT ) ) );
-
-                            }
+                            refreshing = false;
                         }
                     }
+                }
+
+            };
+
+            thread.setDaemon( true );
+            thread.start();
+        }
+        catch ( final RuntimeException e )
+        {
+            synchronized ( this.refreshLock )
+            {
+                this.refreshing = false;
+            }
 
-                    logExpirationMessage = true;
-                    this.initialized = true;
+            throw e;
+        }
+    }
 
-                    this.getLogger().info( this.getBankfileInfoMessage(
-                        this.getLocale(), new Long( processedRecords ), new Integer( rsrc.length ) ) );
+    /**
+     * Checks the {@code BankfileProvider} of the current state for modifications and publishes a new state if needed.
+     * <p>Called by the background thread started by method {@code refresh}. Any error loading the new state is logged
+     * and the current state is kept so that it is retried after the next reload interval.</p>
+     */
+    private void reload()
+    {
+        final Snapshot current = this.snapshot;
 
-                }
-                else
+        try
+        {
+            if ( current.provider != null )
+            {
+                if ( current.provider.getLastModifiedMillis() == current.lastModifiedMillis )
                 {
-                    this.getLogger().warn( this.getNoBankfilesFoundMessage( this.getLocale() ) );
+                    return;
                 }
+
+                this.getLogger().info( this.getReloadInfoMessage(
+                    this.getLocale(), new Date( current.lastModifiedMillis ),
+                    new Date( current.provider.getLastModifiedMillis() ) ) );
+
             }
+
+            this.assertValidProperties();
+            final Snapshot loaded = this.load();
+            this.snapshot = loaded;
+            this.logOutdated( loaded );
         }
         catch ( final ParseException e )
         {
-            throw new RuntimeException( e );
+            this.getLogger().error( e );
         }
         catch ( final IOException e )
         {
-            throw new RuntimeException( e );
+            this.getLogger().error( e );
         }
-        finally
+        catch ( final RuntimeException e )
         {
-            if ( task != null )
-            {
-                this.getTaskMonitor().finish( task );
-            }
+            this.getLogger().error( e );
         }
+    }
 
-        // Log an application message if the directory is outdated.
-        if ( logExpirationMessage )
+    /**
+     * Logs an application message if a state is outdated.
+     *
+     * @param state The state to check.
+     */
+    private void logOutdated( final Snapshot state )
+    {
+        if ( state.bankFile != null && new Date().after( state.dateOfExpiration ) )
         {
-            if ( new Date().after( this.getDateOfExpiration() ) )
-            {
-                this.getApplicationLogger().log( new MessageEvent(
-                    this, new Message[]
-                    {
-                        new OutdatedBankleitzahlenVerzeichnisMessage( this.getDateOfExpiration() )
-                    }, MessageEvent.WARNING ) );
+            this.getApplicationLogger().log( new MessageEvent(
+                this, new Message[]
+                {
+                    new OutdatedBankleitzahlenVerzeichnisMessage( state.dateOfExpiration )
+                }, MessageEvent.WARNING ) );
 
-            }
         }
     }
 
     /**
-     * Checks configured properties.
+     * Loads the state of the instance from the {@code BankfileProvider} with the latest date of expiration.
      *
-     * @throws PropertyException if configured properties hold invalid values.
+     * @return A new state holding the bank files of the {@code BankfileProvider} with the latest date of expiration or
+     * an empty state, if no bank files are available.
+     *
+     * @throws ParseException if parsing the configured date of expiration fails.
+     * @throws IOException if reading bank files fails.
      */
-    private void assertValidProperties()
+    private Snapshot load() throws ParseException, IOException
     {
-        if ( this.getReloadIntervalMillis() < 0L )
+        final DateFormat dateFormat = new SimpleDateFormat( this.getDateOfExpirationPattern() );
+        final Date defaultDateOfExpiration = dateFormat.parse( this.getDateOfExpirationText() );
+        final BankfileProvider bankfileProvider = this.getLatestBankfileProvider();
+
+        if ( bankfileProvider == null || bankfileProvider.getBankfileCount() <= 0 )
         {
-            throw new PropertyException( "reloadIntervalMillis", Long.toString( this.getReloadIntervalMillis() ) );
+            this.getLogger().warn( this.getNoBankfilesFoundMessage( this.getLocale() ) );
+            return new Snapshot( null, 0L, null, defaultDateOfExpiration );
         }
-        if ( this.getDateOfExpirationText() == null || this.getDateOfExpirationText().length() == 0 )
+
+        final long lastModifiedMillis = bankfileProvider.getLastModifiedMillis();
+        final URL[] rsrc = new URL[ bankfileProvider.getBankfileCount() ];
+        for ( int i = 0; i < rsrc.length; i++ )
         {
-            throw new PropertyException( "dateOfExpirationText", this.getDateOfExpirationText() );
+            rsrc[i] = bankfileProvider.getBankfile( i );
         }
-        if ( this.getDateOfExpirationPattern() == null || this.getDateOfExpirationPattern().length() == 0 )
+
+        final OperationRecorder[] recorders = this.getOperationRecorder();
+        final Object[] events = OperationEvents.begin( recorders, OperationRecorder.BANKFILE_RELOAD );
+
+        final Task task = new Task();
+        task.setIndeterminate( false );
+        task.setCancelable( false );
+        task.setDescription( new ReadsBankleitzahlenDateiMessage() );
+        task.setMinimum( 0 );
+        task.setProgress( 0 );
+        task.setMaximum( rsrc.length );
+
+        final String snapshotTag = getSnapshotTag( bankfileProvider, lastModifiedMillis );
+        final File snapshotFile = this.getSnapshotFile( snapshotTag );
+        BankleitzahlenDatei bankFile = snapshotFile != null ? this.readSnapshot( snapshotFile, snapshotTag ) : null;
+        long processedRecords = 0L;
+
+        if ( bankFile != null )
         {
-            throw new PropertyException( "dateOfExpirationPattern", this.getDateOfExpirationPattern() );
+            processedRecords = bankFile.getRecords().length;
         }
+        else
+        {
+            try
+            {
+                this.getTaskMonitor().monitor( task );
 
-        try
+                int progress = 0;
+                task.setProgress( progress++ );
+                bankFile = new BankleitzahlenDatei( rsrc[0], bankfileProvider.getFormat( 0 ),
+                                                    bankfileProvider.getDateOfValidity( 0 ),
+                                                    bankfileProvider.getDateOfExpiration( 0 ) );
+
+                processedRecords += bankFile.getRecords().length;
+                for ( int i = 1; i < rsrc.length; i++ )
+                {
+                    task.setProgress( progress++ );
+                    final BankleitzahlenDatei update =
+                        new BankleitzahlenDatei( rsrc[i], bankfileProvider.getFormat( i ),
+                                                 bankfileProvider.getDateOfValidity( i ),
+                                                 bankfileProvider.getDateOfExpiration( i ) );
+
+                    bankFile.update( update );
+                    processedRecords += update.getRecords().length;
+                }
+            }
+            finally
+            {
+                this.getTaskMonitor().finish( task );
+            }
+
+            if ( snapshotFile != null )
+            {
+                this.writeSnapshot( bankFile, snapshotFile, snapshotTag );
+            }
+        }
+
+        // Log outdated records.
+        if ( this.getLogger().isDebugEnabled() )
         {
-            final DateFormat dateFormat = new SimpleDateFormat( this.getDateOfExpirationPattern() );
-            dateFormat.parse( this.getDateOfExpirationText() );
+            for ( int i = 0, l0 = bankFile.getDeletedRecords().length; i < l0; i++ )
+            {
+                final BankleitzahlInfo record = bankFile.getDeletedRecords()[i];
+
+                if ( record.isHeadOffice() )
+                {
+                    this.getLogger().debug( this.getOutdatedInfoMessage(
+                        this.getLocale(), record.getBankCode().format( Bankleitzahl.LETTER_FORMAT ) ) );
+
+                }
+            }
         }
-        catch ( final ParseException e )
+
+        if ( events != null )
         {
-            throw new PropertyException( "dateOfExpirationText", this.getDateOfExpirationText(), e );
+            OperationEvents.end( recorders, events, OperationEvents.getResource( rsrc ), -1L,
+                                 processedRecords, 0L, 0L );
+
         }
+
+        this.getLogger().info( this.getBankfileInfoMessage(
+            this.getLocale(), new Long( processedRecords ), new Integer( rsrc.length ) ) );
+
+        return new Snapshot( bankfileProvider, lastModifiedMillis, bankFile,
+                             bankfileProvider.getDateOfExpiration( bankfileProvider.getBankfileCount() - 1 ) );
+
     }
 
     /**
-     * Searches for a record replacing a given record recursively.
+     * Gets the string identifying the bank files of a provider in snapshot files.
      *
-     * @param bankInfo The record to search a replacing record for or {@code null}.
+     * @param provider The provider to identify.
+     * @param lastModifiedMillis The last modification of {@code provider}.
+     *
+     * @return A string identifying the bank files of {@code provider}.
+     *
+     * @throws IOException if getting the bank files of {@code provider} fails.
+     */
+    private static String getSnapshotTag( final BankfileProvider provider, final long lastModifiedMillis )
+        throws IOException
+    {
+        final StringBuffer tag = new StringBuffer( 512 );
+        tag.append( provider.getClass().getName() ).append( '|' ).append( lastModifiedMillis );
+
+        for ( int i = 0, l0 = provider.getBankfileCount(); i < l0; i++ )
+        {
+            tag.append( '|' ).append( provider.getBankfile( i ).toExternalForm() ).
+                append( '|' ).append( provider.getFormat( i ) ).
+                append( '|' ).append( provider.getDateOfValidity( i ).getTime() ).
+                append( '|' ).append( provider.getDateOfExpiration( i ).getTime() );
+
+        }
+
+        return tag.toString();
+    }
+
+    /**
+     * Gets the snapshot file for a given snapshot tag.
+     *
+     * @param snapshotTag The tag of the snapshot.
+     *
+     * @return The snapshot file for {@code snapshotTag} or {@code null}, if no snapshots are used.
+     */
+    private File getSnapshotFile( final String snapshotTag )
+    {
+        final File directory = this.getSnapshotDirectory();
+        return directory != null
+               ? new File( directory, "bankleitzahlen-" + Integer.toHexString( snapshotTag.hashCode() )
+                                      + ".snapshot" )
+               : null;
+
+    }
+
+    /**
+     * Reads a snapshot file.
+     * <p>A snapshot failing to decode is treated like a missing snapshot so that the bank files are parsed
+     * instead. Failures are logged and otherwise ignored.</p>
+     *
+     * @param snapshotFile The file to read.
+     * @param snapshotTag The tag of the snapshot to read.
+     *
+     * @return The bank file read from {@code snapshotFile} or {@code null}, if no usable snapshot exists.
+     */
+    private BankleitzahlenDatei readSnapshot( final File snapshotFile, final String snapshotTag )
+    {
+        BankleitzahlenDatei bankFile = null;
+
+        if ( snapshotFile.isFile() )
+        {
+            try
+            {
+                bankFile = BankleitzahlenDatei.readSnapshot( snapshotFile, snapshotTag );
+
+                if ( bankFile != null )
+                {
+                    this.getLogger().info( this.getSnapshotInfoMessage(
+                        this.getLocale(), snapshotFile.getAbsolutePath() ) );
+
+                }
+            }
+            catch ( final IOException e )
+            {
+                this.getLogger().warn( this.getSnapshotFailureMessage(
+                    this.getLocale(), snapshotFile.getAbsolutePath(), e.getMessage() ) );
+
+            }
+            catch ( final RuntimeException e )
+            {
+                // A corrupted snapshot may hold values the records reject.
+                this.getLogger().warn( this.getSnapshotFailureMessage(
+                    this.getLocale(), snapshotFile.getAbsolutePath(), e.toString() ) );
+
+            }
+        }
+
+        return bankFile;
+    }
+
+    /**
+     * Writes a snapshot file.
+     * <p>The snapshot is written to a temporary file first, which then is renamed to {@code snapshotFile} so that
+     * no partially written snapshot is ever read. Failures are logged and otherwise ignored.</p>
      *
-     * @return The record to replace {@code bankInfo} with {@code null}.
+     * @param bankFile The bank file to write.
+     * @param snapshotFile The file to write.
+     * @param snapshotTag The tag of the snapshot to write.
      */
-    private BankleitzahlInfo findReplacementBankeitzahlInfo( final BankleitzahlInfo bankInfo )
+    private void writeSnapshot( final BankleitzahlenDatei bankFile, final File snapshotFile,
+                                final String snapshotTag )
     {
-        BankleitzahlInfo replacement = null;
+        File tmpFile = null;
 
-        if ( bankInfo != null && bankInfo.getReplacingBankCode() != null )
+        try
         {
-            replacement = this.bankFile.getHeadOfficeRecord( bankInfo.getReplacingBankCode() );
+            final File directory = snapshotFile.getParentFile();
+            if ( !directory.isDirectory() && !directory.mkdirs() )
+            {
+                throw new IOException( directory.getAbsolutePath() );
+            }
+
+            tmpFile = File.createTempFile( "bankleitzahlen-", ".tmp", directory );
+            final OutputStream out = new FileOutputStream( tmpFile );
 
-            if ( replacement == null )
+            try
             {
-                replacement = this.bankFile.getDeletedHeadOfficeRecord( bankInfo.getReplacingBankCode() );
+                bankFile.writeSnapshot( out, snapshotTag );
+            }
+            finally
+            {
+                out.close();
+            }
+
+            if ( !tmpFile.renameTo( snapshotFile ) && !( snapshotFile.delete() && tmpFile.renameTo( snapshotFile ) ) )
+            {
+                throw new IOException( snapshotFile.getAbsolutePath() );
             }
 
-            final BankleitzahlInfo recurse = this.findReplacementBankeitzahlInfo( replacement );
+            tmpFile = null;
+        }
+        catch ( final IOException e )
+        {
+            this.getLogger().warn( this.getSnapshotFailureMessage(
+                this.getLocale(), snapshotFile.getAbsolutePath(), e.getMessage() ) );
 
-            if ( recurse != null )
+        }
+        finally
+        {
+            if ( tmpFile != null )
             {
-                replacement = recurse;
+                tmpFile.delete();
             }
         }
+    }
+
+    /**
+     * Checks configured properties.
+     *
+     * @throws PropertyException if configured properties hold invalid values.
+     */
+    private void assertValidProperties()
+    {
+        if ( this.getReloadIntervalMillis() <= 0L )
+        { // A zero interval would start a background reload on nearly every lookup.
+            throw new PropertyException( "reloadIntervalMillis", Long.toString( this.getReloadIntervalMillis() ) );
+        }
+        if ( this.getDateOfExpirationText() == null || this.getDateOfExpirationText().length() == 0 )
+        {
+            throw new PropertyException( "dateOfExpirationText", this.getDateOfExpirationText() );
+        }
+        if ( this.getDateOfExpirationPattern() == null || this.getDateOfExpirationPattern().length() == 0 )
+        {
+            throw new PropertyException( "dateOfExpirationPattern", this.getDateOfExpirationPattern() );
+        }
 
-        return replacement;
+        try
+        {
+            final DateFormat dateFormat = new SimpleDateFormat( this.getDateOfExpirationPattern() );
+            dateFormat.parse( this.getDateOfExpirationText() );
+        }
+        catch ( final ParseException e )
+        {
+            throw new PropertyException( "dateOfExpirationText", this.getDateOfExpirationText(), e );
+        }
     }
 
     /**
@@ -531,6 +956,144 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
         return latest;
     }
 
+    /**
+     * Immutable state of a {@code BankfileBankleitzahlenVerzeichnis}.
+     * <p>A state is never modified after it got published so that it can be read by any number of threads without
+     * locking.</p>
+     */
+    private static final class Snapshot
+    {
+
+        /** Provider the state got loaded from or {@code null}, if no bank files are available. */
+        final BankfileProvider provider;
+
+        /** Last modification of {@code provider} when loading the state. */
+        final long lastModifiedMillis;
+
+        /** Bank file of the state or {@code null}, if no bank files are available. */
+        final BankleitzahlenDatei bankFile;
+
+        /** Date of expiration of the state. */
+        final Date dateOfExpiration;
+
+        /** Search index of the records of {@code bankFile} or {@code null}, if no bank files are available. */
+        final SearchIndex searchIndex;
+
+        /**
+         * Replacements of the deleted head offices of {@code bankFile} or {@code null}, if no bank files are
+         * available.
+         */
+        final ReplacementIndex replacementIndex;
+
+        /**
+         * Creates a new {@code Snapshot} instance.
+         *
+         * @param provider The provider the state got loaded from or {@code null}.
+         * @param lastModifiedMillis The last modification of {@code provider} when loading the state.
+         * @param bankFile The bank file of the state or {@code null}.
+         * @param dateOfExpiration The date of expiration of the state.
+         */
+        Snapshot( final BankfileProvider provider, final long lastModifiedMillis, final BankleitzahlenDatei bankFile,
+                  final Date dateOfExpiration )
+        {
+            super();
+            this.provider = provider;
+            this.lastModifiedMillis = lastModifiedMillis;
+            this.bankFile = bankFile;
+            this.dateOfExpiration = dateOfExpiration;
+
+            if ( bankFile != null )
+            { // Populate lazily initialized caches before the state gets published.
+                this.searchIndex = new SearchIndex( bankFile.getRecords() );
+                this.replacementIndex = new ReplacementIndex( bankFile );
+            }
+            else
+            {
+                this.searchIndex = null;
+                this.replacementIndex = null;
+            }
+        }
+
+    }
+
+    /** Iterator of the records of a {@code SearchIndex} matching a query in ascending order. */
+    private static final class Matches implements Iterator
+    {
+
+        /** The records searched. */
+        private final BankleitzahlInfo[] records;
+
+        /** The query to match or {@code null}, if there are no records to search. */
+        private final SearchIndex.Query query;
+
+        /** The number of candidates of the query. */
+        private final int candidateCount;
+
+        /** The position of the next candidate to test. */
+        private int position;
+
+        /** The index of the next matching record or {@code -1}, if not yet searched. */
+        private int next = -1;
+
+        /**
+         * Creates a new {@code Matches} instance.
+         *
+         * @param index The index to search or {@code null}.
+         * @param query The query to match or {@code null}.
+         */
+        Matches( final SearchIndex index, final SearchIndex.Query query )
+        {
+            super();
+            this.records = index != null ? index.getRecords() : null;
+            this.query = query;
+            this.candidateCount = query != null ? query.getCandidateCount() : 0;
+        }
+
+        public boolean hasNext()
+        {
+            while ( this.next < 0 && this.position < this.candidateCount )
+            {
+                final int i = this.query.getCandidate( this.position++ );
+
+                if ( this.query.matches( i ) )
+                {
+                    this.next = i;
+                }
+            }
+
+            return this.next >= 0;
+        }
+
+        public Object next()
+        {
+            if ( !this.hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+
+            final Object record = this.records[this.next].clone();
+            this.next = -1;
+            return record;
+        }
+
+        /** Advances the iterator without copying the next record. */
+        void skip()
+        {
+            if ( !this.hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+
+            this.next = -1;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
     //--Constructors------------------------------------------------------------
 
 // <editor-fold defaultstate="collapsed" desc=" Generated Code ">//GEN-BEGIN:jdtausConstructors
@@ -610,6 +1173,18 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
 
     }
 
+    /**
+     * Gets the configured <code>OperationRecorder</code> implementation.
+     *
+     * @return The configured <code>OperationRecorder</code> implementation.
+     */
+    private OperationRecorder[] getOperationRecorder()
+    {
+        return (OperationRecorder[]) ContainerFactory.getContainer().
+            getDependency( this, "OperationRecorder" );
+
+    }
+
 // </editor-fold>//GEN-END:jdtausDependencies
 
     //------------------------------------------------------------Dependencies--
@@ -642,6 +1217,18 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
 
     }
 
+    /**
+     * Gets the value of property <code>defaultSnapshotDirectory</code>.
+     *
+     * @return Default directory to keep binary snapshots of the merged bank files in. An empty value disables snapshots.
+     */
+    private java.lang.String getDefaultSnapshotDirectory()
+    {
+        return (java.lang.String) ContainerFactory.getContainer().
+            getProperty( this, "defaultSnapshotDirectory" );
+
+    }
+
     /**
      * Gets the value of property <code>dateOfExpirationText</code>.
      *
@@ -762,6 +1349,53 @@ public class BankfileBankleitzahlenVerzeichnis implements BankleitzahlenVerzeich
 
     }
 
+    /**
+     * Gets the text of message <code>snapshotInfo</code>.
+     * <blockquote><pre>Bankleitzahlen aus Abbild ''{0}'' gelesen.</pre></blockquote>
+     * <blockquote><pre>Read bankcodes from snapshot ''{0}''.</pre></blockquote>
+     *
+     * @param locale The locale of the message instance to return.
+     * @param snapshot format parameter.
+     *
+     * @return the text of message <code>snapshotInfo</code>.
+     */
+    private String getSnapshotInfoMessage( final Locale locale,
+            final java.lang.String snapshot )
+    {
+        return ContainerFactory.getContainer().
+            getMessage( this, "snapshotInfo", locale,
+                new Object[]
+                {
+                    snapshot
+                });
+
+    }
+
+    /**
+     * Gets the text of message <code>snapshotFailure</code>.
+     * <blockquote><pre>Abbild ''{0}'' konnte nicht verwendet werden. {1}</pre></blockquote>
+     * <blockquote><pre>Snapshot ''{0}'' could not be used. {1}</pre></blockquote>
+     *
+     * @param locale The locale of the message instance to return.
+     * @param snapshot format parameter.
+     * @param cause format parameter.
+     *
+     * @return the text of message <code>snapshotFailure</code>.
+     */
+    private String getSnapshotFailureMessage( final Locale locale,
+            final java.lang.String snapshot,
+            final java.lang.String cause )
+    {
+        return ContainerFactory.getContainer().
+            getMessage( this, "snapshotFailure", locale,
+                new Object[]
+                {
+                    snapshot,
+                    cause
+                });
+
+    }
+
 // </editor-fold>//GEN-END:jdtausMessages
 
     //----------------------------------------------------------------Messages--
@@ -21,7 +21,9 @@
 package org.jdtaus.banking.ri.blzdirectory;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
+import java.net.URLConnection;
 import java.util.Locale;
 import java.util.Properties;
 import org.jdtaus.core.container.ContainerFactory;
@@ -81,6 +83,46 @@ public final class DefaultBankfileProvider extends AbstractPropertiesBankfilePro
         return resource;
     }
 
+    /**
+     * Gets the timestamp the properties resource backing the instance was last modified.
+     * <p>The timestamp is read from the properties resource on every call so that a modified resource is noticed by
+     * {@code BankfileBankleitzahlenVerzeichnis} without creating a new instance.</p>
+     *
+     * @return The timestamp the properties resource backing the instance was last modified or {@code 0}, if the
+     * resource does not exist or the timestamp is not known.
+     *
+     * @throws IOException if getting the last modification timestamp fails.
+     */
+    public long getLastModifiedMillis() throws IOException
+    {
+        this.assertValidProperties();
+        final String propertiesLocation = this.getClasspathLocation() + "/" + this.getPropertiesResourceName();
+        final URL rsrc = this.getClassLoader().getResource( propertiesLocation );
+        long lastModified = 0L;
+
+        if ( rsrc != null )
+        {
+            final URLConnection connection = rsrc.openConnection();
+            InputStream in = null;
+
+            try
+            {
+                lastModified = connection.getLastModified();
+                // Getting the timestamp connects and may open the resource.
+                in = connection.getInputStream();
+            }
+            finally
+            {
+                if ( in != null )
+                {
+                    in.close();
+                }
+            }
+        }
+
+        return lastModified;
+    }
+
     /**
      * Gets the class loader searched for resources.
      * <p>This method returns either the current thread's context class loader or this classes class loader, if the
@@ -0,0 +1,205 @@
+/*
+ *  jDTAUS Banking RI Bankleitzahlenverzeichnis
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.ri.blzdirectory;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import org.jdtaus.banking.Bankleitzahl;
+import org.jdtaus.banking.BankleitzahlInfo;
+import org.jdtaus.banking.util.BankleitzahlenDatei;
+
+/**
+ * Index of the records replacing the deleted head offices of a {@code BankleitzahlenDatei}.
+ * <p>For every deleted head office record the index holds the record found by following the chain of replacing bank
+ * codes to its end. Each step of the chain resolves the replacing bank code to a head office record, falling back to
+ * a deleted head office record. A chain ends at a record without replacing bank code, at a replacing bank code without
+ * record or before a bank code already visited, so that cyclic chains are resolved to the last record not yet visited.
+ * Deleted head offices are kept in a sorted array of bank codes searched binary. An index is never modified after
+ * construction and may be used by any number of threads concurrently.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see BankfileBankleitzahlenVerzeichnis#getHeadOffice(Bankleitzahl)
+ * @see BankfileBankleitzahlenVerzeichnis#getBranchOffices(Bankleitzahl)
+ * @since 1.17
+ */
+final class ReplacementIndex
+{
+
+    /** Orders records by bank code. */
+    private static final Comparator BANK_CODE_COMPARATOR = new Comparator()
+    {
+
+        public int compare( final Object o1, final Object o2 )
+        {
+            return ( (BankleitzahlInfo) o1 ).getBankCode().compareTo( ( (BankleitzahlInfo) o2 ).getBankCode() );
+        }
+
+    };
+
+    /** Ascending bank codes of the deleted head offices having a replacement. */
+    private final int[] bankCodes;
+
+    /** The deleted head office records of the bank codes in {@code bankCodes}. */
+    private final BankleitzahlInfo[] deletedHeadOffices;
+
+    /** The replacement records of the bank codes in {@code bankCodes}. */
+    private final BankleitzahlInfo[] replacements;
+
+    /**
+     * Creates a new {@code ReplacementIndex} instance indexing the deleted head offices of a bank file.
+     *
+     * @param bankFile The bank file to index.
+     *
+     * @throws NullPointerException if {@code bankFile} is {@code null}.
+     */
+    ReplacementIndex( final BankleitzahlenDatei bankFile )
+    {
+        super();
+
+        if ( bankFile == null )
+        {
+            throw new NullPointerException( "bankFile" );
+        }
+
+        final BankleitzahlInfo[] deletedRecords = bankFile.getDeletedRecords();
+        final BankleitzahlInfo[] candidates = new BankleitzahlInfo[ deletedRecords.length ];
+        int count = 0;
+
+        for ( int i = deletedRecords.length - 1; i >= 0; i-- )
+        {
+            if ( deletedRecords[i].isHeadOffice() && deletedRecords[i].getReplacingBankCode() != null
+                     && bankFile.getDeletedHeadOfficeRecord( deletedRecords[i].getBankCode() ) == deletedRecords[i] )
+            {
+                candidates[count++] = deletedRecords[i];
+            }
+        }
+
+        Arrays.sort( candidates, 0, count, BANK_CODE_COMPARATOR );
+
+        final int[] codes = new int[ count ];
+        final BankleitzahlInfo[] resolved = new BankleitzahlInfo[ count ];
+        int size = 0;
+
+        for ( int i = 0; i < count; i++ )
+        {
+            final BankleitzahlInfo replacement = resolve( bankFile, candidates[i] );
+
+            if ( replacement != null )
+            {
+                codes[size] = candidates[i].getBankCode().intValue();
+                candidates[size] = candidates[i];
+                resolved[size++] = replacement;
+            }
+        }
+
+        this.bankCodes = new int[ size ];
+        this.deletedHeadOffices = new BankleitzahlInfo[ size ];
+        this.replacements = new BankleitzahlInfo[ size ];
+        System.arraycopy( codes, 0, this.bankCodes, 0, size );
+        System.arraycopy( candidates, 0, this.deletedHeadOffices, 0, size );
+        System.arraycopy( resolved, 0, this.replacements, 0, size );
+    }
+
+    /**
+     * Gets the deleted head office record of a bank code having a replacement.
+     *
+     * @param bankCode The bank code to get the deleted head office record of.
+     *
+     * @return The deleted head office record of {@code bankCode} or {@code null}, if {@code bankCode} does not
+     * identify a deleted head office having a replacement.
+     *
+     * @throws NullPointerException if {@code bankCode} is {@code null}.
+     */
+    BankleitzahlInfo getDeletedHeadOffice( final Bankleitzahl bankCode )
+    {
+        final int i = this.indexOf( bankCode );
+        return i >= 0 ? this.deletedHeadOffices[i] : null;
+    }
+
+    /**
+     * Gets the record replacing a deleted head office.
+     *
+     * @param bankCode The bank code of the deleted head office to get the replacement of.
+     *
+     * @return The record at the end of the replacement chain of {@code bankCode} or {@code null}, if {@code bankCode}
+     * does not identify a deleted head office having a replacement.
+     *
+     * @throws NullPointerException if {@code bankCode} is {@code null}.
+     */
+    BankleitzahlInfo getReplacement( final Bankleitzahl bankCode )
+    {
+        final int i = this.indexOf( bankCode );
+        return i >= 0 ? this.replacements[i] : null;
+    }
+
+    private int indexOf( final Bankleitzahl bankCode )
+    {
+        if ( bankCode == null )
+        {
+            throw new NullPointerException( "bankCode" );
+        }
+
+        return Arrays.binarySearch( this.bankCodes, bankCode.intValue() );
+    }
+
+    /**
+     * Follows the chain of replacing bank codes of a record.
+     *
+     * @param bankFile The bank file to resolve bank codes with.
+     * @param bankInfo The record to follow the chain of.
+     *
+     * @return The record at the end of the chain of {@code bankInfo} or {@code null}, if {@code bankInfo} has no
+     * replacement.
+     */
+    private static BankleitzahlInfo resolve( final BankleitzahlenDatei bankFile, final BankleitzahlInfo bankInfo )
+    {
+        final Set visited = new HashSet();
+        visited.add( bankInfo.getBankCode() );
+
+        BankleitzahlInfo replacement = null;
+
+        for ( BankleitzahlInfo current = bankInfo;
+              current.getReplacingBankCode() != null && visited.add( current.getReplacingBankCode() ); )
+        {
+            BankleitzahlInfo next = bankFile.getHeadOfficeRecord( current.getReplacingBankCode() );
+
+            if ( next == null )
+            {
+                next = bankFile.getDeletedHeadOfficeRecord( current.getReplacingBankCode() );
+            }
+
+            if ( next == null )
+            {
+                break;
+            }
+
+            replacement = next;
+            current = next;
+        }
+
+        return replacement;
+    }
+
+}
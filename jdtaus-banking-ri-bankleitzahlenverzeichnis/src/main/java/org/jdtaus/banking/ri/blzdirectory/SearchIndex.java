@@ -0,0 +1,712 @@
+/*
+ *  jDTAUS Banking RI Bankleitzahlenverzeichnis
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.ri.blzdirectory;
+
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.jdtaus.banking.BankleitzahlInfo;
+
+/**
+ * Inverted index supporting searches for {@code BankleitzahlInfo} records.
+ * <p>The index holds the upper case names and cities and the formatted postal codes of a set of records. Names and
+ * cities are indexed by trigram, mapping each trigram to the ascending indices of the records it occurs in. Postal
+ * codes are indexed by a sorted array of all their suffixes so that the records whose postal code contains a given
+ * sequence of digits form a contiguous range of that array. Searching intersects the postings of the query and
+ * yields candidates verified by a {@link Query}; the index never misses a matching record. Records are kept in
+ * ascending order of bank code and serial number. An index is never modified after construction and may be used by
+ * any number of threads concurrently.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see BankfileBankleitzahlenVerzeichnis#searchBankleitzahlInfos(String, String, String, Boolean, Boolean)
+ * @since 1.17
+ */
+final class SearchIndex
+{
+
+    /** Characters with special meaning in regular expressions. */
+    private static final String REGEX_CHARACTERS = "\\^$.|?*+()[]{}";
+
+    /** Number of digits of a formatted postal code. */
+    private static final int POSTAL_CODE_DIGITS = 5;
+
+    /** Powers of ten up to {@code POSTAL_CODE_DIGITS}. */
+    private static final int[] POWERS_OF_TEN =
+    {
+        1, 10, 100, 1000, 10000, 100000
+    };
+
+    /** Empty array of record indices. */
+    private static final int[] NO_RECORDS =
+    {
+    };
+
+    /** Orders records by bank code and serial number. */
+    private static final Comparator RECORD_COMPARATOR = new Comparator()
+    {
+
+        public int compare( final Object o1, final Object o2 )
+        {
+            final BankleitzahlInfo r1 = (BankleitzahlInfo) o1;
+            final BankleitzahlInfo r2 = (BankleitzahlInfo) o2;
+            final int ret = r1.getBankCode().compareTo( r2.getBankCode() );
+            return ret != 0 ? ret : r1.getSerialNumber().compareTo( r2.getSerialNumber() );
+        }
+
+    };
+
+    /** The records of the index in ascending order of bank code and serial number. */
+    private final BankleitzahlInfo[] records;
+
+    /** The upper case names of the records. */
+    private final String[] names;
+
+    /** The upper case cities of the records. */
+    private final String[] cities;
+
+    /** The formatted postal codes of the records. */
+    private final String[] postalCodes;
+
+    /** Postings of the trigrams of the names of the records keyed by trigram. */
+    private final Map nameTrigrams;
+
+    /** Postings of the trigrams of the cities of the records keyed by trigram. */
+    private final Map cityTrigrams;
+
+    /** Suffixes of the postal codes right padded with zeros in ascending order. */
+    private final int[] postalSuffixes;
+
+    /** Indices of the records of the suffixes in {@code postalSuffixes}. */
+    private final int[] postalSuffixRecords;
+
+    /** Ascending indices of the records whose postal code is not made of five digits. */
+    private final int[] unindexedPostalCodes;
+
+    /** Postings of the records keyed by eleven character BIC. */
+    private final Map bics;
+
+    /**
+     * Creates a new {@code SearchIndex} instance indexing a set of records.
+     *
+     * @param unsorted The records to index.
+     *
+     * @throws NullPointerException if {@code unsorted} is {@code null}.
+     */
+    SearchIndex( final BankleitzahlInfo[] unsorted )
+    {
+        super();
+
+        if ( unsorted == null )
+        {
+            throw new NullPointerException( "unsorted" );
+        }
+
+        final NumberFormat plzFmt = new DecimalFormat( "00000" );
+        final BankleitzahlInfo[] records = (BankleitzahlInfo[]) unsorted.clone();
+        Arrays.sort( records, RECORD_COMPARATOR );
+        this.records = records;
+        this.names = new String[ records.length ];
+        this.cities = new String[ records.length ];
+        this.postalCodes = new String[ records.length ];
+
+        final Map nameBuilder = new HashMap( 16384 );
+        final Map cityBuilder = new HashMap( 16384 );
+        final Map bicBuilder = new HashMap( 8192 );
+        final int[] suffixCounts = new int[ POWERS_OF_TEN[POSTAL_CODE_DIGITS] ];
+        final int[] suffixes = new int[ records.length * POSTAL_CODE_DIGITS ];
+        final int[] suffixRecords = new int[ suffixes.length ];
+        final IntList unindexed = new IntList();
+        int suffixCount = 0;
+
+        for ( int i = 0; i < records.length; i++ )
+        {
+            this.names[i] = records[i].getName().toUpperCase();
+            this.cities[i] = records[i].getCity().toUpperCase();
+            this.postalCodes[i] = plzFmt.format( records[i].getPostalCode() );
+            addTrigrams( nameBuilder, this.names[i], i );
+            addTrigrams( cityBuilder, this.cities[i], i );
+
+            final String bic = normalizeBic( records[i].getBic() );
+            if ( bic != null )
+            {
+                IntList postings = (IntList) bicBuilder.get( bic );
+                if ( postings == null )
+                {
+                    postings = new IntList();
+                    bicBuilder.put( bic, postings );
+                }
+
+                postings.add( i );
+            }
+
+            if ( isDigits( this.postalCodes[i] ) && this.postalCodes[i].length() == POSTAL_CODE_DIGITS )
+            {
+                final int postalCode = Integer.parseInt( this.postalCodes[i] );
+
+                for ( int offset = 0; offset < POSTAL_CODE_DIGITS; offset++ )
+                {
+                    final int suffix = ( postalCode % POWERS_OF_TEN[POSTAL_CODE_DIGITS - offset] )
+                                       * POWERS_OF_TEN[offset];
+
+                    suffixes[suffixCount] = suffix;
+                    suffixRecords[suffixCount++] = i;
+                    suffixCounts[suffix]++;
+                }
+            }
+            else
+            {
+                unindexed.add( i );
+            }
+        }
+
+        this.nameTrigrams = toPostings( nameBuilder );
+        this.cityTrigrams = toPostings( cityBuilder );
+        this.bics = toPostings( bicBuilder );
+        this.unindexedPostalCodes = unindexed.toArray();
+
+        // Counting sort of the suffixes.
+        final int[] positions = new int[ suffixCounts.length ];
+        for ( int i = 1; i < positions.length; i++ )
+        {
+            positions[i] = positions[i - 1] + suffixCounts[i - 1];
+        }
+
+        this.postalSuffixes = new int[ suffixCount ];
+        this.postalSuffixRecords = new int[ suffixCount ];
+        for ( int i = 0; i < suffixCount; i++ )
+        {
+            final int position = positions[suffixes[i]]++;
+            this.postalSuffixes[position] = suffixes[i];
+            this.postalSuffixRecords[position] = suffixRecords[i];
+        }
+    }
+
+    /**
+     * Gets the records of the index.
+     *
+     * @return The records of the index in ascending order of bank code and serial number.
+     */
+    BankleitzahlInfo[] getRecords()
+    {
+        return this.records;
+    }
+
+    /**
+     * Gets the upper case name of a record.
+     *
+     * @param index The index of the record.
+     *
+     * @return The upper case name of the record at {@code index}.
+     */
+    String getName( final int index )
+    {
+        return this.names[index];
+    }
+
+    /**
+     * Gets the upper case city of a record.
+     *
+     * @param index The index of the record.
+     *
+     * @return The upper case city of the record at {@code index}.
+     */
+    String getCity( final int index )
+    {
+        return this.cities[index];
+    }
+
+    /**
+     * Gets the formatted postal code of a record.
+     *
+     * @param index The index of the record.
+     *
+     * @return The postal code of the record at {@code index} formatted using pattern {@code 00000}.
+     */
+    String getPostalCode( final int index )
+    {
+        return this.postalCodes[index];
+    }
+
+    /**
+     * Gets the records of a BIC.
+     *
+     * @param bic The BIC normalized using method {@link #normalizeBic(String)}.
+     *
+     * @return The ascending indices of the records carrying {@code bic}.
+     */
+    int[] getBicRecords( final String bic )
+    {
+        final int[] postings = (int[]) this.bics.get( bic );
+        return postings != null ? postings : NO_RECORDS;
+    }
+
+    /**
+     * Normalizes a BIC to its eleven character form.
+     * <p>A BIC of eight characters denotes the primary office of an institution and is the same as the BIC with
+     * branch code {@code XXX} appended.</p>
+     *
+     * @param bic The BIC to normalize or {@code null}.
+     *
+     * @return The upper case eleven character form of {@code bic} or {@code null}, if {@code bic} is {@code null} or
+     * neither made of eight nor of eleven characters.
+     */
+    static String normalizeBic( final String bic )
+    {
+        String normalized = null;
+
+        if ( bic != null )
+        {
+            normalized = bic.trim().toUpperCase();
+
+            if ( normalized.length() == 8 )
+            {
+                normalized += "XXX";
+            }
+            else if ( normalized.length() != 11 )
+            {
+                normalized = null;
+            }
+        }
+
+        return normalized;
+    }
+
+    /**
+     * Tests a query to hold no characters with special meaning in regular expressions.
+     *
+     * @param query The query to test.
+     *
+     * @return {@code true}, if {@code query} matches itself literally when used as a regular expression;
+     * {@code false}, else.
+     */
+    static boolean isLiteral( final String query )
+    {
+        for ( int i = query.length() - 1; i >= 0; i-- )
+        {
+            if ( REGEX_CHARACTERS.indexOf( query.charAt( i ) ) >= 0 )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets the candidates of a search.
+     * <p>Every record whose upper case name contains {@code name}, whose upper case city contains {@code city} and
+     * whose postal code contains {@code postalCode} is a candidate. Candidates may include records not matching the
+     * query.</p>
+     *
+     * @param name The upper case literal the names of the records need to contain or {@code null}.
+     * @param postalCode The literal the postal codes of the records need to contain or {@code null}.
+     * @param city The upper case literal the cities of the records need to contain or {@code null}.
+     *
+     * @return The ascending indices of the candidates or {@code null}, if every record is a candidate.
+     */
+    int[] getCandidates( final String name, final String postalCode, final String city )
+    {
+        int[] candidates = null;
+
+        if ( name != null && name.length() >= 3 )
+        {
+            candidates = intersect( candidates, getPostings( this.nameTrigrams, name ) );
+        }
+        if ( city != null && city.length() >= 3 && ( candidates == null || candidates.length > 0 ) )
+        {
+            candidates = intersect( candidates, getPostings( this.cityTrigrams, city ) );
+        }
+        if ( postalCode != null && postalCode.length() > 0 && isDigits( postalCode )
+             && ( candidates == null || candidates.length > 0 ) )
+        {
+            candidates = intersect( candidates, this.getPostalCodePostings( postalCode ) );
+        }
+
+        return candidates;
+    }
+
+    /**
+     * Gets the records whose postal code may contain a sequence of digits.
+     *
+     * @param digits The digits to search.
+     *
+     * @return The ascending indices of the records whose postal code may contain {@code digits}.
+     */
+    private int[] getPostalCodePostings( final String digits )
+    {
+        if ( digits.length() > POSTAL_CODE_DIGITS )
+        {
+            return this.unindexedPostalCodes;
+        }
+
+        final int scale = POWERS_OF_TEN[POSTAL_CODE_DIGITS - digits.length()];
+        final int from = Integer.parseInt( digits ) * scale;
+        final int to = from + scale;
+        final int start = lowerBound( this.postalSuffixes, from );
+        final int end = lowerBound( this.postalSuffixes, to );
+        final boolean[] seen = new boolean[ this.records.length ];
+
+        for ( int i = start; i < end; i++ )
+        {
+            seen[this.postalSuffixRecords[i]] = true;
+        }
+        for ( int i = this.unindexedPostalCodes.length - 1; i >= 0; i-- )
+        {
+            seen[this.unindexedPostalCodes[i]] = true;
+        }
+
+        final IntList postings = new IntList();
+        for ( int i = 0; i < seen.length; i++ )
+        {
+            if ( seen[i] )
+            {
+                postings.add( i );
+            }
+        }
+
+        return postings.toArray();
+    }
+
+    private static int[] getPostings( final Map trigrams, final String query )
+    {
+        int[] postings = null;
+
+        for ( int i = query.length() - 3; i >= 0 && ( postings == null || postings.length > 0 ); i-- )
+        {
+            final int[] trigramPostings = (int[]) trigrams.get( new Long( trigram( query, i ) ) );
+            postings = intersect( postings, trigramPostings != null ? trigramPostings : NO_RECORDS );
+        }
+
+        return postings;
+    }
+
+    private static void addTrigrams( final Map trigrams, final String value, final int record )
+    {
+        for ( int i = value.length() - 3; i >= 0; i-- )
+        {
+            final Long key = new Long( trigram( value, i ) );
+            IntList postings = (IntList) trigrams.get( key );
+
+            if ( postings == null )
+            {
+                postings = new IntList();
+                trigrams.put( key, postings );
+            }
+
+            postings.add( record );
+        }
+    }
+
+    private static Map toPostings( final Map builder )
+    {
+        final Map postings = new HashMap( builder.size() * 4 / 3 + 1 );
+
+        for ( final Iterator it = builder.entrySet().iterator(); it.hasNext(); )
+        {
+            final Map.Entry entry = (Map.Entry) it.next();
+            postings.put( entry.getKey(), ( (IntList) entry.getValue() ).toArray() );
+        }
+
+        return postings;
+    }
+
+    private static long trigram( final String value, final int index )
+    {
+        return ( (long) value.charAt( index ) << 32 ) | ( (long) value.charAt( index + 1 ) << 16 )
+               | value.charAt( index + 2 );
+
+    }
+
+    private static boolean isDigits( final String value )
+    {
+        for ( int i = value.length() - 1; i >= 0; i-- )
+        {
+            if ( value.charAt( i ) < '0' || value.charAt( i ) > '9' )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int lowerBound( final int[] values, final int key )
+    {
+        int low = 0;
+        int high = values.length;
+
+        while ( low < high )
+        {
+            final int mid = ( low + high ) >>> 1;
+
+            if ( values[mid] < key )
+            {
+                low = mid + 1;
+            }
+            else
+            {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private static int[] intersect( final int[] a, final int[] b )
+    {
+        if ( a == null )
+        {
+            return b;
+        }
+
+        final int[] ret = new int[ Math.min( a.length, b.length ) ];
+        int count = 0;
+
+        for ( int i = 0, j = 0; i < a.length && j < b.length; )
+        {
+            if ( a[i] < b[j] )
+            {
+                i++;
+            }
+            else if ( a[i] > b[j] )
+            {
+                j++;
+            }
+            else
+            {
+                ret[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+
+        if ( count == ret.length )
+        {
+            return ret;
+        }
+
+        final int[] trimmed = new int[ count ];
+        System.arraycopy( ret, 0, trimmed, 0, count );
+        return trimmed;
+    }
+
+    /**
+     * Creates a query searching the records of the index.
+     * <p>A record matches a query if its upper case name, city and formatted postal code match the upper case
+     * regular expressions {@code .*name.*}, {@code .*city.*} and {@code .*postalCode.*} and its head office flag
+     * matches {@code headOffices} and {@code branchOffices}. Queries free of regular expression syntax are matched
+     * literally using the postings of the index.</p>
+     *
+     * @param name Text to select records whose name matches the text or {@code null}.
+     * @param postalCode Text to select records whose postal code matches the text or {@code null}.
+     * @param city Text to select records whose city matches the text or {@code null}.
+     * @param headOffices {@code true} to select head office records; {@code false} to not select head office records;
+     * {@code null} to ignore the head office flag.
+     * @param branchOffices {@code true} to select branch office records; {@code false} to not select branch office
+     * records; {@code null} to ignore the head office flag.
+     *
+     * @return A new query.
+     *
+     * @throws IllegalArgumentException if {@code name}, {@code postalCode} or {@code city} cannot be used for
+     * searching.
+     */
+    Query createQuery( final String name, final String postalCode, final String city, final Boolean headOffices,
+                       final Boolean branchOffices )
+    {
+        try
+        {
+            return new Query( name != null ? name.toUpperCase() : null,
+                              postalCode != null ? postalCode.toUpperCase() : null,
+                              city != null ? city.toUpperCase() : null, headOffices, branchOffices );
+
+        }
+        catch ( final PatternSyntaxException e )
+        {
+            throw (IllegalArgumentException) new IllegalArgumentException( e.getMessage() ).initCause( e );
+        }
+    }
+
+    /** Query searching the records of a {@code SearchIndex}. */
+    final class Query
+    {
+
+        /** The upper case name to search or {@code null}. */
+        private final String name;
+
+        /** The upper case postal code to search or {@code null}. */
+        private final String postalCode;
+
+        /** The upper case city to search or {@code null}. */
+        private final String city;
+
+        /** The head office flag to search or {@code null}. */
+        private final Boolean headOffices;
+
+        /** The branch office flag to search or {@code null}. */
+        private final Boolean branchOffices;
+
+        /** Flag indicating the query is matched literally. */
+        private final boolean literal;
+
+        /** Patterns of the query not matched literally. */
+        private final Pattern namePattern;
+
+        private final Pattern postalCodePattern;
+
+        private final Pattern cityPattern;
+
+        /** The ascending indices of the candidates of the query or {@code null}, if every record is a candidate. */
+        private final int[] candidates;
+
+        /**
+         * Creates a new {@code Query} instance.
+         *
+         * @param name The upper case name to search or {@code null}.
+         * @param postalCode The upper case postal code to search or {@code null}.
+         * @param city The upper case city to search or {@code null}.
+         * @param headOffices The head office flag to search or {@code null}.
+         * @param branchOffices The branch office flag to search or {@code null}.
+         *
+         * @throws PatternSyntaxException if a query is not matched literally and is not a valid regular expression.
+         */
+        Query( final String name, final String postalCode, final String city, final Boolean headOffices,
+               final Boolean branchOffices )
+        {
+            super();
+            this.name = name;
+            this.postalCode = postalCode;
+            this.city = city;
+            this.headOffices = headOffices;
+            this.branchOffices = branchOffices;
+            this.literal = ( name == null || isLiteral( name ) ) && ( postalCode == null || isLiteral( postalCode ) )
+                           && ( city == null || isLiteral( city ) );
+
+            this.namePattern = name != null && !this.literal ? Pattern.compile( ".*" + name + ".*" ) : null;
+            this.postalCodePattern =
+                postalCode != null && !this.literal ? Pattern.compile( ".*" + postalCode + ".*" ) : null;
+
+            this.cityPattern = city != null && !this.literal ? Pattern.compile( ".*" + city + ".*" ) : null;
+            this.candidates = this.literal ? getCandidates( name, postalCode, city ) : null;
+        }
+
+        /**
+         * Gets the number of candidates of the query.
+         *
+         * @return The number of records to test using method {@link #matches(int)}.
+         */
+        int getCandidateCount()
+        {
+            return this.candidates != null ? this.candidates.length : records.length;
+        }
+
+        /**
+         * Gets a candidate of the query.
+         *
+         * @param position The position of the candidate in ascending order.
+         *
+         * @return The index of the record at candidate position {@code position}.
+         */
+        int getCandidate( final int position )
+        {
+            return this.candidates != null ? this.candidates[position] : position;
+        }
+
+        /**
+         * Tests a record to match the query.
+         *
+         * @param index The index of the record to test.
+         *
+         * @return {@code true}, if the record at {@code index} matches the query; {@code false}, else.
+         */
+        boolean matches( final int index )
+        {
+            final BankleitzahlInfo record = records[index];
+
+            return ( this.headOffices == null || record.isHeadOffice() == this.headOffices.booleanValue() )
+                   && ( this.branchOffices == null || record.isHeadOffice() != this.branchOffices.booleanValue() )
+                   && matches( this.name, this.namePattern, names[index] )
+                   && matches( this.postalCode, this.postalCodePattern, postalCodes[index] )
+                   && matches( this.city, this.cityPattern, cities[index] );
+
+        }
+
+        private boolean matches( final String query, final Pattern pattern, final String value )
+        {
+            return query == null || ( this.literal ? value.indexOf( query ) >= 0 : pattern.matcher( value ).matches() );
+        }
+
+    }
+
+    /** Growable list of {@code int} values. */
+    private static final class IntList
+    {
+
+        /** The values of the list. */
+        private int[] values = new int[ 8 ];
+
+        /** The number of values of the list. */
+        private int size;
+
+        /**
+         * Adds a value to the list unless it equals the last value of the list.
+         *
+         * @param value The value to add.
+         */
+        void add( final int value )
+        {
+            if ( this.size > 0 && this.values[this.size - 1] == value )
+            {
+                return;
+            }
+
+            if ( this.size == this.values.length )
+            {
+                final int[] grown = new int[ this.values.length * 2 ];
+                System.arraycopy( this.values, 0, grown, 0, this.size );
+                this.values = grown;
+            }
+
+            this.values[this.size++] = value;
+        }
+
+        /**
+         * Gets the values of the list.
+         *
+         * @return The values of the list.
+         */
+        int[] toArray()
+        {
+            final int[] ret = new int[ this.size ];
+            System.arraycopy( this.values, 0, ret, 0, this.size );
+            return ret;
+        }
+
+    }
+
+}
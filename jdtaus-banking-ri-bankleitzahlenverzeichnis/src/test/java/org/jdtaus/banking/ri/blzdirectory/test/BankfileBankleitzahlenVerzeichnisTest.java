@@ -20,7 +20,27 @@
  */
 package org.jdtaus.banking.ri.blzdirectory.test;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
+import java.text.DecimalFormat;
+import java.text.NumberFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Pattern;
+import junit.framework.Assert;
+import org.jdtaus.banking.Bankleitzahl;
+import org.jdtaus.banking.BankleitzahlExpirationException;
+import org.jdtaus.banking.BankleitzahlInfo;
+import org.jdtaus.banking.BankleitzahlenVerzeichnis;
 import org.jdtaus.banking.ri.blzdirectory.BankfileBankleitzahlenVerzeichnis;
 
 /**
@@ -43,4 +63,537 @@ public class BankfileBankleitzahlenVerzeichnisTest extends AbstractBankfileBankl
         return cl;
     }
 
+    public void testConcurrentLookups() throws Exception
+    {
+        final BankleitzahlInfo[] headOffices =
+            this.getBankleitzahlenVerzeichnis().searchBankleitzahlInfos( null, null, null, Boolean.TRUE, null );
+
+        Assert.assertTrue( headOffices.length > 0 );
+
+        final Throwable[] failures = new Throwable[ 8 ];
+        final Thread[] threads = new Thread[ failures.length ];
+
+        for ( int i = threads.length - 1; i >= 0; i-- )
+        {
+            final int thread = i;
+            threads[i] = new Thread()
+            {
+
+                public void run()
+                {
+                    try
+                    {
+                        for ( int j = 0; j < 1000; j++ )
+                        {
+                            final BankleitzahlInfo expected = headOffices[( thread + j ) % headOffices.length];
+                            final BankleitzahlInfo headOffice =
+                                getBankleitzahlenVerzeichnis().getHeadOffice( expected.getBankCode() );
+
+                            Assert.assertEquals( expected, headOffice );
+                            Assert.assertNotNull( getBankleitzahlenVerzeichnis().getDateOfExpiration() );
+                        }
+                    }
+                    catch ( final Throwable t )
+                    {
+                        failures[thread] = t;
+                    }
+                }
+
+            };
+
+            threads[i].start();
+        }
+
+        for ( int i = threads.length - 1; i >= 0; i-- )
+        {
+            threads[i].join();
+
+            if ( failures[i] != null )
+            {
+                throw (AssertionError) new AssertionError( failures[i].toString() ).initCause( failures[i] );
+            }
+        }
+    }
+
+    public void testPagedSearch() throws Exception
+    {
+        final BankfileBankleitzahlenVerzeichnis directory =
+            (BankfileBankleitzahlenVerzeichnis) this.getBankleitzahlenVerzeichnis();
+
+        final BankleitzahlInfo[] all = directory.searchBankleitzahlInfos( "BANK", null, null, null, null );
+        final Iterator it = directory.iterateBankleitzahlInfos( "BANK", null, null, null, null );
+        BankleitzahlInfo previous = null;
+        Assert.assertTrue( all.length > 20 );
+
+        for ( int offset = 0; offset < all.length; offset += 20 )
+        {
+            final BankleitzahlInfo[] page =
+                directory.searchBankleitzahlInfos( "BANK", null, null, null, null, offset, 20 );
+
+            Assert.assertEquals( Math.min( 20, all.length - offset ), page.length );
+
+            for ( int i = 0; i < page.length; i++ )
+            {
+                Assert.assertEquals( page[i], it.next() );
+                Assert.assertTrue( previous == null || previous.getBankCode().compareTo( page[i].getBankCode() ) <= 0 );
+                previous = page[i];
+            }
+        }
+
+        Assert.assertFalse( it.hasNext() );
+        Assert.assertEquals( 0, directory.searchBankleitzahlInfos( "BANK", null, null, null, null,
+                                                                   all.length, 20 ).length );
+
+        try
+        {
+            directory.searchBankleitzahlInfos( "BANK", null, null, null, null, -1, 20 );
+            Assert.fail();
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            Assert.assertNotNull( e.getMessage() );
+        }
+    }
+
+    public void testGetBankleitzahlInfosByBic() throws Exception
+    {
+        final BankfileBankleitzahlenVerzeichnis directory =
+            (BankfileBankleitzahlenVerzeichnis) this.getBankleitzahlenVerzeichnis();
+
+        final BankleitzahlInfo[] headOffices =
+            directory.searchBankleitzahlInfos( null, null, null, Boolean.TRUE, Boolean.FALSE );
+
+        for ( int i = headOffices.length - 1; i >= 0; i-- )
+        {
+            final String bic = headOffices[i].getBic();
+
+            if ( bic != null && bic.length() == 11 )
+            {
+                final BankleitzahlInfo[] records = directory.getBankleitzahlInfosByBic( bic.toLowerCase() );
+                Assert.assertTrue( Arrays.asList( records ).contains( headOffices[i] ) );
+
+                for ( int j = records.length - 1; j >= 0; j-- )
+                {
+                    Assert.assertEquals( bic, records[j].getBic() );
+                }
+
+                if ( bic.endsWith( "XXX" ) )
+                {
+                    Assert.assertTrue( Arrays.equals(
+                        records, directory.getBankleitzahlInfosByBic( bic.substring( 0, 8 ) ) ) );
+
+                }
+            }
+        }
+
+        Assert.assertEquals( 0, directory.getBankleitzahlInfosByBic( "XXXXXXXX" ).length );
+
+        try
+        {
+            directory.getBankleitzahlInfosByBic( "XXXXXXXXX" );
+            Assert.fail();
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            Assert.assertNotNull( e.getMessage() );
+        }
+    }
+
+    public void testSearchLiteralQueries() throws Exception
+    {
+        final BankleitzahlInfo[] records =
+            this.getBankleitzahlenVerzeichnis().searchBankleitzahlInfos( null, null, null, null, null );
+
+        Assert.assertTrue( records.length > 0 );
+
+        // Literal queries of any length, upper and lower case.
+        this.assertLiteralSearch( records, "bank", null, null );
+        this.assertLiteralSearch( records, "Sparkasse", null, "e" );
+        this.assertLiteralSearch( records, "VR", null, null );
+        this.assertLiteralSearch( records, "k", "8", null );
+        this.assertLiteralSearch( records, null, "80", "münchen" );
+        this.assertLiteralSearch( records, null, "10117", null );
+        this.assertLiteralSearch( records, "zzz", null, null );
+        this.assertLiteralSearch( records, "", "", "" );
+
+        // Queries with regular expression syntax.
+        this.assertSearch( records, "Bank.*eG", null, null );
+        this.assertSearch( records, "Volks|Raiff", null, null );
+        this.assertSearch( records, "^SPARKASSE", "[0-9]{4}1", null );
+        this.assertSearch( records, null, null, "B(ER|RE)" );
+    }
+
+    public void testMultipleStepReplacement() throws Exception
+    {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        try
+        {
+            final String[] lines = getHeadOfficeLines( 5 );
+            final BankleitzahlenVerzeichnis directory = createReplacementDirectory( lines );
+            final Bankleitzahl deleted = Bankleitzahl.valueOf( lines[0].substring( 0, 8 ) );
+            final Bankleitzahl replacement = Bankleitzahl.valueOf( lines[2].substring( 0, 8 ) );
+
+            Assert.assertNotNull( directory.getHeadOffice( replacement ) );
+
+            try
+            {
+                directory.getHeadOffice( deleted );
+                Assert.fail();
+            }
+            catch ( final BankleitzahlExpirationException e )
+            {
+                Assert.assertEquals( deleted, e.getExpiredBankleitzahlInfo().getBankCode() );
+                Assert.assertEquals( replacement, e.getReplacingBankleitzahlInfo().getBankCode() );
+            }
+
+            try
+            {
+                directory.getBranchOffices( deleted );
+                Assert.fail();
+            }
+            catch ( final BankleitzahlExpirationException e )
+            {
+                Assert.assertEquals( deleted, e.getExpiredBankleitzahlInfo().getBankCode() );
+                Assert.assertEquals( replacement, e.getReplacingBankleitzahlInfo().getBankCode() );
+            }
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader( classLoader );
+        }
+    }
+
+    public void testCyclicReplacement() throws Exception
+    {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        try
+        {
+            final String[] lines = getHeadOfficeLines( 5 );
+            final BankleitzahlenVerzeichnis directory = createReplacementDirectory( lines );
+            final Bankleitzahl first = Bankleitzahl.valueOf( lines[3].substring( 0, 8 ) );
+            final Bankleitzahl second = Bankleitzahl.valueOf( lines[4].substring( 0, 8 ) );
+
+            try
+            {
+                directory.getHeadOffice( first );
+                Assert.fail();
+            }
+            catch ( final BankleitzahlExpirationException e )
+            {
+                Assert.assertEquals( first, e.getExpiredBankleitzahlInfo().getBankCode() );
+                Assert.assertEquals( second, e.getReplacingBankleitzahlInfo().getBankCode() );
+            }
+
+            try
+            {
+                directory.getBranchOffices( second );
+                Assert.fail();
+            }
+            catch ( final BankleitzahlExpirationException e )
+            {
+                Assert.assertEquals( second, e.getExpiredBankleitzahlInfo().getBankCode() );
+                Assert.assertEquals( first, e.getReplacingBankleitzahlInfo().getBankCode() );
+            }
+        }
+        finally
+        {
+            Thread.currentThread().setContextClassLoader( classLoader );
+        }
+    }
+
+    public void testBackgroundReload() throws Exception
+    {
+        final ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        final String[] lines = getHeadOfficeLines( 2 );
+        final Bankleitzahl added = Bankleitzahl.valueOf( lines[1].substring( 0, 8 ) );
+        final File first = writeFile( ".txt", new String[]
+            {
+                lines[0]
+            } );
+
+        final File second = writeFile( ".txt", lines );
+        final File properties = writeFile( ".properties", getProperties( first ) );
+        final boolean[] reloading = new boolean[ 2 ];
+        final ResourceLoader cl = new ResourceLoader( this.getClass().getClassLoader() )
+        {
+
+            protected URL findResource( final String name )
+            {
+                if ( name.equals( "META-INF/jdtaus/" + second.getName() ) )
+                {
+                    synchronized ( reloading )
+                    {
+                        reloading[0] = true;
+                        reloading.notifyAll();
+
+                        while ( !reloading[1] )
+                        {
+                            try
+                            {
+                                reloading.wait();
+                            }
+                            catch ( final InterruptedException e )
+                            {
+                                return null;
+                            }
+                        }
+                    }
+                }
+
+                return super.findResource( name );
+            }
+
+        };
+
+        cl.addResource( "META-INF/jdtaus/bankfiles.properties", properties.toURI().toURL() );
+        cl.addResource( "META-INF/jdtaus/" + first.getName(), first.toURI().toURL() );
+        cl.addResource( "META-INF/jdtaus/" + second.getName(), second.toURI().toURL() );
+
+        try
+        {
+            Thread.currentThread().setContextClassLoader( cl );
+            final BankleitzahlenVerzeichnis directory = new BankfileBankleitzahlenVerzeichnis( 1L, 0L );
+            Assert.assertNull( directory.getHeadOffice( added ) );
+
+            final long lastModified = properties.lastModified();
+            writeFile( properties, getProperties( second ) );
+            Assert.assertTrue( properties.setLastModified( lastModified + 60000L ) );
+            Thread.sleep( 10L );
+
+            // Lookups keep returning the current state while the background thread loads the modified bank files.
+            Assert.assertNull( directory.getHeadOffice( added ) );
+
+            synchronized ( reloading )
+            {
+                for ( int i = 0; i < 100 && !reloading[0]; i++ )
+                {
+                    reloading.wait( 100L );
+                }
+            }
+
+            Assert.assertTrue( reloading[0] );
+            Assert.assertNull( directory.getHeadOffice( added ) );
+
+            synchronized ( reloading )
+            {
+                reloading[1] = true;
+                reloading.notifyAll();
+            }
+
+            BankleitzahlInfo headOffice = null;
+            for ( int i = 0; i < 100 && headOffice == null; i++ )
+            {
+                Thread.sleep( 100L );
+                headOffice = directory.getHeadOffice( added );
+            }
+
+            Assert.assertNotNull( headOffice );
+            Assert.assertEquals( added, headOffice.getBankCode() );
+        }
+        finally
+        {
+            synchronized ( reloading )
+            {
+                reloading[1] = true;
+                reloading.notifyAll();
+            }
+
+            Thread.currentThread().setContextClassLoader( classLoader );
+        }
+    }
+
+    /**
+     * Gets the first head office records of a bank file.
+     *
+     * @param count The number of records to get.
+     *
+     * @return The first {@code count} head office records of a bank file in {@code 20130601} format.
+     *
+     * @throws IOException if reading the bank file fails.
+     */
+    /**
+     * Tests a search free of regular expression syntax to select the same records as the same search wrapped in a
+     * group, which is matched as a regular expression.
+     *
+     * @param records All records of the directory.
+     * @param name The name to search or {@code null}.
+     * @param postalCode The postal code to search or {@code null}.
+     * @param city The city to search or {@code null}.
+     *
+     * @throws Exception if testing fails.
+     */
+    private void assertLiteralSearch( final BankleitzahlInfo[] records, final String name, final String postalCode,
+                                      final String city ) throws Exception
+    {
+        final BankleitzahlInfo[] found = this.assertSearch( records, name, postalCode, city );
+        final BankleitzahlInfo[] grouped = this.getBankleitzahlenVerzeichnis().searchBankleitzahlInfos(
+            name != null ? "(" + name + ")" : null, postalCode != null ? "(" + postalCode + ")" : null,
+            city != null ? "(" + city + ")" : null, null, null );
+
+        Assert.assertTrue( Arrays.equals( found, grouped ) );
+    }
+
+    /**
+     * Tests a search to select the records matching the regular expressions {@code .*name.*}, {@code .*postalCode.*}
+     * and {@code .*city.*} ignoring case.
+     *
+     * @param records All records of the directory.
+     * @param name The name to search or {@code null}.
+     * @param postalCode The postal code to search or {@code null}.
+     * @param city The city to search or {@code null}.
+     *
+     * @return The records found by the search.
+     *
+     * @throws Exception if testing fails.
+     */
+    private BankleitzahlInfo[] assertSearch( final BankleitzahlInfo[] records, final String name,
+                                             final String postalCode, final String city ) throws Exception
+    {
+        final Pattern namePattern = name != null ? Pattern.compile( ".*" + name.toUpperCase() + ".*" ) : null;
+        final Pattern postalCodePattern = postalCode != null ? Pattern.compile( ".*" + postalCode + ".*" ) : null;
+        final Pattern cityPattern = city != null ? Pattern.compile( ".*" + city.toUpperCase() + ".*" ) : null;
+        final NumberFormat plzFmt = new DecimalFormat( "00000" );
+        final List expected = new ArrayList( records.length );
+
+        for ( int i = 0; i < records.length; i++ )
+        {
+            if ( ( namePattern == null || namePattern.matcher( records[i].getName().toUpperCase() ).matches() )
+                 && ( postalCodePattern == null
+                      || postalCodePattern.matcher( plzFmt.format( records[i].getPostalCode() ) ).matches() )
+                 && ( cityPattern == null || cityPattern.matcher( records[i].getCity().toUpperCase() ).matches() ) )
+            {
+                expected.add( records[i] );
+            }
+        }
+
+        final BankleitzahlInfo[] found =
+            this.getBankleitzahlenVerzeichnis().searchBankleitzahlInfos( name, postalCode, city, null, null );
+
+        Assert.assertEquals( expected.size(), found.length );
+        Assert.assertEquals( new HashSet( expected ), new HashSet( Arrays.asList( found ) ) );
+        return found;
+    }
+
+    private static String[] getHeadOfficeLines( final int count ) throws IOException
+    {
+        final BufferedReader reader = new BufferedReader( new InputStreamReader(
+            BankfileBankleitzahlenVerzeichnisTest.class.getResourceAsStream( "/META-INF/jdtaus/blz_20141208.txt" ),
+            "ISO-8859-1" ) );
+
+        try
+        {
+            final List lines = new ArrayList( count );
+
+            for ( String line = reader.readLine(); line != null && lines.size() < count; line = reader.readLine() )
+            {
+                if ( line.charAt( 8 ) == '1' )
+                {
+                    lines.add( line );
+                }
+            }
+
+            return (String[]) lines.toArray( new String[ lines.size() ] );
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    /**
+     * Creates a directory backed by two bank files deleting the head offices of five bank codes.
+     * <p>The first bank code is replaced by the second, which is replaced by the third. The third is kept. The fourth
+     * and fifth bank code replace each other. The context class loader of the current thread is set to a class loader
+     * providing the bank files.</p>
+     *
+     * @param lines The head office records of the five bank codes.
+     *
+     * @return A directory backed by two bank files built from {@code lines}.
+     *
+     * @throws IOException if writing the bank files fails.
+     */
+    private static BankleitzahlenVerzeichnis createReplacementDirectory( final String[] lines ) throws IOException
+    {
+        final File first = writeFile( ".txt", new String[]
+            {
+                getRecord( lines[0], 'D', lines[1].substring( 0, 8 ) ),
+                getRecord( lines[1], 'D', lines[2].substring( 0, 8 ) ),
+                getRecord( lines[2], 'U', "00000000" ),
+                getRecord( lines[3], 'D', lines[4].substring( 0, 8 ) ),
+                getRecord( lines[4], 'D', lines[3].substring( 0, 8 ) )
+            } );
+
+        final File second = writeFile( ".txt", new String[]
+            {
+                getRecord( lines[2], 'U', "00000000" )
+            } );
+
+        final File properties = writeFile( ".properties", new String[]
+            {
+                "BankleitzahlenVerzeichnis.bankfileCount=2",
+                "BankleitzahlenDatei.0.location=" + first.getName(),
+                "BankleitzahlenDatei.0.dateOfValidity=20140908",
+                "BankleitzahlenDatei.0.dateOfExpiration=20141207",
+                "BankleitzahlenDatei.0.format=20130601",
+                "BankleitzahlenDatei.1.location=" + second.getName(),
+                "BankleitzahlenDatei.1.dateOfValidity=20141208",
+                "BankleitzahlenDatei.1.dateOfExpiration=20150301",
+                "BankleitzahlenDatei.1.format=20130601"
+            } );
+
+        final ResourceLoader cl = new ResourceLoader( BankfileBankleitzahlenVerzeichnisTest.class.getClassLoader() );
+        cl.addResource( "META-INF/jdtaus/bankfiles.properties", properties.toURI().toURL() );
+        cl.addResource( "META-INF/jdtaus/" + first.getName(), first.toURI().toURL() );
+        cl.addResource( "META-INF/jdtaus/" + second.getName(), second.toURI().toURL() );
+        Thread.currentThread().setContextClassLoader( cl );
+
+        return new BankfileBankleitzahlenVerzeichnis();
+    }
+
+    private static String getRecord( final String line, final char changeLabel, final String replacingBankCode )
+    {
+        return line.substring( 0, 158 ) + changeLabel + '0' + replacingBankCode + line.substring( 168 );
+    }
+
+    private static String[] getProperties( final File bankFile )
+    {
+        return new String[]
+            {
+                "BankleitzahlenVerzeichnis.bankfileCount=1",
+                "BankleitzahlenDatei.0.location=" + bankFile.getName(),
+                "BankleitzahlenDatei.0.dateOfValidity=20141208",
+                "BankleitzahlenDatei.0.dateOfExpiration=20150301",
+                "BankleitzahlenDatei.0.format=20130601"
+            };
+
+    }
+
+    private static File writeFile( final String suffix, final String[] lines ) throws IOException
+    {
+        final File file = File.createTempFile( "jdtaus", suffix );
+        file.deleteOnExit();
+        writeFile( file, lines );
+        return file;
+    }
+
+    private static void writeFile( final File file, final String[] lines ) throws IOException
+    {
+        final Writer writer = new OutputStreamWriter( new FileOutputStream( file ), "ISO-8859-1" );
+
+        try
+        {
+            for ( int i = 0; i < lines.length; i++ )
+            {
+                writer.write( lines[i] );
+                writer.write( "\n" );
+            }
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
 }
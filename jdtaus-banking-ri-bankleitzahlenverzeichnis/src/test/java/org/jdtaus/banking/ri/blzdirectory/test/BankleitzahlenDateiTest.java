@@ -0,0 +1,368 @@
+/*
+ *  jDTAUS Banking RI Bankleitzahlenverzeichnis
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.ri.blzdirectory.test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.jdtaus.banking.BankleitzahlInfo;
+import org.jdtaus.banking.util.BankleitzahlenDatei;
+
+/**
+ * Tests parsing a {@link BankleitzahlenDatei} split into chunks parsed concurrently and reading snapshots.
+ * <p>Every parsing test parses a file once as a single chunk and once split into chunks of about one line each, so
+ * that every line boundary of the file is a chunk boundary.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+public class BankleitzahlenDateiTest extends TestCase
+{
+
+    /** Name of the system property specifying the maximum number of threads parsing a file. */
+    private static final String PARALLELISM_PROPERTY = BankleitzahlenDatei.class.getName() + ".parallelism";
+
+    /** Name of the system property specifying the minimum number of bytes parsed by a single thread. */
+    private static final String MIN_CHUNK_LENGTH_PROPERTY = BankleitzahlenDatei.class.getName() + ".minChunkLength";
+
+    /** Temporary files of the test. */
+    private final List files = new ArrayList();
+
+    protected void tearDown() throws Exception
+    {
+        System.getProperties().remove( PARALLELISM_PROPERTY );
+        System.getProperties().remove( MIN_CHUNK_LENGTH_PROPERTY );
+
+        for ( int i = this.files.size() - 1; i >= 0; i-- )
+        {
+            ( (File) this.files.get( i ) ).delete();
+        }
+
+        super.tearDown();
+    }
+
+    public void testChunkBoundaries() throws Exception
+    {
+        final URL resource = this.createBankfile( getLines( 40 ), "\n" );
+        final BankleitzahlInfo[] expected = parse( resource, false ).getRecords();
+        Assert.assertEquals( 40, expected.length );
+        this.assertRecords( expected, parse( resource, true ).getRecords() );
+    }
+
+    public void testCrLfChunkBoundaries() throws Exception
+    {
+        // Chunk boundaries falling between a carriage return and a line feed are moved past the line feed.
+        final URL resource = this.createBankfile( getLines( 40 ), "\r\n" );
+        final BankleitzahlInfo[] expected = parse( resource, false ).getRecords();
+        Assert.assertEquals( 40, expected.length );
+        this.assertRecords( expected, parse( resource, true ).getRecords() );
+        this.assertRecords( expected, parse( this.createBankfile( getLines( 40 ), "\n" ), true ).getRecords() );
+    }
+
+    public void testEmptyLineAtChunkEdge() throws Exception
+    {
+        final List lines = getLines( 30 );
+        lines.add( 20, "" );
+
+        final URL resource = this.createBankfile( lines, "\n" );
+        final String expected = assertUnexpectedData( resource, false ).getMessage();
+        Assert.assertEquals( expected, assertUnexpectedData( resource, true ).getMessage() );
+        Assert.assertTrue( expected, expected.indexOf( "22" ) >= 0 );
+
+        // An empty last line is no error.
+        lines.remove( 20 );
+        lines.add( "" );
+        Assert.assertEquals( 30, parse( this.createBankfile( lines, "\r\n" ), true ).getRecords().length );
+    }
+
+    public void testRecordTooShort() throws Exception
+    {
+        final List lines = getLines( 30 );
+        lines.set( 16, ( (String) lines.get( 16 ) ).substring( 0, 100 ) );
+
+        final URL resource = this.createBankfile( lines, "\r\n" );
+        Assert.assertEquals( "17", assertRecordTooShort( resource, false ).getMessage() );
+        Assert.assertEquals( "17", assertRecordTooShort( resource, true ).getMessage() );
+    }
+
+    public void testEbcdicEncoding() throws Exception
+    {
+        if ( !Charset.isSupported( "IBM273" ) )
+        {
+            return;
+        }
+
+        // Line feeds are not encoded as 0x0A so that the file is parsed character by character.
+        final List lines = getLines( 40 );
+        final BankleitzahlInfo[] expected = parse( this.createBankfile( lines, "\n" ), false ).getRecords();
+        final BankleitzahlenDatei bankFile = new BankleitzahlenDatei(
+            this.createBankfile( lines, "\n", "IBM273" ), "IBM273", BankleitzahlenDatei.JUNE_2013_FORMAT, new Date(),
+            new Date() );
+
+        this.assertRecords( expected, bankFile.getRecords() );
+    }
+
+    public void testBranchOfficeOrder() throws Exception
+    {
+        // Branch offices listed in descending order of serial number are returned in ascending order.
+        final String headOffice = (String) getLines( 1 ).get( 0 );
+        final List lines = new ArrayList();
+        lines.add( getBranchOffice( headOffice, 900003 ) );
+        lines.add( headOffice );
+        lines.add( getBranchOffice( headOffice, 900001 ) );
+        lines.add( getBranchOffice( headOffice, 900002 ) );
+
+        final BankleitzahlenDatei bankFile = parse( this.createBankfile( lines, "\n" ), false );
+        final BankleitzahlInfo[] branchOffices =
+            bankFile.getBranchOfficeRecords( bankFile.getRecords()[0].getBankCode() );
+
+        Assert.assertEquals( 3, branchOffices.length );
+
+        for ( int i = branchOffices.length - 1; i >= 0; i-- )
+        {
+            Assert.assertFalse( branchOffices[i].isHeadOffice() );
+            Assert.assertEquals( new Integer( 900001 + i ), branchOffices[i].getSerialNumber() );
+        }
+    }
+
+    public void testHeadOfficeWithoutUpdate() throws Exception
+    {
+        final List lines = getLines( 40 );
+        final BankleitzahlenDatei bankFile = parse( this.createBankfile( lines, "\n" ), false );
+        final BankleitzahlInfo[] records = bankFile.getRecords();
+
+        for ( int i = records.length - 1; i >= 0; i-- )
+        {
+            if ( records[i].isHeadOffice() )
+            {
+                Assert.assertEquals( records[i], bankFile.getHeadOfficeRecord( records[i].getBankCode() ) );
+            }
+        }
+
+        Assert.assertNull( bankFile.getDeletedHeadOfficeRecord( records[0].getBankCode() ) );
+
+        // Head offices sharing a bank code are rejected when the file is first searched.
+        final String headOffice = (String) lines.get( 0 );
+        lines.add( headOffice.substring( 0, 152 ) + "900001" + headOffice.substring( 158 ) );
+
+        final BankleitzahlenDatei duplicate = parse( this.createBankfile( lines, "\n" ), false );
+
+        try
+        {
+            duplicate.getHeadOfficeRecord( records[0].getBankCode() );
+            Assert.fail();
+        }
+        catch ( final IllegalStateException e )
+        {
+            Assert.assertNotNull( e.getMessage() );
+        }
+    }
+
+    public void testSnapshot() throws Exception
+    {
+        final BankleitzahlenDatei bankFile = parse( this.createBankfile( getLines( 40 ), "\n" ), false );
+        final File snapshot = this.writeSnapshot( bankFile, "tag" );
+        final BankleitzahlenDatei read = BankleitzahlenDatei.readSnapshot( snapshot, "tag" );
+
+        Assert.assertNotNull( read );
+        Assert.assertEquals( bankFile.getFormat(), read.getFormat() );
+        Assert.assertEquals( bankFile.getDateOfValidity(), read.getDateOfValidity() );
+        Assert.assertEquals( bankFile.getDateOfExpiration(), read.getDateOfExpiration() );
+        this.assertRecords( bankFile.getRecords(), read.getRecords() );
+        this.assertRecords( bankFile.getDeletedRecords(), read.getDeletedRecords() );
+
+        // The snapshot is neither kept open nor mapped.
+        Assert.assertTrue( snapshot.delete() );
+    }
+
+    public void testSnapshotTag() throws Exception
+    {
+        final BankleitzahlenDatei bankFile = parse( this.createBankfile( getLines( 40 ), "\n" ), false );
+        final File snapshot = this.writeSnapshot( bankFile, "tag" );
+
+        Assert.assertNull( BankleitzahlenDatei.readSnapshot( snapshot, "other" ) );
+        Assert.assertNotNull( BankleitzahlenDatei.readSnapshot( snapshot, "tag" ) );
+    }
+
+    public void testCorruptedSnapshot() throws Exception
+    {
+        final BankleitzahlenDatei bankFile = parse( this.createBankfile( getLines( 40 ), "\n" ), false );
+        final File snapshot = this.writeSnapshot( bankFile, "tag" );
+
+        // Magic, version, tag, format, dates of validity and expiration and number of records.
+        final long firstBankCode = 4L + 4L + 2L + "tag".length() + 4L + 9L + 9L + 4L;
+        final RandomAccessFile randomAccessFile = new RandomAccessFile( snapshot, "rw" );
+
+        try
+        {
+            randomAccessFile.seek( firstBankCode );
+            randomAccessFile.writeInt( -1 );
+        }
+        finally
+        {
+            randomAccessFile.close();
+        }
+
+        try
+        {
+            BankleitzahlenDatei.readSnapshot( snapshot, "tag" );
+            throw new AssertionError( snapshot.getAbsolutePath() );
+        }
+        catch ( final IOException e )
+        {
+            Assert.assertTrue( e.getCause() instanceof IllegalArgumentException );
+        }
+    }
+
+    private static IllegalArgumentException assertUnexpectedData( final URL resource, final boolean chunked )
+        throws IOException
+    {
+        try
+        {
+            parse( resource, chunked );
+            throw new AssertionError( resource.toExternalForm() );
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            Assert.assertNull( e.getCause() );
+            return e;
+        }
+    }
+
+    private static IndexOutOfBoundsException assertRecordTooShort( final URL resource, final boolean chunked )
+        throws IOException
+    {
+        try
+        {
+            parse( resource, chunked );
+            throw new AssertionError( resource.toExternalForm() );
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            Assert.assertTrue( e.getCause() instanceof IndexOutOfBoundsException );
+            return (IndexOutOfBoundsException) e.getCause();
+        }
+    }
+
+    private static BankleitzahlenDatei parse( final URL resource, final boolean chunked ) throws IOException
+    {
+        System.setProperty( PARALLELISM_PROPERTY, chunked ? "64" : "1" );
+        System.setProperty( MIN_CHUNK_LENGTH_PROPERTY, "1" );
+        return new BankleitzahlenDatei( resource, BankleitzahlenDatei.JUNE_2013_FORMAT, new Date(), new Date() );
+    }
+
+    private static List getLines( final int count ) throws IOException
+    {
+        final List lines = new ArrayList( count );
+        final BufferedReader reader = new BufferedReader( new InputStreamReader(
+            BankleitzahlenDateiTest.class.getResourceAsStream( "/META-INF/jdtaus/blz_20141208.txt" ), "ISO-8859-1" ) );
+
+        try
+        {
+            for ( String line = reader.readLine(); line != null && lines.size() < count; line = reader.readLine() )
+            {
+                lines.add( line );
+            }
+        }
+        finally
+        {
+            reader.close();
+        }
+
+        return lines;
+    }
+
+    private static String getBranchOffice( final String headOffice, final int serialNumber )
+    {
+        return headOffice.substring( 0, 8 ) + '2' + headOffice.substring( 9, 152 ) + serialNumber
+               + headOffice.substring( 158 );
+
+    }
+
+    private URL createBankfile( final List lines, final String lineSeparator ) throws IOException
+    {
+        return this.createBankfile( lines, lineSeparator, "ISO-8859-1" );
+    }
+
+    private URL createBankfile( final List lines, final String lineSeparator, final String encoding )
+        throws IOException
+    {
+        final File file = File.createTempFile( "jdtaus", ".txt" );
+        this.files.add( file );
+
+        final OutputStream out = new FileOutputStream( file );
+
+        try
+        {
+            for ( int i = 0, s0 = lines.size(); i < s0; i++ )
+            {
+                out.write( ( (String) lines.get( i ) + lineSeparator ).getBytes( encoding ) );
+            }
+        }
+        finally
+        {
+            out.close();
+        }
+
+        return file.toURI().toURL();
+    }
+
+    private File writeSnapshot( final BankleitzahlenDatei bankFile, final String tag ) throws IOException
+    {
+        final File file = File.createTempFile( "jdtaus", ".snapshot" );
+        this.files.add( file );
+
+        final OutputStream out = new FileOutputStream( file );
+
+        try
+        {
+            bankFile.writeSnapshot( out, tag );
+        }
+        finally
+        {
+            out.close();
+        }
+
+        return file;
+    }
+
+    private void assertRecords( final BankleitzahlInfo[] expected, final BankleitzahlInfo[] actual )
+    {
+        Assert.assertEquals( expected.length, actual.length );
+
+        for ( int i = expected.length - 1; i >= 0; i-- )
+        {
+            Assert.assertEquals( expected[i], actual[i] );
+        }
+    }
+
+}
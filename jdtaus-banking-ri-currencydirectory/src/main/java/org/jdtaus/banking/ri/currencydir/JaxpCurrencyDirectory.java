@@ -47,6 +47,9 @@ import javax.xml.parsers.ParserConfigurationException;
 import org.jdtaus.banking.messages.ReadsCurrenciesMessage;
 import org.jdtaus.banking.messages.SearchesCurrenciesMessage;
 import org.jdtaus.banking.spi.CurrencyMapper;
+import org.jdtaus.banking.spi.OperationEvents;
+import org.jdtaus.banking.spi.OperationRecorder;
+import org.jdtaus.banking.spi.ProgressThrottle;
 import org.jdtaus.banking.spi.UnsupportedCurrencyException;
 import org.jdtaus.core.container.ContainerFactory;
 import org.jdtaus.core.container.PropertyException;
@@ -189,16 +192,19 @@ public class JaxpCurrencyDirectory implements CurrencyMapper
             int progress = 0;
             task.setProgress( progress );
 
+            final boolean monitoring = task.getMaximum() > this.getMonitoringThreshold();
+            final ProgressThrottle throttle = new ProgressThrottle( task );
+
             try
             {
-                if ( task.getMaximum() > this.getMonitoringThreshold() )
+                if ( monitoring )
                 {
                     this.getTaskMonitor().monitor( task );
                 }
 
                 for ( final Iterator it = this.isoMap.keySet().iterator(); it.hasNext() && !task.isCancelled(); )
                 {
-                    task.setProgress( progress++ );
+                    throttle.setProgress( progress++ );
                     final String isoCode = (String) it.next();
                     final JaxpCurrency currency = (JaxpCurrency) this.isoMap.get( isoCode );
 
@@ -215,7 +221,7 @@ public class JaxpCurrencyDirectory implements CurrencyMapper
             }
             finally
             {
-                if ( task.getMaximum() > this.getMonitoringThreshold() )
+                if ( monitoring )
                 {
                     this.getTaskMonitor().finish( task );
                 }
@@ -307,6 +313,8 @@ public class JaxpCurrencyDirectory implements CurrencyMapper
                 this.isoMap.clear();
                 this.dtausMap.clear();
 
+                final OperationRecorder[] recorders = this.getOperationRecorder();
+                final Object[] events = OperationEvents.begin( recorders, OperationRecorder.CURRENCY_PARSE );
                 final Document[] docs = this.parseResources();
                 final Collection col = new LinkedList();
 
@@ -333,6 +341,13 @@ public class JaxpCurrencyDirectory implements CurrencyMapper
                     this.getLocale(), new Integer( this.isoMap.size() ), new Integer( docs.length ) ) );
 
                 this.initialized = true;
+
+                if ( events != null )
+                {
+                    OperationEvents.end( recorders, events, OperationEvents.getResource( this.getResources() ), -1L,
+                                         this.isoMap.size(), 0L, 0L );
+
+                }
             }
         }
         catch ( final IOException e )
@@ -742,6 +757,18 @@ public class JaxpCurrencyDirectory implements CurrencyMapper
 
     }
 
+    /**
+     * Gets the configured <code>OperationRecorder</code> implementation.
+     *
+     * @return The configured <code>OperationRecorder</code> implementation.
+     */
+    private OperationRecorder[] getOperationRecorder()
+    {
+        return (OperationRecorder[]) ContainerFactory.getContainer().
+            getDependency( this, "OperationRecorder" );
+
+    }
+
 // </editor-fold>//GEN-END:jdtausDependencies
 
     //------------------------------------------------------------Dependencies--
@@ -20,35 +20,56 @@
  */
 package org.jdtaus.banking.dtaus.ri.zka;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Comparator;
+import java.util.Currency;
 import java.util.Date;
 import java.util.EventListener;
+import java.util.List;
 import java.util.Locale;
 import javax.swing.event.EventListenerList;
 import org.jdtaus.banking.AlphaNumericText27;
+import org.jdtaus.banking.Bankleitzahl;
+import org.jdtaus.banking.Kontonummer;
+import org.jdtaus.banking.Referenznummer11;
 import org.jdtaus.banking.TextschluesselVerzeichnis;
 import org.jdtaus.banking.dtaus.Checksum;
 import org.jdtaus.banking.dtaus.CorruptedException;
 import org.jdtaus.banking.dtaus.Header;
 import org.jdtaus.banking.dtaus.LogicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
 import org.jdtaus.banking.dtaus.Transaction;
 import org.jdtaus.banking.dtaus.spi.CurrencyCounter;
 import org.jdtaus.banking.dtaus.spi.Fields;
 import org.jdtaus.banking.dtaus.spi.HeaderValidator;
+import org.jdtaus.banking.dtaus.spi.MetricsCollector;
+import org.jdtaus.banking.spi.OperationEvents;
+import org.jdtaus.banking.spi.OperationRecorder;
+import org.jdtaus.banking.spi.ProgressThrottle;
 import org.jdtaus.banking.dtaus.spi.IllegalHeaderException;
 import org.jdtaus.banking.dtaus.spi.IllegalTransactionException;
 import org.jdtaus.banking.dtaus.spi.TransactionValidator;
 import org.jdtaus.banking.messages.ChecksumErrorMessage;
 import org.jdtaus.banking.messages.ChecksumsFileMessage;
 import org.jdtaus.banking.messages.IllegalDataMessage;
+import org.jdtaus.banking.messages.SortsTransactionsMessage;
 import org.jdtaus.banking.spi.CurrencyMapper;
 import org.jdtaus.core.container.ContainerFactory;
 import org.jdtaus.core.container.Implementation;
 import org.jdtaus.core.io.FileOperations;
+import org.jdtaus.core.io.util.CoalescingFileOperations;
 import org.jdtaus.core.io.util.FlushableFileOperations;
+import org.jdtaus.core.io.util.RandomAccessFileOperations;
 import org.jdtaus.core.lang.spi.MemoryManager;
 import org.jdtaus.core.logging.spi.Logger;
 import org.jdtaus.core.messages.DeletesBlocksMessage;
@@ -119,6 +140,15 @@ public abstract class AbstractLogicalFile implements LogicalFile
     /** 12/31/2079 23:59:59 CET. */
     private static final long VALID_DATES_END_MILLIS = 3471289199999L;
 
+    /** Geschätzter Speicherbedarf einer Transaktion in Byte. */
+    private static final int TRANSACTION_MEMORY = 2048;
+
+    /** Mindestanzahl im Speicher sortierter Transaktionen bei knappem Speicher. */
+    private static final int MIN_SORT_RUN_LENGTH = 1024;
+
+    /** Maximale Anzahl gleichzeitig zusammengeführter und geöffneter Teilfolgen. */
+    private static final int MAX_MERGE_RUNS = 64;
+
     /** Anzahl Ziffern der größten, abbildbaren Zahl des Formats. */
     private static final int FORMAT_MAX_DIGITS = 17;
 
@@ -174,6 +204,18 @@ public abstract class AbstractLogicalFile implements LogicalFile
     /** EBCDI space character. */
     private static final byte EBCDI_SPACE = (byte) 0x40;
 
+    /**
+     * Index = ASCII-Code, Wert = Zeichen oder {@code null} wenn noch nicht initialisiert.
+     * @since 1.17
+     */
+    private static char[] asciiCharacters;
+
+    /**
+     * Index = EBCDI-Code, Wert = Zeichen oder {@code null} wenn noch nicht initialisiert.
+     * @since 1.17
+     */
+    private static char[] ebcdiCharacters;
+
     /** Verwendete {@code FileOperations} Implementierung. */
     private FileOperations fileOperations;
 
@@ -222,12 +264,78 @@ public abstract class AbstractLogicalFile implements LogicalFile
     /** Pre-allocated temporary buffer. */
     private byte[] defaultBuffer;
 
+    /** Direct buffer for moving bytes within a {@code FileChannel}. */
+    private ByteBuffer channelBuffer;
+
+    /**
+     * Kontext der Instanz.
+     * @since 1.17
+     */
+    private ParseContext parseContext;
+
     /**
      * Maximal erlaubte Anzahl Erweiterungsteile in einem C-Datensatz.
      * @since 1.12
      */
     private Long maximumExtensionCount;
 
+    /**
+     * Maximum number of transactions to sort in memory.
+     * @since 1.17
+     */
+    private Integer sortRunLength;
+
+    /**
+     * Flag indicating secondary indexes are built when scanning the file.
+     * @since 1.17
+     */
+    private Boolean secondaryIndexesEnabled;
+
+    /** Sekundäre Indizes der Transaktionen oder {@code null}. */
+    private SecondaryIndexes secondaryIndexes;
+
+    /**
+     * Position der zuletzt gelesenen Daten.
+     * @since 1.17
+     */
+    private long lastReadPosition = -1L;
+
+    /**
+     * Anzahl der zuletzt gelesenen Bytes.
+     * @since 1.17
+     */
+    private int lastReadLength;
+
+    /**
+     * Zwischengespeicherte {@code MetricsCollector} Implementierungen oder {@code null}.
+     * @since 1.17
+     */
+    private MetricsCollector[] metricsCollectors;
+
+    /**
+     * Zwischengespeicherte {@code OperationRecorder} Implementierungen oder {@code null}.
+     * @since 1.17
+     */
+    private OperationRecorder[] operationRecorders;
+
+    /**
+     * Zuletzt für einen Fingerabdruck aufgelöstes Währungskennzeichen.
+     * @since 1.17
+     */
+    private char fingerprintCurrencyCode;
+
+    /**
+     * Datum zu dem {@code fingerprintCurrencyCode} aufgelöst wurde oder {@code null}.
+     * @since 1.17
+     */
+    private Date fingerprintCurrencyDate;
+
+    /**
+     * Währung von {@code fingerprintCurrencyCode} oder {@code null}.
+     * @since 1.17
+     */
+    private Currency fingerprintCurrency;
+
     /** Statische Initialisierung der konstanten Felder. */
     static
     {
@@ -289,6 +397,37 @@ public abstract class AbstractLogicalFile implements LogicalFile
         return this.configuration;
     }
 
+    /**
+     * Gets the value of property {@code parseContext}.
+     * <p>Wurde kein Kontext gesetzt, wird der Kontext des aktuellen Threads verwendet.</p>
+     *
+     * @return Kontext der Instanz.
+     *
+     * @see ThreadLocalMessages#getParseContext()
+     * @since 1.17
+     */
+    public ParseContext getParseContext()
+    {
+        if ( this.parseContext == null )
+        {
+            this.parseContext = ThreadLocalMessages.getParseContext();
+        }
+
+        return this.parseContext;
+    }
+
+    /**
+     * Sets the value of property {@code parseContext}.
+     *
+     * @param parseContext Kontext der Instanz oder {@code null}, um den Kontext des aktuellen Threads zu verwenden.
+     *
+     * @since 1.17
+     */
+    public void setParseContext( final ParseContext parseContext )
+    {
+        this.parseContext = parseContext;
+    }
+
     /**
      * Sets the value of property {@code configuration}.
      *
@@ -389,6 +528,8 @@ public abstract class AbstractLogicalFile implements LogicalFile
         this.cachedHeader = null;
         this.cachedChecksum = null;
         this.index = null;
+        this.secondaryIndexes = null;
+        this.lastReadPosition = -1L;
         Arrays.fill( this.buffer, (byte) -1 );
     }
 
@@ -446,6 +587,72 @@ public abstract class AbstractLogicalFile implements LogicalFile
         this.maximumExtensionCount = value;
     }
 
+    /**
+     * Gets the maximum number of transactions to sort in memory.
+     *
+     * @return The maximum number of transactions to sort in memory.
+     *
+     * @see #sortTransactions(Comparator)
+     * @since 1.17
+     */
+    public int getSortRunLength()
+    {
+        if ( this.sortRunLength == null )
+        {
+            this.sortRunLength = this.getDefaultSortRunLength();
+        }
+
+        return this.sortRunLength.intValue();
+    }
+
+    /**
+     * Sets the maximum number of transactions to sort in memory.
+     *
+     * @param value The new maximum number of transactions to sort in memory or {@code null}.
+     *
+     * @see #sortTransactions(Comparator)
+     * @since 1.17
+     */
+    public void setSortRunLength( final Integer value )
+    {
+        this.sortRunLength = value;
+    }
+
+    /**
+     * Gets a flag indicating secondary indexes are built when scanning the file.
+     * <p>Secondary indexes not built when scanning the file are built on first use.</p>
+     *
+     * @return {@code true}, if secondary indexes are built when scanning the file; {@code false}, if secondary indexes
+     * are built on demand.
+     *
+     * @see #getTransactionsByTarget(Kontonummer, Bankleitzahl)
+     * @see #getTransactionsByReference(Referenznummer11)
+     * @see #getTransactionsByAmount(BigInteger)
+     * @since 1.17
+     */
+    public boolean isSecondaryIndexesEnabled()
+    {
+        if ( this.secondaryIndexesEnabled == null )
+        {
+            this.secondaryIndexesEnabled = this.isDefaultSecondaryIndexesEnabled();
+        }
+
+        return this.secondaryIndexesEnabled.booleanValue();
+    }
+
+    /**
+     * Sets a flag indicating secondary indexes are built when scanning the file.
+     *
+     * @param value {@code true}, to build secondary indexes when scanning the file; {@code false}, to build secondary
+     * indexes on demand; {@code null}, to use the default.
+     *
+     * @since 1.17
+     */
+    public void setSecondaryIndexesEnabled( final Boolean value )
+    {
+        this.secondaryIndexesEnabled = value;
+    }
+
     /**
      * Adds a {@code Listener} to the listener list.
      *
@@ -520,6 +727,141 @@ public abstract class AbstractLogicalFile implements LogicalFile
         }
     }
 
+    /**
+     * Adds a {@code DiagnosticsListener} to the listener list.
+     *
+     * @param listener The listener to be added to the listener list.
+     *
+     * @throws NullPointerException if {@code listener} is {@code null}.
+     *
+     * @since 1.17
+     */
+    public void addDiagnosticsListener( final DiagnosticsListener listener )
+    {
+        this.listeners.add( DiagnosticsListener.class, listener );
+    }
+
+    /**
+     * Removes a {@code DiagnosticsListener} from the listener list.
+     *
+     * @param listener The listener to be removed from the listener list.
+     *
+     * @throws NullPointerException if {@code listener} is {@code null}.
+     *
+     * @since 1.17
+     */
+    public void removeDiagnosticsListener( final DiagnosticsListener listener )
+    {
+        this.listeners.remove( DiagnosticsListener.class, listener );
+    }
+
+    /**
+     * Gets all currently registered {@code DiagnosticsListener}s.
+     *
+     * @return all currently registered {@code DiagnosticsListener}s.
+     *
+     * @since 1.17
+     */
+    public DiagnosticsListener[] getDiagnosticsListeners()
+    {
+        return (DiagnosticsListener[]) this.listeners.getListeners( DiagnosticsListener.class );
+    }
+
+    /**
+     * Notifies all registered diagnostics listeners about a file error.
+     *
+     * @param event The event describing the file error.
+     *
+     * @throws IOException if a listener fails handling the event.
+     *
+     * @since 1.17
+     */
+    protected void fireDiagnosticReported( final DiagnosticsEvent event ) throws IOException
+    {
+        final Object[] list = this.listeners.getListenerList();
+        for ( int i = list.length - 2; i >= 0; i -= 2 )
+        {
+            if ( list[i] == DiagnosticsListener.class )
+            {
+                ( (DiagnosticsListener) list[i + 1] ).diagnosticReported( event );
+            }
+        }
+    }
+
+    /**
+     * Meldet einen Fehler der Datei.
+     * <p>Die Meldung wird den Meldungen des {@code ParseContext} hinzugefügt und an alle registrierten
+     * {@code DiagnosticsListener} weitergereicht. Bezieht sich die Meldung auf die zuletzt gelesenen Daten, werden die
+     * entsprechenden Bytes dem Ereignis beigefügt.</p>
+     *
+     * @param message Meldung des Fehlers.
+     *
+     * @throws NullPointerException wenn {@code message} {@code null} ist.
+     * @throws IOException wenn nicht gelesen werden kann oder ein {@code DiagnosticsListener} die Verarbeitung
+     * abbricht.
+     *
+     * @see #getParseContext()
+     * @since 1.17
+     */
+    protected void reportMessage( final Message message ) throws IOException
+    {
+        if ( message == null )
+        {
+            throw new NullPointerException( "message" );
+        }
+
+        this.getParseContext().getMessages().addMessage( message );
+
+        if ( message instanceof IllegalDataMessage )
+        {
+            final MetricsCollector[] collectors = this.getMetricsCollectors();
+            for ( int i = collectors.length - 1; i >= 0; i-- )
+            {
+                collectors[i].decodeFailed( ( (IllegalDataMessage) message ).getField() );
+            }
+        }
+
+        if ( this.listeners.getListenerCount( DiagnosticsListener.class ) > 0 )
+        {
+            byte[] data = null;
+
+            if ( message instanceof IllegalDataMessage && this.lastReadPosition >= 0L
+                 && ( (IllegalDataMessage) message ).getPosition() == this.lastReadPosition )
+            {
+                data = new byte[ this.lastReadLength ];
+                this.fileOperations.setFilePointer( this.lastReadPosition );
+
+                int read = 0;
+                int total = 0;
+                do
+                {
+                    read = this.fileOperations.read( data, total, data.length - total );
+                    assert read != FileOperations.EOF : "Unexpected end of file.";
+                    total += read;
+                }
+                while ( total < data.length );
+            }
+
+            this.fireDiagnosticReported( new DiagnosticsEvent( this, message, data ) );
+        }
+    }
+
+    /**
+     * Hilfs-Methode zum Lesen der Daten eines Feldes in den Puffer der Instanz.
+     *
+     * @param position Position ab der gelesen werden soll.
+     * @param len Anzahl Bytes, die gelesen werden sollen.
+     *
+     * @throws IOException wenn nicht gelesen werden kann.
+     */
+    private void readField( final long position, final int len ) throws IOException
+    {
+        this.fileOperations.setFilePointer( position );
+        this.fileOperations.read( this.buffer, 0, len );
+        this.lastReadPosition = position;
+        this.lastReadLength = len;
+    }
+
     /**
      * Hilfs-Methode zum Lesen von Zahlen.
      * <p>Sollten ungültige Daten gelesen werden, so wird {@code NO_NUMBER} zurückgeliefert und eine entsprechende
@@ -532,7 +874,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
      *
      * @return gelesene Zahl oder {@code NO_NUMBER} wenn gelesene Daten nicht als Zahl interpretiert werden konnten.
      *
-     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ThreadLocalMessages#isErrorsEnabled()} gleich
+     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ParseContext#isErrorsEnabled()} gleich
      * {@code true} ist.
      * @throws IOException wenn nicht gelesen werden kann.
      *
@@ -540,7 +882,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
      * @see #ENCODING_EBCDI
      * @see #NO_NUMBER
      * @see org.jdtaus.banking.dtaus.spi.Fields
-     * @see ThreadLocalMessages#isErrorsEnabled()
+     * @see ParseContext#isErrorsEnabled()
      */
     protected Long readNumber( final int field, final long position, final int len, final int encoding )
         throws IOException
@@ -567,7 +909,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
      *
      * @return gelesene Zahl oder {@code NO_NUMBER} wenn gelesene Daten nicht als Zahl interpretiert werden konnten.
      *
-     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ThreadLocalMessages#isErrorsEnabled()} gleich
+     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ParseContext#isErrorsEnabled()} gleich
      * {@code true} ist.
      * @throws IOException wenn nicht gelesen werden kann.
      *
@@ -575,7 +917,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
      * @see #ENCODING_EBCDI
      * @see #NO_NUMBER
      * @see org.jdtaus.banking.dtaus.spi.Fields
-     * @see org.jdtaus.banking.dtaus.ri.zka.ThreadLocalMessages
+     * @see #getParseContext()
      */
     protected Long readNumber( final int field, final long position, final int len, final int encoding,
                                final boolean allowSpaces ) throws IOException
@@ -606,8 +948,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
             throw new IllegalArgumentException( Integer.toString( encoding ) );
         }
 
-        this.fileOperations.setFilePointer( position );
-        this.fileOperations.read( this.buffer, 0, len );
+        this.readField( position, len );
 
         for ( int read = 0; read < len; read++ )
         {
@@ -623,7 +964,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
             if ( !( this.buffer[read] >= table[0] && this.buffer[read] <= table[9] ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position );
                 }
@@ -633,7 +974,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
                         field, IllegalDataMessage.TYPE_NUMERIC, position,
                         Charsets.decode( this.buffer, 0, len, cset ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
 
                 ret = NO_NUMBER;
@@ -726,14 +1067,14 @@ public abstract class AbstractLogicalFile implements LogicalFile
      *
      * @return gelesene Zeichenkette oder {@code null} wenn ungültige Zeichen gelesen werden.
      *
-     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ThreadLocalMessages#isErrorsEnabled()} gleich
+     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ParseContext#isErrorsEnabled()} gleich
      * {@code true} ist.
      * @throws IOException wenn nicht gelesen werden kann.
      *
      * @see #ENCODING_ASCII
      * @see #ENCODING_EBCDI
      * @see org.jdtaus.banking.dtaus.spi.Fields
-     * @see org.jdtaus.banking.dtaus.ri.zka.ThreadLocalMessages
+     * @see #getParseContext()
      */
     protected AlphaNumericText27 readAlphaNumeric( final int field, final long position, final int len,
                                                    final int encoding ) throws IOException
@@ -755,8 +1096,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
             throw new IllegalArgumentException( Integer.toString( encoding ) );
         }
 
-        this.fileOperations.setFilePointer( position );
-        this.fileOperations.read( this.buffer, 0, len );
+        this.readField( position, len );
         str = Charsets.decode( this.buffer, 0, len, cset );
 
         try
@@ -771,7 +1111,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
             }
 
             txt = null;
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), position );
             }
@@ -780,7 +1120,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
                 final Message msg =
                     new IllegalDataMessage( field, IllegalDataMessage.TYPE_ALPHA_NUMERIC, position, str );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -878,14 +1218,14 @@ public abstract class AbstractLogicalFile implements LogicalFile
      *
      * @return das gelesene Datum oder {@code null} wenn kein Datum gelesen werden kann.
      *
-     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ThreadLocalMessages#isErrorsEnabled()} gleich
+     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ParseContext#isErrorsEnabled()} gleich
      * {@code true} ist.
      * @throws IOException wenn nicht gelesen werden kann.
      *
      * @see #ENCODING_ASCII
      * @see #ENCODING_EBCDI
      * @see org.jdtaus.banking.dtaus.spi.Fields
-     * @see org.jdtaus.banking.dtaus.ri.zka.ThreadLocalMessages
+     * @see #getParseContext()
      */
     protected Date readShortDate( final int field, final long position, final int encoding ) throws IOException
     {
@@ -912,8 +1252,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
         try
         {
-            this.fileOperations.setFilePointer( position );
-            this.fileOperations.read( this.buffer, 0, 6 );
+            this.readField( position, 6 );
             str = Charsets.decode( this.buffer, 0, 6, cset );
             len = str.trim().length();
 
@@ -935,14 +1274,14 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
                 if ( !this.checkDate( ret ) )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException( this.getImplementation(), position );
                     }
                     else
                     {
                         msg = new IllegalDataMessage( field, IllegalDataMessage.TYPE_SHORTDATE, position, str );
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
 
                     ret = null;
@@ -968,14 +1307,14 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
         if ( !legal )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), position );
             }
             else
             {
                 msg = new IllegalDataMessage( field, IllegalDataMessage.TYPE_SHORTDATE, position, str );
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -1075,7 +1414,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
      * @see #ENCODING_ASCII
      * @see #ENCODING_EBCDI
      * @see org.jdtaus.banking.dtaus.spi.Fields
-     * @see org.jdtaus.banking.dtaus.ri.zka.ThreadLocalMessages
+     * @see #getParseContext()
      */
     protected Date readLongDate( final int field, final long position, final int encoding ) throws IOException
     {
@@ -1102,8 +1441,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
         try
         {
-            this.fileOperations.setFilePointer( position );
-            this.fileOperations.read( this.buffer, 0, 8 );
+            this.readField( position, 8 );
             str = Charsets.decode( this.buffer, 0, 8, cset );
             len = str.trim().length();
             if ( len == 8 )
@@ -1121,14 +1459,14 @@ public abstract class AbstractLogicalFile implements LogicalFile
                 ret = this.calendar.getTime();
                 if ( !this.checkDate( ret ) )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException( this.getImplementation(), position );
                     }
                     else
                     {
                         msg = new IllegalDataMessage( field, IllegalDataMessage.TYPE_LONGDATE, position, str );
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
 
                     ret = null;
@@ -1155,14 +1493,14 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
         if ( !legal )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), position );
             }
             else
             {
                 msg = new IllegalDataMessage( field, IllegalDataMessage.TYPE_LONGDATE, position, str );
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -1184,7 +1522,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
      * @see #ENCODING_ASCII
      * @see #ENCODING_EBCDI
      * @see org.jdtaus.banking.dtaus.spi.Fields
-     * @see org.jdtaus.banking.dtaus.ri.zka.ThreadLocalMessages
+     * @see #getParseContext()
      */
     protected void writeLongDate( final int field, final long position, final Date date, final int encoding )
         throws IOException
@@ -1256,12 +1594,12 @@ public abstract class AbstractLogicalFile implements LogicalFile
      *
      * @return gelesene Zahl oder {@code NO_NUMBER} wenn gelesene Daten nicht als Zahl interpretiert werden konnten.
      *
-     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ThreadLocalMessages#isErrorsEnabled()} gleich
+     * @throws CorruptedException wenn die Datei Fehler enthält und {@link ParseContext#isErrorsEnabled()} gleich
      * {@code true} ist.
      * @throws IOException wenn nicht gelesen werden kann.
      *
      * @see org.jdtaus.banking.dtaus.spi.Fields
-     * @see ThreadLocalMessages#isErrorsEnabled()
+     * @see ParseContext#isErrorsEnabled()
      * @see #NO_NUMBER
      */
     protected long readNumberPackedPositive( final int field, final long position, final int len, final boolean sign )
@@ -1274,8 +1612,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
         int read = 0;
         Message msg;
 
-        this.fileOperations.setFilePointer( position );
-        this.fileOperations.read( this.buffer, 0, len );
+        this.readField( position, len );
 
         for ( int nibble = 0; nibble < nibbles; nibble++, exp-- )
         {
@@ -1288,7 +1625,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
             {
                 if ( digit != 0xC )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException( this.getImplementation(), position );
                     }
@@ -1297,7 +1634,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
                         msg = new IllegalDataMessage(
                             field, IllegalDataMessage.TYPE_PACKET_POSITIVE, position, Integer.toString( digit ) );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
 
                     ret = NO_NUMBER;
@@ -1308,7 +1645,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
             {
                 if ( digit < 0 || digit > 9 )
                 {
-                    if ( !ThreadLocalMessages.isErrorsEnabled() )
+                    if ( !this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException( this.getImplementation(), position );
                     }
@@ -1317,7 +1654,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
                         msg = new IllegalDataMessage(
                             field, IllegalDataMessage.TYPE_PACKET_POSITIVE, position, Integer.toString( digit ) );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
 
                     ret = NO_NUMBER;
@@ -1417,8 +1754,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
         long ret = 0L;
         int shift = ( len - 1 ) * 8;
 
-        this.fileOperations.setFilePointer( position );
-        this.fileOperations.read( this.buffer, 0, len );
+        this.readField( position, len );
 
         for ( int i = 0; i < len; i++, shift -= 8 )
         {
@@ -1522,6 +1858,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
         {
             this.index = this.getMemoryManager().allocateLongs( checksum.getTransactionCount() + 1 );
             Arrays.fill( this.index, -1L );
+            this.fireIndexResized( 0, this.index.length );
         }
 
         while ( this.index.length < index + 1 )
@@ -1539,12 +1876,15 @@ public abstract class AbstractLogicalFile implements LogicalFile
             final long[] newIndex = this.getMemoryManager().allocateLongs( newLength );
             System.arraycopy( this.index, 0, newIndex, 0, this.index.length );
             Arrays.fill( newIndex, this.index.length, newIndex.length, -1L );
+            this.fireIndexResized( this.index.length, newIndex.length );
             this.index = newIndex;
         }
     }
 
     /**
      * Inserts a given number of bytes at a given position.
+     * <p>If the file operations of the instance are backed by a {@code FileChannel}, bytes are moved using positional
+     * reads and writes through a direct buffer of fixed size. Otherwise bytes are moved using the file operations.</p>
      *
      * @param position The position to insert bytes at.
      * @param bytes The number of bytes to insert.
@@ -1553,8 +1893,11 @@ public abstract class AbstractLogicalFile implements LogicalFile
      */
     protected void insertBytes( final long position, final long bytes ) throws IOException
     {
+        final long startNanos = this.getMetricsCollectors().length > 0 ? Clock.nanoTime() : 0L;
+        final Object[] events = OperationEvents.begin( this.getOperationRecorders(), OperationRecorder.INSERT_BYTES );
         final Task task = new Task();
         long toMoveByte = this.getFileOperations().getLength() - position;
+        final long movedBytes = toMoveByte > 0L ? toMoveByte : 0L;
         long progress = 0L;
         long progressDivisor = 1L;
         long maxProgress = toMoveByte;
@@ -1563,10 +1906,18 @@ public abstract class AbstractLogicalFile implements LogicalFile
         {
             this.getFileOperations().setLength( this.getFileOperations().getLength() + bytes );
             this.fireBytesInserted( position, bytes );
+            this.fireBytesMoved( true, bytes, 0L, startNanos );
+            this.endOperation( events, 0L, bytes, 0L );
             return;
         }
 
-        final byte[] buf = this.getBuffer( toMoveByte > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) toMoveByte );
+        final FileChannel channel = FileChannels.getFileChannel( this.getFileOperations() );
+        final ByteBuffer channelBuf = channel != null ? this.getChannelBuffer() : null;
+        final byte[] buf = channel == null
+                           ? this.getBuffer( toMoveByte > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) toMoveByte )
+                           : null;
+
+        final int bufLen = channel != null ? channelBuf.capacity() : buf.length;
         while ( maxProgress > Integer.MAX_VALUE )
         {
             maxProgress /= 2L;
@@ -1579,6 +1930,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
         task.setMaximum( (int) maxProgress );
         task.setProgress( (int) progress );
         task.setDescription( new InsertsBlocksMessage() );
+        final ProgressThrottle throttle = new ProgressThrottle( task );
 
         final boolean monitoring = toMoveByte > this.getMonitoringThreshold();
         if ( monitoring )
@@ -1589,30 +1941,42 @@ public abstract class AbstractLogicalFile implements LogicalFile
         try
         {
             long readPos = this.getFileOperations().getLength();
+            if ( channel != null )
+            { // Positional writes do not update the length of the file operations.
+                this.getFileOperations().setLength( readPos + bytes );
+            }
+
             while ( toMoveByte > 0L )
             {
-                final int moveLen = buf.length >= toMoveByte ? (int) toMoveByte : buf.length;
+                final int moveLen = bufLen >= toMoveByte ? (int) toMoveByte : bufLen;
                 readPos -= moveLen;
                 final long writePos = readPos + bytes;
 
-                this.getFileOperations().setFilePointer( readPos );
-                int read = 0;
-                int total = 0;
-
-                do
+                if ( channel != null )
                 {
-                    read = this.getFileOperations().read( buf, total, moveLen - total );
-                    assert read != FileOperations.EOF : "Unexpected end of file.";
-                    total += read;
+                    FileChannels.move( channel, readPos, writePos, moveLen, channelBuf );
                 }
-                while ( total < moveLen );
+                else
+                {
+                    this.getFileOperations().setFilePointer( readPos );
+                    int read = 0;
+                    int total = 0;
+
+                    do
+                    {
+                        read = this.getFileOperations().read( buf, total, moveLen - total );
+                        assert read != FileOperations.EOF : "Unexpected end of file.";
+                        total += read;
+                    }
+                    while ( total < moveLen );
 
-                this.getFileOperations().setFilePointer( writePos );
-                this.getFileOperations().write( buf, 0, moveLen );
+                    this.getFileOperations().setFilePointer( writePos );
+                    this.getFileOperations().write( buf, 0, moveLen );
+                }
 
                 toMoveByte -= moveLen;
                 progress += moveLen;
-                task.setProgress( (int) ( progress / progressDivisor ) );
+                throttle.setProgress( (int) ( progress / progressDivisor ) );
             }
         }
         finally
@@ -1624,10 +1988,14 @@ public abstract class AbstractLogicalFile implements LogicalFile
         }
 
         this.fireBytesInserted( position, bytes );
+        this.fireBytesMoved( true, bytes, movedBytes, startNanos );
+        this.endOperation( events, 0L, bytes, movedBytes );
     }
 
     /**
      * Removes a given number of bytes at a given position.
+     * <p>If the file operations of the instance are backed by a {@code FileChannel}, bytes are moved using positional
+     * reads and writes through a direct buffer of fixed size. Otherwise bytes are moved using the file operations.</p>
      *
      * @param position The position to remove bytes at.
      * @param bytes The number of bytes to remove.
@@ -1636,8 +2004,11 @@ public abstract class AbstractLogicalFile implements LogicalFile
      */
     protected void removeBytes( final long position, final long bytes ) throws IOException
     {
+        final long startNanos = this.getMetricsCollectors().length > 0 ? Clock.nanoTime() : 0L;
+        final Object[] events = OperationEvents.begin( this.getOperationRecorders(), OperationRecorder.REMOVE_BYTES );
         final Task task = new Task();
         long toMoveByte = this.getFileOperations().getLength() - position - bytes;
+        final long movedBytes = toMoveByte;
         long progress = 0L;
         long progressDivisor = 1L;
         long maxProgress = toMoveByte;
@@ -1647,10 +2018,18 @@ public abstract class AbstractLogicalFile implements LogicalFile
         {
             this.getFileOperations().setLength( this.getFileOperations().getLength() - bytes );
             this.fireBytesDeleted( position, bytes );
+            this.fireBytesMoved( false, bytes, 0L, startNanos );
+            this.endOperation( events, 0L, bytes, 0L );
             return;
         }
 
-        final byte[] buf = this.getBuffer( toMoveByte > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) toMoveByte );
+        final FileChannel channel = FileChannels.getFileChannel( this.getFileOperations() );
+        final ByteBuffer channelBuf = channel != null ? this.getChannelBuffer() : null;
+        final byte[] buf = channel == null
+                           ? this.getBuffer( toMoveByte > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) toMoveByte )
+                           : null;
+
+        final int bufLen = channel != null ? channelBuf.capacity() : buf.length;
         while ( maxProgress > Integer.MAX_VALUE )
         {
             maxProgress /= 2L;
@@ -1663,6 +2042,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
         task.setMaximum( (int) maxProgress );
         task.setProgress( (int) progress );
         task.setDescription( new DeletesBlocksMessage() );
+        final ProgressThrottle throttle = new ProgressThrottle( task );
 
         final boolean monitoring = toMoveByte > this.getMonitoringThreshold();
         if ( monitoring )
@@ -1675,30 +2055,37 @@ public abstract class AbstractLogicalFile implements LogicalFile
             long readPos = position + bytes;
             while ( toMoveByte > 0L )
             {
-                final int len = toMoveByte <= buf.length ? (int) toMoveByte : buf.length;
+                final int len = toMoveByte <= bufLen ? (int) toMoveByte : bufLen;
                 final long writePos = readPos - bytes;
 
-                this.getFileOperations().setFilePointer( readPos );
-
-                int read = 0;
-                int total = 0;
-                do
+                if ( channel != null )
                 {
-                    read = this.getFileOperations().read( buf, total, len - total );
-                    assert read != FileOperations.EOF : "Unexpected end of file.";
-                    total += read;
-
+                    FileChannels.move( channel, readPos, writePos, len, channelBuf );
                 }
-                while ( total < len );
+                else
+                {
+                    this.getFileOperations().setFilePointer( readPos );
+
+                    int read = 0;
+                    int total = 0;
+                    do
+                    {
+                        read = this.getFileOperations().read( buf, total, len - total );
+                        assert read != FileOperations.EOF : "Unexpected end of file.";
+                        total += read;
+
+                    }
+                    while ( total < len );
 
-                // Move the block count blocks to the beginning.
-                this.getFileOperations().setFilePointer( writePos );
-                this.getFileOperations().write( buf, 0, len );
+                    // Move the block count blocks to the beginning.
+                    this.getFileOperations().setFilePointer( writePos );
+                    this.getFileOperations().write( buf, 0, len );
+                }
 
                 toMoveByte -= len;
                 readPos += len;
                 progress += len;
-                task.setProgress( (int) ( progress / progressDivisor ) );
+                throttle.setProgress( (int) ( progress / progressDivisor ) );
             }
 
             this.getFileOperations().setLength( this.getFileOperations().getLength() - bytes );
@@ -1712,29 +2099,263 @@ public abstract class AbstractLogicalFile implements LogicalFile
         }
 
         this.fireBytesDeleted( position, bytes );
+        this.fireBytesMoved( false, bytes, movedBytes, startNanos );
+        this.endOperation( events, 0L, bytes, movedBytes );
     }
 
-    private byte[] getBuffer( final int requested ) throws IOException
+    /**
+     * Benachrichtigt alle {@code MetricsCollector} Implementierungen über einen gelesenen Datensatz.
+     *
+     * @param type Typ des gelesenen Datensatzes.
+     * @param transaction Transaktion eines C-Datensatzes oder {@code null} für A- und E-Datensätze.
+     *
+     * @since 1.17
+     */
+    protected void fireRecordRead( final char type, final Transaction transaction )
     {
-        final long length = this.getFileOperations().getLength();
+        final MetricsCollector[] collectors = this.getMetricsCollectors();
+        if ( collectors.length > 0 )
+        {
+            final int bytes = transaction != null ? this.byteCount( transaction ) : this.getBlockSize();
+            for ( int i = collectors.length - 1; i >= 0; i-- )
+            {
+                collectors[i].recordRead( type, bytes );
+            }
+        }
+    }
 
-        if ( requested <= 0 || requested > length )
+    /**
+     * Benachrichtigt alle {@code MetricsCollector} Implementierungen über einen geschriebenen Datensatz.
+     *
+     * @param type Typ des geschriebenen Datensatzes.
+     * @param transaction Transaktion eines C-Datensatzes oder {@code null} für A- und E-Datensätze.
+     *
+     * @since 1.17
+     */
+    protected void fireRecordWritten( final char type, final Transaction transaction )
+    {
+        final MetricsCollector[] collectors = this.getMetricsCollectors();
+        if ( collectors.length > 0 )
         {
-            throw new IllegalArgumentException( Integer.toString( requested ) );
+            final int bytes = transaction != null ? this.byteCount( transaction ) : this.getBlockSize();
+            for ( int i = collectors.length - 1; i >= 0; i-- )
+            {
+                collectors[i].recordWritten( type, bytes );
+            }
         }
+    }
 
-        if ( this.defaultBuffer == null )
+    private void fireBytesMoved( final boolean inserted, final long bytes, final long movedBytes,
+                                 final long startNanos )
+    {
+        final MetricsCollector[] collectors = this.getMetricsCollectors();
+        if ( collectors.length > 0 )
         {
-            this.defaultBuffer = this.getMemoryManager().allocateBytes( this.getDefaultBufferSize() );
+            final long nanos = Clock.nanoTime() - startNanos;
+            for ( int i = collectors.length - 1; i >= 0; i-- )
+            {
+                if ( inserted )
+                {
+                    collectors[i].bytesInserted( bytes, movedBytes, nanos );
+                }
+                else
+                {
+                    collectors[i].bytesRemoved( bytes, movedBytes, nanos );
+                }
+            }
         }
+    }
 
-        return requested <= this.defaultBuffer.length || this.getMemoryManager().getAvailableBytes() < requested
-               ? this.defaultBuffer : this.getMemoryManager().allocateBytes( requested );
+    private void fireIndexResized( final int oldCapacity, final int newCapacity )
+    {
+        final MetricsCollector[] collectors = this.getMetricsCollectors();
+        for ( int i = collectors.length - 1; i >= 0; i-- )
+        {
+            collectors[i].indexResized( oldCapacity, newCapacity );
+        }
+    }
 
+    private void fireValidated( final Object validator, final long startNanos )
+    {
+        final MetricsCollector[] collectors = this.getMetricsCollectors();
+        if ( collectors.length > 0 )
+        {
+            final long nanos = Clock.nanoTime() - startNanos;
+            for ( int i = collectors.length - 1; i >= 0; i-- )
+            {
+                collectors[i].validated( validator.getClass(), nanos );
+            }
+        }
     }
 
     /**
-     * Ermittelt die Größe eines Satzabschnitts.
+     * Benachrichtigt alle {@code OperationRecorder} Implementierungen über eine abgeschlossene Operation.
+     *
+     * @param events Ereignisse der Operation oder {@code null}, wenn die Operation nicht aufgezeichnet wird.
+     * @param records Anzahl verarbeiteter Datensätze.
+     * @param bytes Anzahl eingefügter oder entfernter Bytes.
+     * @param movedBytes Anzahl verschobener Bytes.
+     *
+     * @throws IOException wenn die Länge der Datei nicht ermittelt werden kann.
+     */
+    private void endOperation( final Object[] events, final long records, final long bytes, final long movedBytes )
+        throws IOException
+    {
+        if ( events != null )
+        {
+            OperationEvents.end( this.getOperationRecorders(), events,
+                                 OperationEvents.getResource( this.getFileOperations() ) + '#'
+                                     + this.getHeaderPosition(), this.getFileOperations().getLength(), records,
+                                 bytes, movedBytes );
+
+        }
+    }
+
+    /**
+     * Gets the {@code OperationRecorder} implementations of the instance.
+     *
+     * @return The {@code OperationRecorder} implementations of the instance or an empty array, if no implementation is
+     * available.
+     */
+    private OperationRecorder[] getOperationRecorders()
+    {
+        if ( this.operationRecorders == null )
+        {
+            final OperationRecorder[] recorders = this.getOperationRecorder();
+            this.operationRecorders = recorders != null ? recorders : OperationEvents.NO_RECORDERS;
+        }
+
+        return this.operationRecorders;
+    }
+
+    /**
+     * Gets the {@code MetricsCollector} implementations of the instance.
+     *
+     * @return The {@code MetricsCollector} implementations of the instance or an empty array, if no implementation is
+     * available.
+     */
+    private MetricsCollector[] getMetricsCollectors()
+    {
+        if ( this.metricsCollectors == null )
+        {
+            final MetricsCollector[] collectors = this.getMetricsCollector();
+            this.metricsCollectors = collectors != null ? collectors : new MetricsCollector[ 0 ];
+        }
+
+        return this.metricsCollectors;
+    }
+
+    /**
+     * Kopiert die Bytes der Instanz vom A- bis einschließlich E-Datensatz ohne diese zu dekodieren.
+     * <p>Sind beide Dateien durch einen {@code FileChannel} hinterlegt, werden die Bytes über diese Kanäle kopiert.
+     * Ansonsten werden die Bytes über einen Puffer von höchstens der Standardpuffergröße kopiert.</p>
+     *
+     * @param target Datei, in die die Bytes kopiert werden sollen.
+     * @param targetPosition Position in {@code target}, ab der die Bytes geschrieben werden sollen.
+     *
+     * @return Anzahl kopierter Bytes.
+     *
+     * @throws NullPointerException wenn {@code target} {@code null} ist.
+     * @throws IOException wenn nicht gelesen oder geschrieben werden kann.
+     *
+     * @see #copyState(AbstractLogicalFile)
+     * @since 1.17
+     */
+    long transferTo( final FileOperations target, final long targetPosition ) throws IOException
+    {
+        final long length = this.getChecksumPosition() + this.getBlockSize() - this.getHeaderPosition();
+
+        if ( !FileChannels.transfer( this.getFileOperations(), this.getHeaderPosition(), length, target,
+                                     targetPosition ) )
+        { // Kein Kanal verfügbar, Kopieren über einen Puffer höchstens der Standardgröße.
+            FileChannels.copy( this.getFileOperations(), this.getHeaderPosition(), length, target, targetPosition,
+                               this.getBuffer( length > this.getDefaultBufferSize()
+                                               ? this.getDefaultBufferSize() : (int) length ) );
+
+        }
+
+        return length;
+    }
+
+    /**
+     * Übernimmt Prüfsumme, Index und zwischengespeicherte Daten einer logischen Datei, deren Bytes unverändert an die
+     * Position der Instanz kopiert wurden.
+     *
+     * @param source Logische Datei, deren Bytes an die Position der Instanz kopiert wurden.
+     *
+     * @throws NullPointerException wenn {@code source} {@code null} ist.
+     * @throws IllegalArgumentException wenn {@code source} ein anderes Format als die Instanz besitzt.
+     * @throws IOException wenn die Prüfsumme von {@code source} nicht gelesen werden kann.
+     *
+     * @see #transferTo(FileOperations, long)
+     * @since 1.17
+     */
+    void copyState( final AbstractLogicalFile source ) throws IOException
+    {
+        if ( source == null )
+        {
+            throw new NullPointerException( "source" );
+        }
+        if ( source.getBlockSize() != this.getBlockSize() )
+        {
+            throw new IllegalArgumentException( Integer.toString( source.getBlockSize() ) );
+        }
+
+        this.setChecksumPosition(
+            this.getHeaderPosition() + source.getChecksumPosition() - source.getHeaderPosition() );
+
+        this.cachedHeader = source.cachedHeader != null ? (Header) source.cachedHeader.clone() : null;
+        this.cachedChecksum = source.getChecksum();
+        this.secondaryIndexes = null;
+        this.counter = new CurrencyCounter();
+
+        if ( source.counter != null )
+        {
+            this.counter.addAll( source.counter );
+        }
+
+        if ( source.index != null )
+        {
+            this.index = this.getMemoryManager().allocateLongs( source.index.length );
+            System.arraycopy( source.index, 0, this.index, 0, source.index.length );
+        }
+        else
+        {
+            this.index = null;
+        }
+    }
+
+    private ByteBuffer getChannelBuffer()
+    {
+        if ( this.channelBuffer == null )
+        {
+            this.channelBuffer = ByteBuffer.allocateDirect( FileChannels.BUFFER_CAPACITY );
+        }
+
+        return this.channelBuffer;
+    }
+
+    private byte[] getBuffer( final int requested ) throws IOException
+    {
+        final long length = this.getFileOperations().getLength();
+
+        if ( requested <= 0 || requested > length )
+        {
+            throw new IllegalArgumentException( Integer.toString( requested ) );
+        }
+
+        if ( this.defaultBuffer == null )
+        {
+            this.defaultBuffer = this.getMemoryManager().allocateBytes( this.getDefaultBufferSize() );
+        }
+
+        return requested <= this.defaultBuffer.length || this.getMemoryManager().getAvailableBytes() < requested
+               ? this.defaultBuffer : this.getMemoryManager().allocateBytes( requested );
+
+    }
+
+    /**
+     * Ermittelt die Größe eines Satzabschnitts.
      *
      * @return Größe eines Satzabschnitts in Byte.
      */
@@ -1857,7 +2478,9 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
         for ( int i = validators.length - 1; i >= 0; i-- )
         {
+            final long startNanos = this.getMetricsCollectors().length > 0 ? Clock.nanoTime() : 0L;
             result = validators[i].assertValidHeader( this, header, this.counter, result );
+            this.fireValidated( validators[i], startNanos );
         }
 
         if ( result != null && result.getMessages().length > 0 )
@@ -1888,6 +2511,8 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
     protected void checksum() throws IOException
     {
+        final long startNanos = this.getMetricsCollectors().length > 0 ? Clock.nanoTime() : 0L;
+        final Object[] events = OperationEvents.begin( this.getOperationRecorders(), OperationRecorder.CHECKSUM );
         final Checksum c = new Checksum();
         Transaction t = new Transaction();
         final Task task = new Task();
@@ -1904,6 +2529,8 @@ public abstract class AbstractLogicalFile implements LogicalFile
             char type = this.getBlockType( position );
             this.setChecksumPosition( position + this.getBlockSize() );
             this.counter = new CurrencyCounter();
+            this.secondaryIndexes = null;
+            final SecondaryIndexes indexes = this.isSecondaryIndexesEnabled() ? new SecondaryIndexes( 16 ) : null;
 
             if ( type == 'A' )
             {
@@ -1914,11 +2541,21 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
                 while ( position < fileLength && ( type = this.getBlockType( position ) ) == 'C' )
                 {
+                    if ( Thread.interrupted() )
+                    { // Prüfung durch Unterbrechung des Threads abgebrochen.
+                        throw new InterruptedIOException();
+                    }
+
                     this.resizeIndex( transactionIndex, c );
                     this.index[transactionIndex] = position - this.getHeaderPosition();
                     t = this.readTransaction( this.getHeaderPosition() + this.index[transactionIndex++], t );
                     final int len = this.byteCount( t );
 
+                    if ( indexes != null )
+                    {
+                        indexes.add( transactionIndex - 1, t );
+                    }
+
                     if ( t.getCurrency() != null )
                     {
                         this.counter.add( t.getCurrency() );
@@ -1933,26 +2570,27 @@ public abstract class AbstractLogicalFile implements LogicalFile
                     c.setTransactionCount( transactionIndex );
                 }
 
+                this.secondaryIndexes = indexes;
                 this.setChecksumPosition( position );
                 if ( type == 'E' )
                 {
                     final Checksum stored = this.getChecksum();
                     if ( !stored.equals( c ) )
                     {
-                        if ( ThreadLocalMessages.isErrorsEnabled() )
+                        if ( this.getParseContext().isErrorsEnabled() )
                         {
                             throw new CorruptedException( this.getImplementation(), position );
                         }
                         else
                         {
                             final Message msg = new ChecksumErrorMessage( stored, c, this.getHeaderPosition() );
-                            ThreadLocalMessages.getMessages().addMessage( msg );
+                            this.reportMessage( msg );
                         }
                     }
                 }
                 else
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException(
                             this.getImplementation(), position + DTAUSDisk.ERECORD_OFFSETS[1] );
@@ -1964,13 +2602,13 @@ public abstract class AbstractLogicalFile implements LogicalFile
                             Fields.FIELD_E2, IllegalDataMessage.TYPE_CONSTANT, position + DTAUSDisk.ERECORD_OFFSETS[1],
                             Character.toString( type ) );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
             }
             else
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + DTAUSDisk.ARECORD_OFFSETS[1] );
                 }
@@ -1980,7 +2618,7 @@ public abstract class AbstractLogicalFile implements LogicalFile
                         Fields.FIELD_A2, IllegalDataMessage.TYPE_CONSTANT, position + DTAUSDisk.ARECORD_OFFSETS[1],
                         Character.toString( type ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
         }
@@ -1988,6 +2626,18 @@ public abstract class AbstractLogicalFile implements LogicalFile
         {
             this.getTaskMonitor().finish( task );
         }
+
+        final MetricsCollector[] collectors = this.getMetricsCollectors();
+        if ( collectors.length > 0 )
+        {
+            final long nanos = Clock.nanoTime() - startNanos;
+            for ( int i = collectors.length - 1; i >= 0; i-- )
+            {
+                collectors[i].checksumScanned( c.getTransactionCount(), nanos );
+            }
+        }
+
+        this.endOperation( events, c.getTransactionCount() + 2L, 0L, 0L );
     }
 
     public final void createTransaction( final Transaction transaction ) throws IOException
@@ -2010,7 +2660,9 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
         for ( int i = validators.length - 1; i >= 0; i-- )
         {
+            final long startNanos = this.getMetricsCollectors().length > 0 ? Clock.nanoTime() : 0L;
             result = validators[i].assertValidTransaction( this, transaction, result );
+            this.fireValidated( validators[i], startNanos );
         }
 
         if ( result != null && result.getMessages().length > 0 )
@@ -2031,6 +2683,12 @@ public abstract class AbstractLogicalFile implements LogicalFile
         this.writeTransaction( this.getHeaderPosition() + this.index[transactionIndex], transaction );
         this.writeChecksum( checksum );
         this.cachedChecksum = checksum;
+
+        if ( this.secondaryIndexes != null )
+        {
+            this.secondaryIndexes.add( transactionIndex, transaction );
+        }
+
         return transactionIndex;
     }
 
@@ -2045,7 +2703,20 @@ public abstract class AbstractLogicalFile implements LogicalFile
         return this.readTransaction( this.index[index] + this.getHeaderPosition(), new Transaction() );
     }
 
-    public Transaction setTransaction( final int index, final Transaction transaction ) throws IOException
+    /**
+     * Liest eine Transaktion in eine vorhandene Instanz.
+     *
+     * @param index Index der zu lesenden Transaktion.
+     * @param transaction Instanz, in die die Transaktion gelesen werden soll.
+     *
+     * @return {@code transaction} mit den Daten der Transaktion an {@code index}.
+     *
+     * @throws ArrayIndexOutOfBoundsException wenn keine Transaktion an {@code index} existiert.
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @since 1.17
+     */
+    Transaction getTransaction( final int index, final Transaction transaction ) throws IOException
     {
         final Checksum checksum = this.getChecksum();
         if ( !this.checkTransactionId( index, checksum ) )
@@ -2053,98 +2724,957 @@ public abstract class AbstractLogicalFile implements LogicalFile
             throw new ArrayIndexOutOfBoundsException( index );
         }
 
-        IllegalTransactionException result = null;
-        final TransactionValidator[] validators = this.getTransactionValidator();
+        return this.readTransaction( this.index[index] + this.getHeaderPosition(), transaction );
+    }
 
-        for ( int i = validators.length - 1; i >= 0; i-- )
+    /**
+     * Berechnet den Fingerabdruck einer Transaktion.
+     *
+     * @param index Index der Transaktion, deren Fingerabdruck berechnet werden soll.
+     * @param fingerprint Instanz, mit der der Fingerabdruck berechnet werden soll.
+     *
+     * @return der Fingerabdruck der Transaktion an {@code index}.
+     *
+     * @throws ArrayIndexOutOfBoundsException wenn keine Transaktion an {@code index} existiert.
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @see DuplicateTransactionDetector#getFingerprint(Transaction)
+     * @since 1.17
+     */
+    long getFingerprint( final int index, final DuplicateTransactionDetector.Fingerprint fingerprint )
+        throws IOException
+    {
+        final Checksum checksum = this.getChecksum();
+        if ( !this.checkTransactionId( index, checksum ) )
         {
-            result = validators[i].assertValidTransaction( this, transaction, result );
+            throw new ArrayIndexOutOfBoundsException( index );
         }
 
-        if ( result != null && result.getMessages().length > 0 )
-        {
-            throw result;
-        }
+        fingerprint.reset();
+        this.readFingerprint( this.index[index] + this.getHeaderPosition(), fingerprint );
+        return fingerprint.getValue();
+    }
 
-        final Transaction old = this.getTransaction( index );
+    /**
+     * Liest die Felder einer Transaktion, aus denen ihr Fingerabdruck berechnet wird.
+     * <p>Diese Implementierung liest die vollständige Transaktion. Die Formate dieses Pakets lesen ausschließlich die
+     * Bytes der benötigten Felder ohne die Transaktion zu dekodieren.</p>
+     *
+     * @param position Position der Transaktion.
+     * @param fingerprint Instanz, der die Felder der Transaktion hinzugefügt werden sollen.
+     *
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @since 1.17
+     */
+    void readFingerprint( final long position, final DuplicateTransactionDetector.Fingerprint fingerprint )
+        throws IOException
+    {
+        fingerprint.addTransaction( this.readTransaction( position, new Transaction() ) );
+    }
 
-        if ( !old.getCurrency().getCurrencyCode().equals( transaction.getCurrency().getCurrencyCode() ) )
+    /**
+     * Hilfs-Methode zum Lesen von Zahlen für Fingerabdrücke.
+     * <p>Im Gegensatz zu {@link #readNumber(int, long, int, int)} werden ungültige Daten weder gemeldet noch
+     * protokolliert.</p>
+     *
+     * @param field Feld-Konstante des zu lesenden Feldes.
+     * @param position Position ab der Ziffern gelesen werden sollen.
+     * @param len Anzahl von Ziffern, die gelesen werden sollen.
+     * @param encoding zu verwendende Kodierung.
+     *
+     * @return gelesene Zahl oder {@code NO_NUMBER} wenn gelesene Daten nicht als Zahl interpretiert werden konnten.
+     *
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @since 1.17
+     */
+    final long readFingerprintNumber( final int field, final long position, final int len, final int encoding )
+        throws IOException
+    {
+        final byte[] table;
+        final byte[] revTable;
+        final byte space;
+        long ret = 0L;
+
+        if ( encoding == ENCODING_ASCII )
         {
-            this.counter.substract( old.getCurrency() );
-            this.counter.add( transaction.getCurrency() );
+            table = DIGITS_TO_ASCII;
+            revTable = ASCII_TO_DIGITS;
+            space = ASCII_SPACE;
         }
-
-        int i;
-        checksum.subtract( old );
-        checksum.add( transaction );
-        final int oldLen = this.byteCount( old );
-        final int newLen = this.byteCount( transaction );
-        if ( oldLen < newLen )
+        else if ( encoding == ENCODING_EBCDI )
         {
-            final int delta = newLen - oldLen;
-            this.insertBytes( this.getHeaderPosition() + this.index[index], delta );
+            table = DIGITS_TO_EBCDI;
+            revTable = EBCDI_TO_DIGITS;
+            space = EBCDI_SPACE;
+        }
+        else
+        {
+            throw new IllegalArgumentException( Integer.toString( encoding ) );
+        }
 
-            for ( i = index + 1; i < this.index.length; i++ )
-            {
-                if ( this.index[i] != -1L )
-                {
-                    this.index[i] += delta;
-                }
-            }
+        this.readField( position, len );
 
-            this.setChecksumPosition( this.getChecksumPosition() + delta );
-        }
-        else if ( oldLen > newLen )
+        for ( int read = 0; read < len; read++ )
         {
-            final int delta = oldLen - newLen;
-            this.removeBytes( this.getHeaderPosition() + this.index[index], delta );
+            if ( this.buffer[read] == space && this.getConfiguration().isSpaceCharacterAllowed( field ) )
+            {
+                this.buffer[read] = table[0];
+            }
 
-            for ( i = index + 1; i < this.index.length; i++ )
+            if ( !( this.buffer[read] >= table[0] && this.buffer[read] <= table[9] ) )
             {
-                if ( this.index[i] != -1L )
-                {
-                    this.index[i] -= delta;
-                }
+                return NO_NUMBER;
             }
 
-            this.setChecksumPosition( this.getChecksumPosition() - delta );
+            ret += revTable[this.buffer[read] & 0xFF] * EXP10[len - read - 1];
         }
 
-        this.writeTransaction( this.getHeaderPosition() + this.index[index], transaction );
-        this.writeChecksum( checksum );
-        this.cachedChecksum = checksum;
-        return old;
+        return ret;
     }
 
-    public Transaction removeTransaction( final int index ) throws IOException
+    /**
+     * Hilfs-Methode zum Lesen von gepackten EBCDI-Zahlen für Fingerabdrücke.
+     * <p>Im Gegensatz zu {@link #readNumberPackedPositive(int, long, int, boolean)} werden ungültige Daten nicht
+     * gemeldet.</p>
+     *
+     * @param position Position ab der die Daten gelesen werden sollen.
+     * @param len Anzahl von Byte, die gelesen werden sollen.
+     * @param sign {@code true} wenn ein Vorzeichen erwartet wird; {@code false} wenn kein Vorzeichen erwartet wird.
+     *
+     * @return gelesene Zahl oder {@code NO_NUMBER} wenn gelesene Daten nicht als Zahl interpretiert werden konnten.
+     *
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @since 1.17
+     */
+    final long readFingerprintNumberPacked( final long position, final int len, final boolean sign )
+        throws IOException
     {
-        final Checksum checksum = this.getChecksum();
-        if ( !this.checkTransactionId( index, checksum ) )
-        {
-            throw new ArrayIndexOutOfBoundsException( index );
-        }
+        long ret = 0L;
 
-        final Transaction removed = this.getTransaction( index );
-        checksum.setTransactionCount( checksum.getTransactionCount() - 1 );
-        checksum.subtract( removed );
-        this.counter.substract( removed.getCurrency() );
+        this.readField( position, len );
 
-        final int len = this.byteCount( removed );
-        this.removeBytes( this.getHeaderPosition() + this.index[index], len );
-        this.setChecksumPosition( this.getChecksumPosition() - len );
-        for ( int i = index + 1; i < this.index.length; i++ )
+        for ( int read = 0; read < len; read++ )
         {
-            if ( this.index[i] != -1L )
+            final int high = ( this.buffer[read] & 0xF0 ) >> 4;
+            final int low = this.buffer[read] & 0xF;
+            final boolean signNibble = sign && read == len - 1;
+
+            if ( high > 9 || ( signNibble ? low != 0xC : low > 9 ) )
             {
-                this.index[i] -= len;
+                return NO_NUMBER;
             }
 
-            this.index[i - 1] = this.index[i];
+            ret = ret * 10L + high;
+
+            if ( !signNibble )
+            {
+                ret = ret * 10L + low;
+            }
+        }
+
+        return ret;
+    }
+
+    /**
+     * Hilfs-Methode zum Lesen einer Währung für Fingerabdrücke.
+     *
+     * @param position Position des Währungskennzeichens.
+     * @param encoding Zu verwendende Kodierung.
+     *
+     * @return die Währung des Währungskennzeichens an {@code position} oder {@code null} wenn keine Währung gelesen
+     * werden kann.
+     *
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @since 1.17
+     */
+    final Currency readFingerprintCurrency( final long position, final int encoding ) throws IOException
+    {
+        final Date createDate = this.getHeader().getCreateDate();
+
+        if ( createDate == null )
+        {
+            return null;
+        }
+
+        this.readField( position, 1 );
+        final char code = getCharacters( encoding )[this.buffer[0] & 0xFF];
+
+        if ( code != this.fingerprintCurrencyCode || !createDate.equals( this.fingerprintCurrencyDate ) )
+        {
+            this.fingerprintCurrency = this.getCurrencyMapper().getDtausCurrency( code, createDate );
+            this.fingerprintCurrencyCode = code;
+            this.fingerprintCurrencyDate = createDate;
+        }
+
+        return this.fingerprintCurrency;
+    }
+
+    /**
+     * Hilfs-Methode zum Lesen einer alpha-numerischen Zeichenkette in einen Fingerabdruck.
+     *
+     * @param fingerprint Instanz, der die Zeichen hinzugefügt werden sollen.
+     * @param position Position ab der die Zeichen gelesen werden sollen.
+     * @param len Anzahl von Zeichen, die gelesen werden sollen.
+     * @param encoding Zu verwendende Kodierung.
+     *
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @since 1.17
+     */
+    final void readFingerprintDescription( final DuplicateTransactionDetector.Fingerprint fingerprint,
+                                           final long position, final int len, final int encoding )
+        throws IOException
+    {
+        final char[] characters = getCharacters( encoding );
+
+        this.readField( position, len );
+
+        for ( int i = 0; i < len; i++ )
+        {
+            fingerprint.addDescriptionCharacter( characters[this.buffer[i] & 0xFF] );
+        }
+
+        fingerprint.endDescription();
+    }
+
+    /**
+     * Hilfs-Methode zum Ermitteln der Zeichen einer Kodierung.
+     *
+     * @param encoding Zu verwendende Kodierung.
+     *
+     * @return Index = Byte, Wert = Zeichen von {@code encoding}.
+     */
+    private static synchronized char[] getCharacters( final int encoding )
+    {
+        if ( encoding == ENCODING_ASCII )
+        {
+            if ( asciiCharacters == null )
+            {
+                asciiCharacters = decodeCharacters( DIN66003 );
+            }
+
+            return asciiCharacters;
+        }
+        else if ( encoding == ENCODING_EBCDI )
+        {
+            if ( ebcdiCharacters == null )
+            {
+                ebcdiCharacters = decodeCharacters( IBM273 );
+            }
+
+            return ebcdiCharacters;
+        }
+        else
+        {
+            throw new IllegalArgumentException( Integer.toString( encoding ) );
+        }
+    }
+
+    private static char[] decodeCharacters( final String cset )
+    {
+        final byte[] bytes = new byte[ 256 ];
+
+        for ( int i = bytes.length - 1; i >= 0; i-- )
+        {
+            bytes[i] = (byte) i;
+        }
+
+        return Charsets.decode( bytes, 0, bytes.length, cset ).toCharArray();
+    }
+
+    public Transaction setTransaction( final int index, final Transaction transaction ) throws IOException
+    {
+        final Checksum checksum = this.getChecksum();
+        if ( !this.checkTransactionId( index, checksum ) )
+        {
+            throw new ArrayIndexOutOfBoundsException( index );
+        }
+
+        IllegalTransactionException result = null;
+        final TransactionValidator[] validators = this.getTransactionValidator();
+
+        for ( int i = validators.length - 1; i >= 0; i-- )
+        {
+            final long startNanos = this.getMetricsCollectors().length > 0 ? Clock.nanoTime() : 0L;
+            result = validators[i].assertValidTransaction( this, transaction, result );
+            this.fireValidated( validators[i], startNanos );
+        }
+
+        if ( result != null && result.getMessages().length > 0 )
+        {
+            throw result;
+        }
+
+        final Transaction old = this.getTransaction( index );
+
+        if ( !old.getCurrency().getCurrencyCode().equals( transaction.getCurrency().getCurrencyCode() ) )
+        {
+            this.counter.substract( old.getCurrency() );
+            this.counter.add( transaction.getCurrency() );
+        }
+
+        int i;
+        checksum.subtract( old );
+        checksum.add( transaction );
+        final int oldLen = this.byteCount( old );
+        final int newLen = this.byteCount( transaction );
+        if ( oldLen < newLen )
+        {
+            final int delta = newLen - oldLen;
+            this.insertBytes( this.getHeaderPosition() + this.index[index], delta );
+
+            for ( i = index + 1; i < this.index.length; i++ )
+            {
+                if ( this.index[i] != -1L )
+                {
+                    this.index[i] += delta;
+                }
+            }
+
+            this.setChecksumPosition( this.getChecksumPosition() + delta );
+        }
+        else if ( oldLen > newLen )
+        {
+            final int delta = oldLen - newLen;
+            this.removeBytes( this.getHeaderPosition() + this.index[index], delta );
+
+            for ( i = index + 1; i < this.index.length; i++ )
+            {
+                if ( this.index[i] != -1L )
+                {
+                    this.index[i] -= delta;
+                }
+            }
+
+            this.setChecksumPosition( this.getChecksumPosition() - delta );
+        }
+
+        this.writeTransaction( this.getHeaderPosition() + this.index[index], transaction );
+        this.writeChecksum( checksum );
+        this.cachedChecksum = checksum;
+
+        if ( this.secondaryIndexes != null )
+        {
+            this.secondaryIndexes.remove( index, old, false );
+            this.secondaryIndexes.add( index, transaction );
+        }
+
+        return old;
+    }
+
+    public Transaction removeTransaction( final int index ) throws IOException
+    {
+        final Checksum checksum = this.getChecksum();
+        if ( !this.checkTransactionId( index, checksum ) )
+        {
+            throw new ArrayIndexOutOfBoundsException( index );
+        }
+
+        final Transaction removed = this.getTransaction( index );
+        checksum.setTransactionCount( checksum.getTransactionCount() - 1 );
+        checksum.subtract( removed );
+        this.counter.substract( removed.getCurrency() );
+
+        final int len = this.byteCount( removed );
+        this.removeBytes( this.getHeaderPosition() + this.index[index], len );
+        this.setChecksumPosition( this.getChecksumPosition() - len );
+        for ( int i = index + 1; i < this.index.length; i++ )
+        {
+            if ( this.index[i] != -1L )
+            {
+                this.index[i] -= len;
+            }
+
+            this.index[i - 1] = this.index[i];
+        }
+
+        this.writeChecksum( checksum );
+        this.cachedChecksum = checksum;
+
+        if ( this.secondaryIndexes != null )
+        {
+            this.secondaryIndexes.remove( index, removed, true );
+        }
+
+        return removed;
+    }
+
+    /**
+     * Sucht Transaktionen anhand von Kontonummer und Bankleitzahl des Empfängers.
+     *
+     * @param account Kontonummer des Empfängers.
+     * @param bank Bankleitzahl des Empfängers.
+     *
+     * @return Aufsteigend sortierte Indizes der Transaktionen mit Kontonummer {@code account} und Bankleitzahl
+     * {@code bank} des Empfängers oder ein leeres Array, wenn keine entsprechende Transaktion existiert.
+     *
+     * @throws NullPointerException wenn {@code account} oder {@code bank} {@code null} ist.
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @see #isSecondaryIndexesEnabled()
+     * @since 1.17
+     */
+    public int[] getTransactionsByTarget( final Kontonummer account, final Bankleitzahl bank ) throws IOException
+    {
+        if ( account == null )
+        {
+            throw new NullPointerException( "account" );
+        }
+        if ( bank == null )
+        {
+            throw new NullPointerException( "bank" );
+        }
+
+        return this.getSecondaryIndexes().getTransactionsByTarget( account, bank );
+    }
+
+    /**
+     * Sucht Transaktionen anhand ihres Verwendungszwecks.
+     *
+     * @param reference Referenznummer der gesuchten Transaktionen.
+     *
+     * @return Aufsteigend sortierte Indizes der Transaktionen mit Referenznummer {@code reference} oder ein leeres
+     * Array, wenn keine entsprechende Transaktion existiert.
+     *
+     * @throws NullPointerException wenn {@code reference} {@code null} ist.
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @see #isSecondaryIndexesEnabled()
+     * @since 1.17
+     */
+    public int[] getTransactionsByReference( final Referenznummer11 reference ) throws IOException
+    {
+        if ( reference == null )
+        {
+            throw new NullPointerException( "reference" );
+        }
+
+        return this.getSecondaryIndexes().getTransactionsByReference( reference );
+    }
+
+    /**
+     * Sucht Transaktionen anhand ihres Betrags.
+     *
+     * @param amount Betrag der gesuchten Transaktionen.
+     *
+     * @return Aufsteigend sortierte Indizes der Transaktionen mit Betrag {@code amount} oder ein leeres Array, wenn
+     * keine entsprechende Transaktion existiert.
+     *
+     * @throws NullPointerException wenn {@code amount} {@code null} ist.
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @see #isSecondaryIndexesEnabled()
+     * @since 1.17
+     */
+    public int[] getTransactionsByAmount( final BigInteger amount ) throws IOException
+    {
+        if ( amount == null )
+        {
+            throw new NullPointerException( "amount" );
+        }
+
+        return amount.signum() < 0 || amount.bitLength() > 63
+               ? new int[ 0 ] : this.getSecondaryIndexes().getTransactionsByAmount( amount );
+
+    }
+
+    /**
+     * Liefert die sekundären Indizes der Transaktionen und erstellt diese bei Bedarf.
+     *
+     * @return Die sekundären Indizes der Transaktionen.
+     *
+     * @throws IOException wenn nicht gelesen werden kann.
+     */
+    private SecondaryIndexes getSecondaryIndexes() throws IOException
+    {
+        if ( this.secondaryIndexes == null )
+        {
+            final int count = this.getChecksum().getTransactionCount();
+            final SecondaryIndexes indexes = new SecondaryIndexes( count );
+            Transaction t = new Transaction();
+
+            for ( int i = 0; i < count; i++ )
+            {
+                t = this.getTransaction( i, t );
+                indexes.add( i, t );
+            }
+
+            this.secondaryIndexes = indexes;
+        }
+
+        return this.secondaryIndexes;
+    }
+
+    /**
+     * Sortiert die Transaktionen der logischen Datei.
+     * <p>Es werden höchstens {@link #getSortRunLength()} Transaktionen gleichzeitig im Speicher gehalten. Übersteigt
+     * die Anzahl der Transaktionen diesen Wert, werden sortierte Teilfolgen in temporäre Dateien ausgelagert und
+     * anschließend zusammengeführt. Es werden höchstens 64 Teilfolgen gleichzeitig geöffnet und zusammengeführt, bei
+     * mehr Teilfolgen erfolgt die Zusammenführung in mehreren Durchgängen. Die Sortierung ist stabil. Prüfsumme und
+     * Transaktionsanzahl bleiben unverändert.</p>
+     *
+     * @param comparator Vergleicher der Transaktionen.
+     *
+     * @throws NullPointerException wenn {@code comparator} {@code null} ist.
+     * @throws IOException wenn nicht gelesen oder geschrieben werden kann.
+     *
+     * @see TransactionComparator
+     * @since 1.17
+     */
+    public void sortTransactions( final Comparator comparator ) throws IOException
+    {
+        if ( comparator == null )
+        {
+            throw new NullPointerException( "comparator" );
+        }
+
+        final int count = this.getChecksum().getTransactionCount();
+
+        if ( count < 2 )
+        {
+            return;
+        }
+
+        int runLength = this.getSortRunLength();
+        final long availableTransactions = Math.max(
+            this.getMemoryManager().getAvailableBytes() / TRANSACTION_MEMORY, MIN_SORT_RUN_LENGTH );
+
+        if ( availableTransactions < runLength )
+        {
+            runLength = (int) availableTransactions;
+        }
+        if ( runLength < 2 )
+        {
+            runLength = 2;
+        }
+        if ( runLength > count )
+        {
+            runLength = count;
+        }
+
+        // Anzahl Durchgänge zur Zusammenführung der Teilfolgen.
+        int passes = 0;
+        for ( long runCount = ( count + (long) runLength - 1L ) / runLength; runCount > 1L;
+              runCount = ( runCount + MAX_MERGE_RUNS - 1L ) / MAX_MERGE_RUNS )
+        {
+            passes++;
+        }
+
+        final boolean merging = runLength < count;
+        this.secondaryIndexes = null;
+        final Transaction[] transactions = new Transaction[ runLength ];
+        List runs = new ArrayList( merging ? count / runLength + 1 : 0 );
+        final List pending = new ArrayList();
+        final Task task = new Task();
+        task.setIndeterminate( false );
+        task.setCancelable( false );
+        task.setDescription( new SortsTransactionsMessage() );
+        task.setMinimum( 0 );
+        task.setMaximum( (int) Math.min( (long) count * ( passes + 1 ), Integer.MAX_VALUE ) );
+        task.setProgress( 0 );
+        final ProgressThrottle throttle = new ProgressThrottle( task );
+
+        try
+        {
+            this.getTaskMonitor().monitor( task );
+
+            for ( int transactionIndex = 0; transactionIndex < count; )
+            {
+                int length = 0;
+
+                while ( length < runLength && transactionIndex < count )
+                {
+                    transactions[length++] = this.getTransaction( transactionIndex++ );
+                    throttle.setProgress( transactionIndex );
+                }
+
+                Arrays.sort( transactions, 0, length, comparator );
+
+                if ( merging )
+                {
+                    final SortRun run = this.createSortRun( runs.size() );
+                    pending.add( run );
+
+                    for ( int i = 0; i < length; i++ )
+                    {
+                        run.append( transactions[i] );
+                    }
+
+                    run.close();
+                    runs.add( run );
+                    Arrays.fill( transactions, null );
+                }
+                else
+                {
+                    long position = this.getHeaderPosition() + this.getBlockSize();
+
+                    for ( int i = 0; i < length; i++ )
+                    {
+                        this.index[i] = position - this.getHeaderPosition();
+                        this.writeTransaction( position, transactions[i] );
+                        position += this.byteCount( transactions[i] );
+                    }
+                }
+            }
+
+            while ( runs.size() > MAX_MERGE_RUNS )
+            {
+                final List merged = new ArrayList( runs.size() / MAX_MERGE_RUNS + 1 );
+
+                for ( int i = 0; i < runs.size(); i += MAX_MERGE_RUNS )
+                {
+                    final List group = runs.subList( i, Math.min( i + MAX_MERGE_RUNS, runs.size() ) );
+                    final SortRun run = this.createSortRun( merged.size() );
+                    pending.add( run );
+
+                    this.mergeSortRuns( (SortRun[]) group.toArray( new SortRun[ group.size() ] ), comparator,
+                                        throttle, run );
+
+                    run.close();
+                    merged.add( run );
+
+                    for ( int j = group.size() - 1; j >= 0; j-- )
+                    {
+                        ( (SortRun) group.get( j ) ).delete();
+                    }
+                }
+
+                pending.clear();
+                pending.addAll( merged );
+                runs = merged;
+            }
+
+            if ( merging )
+            {
+                this.mergeSortRuns( (SortRun[]) runs.toArray( new SortRun[ runs.size() ] ), comparator, throttle,
+                                    null );
+
+            }
+        }
+        finally
+        {
+            for ( int i = pending.size() - 1; i >= 0; i-- )
+            {
+                ( (SortRun) pending.get( i ) ).delete();
+            }
+
+            this.getTaskMonitor().finish( task );
+        }
+    }
+
+    /**
+     * Erzeugt eine leere Teilfolge in einer temporären Datei.
+     *
+     * @param number Nummer der Teilfolge.
+     *
+     * @return Die zum Schreiben geöffnete Teilfolge.
+     *
+     * @throws IOException wenn nicht gelesen oder geschrieben werden kann.
+     */
+    private SortRun createSortRun( final int number ) throws IOException
+    {
+        final File file = File.createTempFile( "jdtaus", ".tmp" );
+        file.deleteOnExit();
+
+        final SortRun run = new SortRun( number, file );
+
+        try
+        {
+            this.openSortRun( run );
+
+            // A-Datensatz für die Währungsumrechnung.
+            if ( !FileChannels.transfer( this.getFileOperations(), this.getHeaderPosition(), this.getBlockSize(),
+                                         run.logicalFile.getFileOperations(), 0L ) )
+            {
+                FileChannels.copy( this.getFileOperations(), this.getHeaderPosition(), this.getBlockSize(),
+                                   run.logicalFile.getFileOperations(), 0L, this.getBuffer( this.getBlockSize() ) );
+
+            }
+
+            run.position = this.getBlockSize();
+            run.end = this.getBlockSize();
+            return run;
+        }
+        catch ( final IOException e )
+        {
+            run.delete();
+            throw e;
+        }
+    }
+
+    /**
+     * Öffnet die temporäre Datei einer Teilfolge.
+     *
+     * @param run Zu öffnende Teilfolge.
+     *
+     * @throws IOException wenn die temporäre Datei nicht geöffnet werden kann.
+     */
+    private void openSortRun( final SortRun run ) throws IOException
+    {
+        final AbstractLogicalFile logicalFile =
+            this instanceof DTAUSDisk ? (AbstractLogicalFile) new DTAUSDisk() : new DTAUSTape();
+
+        logicalFile.setConfiguration( this.getConfiguration() );
+        logicalFile.setParseContext( this.getParseContext() );
+        logicalFile.setFileOperations( new CoalescingFileOperations(
+            new RandomAccessFileOperations( new RandomAccessFile( run.file, "rw" ) ) ) );
+
+        logicalFile.setHeaderPosition( 0L );
+        logicalFile.setChecksumPosition( this.getBlockSize() );
+        logicalFile.setMaximumExtensionCount( this.maximumExtensionCount );
+        run.logicalFile = logicalFile;
+    }
+
+    /**
+     * Führt sortierte Teilfolgen zusammen.
+     *
+     * @param runs Zusammenzuführende, geschlossene Teilfolgen.
+     * @param comparator Vergleicher der Transaktionen.
+     * @param throttle Fortschritt des überwachten Vorgangs.
+     * @param target Teilfolge, in die die Transaktionen geschrieben werden, oder {@code null}, um die Transaktionen in
+     * die logische Datei zurückzuschreiben.
+     *
+     * @throws IOException wenn nicht gelesen oder geschrieben werden kann.
+     */
+    private void mergeSortRuns( final SortRun[] runs, final Comparator comparator, final ProgressThrottle throttle,
+                                final SortRun target ) throws IOException
+    {
+        final SortRun[] heap = new SortRun[ runs.length ];
+        int size = 0;
+
+        try
+        {
+            for ( int i = 0; i < runs.length; i++ )
+            {
+                this.openSortRun( runs[i] );
+
+                if ( runs[i].next() )
+                {
+                    heap[size] = runs[i];
+                    siftUp( heap, size++, comparator );
+                }
+            }
+
+            long position = this.getHeaderPosition() + this.getBlockSize();
+            int transactionIndex = 0;
+
+            while ( size > 0 )
+            {
+                final SortRun run = heap[0];
+
+                if ( target != null )
+                {
+                    target.append( run.transaction );
+                }
+                else
+                {
+                    this.index[transactionIndex++] = position - this.getHeaderPosition();
+                    this.writeTransaction( position, run.transaction );
+                    position += this.byteCount( run.transaction );
+                }
+
+                throttle.setProgress( throttle.getProgress() + 1 );
+
+                if ( !run.next() )
+                {
+                    heap[0] = heap[--size];
+                    heap[size] = null;
+                }
+
+                siftDown( heap, size, comparator );
+            }
+        }
+        finally
+        {
+            for ( int i = runs.length - 1; i >= 0; i-- )
+            {
+                runs[i].close();
+            }
+        }
+    }
+
+    /**
+     * Stellt die Heap-Eigenschaft nach dem Einfügen eines Elements wieder her.
+     *
+     * @param heap Heap der Teilfolgen.
+     * @param index Index des eingefügten Elements.
+     * @param comparator Vergleicher der Transaktionen.
+     */
+    private static void siftUp( final SortRun[] heap, int index, final Comparator comparator )
+    {
+        final SortRun run = heap[index];
+
+        while ( index > 0 )
+        {
+            final int parent = ( index - 1 ) / 2;
+
+            if ( run.compareTo( heap[parent], comparator ) >= 0 )
+            {
+                break;
+            }
+
+            heap[index] = heap[parent];
+            index = parent;
+        }
+
+        heap[index] = run;
+    }
+
+    /**
+     * Stellt die Heap-Eigenschaft nach dem Ändern des ersten Elements wieder her.
+     *
+     * @param heap Heap der Teilfolgen.
+     * @param size Anzahl Elemente in {@code heap}.
+     * @param comparator Vergleicher der Transaktionen.
+     */
+    private static void siftDown( final SortRun[] heap, final int size, final Comparator comparator )
+    {
+        if ( size == 0 )
+        {
+            return;
+        }
+
+        final SortRun run = heap[0];
+        int index = 0;
+
+        for ( int child = 1; child < size; child = index * 2 + 1 )
+        {
+            if ( child + 1 < size && heap[child + 1].compareTo( heap[child], comparator ) < 0 )
+            {
+                child++;
+            }
+            if ( run.compareTo( heap[child], comparator ) <= 0 )
+            {
+                break;
+            }
+
+            heap[index] = heap[child];
+            index = child;
+        }
+
+        heap[index] = run;
+    }
+
+    /** In eine temporäre Datei ausgelagerte, sortierte Teilfolge von Transaktionen. */
+    private static final class SortRun
+    {
+
+        /** Nummer der Teilfolge zur Erhaltung der Reihenfolge gleicher Transaktionen. */
+        private final int number;
+
+        /** Temporäre Datei der Teilfolge. */
+        private final File file;
+
+        /** Logische Datei der geöffneten Teilfolge oder {@code null}. */
+        private AbstractLogicalFile logicalFile;
+
+        /** Position der nächsten zu lesenden Transaktion. */
+        private long position;
+
+        /** Position hinter der letzten Transaktion. */
+        private long end;
+
+        /** Aktuelle Transaktion. */
+        private Transaction transaction;
+
+        private SortRun( final int number, final File file )
+        {
+            super();
+            this.number = number;
+            this.file = file;
+        }
+
+        /**
+         * Hängt eine Transaktion an die Teilfolge an.
+         *
+         * @param transaction Anzuhängende Transaktion.
+         *
+         * @throws IOException wenn nicht geschrieben werden kann.
+         */
+        private void append( final Transaction transaction ) throws IOException
+        {
+            final int len = this.logicalFile.byteCount( transaction );
+            this.logicalFile.getFileOperations().setLength( this.end + len );
+            this.logicalFile.writeTransaction( this.end, transaction );
+            this.end += len;
+        }
+
+        /**
+         * Liest die nächste Transaktion der Teilfolge.
+         *
+         * @return {@code true}, wenn eine Transaktion gelesen wurde; {@code false}, wenn die Teilfolge erschöpft ist.
+         *
+         * @throws IOException wenn nicht gelesen werden kann.
+         */
+        private boolean next() throws IOException
+        {
+            if ( this.position >= this.end )
+            {
+                this.transaction = null;
+                return false;
+            }
+
+            this.transaction = this.logicalFile.readTransaction(
+                this.position, this.transaction != null ? this.transaction : new Transaction() );
+
+            this.position += this.logicalFile.byteCount( this.transaction );
+            return true;
+        }
+
+        private int compareTo( final SortRun run, final Comparator comparator )
+        {
+            final int ret = comparator.compare( this.transaction, run.transaction );
+            return ret != 0 ? ret : this.number - run.number;
+        }
+
+        /**
+         * Schließt die temporäre Datei der Teilfolge.
+         *
+         * @throws IOException wenn die temporäre Datei nicht geschlossen werden kann.
+         */
+        private void close() throws IOException
+        {
+            if ( this.logicalFile != null )
+            {
+                final FileOperations ops = this.logicalFile.getFileOperations();
+                this.logicalFile = null;
+                this.transaction = null;
+
+                try
+                {
+                    if ( ops instanceof FlushableFileOperations )
+                    {
+                        ( (FlushableFileOperations) ops ).flush();
+                    }
+                }
+                finally
+                {
+                    ops.close();
+                }
+            }
+        }
+
+        /** Schließt und löscht die temporäre Datei der Teilfolge. */
+        private void delete()
+        {
+            try
+            {
+                this.close();
+            }
+            catch ( final IOException e )
+            {
+                // Ignored, the file is deleted anyway.
+            }
+            finally
+            {
+                this.file.delete();
+            }
         }
 
-        this.writeChecksum( checksum );
-        this.cachedChecksum = checksum;
-        return removed;
     }
 
     //--Dependencies------------------------------------------------------------
@@ -2248,6 +3778,30 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
     }
 
+    /**
+     * Gets the configured <code>MetricsCollector</code> implementation.
+     *
+     * @return The configured <code>MetricsCollector</code> implementation.
+     */
+    protected MetricsCollector[] getMetricsCollector()
+    {
+        return (MetricsCollector[]) ContainerFactory.getContainer().
+            getDependency( this, "MetricsCollector" );
+
+    }
+
+    /**
+     * Gets the configured <code>OperationRecorder</code> implementation.
+     *
+     * @return The configured <code>OperationRecorder</code> implementation.
+     */
+    protected OperationRecorder[] getOperationRecorder()
+    {
+        return (OperationRecorder[]) ContainerFactory.getContainer().
+            getDependency( this, "OperationRecorder" );
+
+    }
+
     /**
      * Gets the configured <code>Locale</code> implementation.
      *
@@ -2304,6 +3858,30 @@ public abstract class AbstractLogicalFile implements LogicalFile
 
     }
 
+    /**
+     * Gets the value of property <code>defaultSortRunLength</code>.
+     *
+     * @return Default maximum number of transactions to sort in memory before sorted runs are written to temporary files.
+     */
+    protected java.lang.Integer getDefaultSortRunLength()
+    {
+        return (java.lang.Integer) ContainerFactory.getContainer().
+            getProperty( this, "defaultSortRunLength" );
+
+    }
+
+    /**
+     * Gets the value of property <code>defaultSecondaryIndexesEnabled</code>.
+     *
+     * @return Default flag indicating secondary indexes are built when scanning a file.
+     */
+    protected java.lang.Boolean isDefaultSecondaryIndexesEnabled()
+    {
+        return (java.lang.Boolean) ContainerFactory.getContainer().
+            getProperty( this, "defaultSecondaryIndexesEnabled" );
+
+    }
+
 // </editor-fold>//GEN-END:jdtausProperties
 
     //--------------------------------------------------------------Properties--
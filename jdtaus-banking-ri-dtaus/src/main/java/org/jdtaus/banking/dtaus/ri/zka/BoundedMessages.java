@@ -0,0 +1,78 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import org.jdtaus.core.text.Message;
+import org.jdtaus.core.text.Messages;
+
+/**
+ * Collection of messages limited to a maximum number of messages.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+final class BoundedMessages extends Messages
+{
+
+    /** Serial version UID for backwards compatibility with 1.17.x classes. */
+    private static final long serialVersionUID = -3529271465082640184L;
+
+    /** Maximum number of messages added to the collection. */
+    static final int MAXIMUM_MESSAGES = 100;
+
+    /**
+     * Number of messages added to the instance.
+     * @serial
+     */
+    private int messageCount = 0;
+
+    /** Creates a new {@code BoundedMessages} instance. */
+    BoundedMessages()
+    {
+        super();
+    }
+
+    public void addMessage( final Message message )
+    {
+        if ( this.messageCount + 1L <= Integer.MAX_VALUE && this.messageCount + 1 < MAXIMUM_MESSAGES )
+        {
+            this.messageCount++;
+            super.addMessage( message );
+        }
+    }
+
+    public void removeMessage( final Message message )
+    {
+        if ( this.messageCount - 1 >= 0 )
+        {
+            this.messageCount--;
+            super.removeMessage( message );
+        }
+    }
+
+    public void clear()
+    {
+        this.messageCount = 0;
+        super.clear();
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.lang.reflect.Method;
+
+/**
+ * Provides the time used to measure durations.
+ * <p>Uses {@code System.nanoTime()} when running on a platform providing that method. Falls back to
+ * {@code System.currentTimeMillis()} otherwise.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @since 1.17
+ */
+final class Clock
+{
+
+    /** Nanoseconds per millisecond. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /** {@code System.nanoTime()} or {@code null}. */
+    private static final Method NANO_TIME;
+
+    static
+    {
+        Method nanoTime = null;
+
+        try
+        {
+            nanoTime = System.class.getMethod( "nanoTime", null );
+        }
+        catch ( final NoSuchMethodException e )
+        {
+            nanoTime = null;
+        }
+
+        NANO_TIME = nanoTime;
+    }
+
+    /** Creates a new {@code Clock} instance. */
+    private Clock()
+    {
+        super();
+    }
+
+    /**
+     * Gets the current value of the clock.
+     * <p>Values are only meaningful relative to other values of the clock.</p>
+     *
+     * @return The current value of the clock in nanoseconds.
+     */
+    static long nanoTime()
+    {
+        if ( NANO_TIME != null )
+        {
+            try
+            {
+                return ( (Long) NANO_TIME.invoke( null, null ) ).longValue();
+            }
+            catch ( final Exception e )
+            {
+                // Falls through.
+            }
+        }
+
+        return System.currentTimeMillis() * NANOS_PER_MILLI;
+    }
+
+}
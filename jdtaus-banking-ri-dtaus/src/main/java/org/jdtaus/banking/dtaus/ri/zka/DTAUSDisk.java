@@ -271,7 +271,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( txt.length() != 1 )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + ARECORD_OFFSETS[1] );
                 }
@@ -281,7 +281,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_A2, IllegalDataMessage.TYPE_CONSTANT, position + ARECORD_OFFSETS[1],
                         txt.format() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -305,7 +305,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
         if ( num.longValue() != NO_NUMBER && num.intValue() != this.getBlockSize() )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[0] );
             }
@@ -315,7 +315,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                     Fields.FIELD_A1, IllegalDataMessage.TYPE_CONSTANT, this.getHeaderPosition() + ARECORD_OFFSETS[0],
                     num.toString() );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -325,7 +325,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
         if ( txt != null && ( txt.length() != 1 || txt.charAt( 0 ) != 'A' ) )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[1] );
             }
@@ -335,7 +335,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                     Fields.FIELD_A2, IllegalDataMessage.TYPE_CONSTANT, this.getHeaderPosition() + ARECORD_OFFSETS[1],
                     txt.format() );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -350,7 +350,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
             if ( label == null )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[2] );
@@ -362,7 +362,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_A3, IllegalDataMessage.TYPE_FILETYPE, this.getHeaderPosition() + ARECORD_OFFSETS[2],
                         txt.format() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -380,7 +380,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Bankleitzahl.checkBankleitzahl( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[3] );
@@ -392,7 +392,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_A4, IllegalDataMessage.TYPE_BANKLEITZAHL,
                         this.getHeaderPosition() + ARECORD_OFFSETS[3], num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -411,7 +411,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Bankleitzahl.checkBankleitzahl( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[4] );
@@ -423,7 +423,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_A5, IllegalDataMessage.TYPE_BANKLEITZAHL,
                         this.getHeaderPosition() + ARECORD_OFFSETS[4], num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -444,13 +444,13 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
         if ( createDate == null )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[6] );
             }
             else
             {
-                ThreadLocalMessages.getMessages().addMessage( new IllegalDataMessage(
+                this.reportMessage( new IllegalDataMessage(
                     Fields.FIELD_A7, IllegalDataMessage.TYPE_SHORTDATE, this.getHeaderPosition() + ARECORD_OFFSETS[6],
                     "      " ) );
 
@@ -471,7 +471,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Kontonummer.checkKontonummer( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[8] );
@@ -483,7 +483,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_A9, IllegalDataMessage.TYPE_KONTONUMMER,
                         this.getHeaderPosition() + ARECORD_OFFSETS[8], num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -501,7 +501,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Referenznummer10.checkReferenznummer10( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[9] );
@@ -513,7 +513,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_A10, IllegalDataMessage.TYPE_REFERENZNUMMER,
                         this.getHeaderPosition() + ARECORD_OFFSETS[9], num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -540,7 +540,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
             {
                 if ( txt.length() != 1 )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException(
                             this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[13] );
@@ -552,7 +552,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                             Fields.FIELD_A12, IllegalDataMessage.TYPE_CURRENCY,
                             this.getHeaderPosition() + ARECORD_OFFSETS[13], txt.format() );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
                 else
@@ -562,7 +562,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
                     if ( cur == null )
                     {
-                        if ( ThreadLocalMessages.isErrorsEnabled() )
+                        if ( this.getParseContext().isErrorsEnabled() )
                         {
                             throw new CorruptedException(
                                 this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[13] );
@@ -574,7 +574,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                                 Fields.FIELD_A12, IllegalDataMessage.TYPE_CURRENCY,
                                 this.getHeaderPosition() + ARECORD_OFFSETS[13], txt.format() );
 
-                            ThreadLocalMessages.getMessages().addMessage( msg );
+                            this.reportMessage( msg );
                         }
                     }
 
@@ -583,6 +583,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
             }
         }
 
+        this.fireRecordRead( 'A', null );
         return ret;
     }
 
@@ -657,6 +658,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
             Character.toString( this.getCurrencyMapper().getDtausCode( header.getCurrency(), header.getCreateDate() ) ),
             ENCODING_ASCII );
 
+        this.fireRecordWritten( 'A', null );
     }
 
     protected Checksum readChecksum() throws IOException
@@ -672,7 +674,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
         if ( num.longValue() != NO_NUMBER && num.intValue() != this.getBlockSize() )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException(
                     this.getImplementation(), this.getChecksumPosition() + ERECORD_OFFSETS[0] );
@@ -684,7 +686,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                     Fields.FIELD_E1, IllegalDataMessage.TYPE_CONSTANT, this.getChecksumPosition() + ERECORD_OFFSETS[0],
                     num.toString() );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -694,7 +696,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
         if ( txt != null && ( txt.length() != 1 || txt.charAt( 0 ) != 'E' ) )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException(
                     this.getImplementation(), this.getChecksumPosition() + ERECORD_OFFSETS[1] );
@@ -706,7 +708,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                     Fields.FIELD_E2, IllegalDataMessage.TYPE_CONSTANT, this.getChecksumPosition() + ERECORD_OFFSETS[1],
                     txt.format() );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -746,6 +748,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
             checksum.setSumAmount( num.longValue() );
         }
 
+        this.fireRecordRead( 'E', null );
         return checksum;
     }
 
@@ -792,6 +795,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         this.writeAlphaNumeric(
             Fields.FIELD_E9, this.getChecksumPosition() + ERECORD_OFFSETS[8], ERECORD_LENGTH[8], "", ENCODING_ASCII );
 
+        this.fireRecordWritten( 'E', null );
     }
 
     protected Transaction readTransaction( final long position,
@@ -811,7 +815,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
         if ( extCount != NO_NUMBER && extCount > this.getMaximumExtensionCount() )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(),
                                               position + this.getBlockSize() + CRECORD_OFFSETS2[4] );
@@ -823,7 +827,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                     Fields.FIELD_C18, IllegalDataMessage.TYPE_CONSTANT,
                     position + this.getBlockSize() + CRECORD_OFFSETS2[4], Long.toString( extCount ) );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -834,7 +838,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         if ( num.longValue() != NO_NUMBER && extCount != NO_NUMBER
              && num.intValue() != CRECORD_CONST_LENGTH + extCount * CRECORD_EXT_LENGTH )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[0] );
             }
@@ -843,7 +847,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                 final Message msg = new IllegalDataMessage(
                     Fields.FIELD_C1, IllegalDataMessage.TYPE_NUMERIC, position + CRECORD_OFFSETS1[0], num.toString() );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -853,7 +857,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
         if ( txt != null && ( txt.length() != 1 || txt.charAt( 0 ) != 'C' ) )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[1] );
             }
@@ -862,7 +866,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                 final Message msg = new IllegalDataMessage(
                     Fields.FIELD_C2, IllegalDataMessage.TYPE_CONSTANT, position + CRECORD_OFFSETS1[1], txt.format() );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -874,7 +878,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Bankleitzahl.checkBankleitzahl( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), position + CRECORD_OFFSETS1[2] );
@@ -886,7 +890,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_C3, IllegalDataMessage.TYPE_BANKLEITZAHL, position + CRECORD_OFFSETS1[2],
                         num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -904,7 +908,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Bankleitzahl.checkBankleitzahl( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[3] );
                 }
@@ -914,7 +918,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_C4, IllegalDataMessage.TYPE_BANKLEITZAHL, position + CRECORD_OFFSETS1[3],
                         num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -932,7 +936,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Kontonummer.checkKontonummer( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[4] );
                 }
@@ -942,7 +946,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_C5, IllegalDataMessage.TYPE_KONTONUMMER, position + CRECORD_OFFSETS1[4],
                         num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -960,7 +964,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Referenznummer11.checkReferenznummer11( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[5] );
                 }
@@ -970,7 +974,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_C6, IllegalDataMessage.TYPE_REFERENZNUMMER, position + CRECORD_OFFSETS1[5],
                         num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -996,7 +1000,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
             if ( type == null )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[6] );
                 }
@@ -1006,7 +1010,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_C7A, IllegalDataMessage.TYPE_TEXTSCHLUESSEL, position + CRECORD_OFFSETS1[6],
                         keyType.toString() + num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -1023,7 +1027,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Bankleitzahl.checkBankleitzahl( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[9] );
                 }
@@ -1033,7 +1037,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_C10, IllegalDataMessage.TYPE_BANKLEITZAHL, position + CRECORD_OFFSETS1[9],
                         num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -1051,7 +1055,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( !Kontonummer.checkKontonummer( num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[10] );
                 }
@@ -1061,7 +1065,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_C11, IllegalDataMessage.TYPE_KONTONUMMER, position + CRECORD_OFFSETS1[10],
                         num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -1112,7 +1116,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
         {
             if ( txt.length() != 1 )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), position + this.getBlockSize() + CRECORD_OFFSETS1[10] );
@@ -1124,7 +1128,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         Fields.FIELD_C17A, IllegalDataMessage.TYPE_CURRENCY,
                         position + this.getBlockSize() + CRECORD_OFFSETS1[10], txt.format() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else if ( this.getHeader().getCreateDate() != null )
@@ -1134,7 +1138,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
 
                 if ( cur == null )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException(
                             this.getImplementation(), position + this.getBlockSize() + CRECORD_OFFSETS1[10] );
@@ -1146,7 +1150,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                             Fields.FIELD_C17A, IllegalDataMessage.TYPE_CURRENCY,
                             position + this.getBlockSize() + CRECORD_OFFSETS1[10], txt.format() );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
 
@@ -1180,7 +1184,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
             {
                 if ( transaction.getTargetExt() != null )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException(
                             this.getImplementation(), extPos + CRECORD_EXTINDEX_TO_TYPEOFFSET[i] );
@@ -1192,7 +1196,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                             CRECORD_EXTINDEX_TO_TYPEFIELD[i], IllegalDataMessage.TYPE_CONSTANT,
                             extPos + CRECORD_EXTINDEX_TO_TYPEOFFSET[i], num.toString() );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
                 else
@@ -1211,7 +1215,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
             {
                 if ( transaction.getExecutiveExt() != null )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException(
                             this.getImplementation(), extPos + CRECORD_EXTINDEX_TO_TYPEOFFSET[i] );
@@ -1223,7 +1227,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
                             CRECORD_EXTINDEX_TO_TYPEFIELD[i], IllegalDataMessage.TYPE_CONSTANT,
                             extPos + CRECORD_EXTINDEX_TO_TYPEOFFSET[i], num.toString() );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
                 else
@@ -1233,7 +1237,7 @@ public final class DTAUSDisk extends AbstractLogicalFile
             }
             else if ( num.longValue() != NO_NUMBER )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), extPos + CRECORD_EXTINDEX_TO_TYPEOFFSET[i] );
@@ -1245,15 +1249,59 @@ public final class DTAUSDisk extends AbstractLogicalFile
                         CRECORD_EXTINDEX_TO_TYPEFIELD[i], IllegalDataMessage.TYPE_CONSTANT,
                         extPos + CRECORD_EXTINDEX_TO_TYPEOFFSET[i], num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
         }
 
         transaction.setDescriptions( (AlphaNumericText27[]) desc.toArray( new AlphaNumericText27[ desc.size() ] ) );
+        this.fireRecordRead( 'C', transaction );
         return transaction;
     }
 
+    void readFingerprint( final long position, final DuplicateTransactionDetector.Fingerprint fingerprint )
+        throws IOException
+    {
+        final long secondBlock = position + this.getBlockSize();
+
+        fingerprint.addNumber( this.readFingerprintNumber(
+            Fields.FIELD_C5, position + CRECORD_OFFSETS1[4], CRECORD_LENGTH1[4], ENCODING_ASCII ) );
+
+        fingerprint.addNumber( this.readFingerprintNumber(
+            Fields.FIELD_C4, position + CRECORD_OFFSETS1[3], CRECORD_LENGTH1[3], ENCODING_ASCII ) );
+
+        fingerprint.addNumber( this.readFingerprintNumber(
+            Fields.FIELD_C12, position + CRECORD_OFFSETS1[11], CRECORD_LENGTH1[11], ENCODING_ASCII ) );
+
+        fingerprint.addNumber( this.readFingerprintNumber(
+            Fields.FIELD_C6, position + CRECORD_OFFSETS1[5], CRECORD_LENGTH1[5], ENCODING_ASCII ) );
+
+        fingerprint.addCurrency( this.readFingerprintCurrency( secondBlock + CRECORD_OFFSETS2[2], ENCODING_ASCII ) );
+
+        this.readFingerprintDescription(
+            fingerprint, secondBlock + CRECORD_OFFSETS2[1], CRECORD_LENGTH2[1], ENCODING_ASCII );
+
+        final long extCount = Math.min( this.readFingerprintNumber(
+            Fields.FIELD_C18, secondBlock + CRECORD_OFFSETS2[4], CRECORD_LENGTH2[4], ENCODING_ASCII ),
+                                        this.getMaximumExtensionCount() );
+
+        for ( int i = 0; i < extCount; i++ )
+        {
+            final long extPos = position + CRECORD_EXTINDEX_TO_BLOCKOFFSET[i] * this.getBlockSize();
+            final long type = this.readFingerprintNumber(
+                CRECORD_EXTINDEX_TO_TYPEFIELD[i], extPos + CRECORD_EXTINDEX_TO_TYPEOFFSET[i],
+                CRECORD_EXTINDEX_TO_TYPELENGTH[i], ENCODING_ASCII );
+
+            if ( type == 2L )
+            {
+                this.readFingerprintDescription(
+                    fingerprint, extPos + CRECORD_EXTINDEX_TO_VALUEOFFSET[i], CRECORD_EXTINDEX_TO_VALUELENGTH[i],
+                    ENCODING_ASCII );
+
+            }
+        }
+    }
+
     protected void writeTransaction( final long position, final Transaction transaction ) throws IOException
     {
         AlphaNumericText27 txt;
@@ -1431,6 +1479,8 @@ public final class DTAUSDisk extends AbstractLogicalFile
             extIndex++;
             lastBlockOffset = blockOffset;
         }
+
+        this.fireRecordWritten( 'C', transaction );
     }
 
     protected int byteCount( final Transaction transaction )
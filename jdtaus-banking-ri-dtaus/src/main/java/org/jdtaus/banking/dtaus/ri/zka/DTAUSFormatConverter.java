@@ -0,0 +1,275 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.io.IOException;
+import org.jdtaus.banking.dtaus.Checksum;
+import org.jdtaus.banking.dtaus.CorruptedException;
+import org.jdtaus.banking.dtaus.Header;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
+import org.jdtaus.banking.dtaus.Transaction;
+import org.jdtaus.banking.messages.ConvertsFileMessage;
+import org.jdtaus.banking.spi.ProgressThrottle;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.io.FileOperations;
+import org.jdtaus.core.monitor.spi.Task;
+import org.jdtaus.core.monitor.spi.TaskMonitor;
+
+/**
+ * Converts physical files between the disk and tape formats.
+ * <p>Records are read from the source file and written to the target file in a single sequential pass. Other than
+ * creating a new physical file and adding transactions one by one, no bytes need to be moved in the target file and
+ * memory usage does not depend on the number of transactions of the source file. Every field is decoded using the
+ * layout of the source format and encoded using the layout of the target format so that text is transcoded between the
+ * DIN 66003 and IBM273 character sets and numbers are converted between their textual, packed and binary
+ * representations.</p>
+ * <p><b>Note:</b><br/>
+ * This implementation is not thread-safe.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see PhysicalFileFactory#FORMAT_DISK
+ * @see PhysicalFileFactory#FORMAT_TAPE
+ * @since 1.17
+ */
+public final class DTAUSFormatConverter
+{
+
+    /** Creates a new {@code DTAUSFormatConverter} instance. */
+    public DTAUSFormatConverter()
+    {
+        super();
+    }
+
+    /**
+     * Converts a physical file to a given format.
+     * <p>The content of {@code target} is replaced by the converted file. The source file is expected to be free of
+     * errors. Any file error detected is reported by throwing a {@code CorruptedException}.</p>
+     *
+     * @param source The physical file to convert.
+     * @param sourceFormat The format of {@code source}.
+     * @param target The file to write the converted physical file to.
+     * @param targetFormat The format to convert {@code source} to.
+     *
+     * @throws NullPointerException if either {@code source} or {@code target} is {@code null}.
+     * @throws IllegalArgumentException if {@code sourceFormat} or {@code targetFormat} is not equal to
+     * {@code FORMAT_DISK} and {@code FORMAT_TAPE} or if {@code source} and {@code target} are the same instance.
+     * @throws CorruptedException if {@code source} holds errors.
+     * @throws IOException if reading or writing fails.
+     *
+     * @see PhysicalFileFactory#FORMAT_DISK
+     * @see PhysicalFileFactory#FORMAT_TAPE
+     */
+    public void convert( final FileOperations source, final int sourceFormat, final FileOperations target,
+                         final int targetFormat ) throws IOException
+    {
+        if ( source == null )
+        {
+            throw new NullPointerException( "source" );
+        }
+        if ( target == null )
+        {
+            throw new NullPointerException( "target" );
+        }
+        if ( source == target )
+        {
+            throw new IllegalArgumentException( "target" );
+        }
+
+        this.assertValidFormat( sourceFormat );
+        this.assertValidFormat( targetFormat );
+
+        final ParseContext parseContext = new ParseContext();
+        final long length = source.getLength();
+        long maximumProgress = length;
+        long progressDivisor = 1L;
+
+        while ( maximumProgress > Integer.MAX_VALUE )
+        {
+            maximumProgress /= 2L;
+            progressDivisor *= 2L;
+        }
+
+        final Task task = new Task();
+        task.setIndeterminate( false );
+        task.setCancelable( false );
+        task.setDescription( new ConvertsFileMessage() );
+        task.setMinimum( 0 );
+        task.setProgress( 0 );
+        task.setMaximum( (int) maximumProgress );
+        final ProgressThrottle throttle = new ProgressThrottle( task );
+
+        try
+        {
+            this.getTaskMonitor().monitor( task );
+            target.setLength( 0L );
+
+            long sourcePosition = 0L;
+            long targetPosition = 0L;
+            Transaction transaction = new Transaction();
+
+            // Positions of the record type fields reported for corrupted input.
+            final int headerTypeOffset = sourceFormat == PhysicalFileFactory.FORMAT_DISK
+                                         ? DTAUSDisk.ARECORD_OFFSETS[1]
+                                         : DTAUSTape.ARECORD_OFFSETS[2];
+
+            final int checksumTypeOffset = sourceFormat == PhysicalFileFactory.FORMAT_DISK
+                                           ? DTAUSDisk.ERECORD_OFFSETS[1]
+                                           : DTAUSTape.ERECORD_OFFSETS[2];
+
+            while ( sourcePosition < length )
+            {
+                throttle.setProgress( (int) ( sourcePosition / progressDivisor ) );
+
+                final AbstractLogicalFile in = this.newLogicalFile( sourceFormat, source, sourcePosition, parseContext );
+                final AbstractLogicalFile out = this.newLogicalFile( targetFormat, target, targetPosition, parseContext );
+
+                if ( in.getBlockType( sourcePosition ) != 'A' )
+                {
+                    throw new CorruptedException( in.getImplementation(), sourcePosition + headerTypeOffset );
+                }
+
+                // A-Datensatz.
+                final Header header = in.readHeader();
+                target.setLength( targetPosition + out.getBlockSize() );
+                out.writeHeader( header );
+                sourcePosition += in.getBlockSize();
+                targetPosition += out.getBlockSize();
+
+                // C-Datensätze.
+                final Checksum checksum = new Checksum();
+                char type = '?';
+
+                while ( sourcePosition < length && ( type = in.getBlockType( sourcePosition ) ) == 'C' )
+                {
+                    transaction = in.readTransaction( sourcePosition, transaction );
+                    sourcePosition += in.byteCount( transaction );
+
+                    final int len = out.byteCount( transaction );
+                    target.setLength( targetPosition + len );
+                    out.writeTransaction( targetPosition, transaction );
+                    targetPosition += len;
+
+                    checksum.add( transaction );
+                    checksum.setTransactionCount( checksum.getTransactionCount() + 1 );
+                    throttle.setProgress( (int) ( sourcePosition / progressDivisor ) );
+                }
+
+                // E-Datensatz.
+                if ( type != 'E' )
+                {
+                    throw new CorruptedException( in.getImplementation(), sourcePosition + checksumTypeOffset );
+                }
+
+                in.setChecksumPosition( sourcePosition );
+                if ( !in.readChecksum().equals( checksum ) )
+                {
+                    throw new CorruptedException( in.getImplementation(), sourcePosition );
+                }
+
+                out.setChecksumPosition( targetPosition );
+                target.setLength( targetPosition + out.getBlockSize() );
+                out.writeChecksum( checksum );
+                sourcePosition += in.getBlockSize();
+                targetPosition += out.getBlockSize();
+            }
+        }
+        finally
+        {
+            this.getTaskMonitor().finish( task );
+        }
+    }
+
+    /**
+     * Checks a given format to be one of the supported formats.
+     *
+     * @param format The format to check.
+     *
+     * @throws IllegalArgumentException if {@code format} is not equal to {@code FORMAT_DISK} and {@code FORMAT_TAPE}.
+     */
+    private void assertValidFormat( final int format )
+    {
+        if ( format != PhysicalFileFactory.FORMAT_DISK && format != PhysicalFileFactory.FORMAT_TAPE )
+        {
+            throw new IllegalArgumentException( Integer.toString( format ) );
+        }
+    }
+
+    /**
+     * Creates a new logical file for a given format.
+     *
+     * @param format The format of the logical file to create.
+     * @param fileOperations The file holding the logical file.
+     * @param headerPosition The position of the A record of the logical file.
+     * @param parseContext The context of the logical file.
+     *
+     * @return A new logical file for {@code format} at {@code headerPosition}.
+     *
+     * @throws IOException if creating the logical file fails.
+     */
+    private AbstractLogicalFile newLogicalFile( final int format, final FileOperations fileOperations,
+                                                final long headerPosition, final ParseContext parseContext )
+        throws IOException
+    {
+        final AbstractLogicalFile ret;
+
+        switch ( format )
+        {
+            case PhysicalFileFactory.FORMAT_DISK:
+                ret = new DTAUSDisk();
+                break;
+            case PhysicalFileFactory.FORMAT_TAPE:
+                ret = new DTAUSTape();
+                break;
+            default:
+                throw new IllegalStateException();
+
+        }
+
+        ret.setParseContext( parseContext );
+        ret.setFileOperations( fileOperations );
+        ret.setHeaderPosition( headerPosition );
+        ret.setChecksumPosition( headerPosition + format );
+        return ret;
+    }
+
+    //--Dependencies------------------------------------------------------------
+
+// <editor-fold defaultstate="collapsed" desc=" Generated Code ">//GEN-BEGIN:jdtausDependencies
+    // This section is managed by jdtaus-container-mojo.
+
+    /**
+     * Gets the configured <code>TaskMonitor</code> implementation.
+     *
+     * @return The configured <code>TaskMonitor</code> implementation.
+     */
+    private TaskMonitor getTaskMonitor()
+    {
+        return (TaskMonitor) ContainerFactory.getContainer().
+            getDependency( this, "TaskMonitor" );
+
+    }
+
+// </editor-fold>//GEN-END:jdtausDependencies
+
+    //------------------------------------------------------------Dependencies--
+}
@@ -0,0 +1,922 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.util.Calendar;
+import java.util.Currency;
+import java.util.Date;
+import java.util.Random;
+import org.jdtaus.banking.AlphaNumericText27;
+import org.jdtaus.banking.Bankleitzahl;
+import org.jdtaus.banking.Kontonummer;
+import org.jdtaus.banking.Referenznummer10;
+import org.jdtaus.banking.Referenznummer11;
+import org.jdtaus.banking.Textschluessel;
+import org.jdtaus.banking.TextschluesselVerzeichnis;
+import org.jdtaus.banking.dtaus.Checksum;
+import org.jdtaus.banking.dtaus.Header;
+import org.jdtaus.banking.dtaus.LogicalFileType;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
+import org.jdtaus.banking.dtaus.Transaction;
+import org.jdtaus.banking.messages.GeneratesFileMessage;
+import org.jdtaus.banking.spi.ProgressThrottle;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.io.FileOperations;
+import org.jdtaus.core.io.util.CoalescingFileOperations;
+import org.jdtaus.core.io.util.RandomAccessFileOperations;
+import org.jdtaus.core.monitor.spi.Task;
+import org.jdtaus.core.monitor.spi.TaskMonitor;
+
+/**
+ * Generates synthetic physical files for load testing.
+ * <p>All data is taken from a pseudo random number generator initialized with a configurable seed so that equal
+ * configurations produce equal files. Records are written to the target file in a single sequential pass. Only the
+ * record currently written is held in memory so that files of any number of logical files each holding up to
+ * 9,999,999 transactions can be generated in bounded memory.</p>
+ * <p>Each logical file is either a debit ({@code LK}) or a remittance ({@code GK}) logical file holding transactions
+ * of the {@code Textschluessel} instances of the configured mix allowed for its type. The type of a logical file is
+ * chosen with the total weight of the debit and remittance {@code Textschluessel} instances of the mix. The number of
+ * extensions of each transaction is chosen using a configurable distribution. Defects can be injected at configurable
+ * rates. A defective transaction is written using an unknown {@code Textschluessel}. A defective checksum is written
+ * with an amount sum not matching the transactions of its logical file.</p>
+ * <p><b>Note:</b><br/>
+ * This implementation is not thread-safe.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see PhysicalFileFactory#FORMAT_DISK
+ * @see PhysicalFileFactory#FORMAT_TAPE
+ * @since 1.17
+ */
+public final class DTAUSGenerator
+{
+
+    /** Maximum number of transactions of a logical file. */
+    private static final int MAX_TRANSACTIONS = 9999999;
+
+    /** Maximum number of extensions of a transaction. */
+    private static final int MAX_EXTENSIONS = 15;
+
+    /** Maximum number of extensions of a transaction holding descriptions. */
+    private static final int MAX_DESCRIPTION_EXTENSIONS = 13;
+
+    /** Maximum amount of a generated transaction. */
+    private static final int MAX_AMOUNT = 99999;
+
+    /** Key of the {@code Textschluessel} of defective transactions. */
+    private static final int ILLEGAL_TEXTSCHLUESSEL_KEY = 99;
+
+    /** Seed of the pseudo random number generator. */
+    private long seed;
+
+    /** Format of generated files. */
+    private int format = PhysicalFileFactory.FORMAT_DISK;
+
+    /** Number of logical files of generated files. */
+    private int logicalFileCount = 1;
+
+    /** Number of transactions of each logical file. */
+    private int transactionCount = 1000;
+
+    /** Relative frequencies of the numbers of extensions of transactions. */
+    private double[] extensionWeights =
+    {
+        1.0D
+    };
+
+    /** {@code Textschluessel} instances of generated transactions or {@code null}. */
+    private Textschluessel[] textschluessel;
+
+    /** Relative frequencies of {@code textschluessel} or {@code null}. */
+    private double[] textschluesselWeights;
+
+    /** Rate of defective transactions. */
+    private double transactionDefectRate;
+
+    /** Rate of defective checksums. */
+    private double checksumDefectRate;
+
+    /** Create date of generated logical files or {@code null}. */
+    private Date createDate;
+
+    /** Creates a new {@code DTAUSGenerator} instance. */
+    public DTAUSGenerator()
+    {
+        super();
+    }
+
+    /**
+     * Gets the seed of the pseudo random number generator.
+     *
+     * @return The seed of the pseudo random number generator.
+     */
+    public long getSeed()
+    {
+        return this.seed;
+    }
+
+    /**
+     * Sets the seed of the pseudo random number generator.
+     *
+     * @param value The new seed of the pseudo random number generator.
+     */
+    public void setSeed( final long value )
+    {
+        this.seed = value;
+    }
+
+    /**
+     * Gets the format of generated files.
+     *
+     * @return The format of generated files.
+     *
+     * @see PhysicalFileFactory#FORMAT_DISK
+     * @see PhysicalFileFactory#FORMAT_TAPE
+     */
+    public int getFormat()
+    {
+        return this.format;
+    }
+
+    /**
+     * Sets the format of generated files.
+     *
+     * @param value The new format of generated files.
+     *
+     * @throws IllegalArgumentException if {@code value} is neither {@code FORMAT_DISK} nor {@code FORMAT_TAPE}.
+     *
+     * @see PhysicalFileFactory#FORMAT_DISK
+     * @see PhysicalFileFactory#FORMAT_TAPE
+     */
+    public void setFormat( final int value )
+    {
+        if ( value != PhysicalFileFactory.FORMAT_DISK && value != PhysicalFileFactory.FORMAT_TAPE )
+        {
+            throw new IllegalArgumentException( Integer.toString( value ) );
+        }
+
+        this.format = value;
+    }
+
+    /**
+     * Gets the number of logical files of generated files.
+     *
+     * @return The number of logical files of generated files.
+     */
+    public int getLogicalFileCount()
+    {
+        return this.logicalFileCount;
+    }
+
+    /**
+     * Sets the number of logical files of generated files.
+     *
+     * @param value The new number of logical files of generated files.
+     *
+     * @throws IllegalArgumentException if {@code value} is negative.
+     */
+    public void setLogicalFileCount( final int value )
+    {
+        if ( value < 0 )
+        {
+            throw new IllegalArgumentException( Integer.toString( value ) );
+        }
+
+        this.logicalFileCount = value;
+    }
+
+    /**
+     * Gets the number of transactions of each generated logical file.
+     *
+     * @return The number of transactions of each generated logical file.
+     */
+    public int getTransactionCount()
+    {
+        return this.transactionCount;
+    }
+
+    /**
+     * Sets the number of transactions of each generated logical file.
+     *
+     * @param value The new number of transactions of each generated logical file.
+     *
+     * @throws IllegalArgumentException if {@code value} is negative or greater than {@code 9999999}.
+     */
+    public void setTransactionCount( final int value )
+    {
+        if ( value < 0 || value > MAX_TRANSACTIONS )
+        {
+            throw new IllegalArgumentException( Integer.toString( value ) );
+        }
+
+        this.transactionCount = value;
+    }
+
+    /**
+     * Gets the relative frequencies of the numbers of extensions of generated transactions.
+     *
+     * @return The relative frequencies of the numbers of extensions of generated transactions indexed by the number of
+     * extensions.
+     */
+    public double[] getExtensionWeights()
+    {
+        return (double[]) this.extensionWeights.clone();
+    }
+
+    /**
+     * Sets the relative frequencies of the numbers of extensions of generated transactions.
+     * <p>The weight at index {@code n} is the relative frequency of transactions holding {@code n} extensions. The
+     * first {@code 13} extensions hold descriptions. The remaining two extensions hold the extensions of the names of
+     * the target and the executive.</p>
+     *
+     * @param value The new relative frequencies of the numbers of extensions of generated transactions indexed by the
+     * number of extensions.
+     *
+     * @throws NullPointerException if {@code value} is {@code null}.
+     * @throws IllegalArgumentException if {@code value} is empty, holds more than {@code 16} elements, holds a negative
+     * weight or holds only zero weights.
+     */
+    public void setExtensionWeights( final double[] value )
+    {
+        if ( value == null )
+        {
+            throw new NullPointerException( "value" );
+        }
+        if ( value.length == 0 || value.length > MAX_EXTENSIONS + 1 )
+        {
+            throw new IllegalArgumentException( Integer.toString( value.length ) );
+        }
+
+        assertValidWeights( value );
+        this.extensionWeights = (double[]) value.clone();
+    }
+
+    /**
+     * Gets the {@code Textschluessel} instances of generated transactions.
+     *
+     * @return The {@code Textschluessel} instances of generated transactions or {@code null}, if all
+     * {@code Textschluessel} instances valid at the create date are used with equal weights.
+     */
+    public Textschluessel[] getTextschluessel()
+    {
+        return this.textschluessel != null ? (Textschluessel[]) this.textschluessel.clone() : null;
+    }
+
+    /**
+     * Gets the relative frequencies of the {@code Textschluessel} instances of generated transactions.
+     *
+     * @return The relative frequencies of the {@code Textschluessel} instances of generated transactions or
+     * {@code null}, if all {@code Textschluessel} instances valid at the create date are used with equal weights.
+     */
+    public double[] getTextschluesselWeights()
+    {
+        return this.textschluesselWeights != null ? (double[]) this.textschluesselWeights.clone() : null;
+    }
+
+    /**
+     * Sets the {@code Textschluessel} instances of generated transactions.
+     *
+     * @param types The {@code Textschluessel} instances of generated transactions or {@code null}, to use all
+     * {@code Textschluessel} instances valid at the create date with equal weights.
+     * @param weights The relative frequencies of the elements of {@code types} or {@code null}, if {@code types} is
+     * {@code null}.
+     *
+     * @throws NullPointerException if {@code types} is not {@code null} and {@code weights} is {@code null} or if
+     * {@code types} holds {@code null} elements.
+     * @throws IllegalArgumentException if {@code types} is not {@code null} and {@code types} is empty, the lengths of
+     * {@code types} and {@code weights} differ, {@code weights} holds a negative weight or holds only zero weights.
+     */
+    public void setTextschluessel( final Textschluessel[] types, final double[] weights )
+    {
+        if ( types == null )
+        {
+            this.textschluessel = null;
+            this.textschluesselWeights = null;
+            return;
+        }
+        if ( weights == null )
+        {
+            throw new NullPointerException( "weights" );
+        }
+        if ( types.length == 0 || types.length != weights.length )
+        {
+            throw new IllegalArgumentException( Integer.toString( weights.length ) );
+        }
+
+        for ( int i = types.length - 1; i >= 0; i-- )
+        {
+            if ( types[i] == null )
+            {
+                throw new NullPointerException( "types[" + i + "]" );
+            }
+        }
+
+        assertValidWeights( weights );
+        this.textschluessel = (Textschluessel[]) types.clone();
+        this.textschluesselWeights = (double[]) weights.clone();
+    }
+
+    /**
+     * Gets the rate of defective transactions.
+     *
+     * @return The rate of defective transactions.
+     */
+    public double getTransactionDefectRate()
+    {
+        return this.transactionDefectRate;
+    }
+
+    /**
+     * Sets the rate of defective transactions.
+     *
+     * @param value The new rate of defective transactions.
+     *
+     * @throws IllegalArgumentException if {@code value} is not a rate between {@code 0} and {@code 1}.
+     */
+    public void setTransactionDefectRate( final double value )
+    {
+        assertValidRate( value );
+        this.transactionDefectRate = value;
+    }
+
+    /**
+     * Gets the rate of defective checksums.
+     *
+     * @return The rate of defective checksums.
+     */
+    public double getChecksumDefectRate()
+    {
+        return this.checksumDefectRate;
+    }
+
+    /**
+     * Sets the rate of defective checksums.
+     *
+     * @param value The new rate of defective checksums.
+     *
+     * @throws IllegalArgumentException if {@code value} is not a rate between {@code 0} and {@code 1}.
+     */
+    public void setChecksumDefectRate( final double value )
+    {
+        assertValidRate( value );
+        this.checksumDefectRate = value;
+    }
+
+    /**
+     * Gets the create date of generated logical files.
+     *
+     * @return The create date of generated logical files or {@code null}, if the current day is used.
+     */
+    public Date getCreateDate()
+    {
+        return this.createDate != null ? (Date) this.createDate.clone() : null;
+    }
+
+    /**
+     * Sets the create date of generated logical files.
+     * <p>Generated files only depend on the configured seed, if the create date is set.</p>
+     *
+     * @param value The new create date of generated logical files or {@code null}, to use the current day.
+     */
+    public void setCreateDate( final Date value )
+    {
+        this.createDate = value != null ? (Date) value.clone() : null;
+    }
+
+    /**
+     * Generates a physical file.
+     * <p>The content of {@code target} is replaced by the generated file.</p>
+     *
+     * @param target The file to write the generated physical file to.
+     *
+     * @throws NullPointerException if {@code target} is {@code null}.
+     * @throws IllegalStateException if the {@code Textschluessel} instances to use are neither allowed in debit nor
+     * in remittance logical files.
+     * @throws IOException if writing fails.
+     */
+    public void generate( final FileOperations target ) throws IOException
+    {
+        if ( target == null )
+        {
+            throw new NullPointerException( "target" );
+        }
+
+        final Date date = this.createDate != null ? this.createDate : getToday();
+        Textschluessel[] types = this.textschluessel;
+        double[] weights = this.textschluesselWeights;
+
+        if ( types == null )
+        {
+            types = this.getTextschluesselVerzeichnis().searchTextschluessel( null, null, date );
+            weights = new double[ types.length ];
+            for ( int i = weights.length - 1; i >= 0; i-- )
+            {
+                weights[i] = 1.0D;
+            }
+        }
+
+        // Splits the mix into debit and remittance Textschluessel.
+        final double[] debitWeights = new double[ types.length ];
+        final double[] remittanceWeights = new double[ types.length ];
+        double debitWeight = 0.0D;
+        double remittanceWeight = 0.0D;
+
+        for ( int i = types.length - 1; i >= 0; i-- )
+        {
+            if ( types[i].isDebit() )
+            {
+                debitWeights[i] = weights[i];
+                debitWeight += weights[i];
+            }
+            else if ( types[i].isRemittance() )
+            {
+                remittanceWeights[i] = weights[i];
+                remittanceWeight += weights[i];
+            }
+        }
+
+        if ( debitWeight + remittanceWeight <= 0.0D )
+        {
+            throw new IllegalStateException();
+        }
+
+        final double[] debitDistribution = getDistribution( debitWeights );
+        final double[] remittanceDistribution = getDistribution( remittanceWeights );
+        final double[] extensionDistribution = getDistribution( this.extensionWeights );
+        final double debitRate = debitWeight / ( debitWeight + remittanceWeight );
+
+        final Textschluessel illegalType = new Textschluessel();
+        illegalType.setKey( ILLEGAL_TEXTSCHLUESSEL_KEY );
+        illegalType.setExtension( 0 );
+
+        final Random random = new Random( this.seed );
+        final ParseContext parseContext = new ParseContext();
+        final Currency currency = Currency.getInstance( "EUR" );
+        final Header header = new Header();
+        final Transaction transaction = new Transaction();
+
+        long maximumProgress = (long) this.logicalFileCount * (long) this.transactionCount;
+        long progressDivisor = 1L;
+
+        while ( maximumProgress > Integer.MAX_VALUE )
+        {
+            maximumProgress /= 2L;
+            progressDivisor *= 2L;
+        }
+
+        final Task task = new Task();
+        task.setIndeterminate( false );
+        task.setCancelable( false );
+        task.setDescription( new GeneratesFileMessage() );
+        task.setMinimum( 0 );
+        task.setProgress( 0 );
+        task.setMaximum( (int) maximumProgress );
+        final ProgressThrottle throttle = new ProgressThrottle( task );
+
+        try
+        {
+            this.getTaskMonitor().monitor( task );
+            target.setLength( 0L );
+
+            long position = 0L;
+            long progress = 0L;
+
+            for ( int f = 0; f < this.logicalFileCount; f++ )
+            {
+                final boolean debit = random.nextDouble() < debitRate;
+                final double[] typeDistribution = debit ? debitDistribution : remittanceDistribution;
+                final AbstractLogicalFile out = this.newLogicalFile( target, position, parseContext );
+
+                // A-Datensatz.
+                header.setType( debit ? LogicalFileType.LK : LogicalFileType.GK );
+                header.setCustomer( AlphaNumericText27.valueOf( "AUFTRAGGEBER " + f ) );
+                header.setAccount( nextKontonummer( random ) );
+                header.setBank( nextBankleitzahl( random ) );
+                header.setBankData( null );
+                header.setReference( Referenznummer10.valueOf( new Long( f ) ) );
+                header.setCreateDate( date );
+                header.setExecutionDate( null );
+                header.setCurrency( currency );
+
+                target.setLength( position + out.getBlockSize() );
+                out.writeHeader( header );
+                position += out.getBlockSize();
+
+                // C-Datensätze.
+                final Checksum checksum = new Checksum();
+
+                for ( int t = 0; t < this.transactionCount; t++, progress++ )
+                {
+                    throttle.setProgress( (int) ( progress / progressDivisor ) );
+
+                    final Textschluessel type = random.nextDouble() < this.transactionDefectRate
+                                                ? illegalType : types[choose( random, typeDistribution )];
+
+                    final int extensions = choose( random, extensionDistribution );
+                    final int descriptionCount = 1 + Math.min( extensions, MAX_DESCRIPTION_EXTENSIONS );
+                    final AlphaNumericText27[] descriptions = new AlphaNumericText27[ descriptionCount ];
+
+                    descriptions[0] = AlphaNumericText27.valueOf( "RECHNUNG " + random.nextInt( 100000000 ) );
+                    for ( int d = 1; d < descriptionCount; d++ )
+                    {
+                        descriptions[d] = AlphaNumericText27.valueOf( "POSITION " + d );
+                    }
+
+                    transaction.setType( type );
+                    transaction.setAmount( BigInteger.valueOf( random.nextInt( MAX_AMOUNT ) + 1 ) );
+                    transaction.setCurrency( currency );
+                    transaction.setReference( Referenznummer11.valueOf( new Long( t ) ) );
+                    transaction.setExecutiveAccount( header.getAccount() );
+                    transaction.setExecutiveBank( header.getBank() );
+                    transaction.setExecutiveName( header.getCustomer() );
+                    transaction.setExecutiveExt( extensions > MAX_DESCRIPTION_EXTENSIONS + 1
+                                                 ? AlphaNumericText27.valueOf( "ABTEILUNG " + f ) : null );
+
+                    transaction.setTargetAccount( nextKontonummer( random ) );
+                    transaction.setTargetBank( nextBankleitzahl( random ) );
+                    transaction.setTargetName( AlphaNumericText27.valueOf( "KUNDE " + random.nextInt( 1000000 ) ) );
+                    transaction.setTargetExt( extensions > MAX_DESCRIPTION_EXTENSIONS
+                                              ? AlphaNumericText27.valueOf( "Z.H. KUNDE " + t ) : null );
+
+                    transaction.setDescriptions( descriptions );
+                    transaction.setPrimaryBank( null );
+
+                    final int len = out.byteCount( transaction );
+                    target.setLength( position + len );
+                    out.writeTransaction( position, transaction );
+                    position += len;
+
+                    checksum.add( transaction );
+                    checksum.setTransactionCount( checksum.getTransactionCount() + 1 );
+                }
+
+                // E-Datensatz.
+                if ( random.nextDouble() < this.checksumDefectRate )
+                {
+                    checksum.setSumAmount( checksum.getSumAmount() + 1L );
+                }
+
+                out.setChecksumPosition( position );
+                target.setLength( position + out.getBlockSize() );
+                out.writeChecksum( checksum );
+                position += out.getBlockSize();
+            }
+        }
+        finally
+        {
+            this.getTaskMonitor().finish( task );
+        }
+    }
+
+    /**
+     * Command line interface.
+     * <p>Usage: {@code DTAUSGenerator [-format disk|tape] [-seed <n>] [-logicalFiles <n>] [-transactions <n>]
+     * [-extensions <w0,w1,...>] [-textschluessel <KKEEE=w,...>] [-transactionDefectRate <r>]
+     * [-checksumDefectRate <r>] [-createDate <yyyy-MM-dd>] <file>}</p>
+     * <p>Textschluessel are given by their two digit key followed by their three digit extension.</p>
+     *
+     * @param args Command line arguments.
+     *
+     * @throws IOException if generating the file fails.
+     */
+    public static void main( final String[] args ) throws IOException
+    {
+        final DTAUSGenerator generator = new DTAUSGenerator();
+        String textschluessel = null;
+        File file = null;
+
+        try
+        {
+            for ( int i = 0; i < args.length; i++ )
+            {
+                if ( !args[i].startsWith( "-" ) && i == args.length - 1 )
+                {
+                    file = new File( args[i] );
+                }
+                else if ( i + 1 >= args.length )
+                {
+                    throw new IllegalArgumentException( args[i] );
+                }
+                else if ( "-format".equals( args[i] ) )
+                {
+                    generator.setFormat( "tape".equals( args[++i] ) ? PhysicalFileFactory.FORMAT_TAPE
+                                         : "disk".equals( args[i] ) ? PhysicalFileFactory.FORMAT_DISK : 0 );
+
+                }
+                else if ( "-seed".equals( args[i] ) )
+                {
+                    generator.setSeed( Long.parseLong( args[++i] ) );
+                }
+                else if ( "-logicalFiles".equals( args[i] ) )
+                {
+                    generator.setLogicalFileCount( Integer.parseInt( args[++i] ) );
+                }
+                else if ( "-transactions".equals( args[i] ) )
+                {
+                    generator.setTransactionCount( Integer.parseInt( args[++i] ) );
+                }
+                else if ( "-extensions".equals( args[i] ) )
+                {
+                    final String[] weights = args[++i].split( "," );
+                    final double[] extensionWeights = new double[ weights.length ];
+                    for ( int w = weights.length - 1; w >= 0; w-- )
+                    {
+                        extensionWeights[w] = Double.parseDouble( weights[w] );
+                    }
+
+                    generator.setExtensionWeights( extensionWeights );
+                }
+                else if ( "-textschluessel".equals( args[i] ) )
+                {
+                    textschluessel = args[++i];
+                }
+                else if ( "-transactionDefectRate".equals( args[i] ) )
+                {
+                    generator.setTransactionDefectRate( Double.parseDouble( args[++i] ) );
+                }
+                else if ( "-checksumDefectRate".equals( args[i] ) )
+                {
+                    generator.setChecksumDefectRate( Double.parseDouble( args[++i] ) );
+                }
+                else if ( "-createDate".equals( args[i] ) )
+                {
+                    final String[] fields = args[++i].split( "-" );
+                    if ( fields.length != 3 )
+                    {
+                        throw new IllegalArgumentException( args[i] );
+                    }
+
+                    final Calendar cal = Calendar.getInstance();
+                    cal.clear();
+                    cal.set( Integer.parseInt( fields[0] ), Integer.parseInt( fields[1] ) - 1,
+                             Integer.parseInt( fields[2] ) );
+
+                    generator.setCreateDate( cal.getTime() );
+                }
+                else
+                {
+                    throw new IllegalArgumentException( args[i] );
+                }
+            }
+
+            if ( file == null )
+            {
+                throw new IllegalArgumentException();
+            }
+            if ( textschluessel != null )
+            {
+                generator.setTextschluessel( textschluessel );
+            }
+        }
+        catch ( IllegalArgumentException e )
+        {
+            System.err.println( "Usage: DTAUSGenerator [-format disk|tape] [-seed <n>] [-logicalFiles <n>] "
+                                + "[-transactions <n>] [-extensions <w0,w1,...>] [-textschluessel <KKEEE=w,...>] "
+                                + "[-transactionDefectRate <r>] [-checksumDefectRate <r>] [-createDate <yyyy-MM-dd>] "
+                                + "<file>" );
+
+            if ( e.getMessage() != null )
+            {
+                System.err.println( e.getMessage() );
+            }
+
+            System.exit( 1 );
+            return;
+        }
+
+        final CoalescingFileOperations ops =
+            new CoalescingFileOperations( new RandomAccessFileOperations( new RandomAccessFile( file, "rw" ) ) );
+
+        try
+        {
+            generator.generate( ops );
+            ops.flush();
+        }
+        finally
+        {
+            ops.close();
+        }
+    }
+
+    /**
+     * Sets the {@code Textschluessel} instances of generated transactions from a command line argument.
+     *
+     * @param mix Comma separated list of {@code Textschluessel} given by their two digit key followed by their three
+     * digit extension and an optional weight separated by {@code =}.
+     *
+     * @throws IllegalArgumentException if {@code mix} is illegal or refers to an unknown {@code Textschluessel}.
+     */
+    private void setTextschluessel( final String mix )
+    {
+        final Date date = this.createDate != null ? this.createDate : getToday();
+        final String[] entries = mix.split( "," );
+        final Textschluessel[] types = new Textschluessel[ entries.length ];
+        final double[] weights = new double[ entries.length ];
+
+        for ( int i = entries.length - 1; i >= 0; i-- )
+        {
+            final int separator = entries[i].indexOf( '=' );
+            final String code = separator < 0 ? entries[i] : entries[i].substring( 0, separator );
+
+            if ( code.length() != 5 )
+            {
+                throw new IllegalArgumentException( entries[i] );
+            }
+
+            types[i] = this.getTextschluesselVerzeichnis().getTextschluessel(
+                Integer.parseInt( code.substring( 0, 2 ) ), Integer.parseInt( code.substring( 2 ) ), date );
+
+            if ( types[i] == null )
+            {
+                throw new IllegalArgumentException( entries[i] );
+            }
+
+            weights[i] = separator < 0 ? 1.0D : Double.parseDouble( entries[i].substring( separator + 1 ) );
+        }
+
+        this.setTextschluessel( types, weights );
+    }
+
+    /**
+     * Creates a new logical file for the configured format.
+     *
+     * @param fileOperations The file holding the logical file.
+     * @param headerPosition The position of the A record of the logical file.
+     * @param parseContext The context of the logical file.
+     *
+     * @return A new logical file for the configured format at {@code headerPosition}.
+     *
+     * @throws IOException if creating the logical file fails.
+     */
+    private AbstractLogicalFile newLogicalFile( final FileOperations fileOperations, final long headerPosition,
+                                                final ParseContext parseContext ) throws IOException
+    {
+        final AbstractLogicalFile ret =
+            this.format == PhysicalFileFactory.FORMAT_TAPE ? (AbstractLogicalFile) new DTAUSTape() : new DTAUSDisk();
+
+        ret.setParseContext( parseContext );
+        ret.setFileOperations( fileOperations );
+        ret.setHeaderPosition( headerPosition );
+        ret.setChecksumPosition( headerPosition + this.format );
+        return ret;
+    }
+
+    /**
+     * Computes the cumulative distribution of given weights.
+     *
+     * @param weights The weights to compute the cumulative distribution of.
+     *
+     * @return The cumulative distribution of {@code weights}.
+     */
+    private static double[] getDistribution( final double[] weights )
+    {
+        final double[] distribution = new double[ weights.length ];
+        double sum = 0.0D;
+
+        for ( int i = 0; i < weights.length; i++ )
+        {
+            sum += weights[i];
+            distribution[i] = sum;
+        }
+
+        return distribution;
+    }
+
+    /**
+     * Chooses an index of a cumulative distribution.
+     *
+     * @param random The pseudo random number generator to use.
+     * @param distribution The cumulative distribution to choose an index of.
+     *
+     * @return An index of {@code distribution} chosen with the probability of its weight.
+     */
+    private static int choose( final Random random, final double[] distribution )
+    {
+        final double value = random.nextDouble() * distribution[distribution.length - 1];
+
+        for ( int i = 0; i < distribution.length; i++ )
+        {
+            if ( value < distribution[i] )
+            {
+                return i;
+            }
+        }
+
+        // Only reached due to rounding; returns the last index of positive weight.
+        for ( int i = distribution.length - 1; i > 0; i-- )
+        {
+            if ( distribution[i] > distribution[i - 1] )
+            {
+                return i;
+            }
+        }
+
+        return 0;
+    }
+
+    private static Kontonummer nextKontonummer( final Random random )
+    {
+        return Kontonummer.valueOf( new Long( 1L + ( random.nextLong() & Long.MAX_VALUE ) % 9999999999L ) );
+    }
+
+    private static Bankleitzahl nextBankleitzahl( final Random random )
+    {
+        return Bankleitzahl.valueOf( new Integer( ( 1 + random.nextInt( 8 ) ) * 10000000
+                                                  + random.nextInt( 10000000 ) ) );
+
+    }
+
+    private static Date getToday()
+    {
+        final Calendar cal = Calendar.getInstance();
+        cal.set( Calendar.HOUR_OF_DAY, 0 );
+        cal.set( Calendar.MINUTE, 0 );
+        cal.set( Calendar.SECOND, 0 );
+        cal.set( Calendar.MILLISECOND, 0 );
+        return cal.getTime();
+    }
+
+    private static void assertValidWeights( final double[] weights )
+    {
+        double sum = 0.0D;
+
+        for ( int i = weights.length - 1; i >= 0; i-- )
+        {
+            if ( !( weights[i] >= 0.0D ) || Double.isInfinite( weights[i] ) )
+            {
+                throw new IllegalArgumentException( Double.toString( weights[i] ) );
+            }
+
+            sum += weights[i];
+        }
+
+        if ( !( sum > 0.0D ) )
+        {
+            throw new IllegalArgumentException( Double.toString( sum ) );
+        }
+    }
+
+    private static void assertValidRate( final double rate )
+    {
+        if ( !( rate >= 0.0D && rate <= 1.0D ) )
+        {
+            throw new IllegalArgumentException( Double.toString( rate ) );
+        }
+    }
+
+    //--Dependencies------------------------------------------------------------
+
+// <editor-fold defaultstate="collapsed" desc=" Generated Code ">//GEN-BEGIN:jdtausDependencies
+    // This section is managed by jdtaus-container-mojo.
+
+    /**
+     * Gets the configured <code>TaskMonitor</code> implementation.
+     *
+     * @return The configured <code>TaskMonitor</code> implementation.
+     */
+    private TaskMonitor getTaskMonitor()
+    {
+        return (TaskMonitor) ContainerFactory.getContainer().
+            getDependency( this, "TaskMonitor" );
+
+    }
+
+    /**
+     * Gets the configured <code>TextschluesselVerzeichnis</code> implementation.
+     *
+     * @return The configured <code>TextschluesselVerzeichnis</code> implementation.
+     */
+    private TextschluesselVerzeichnis getTextschluesselVerzeichnis()
+    {
+        return (TextschluesselVerzeichnis) ContainerFactory.getContainer().
+            getDependency( this, "TextschluesselVerzeichnis" );
+
+    }
+
+// </editor-fold>//GEN-END:jdtausDependencies
+
+    //------------------------------------------------------------Dependencies--
+}
@@ -181,7 +181,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( txt.length() != 1 )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + ARECORD_OFFSETS[2] );
                 }
@@ -191,7 +191,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_A2, IllegalDataMessage.TYPE_CONSTANT, position + ARECORD_OFFSETS[2],
                         txt.format() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -232,7 +232,7 @@ public final class DTAUSTape extends AbstractLogicalFile
 
         if ( num != this.getBlockSize() )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[0] );
             }
@@ -242,7 +242,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                     Fields.FIELD_A1, IllegalDataMessage.TYPE_CONSTANT, this.getHeaderPosition() + ARECORD_OFFSETS[0],
                     Long.toString( num ) );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -252,7 +252,7 @@ public final class DTAUSTape extends AbstractLogicalFile
 
         if ( txt != null && ( txt.length() != 1 || txt.charAt( 0 ) != 'A' ) )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[0] );
             }
@@ -262,7 +262,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                     Fields.FIELD_A1, IllegalDataMessage.TYPE_CONSTANT, this.getHeaderPosition() + ARECORD_OFFSETS[0],
                     txt.format() );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -277,7 +277,7 @@ public final class DTAUSTape extends AbstractLogicalFile
             label = LogicalFileType.valueOf( txt.format() );
             if ( label == null )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[3] );
@@ -289,7 +289,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_A3, IllegalDataMessage.TYPE_FILETYPE,
                         this.getHeaderPosition() + ARECORD_OFFSETS[3], txt.format() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -307,7 +307,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( !Bankleitzahl.checkBankleitzahl( new Long( num ) ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[4] );
@@ -319,7 +319,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_A4, IllegalDataMessage.TYPE_BANKLEITZAHL,
                         this.getHeaderPosition() + ARECORD_OFFSETS[4], Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -340,7 +340,7 @@ public final class DTAUSTape extends AbstractLogicalFile
             {
                 if ( !Bankleitzahl.checkBankleitzahl( new Long( num ) ) )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException(
                             this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[5] );
@@ -352,7 +352,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                             Fields.FIELD_A5, IllegalDataMessage.TYPE_BANKLEITZAHL,
                             this.getHeaderPosition() + ARECORD_OFFSETS[5], Long.toString( num ) );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
                 else
@@ -387,7 +387,7 @@ public final class DTAUSTape extends AbstractLogicalFile
             createDate = this.myCalendar.getTime();
             if ( !this.checkDate( createDate ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[7] );
@@ -399,7 +399,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_A7, IllegalDataMessage.TYPE_SHORTDATE,
                         this.getHeaderPosition() + ARECORD_OFFSETS[7], Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
         }
@@ -422,7 +422,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( !Kontonummer.checkKontonummer( new Long( num ) ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[9] );
@@ -434,7 +434,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_A9, IllegalDataMessage.TYPE_KONTONUMMER,
                         this.getHeaderPosition() + ARECORD_OFFSETS[9], Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -452,7 +452,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( !Referenznummer10.checkReferenznummer10( Num ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[10] );
@@ -464,7 +464,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_A10, IllegalDataMessage.TYPE_REFERENZNUMMER,
                         this.getHeaderPosition() + ARECORD_OFFSETS[10], Num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -489,7 +489,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( txt.length() != 1 )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[14] );
@@ -501,7 +501,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_A12, IllegalDataMessage.TYPE_ALPHA_NUMERIC,
                         this.getHeaderPosition() + ARECORD_OFFSETS[14], txt.format() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else if ( createDate != null )
@@ -510,7 +510,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                 final Currency cur = this.getCurrencyMapper().getDtausCurrency( c, createDate );
                 if ( cur == null )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException(
                             this.getImplementation(), this.getHeaderPosition() + ARECORD_OFFSETS[14] );
@@ -522,7 +522,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                             Fields.FIELD_A12, IllegalDataMessage.TYPE_CURRENCY,
                             this.getHeaderPosition() + ARECORD_OFFSETS[14], Character.toString( c ) );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
 
@@ -530,6 +530,7 @@ public final class DTAUSTape extends AbstractLogicalFile
             }
         }
 
+        this.fireRecordRead( 'A', null );
         return ret;
     }
 
@@ -622,6 +623,7 @@ public final class DTAUSTape extends AbstractLogicalFile
             Character.toString( this.getCurrencyMapper().getDtausCode( header.getCurrency(), header.getCreateDate() ) ),
             ENCODING_EBCDI );
 
+        this.fireRecordWritten( 'A', null );
     }
 
     protected Checksum readChecksum() throws IOException
@@ -636,7 +638,7 @@ public final class DTAUSTape extends AbstractLogicalFile
 
         if ( num != this.getBlockSize() )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException(
                     this.getImplementation(), this.getChecksumPosition() + ERECORD_OFFSETS[0] );
@@ -648,7 +650,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                     Fields.FIELD_E1, IllegalDataMessage.TYPE_CONSTANT,
                     this.getChecksumPosition() + ERECORD_OFFSETS[0], Long.toString( num ) );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -658,7 +660,7 @@ public final class DTAUSTape extends AbstractLogicalFile
 
         if ( txt != null && ( txt.length() != 1 || txt.charAt( 0 ) != 'E' ) )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException(
                     this.getImplementation(), this.getChecksumPosition() + ERECORD_OFFSETS[2] );
@@ -670,7 +672,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                     Fields.FIELD_E2, IllegalDataMessage.TYPE_CONSTANT, this.getChecksumPosition() + ERECORD_OFFSETS[2],
                     txt.format() );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -710,6 +712,7 @@ public final class DTAUSTape extends AbstractLogicalFile
             checksum.setSumAmount( num );
         }
 
+        this.fireRecordRead( 'E', null );
         return checksum;
     }
 
@@ -759,6 +762,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         this.writeAlphaNumeric(
             Fields.FIELD_E9, this.getChecksumPosition() + ERECORD_OFFSETS[9], ERECORD_LENGTH[9], "", ENCODING_EBCDI );
 
+        this.fireRecordWritten( 'E', null );
     }
 
     protected Transaction readTransaction( final long position, final Transaction transaction ) throws IOException
@@ -780,7 +784,7 @@ public final class DTAUSTape extends AbstractLogicalFile
 
         if ( extCount != NO_NUMBER && extCount > this.getMaximumExtensionCount() )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[21] );
             }
@@ -790,7 +794,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                     Fields.FIELD_C18, IllegalDataMessage.TYPE_CONSTANT, position + CRECORD_OFFSETS1[21],
                     Long.toString( extCount ) );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -799,7 +803,7 @@ public final class DTAUSTape extends AbstractLogicalFile
 
         if ( extCount != NO_NUMBER && num != CRECORD_CONST_LENGTH + extCount * CRECORD_EXT_LENGTH )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[0] );
             }
@@ -809,7 +813,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                     Fields.FIELD_C1, IllegalDataMessage.TYPE_NUMERIC, position + CRECORD_OFFSETS1[0],
                     Long.toString( num ) );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -819,7 +823,7 @@ public final class DTAUSTape extends AbstractLogicalFile
 
         if ( txt != null && ( txt.length() != 1 || txt.charAt( 0 ) != 'C' ) )
         {
-            if ( ThreadLocalMessages.isErrorsEnabled() )
+            if ( this.getParseContext().isErrorsEnabled() )
             {
                 throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[2] );
             }
@@ -828,7 +832,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                 final Message msg = new IllegalDataMessage(
                     Fields.FIELD_C2, IllegalDataMessage.TYPE_CONSTANT, position + CRECORD_OFFSETS1[2], txt.format() );
 
-                ThreadLocalMessages.getMessages().addMessage( msg );
+                this.reportMessage( msg );
             }
         }
 
@@ -841,7 +845,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( !Bankleitzahl.checkBankleitzahl( new Long( num ) ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[3] );
                 }
@@ -851,7 +855,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_C3, IllegalDataMessage.TYPE_BANKLEITZAHL, position + CRECORD_OFFSETS1[3],
                         Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -869,7 +873,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( !Bankleitzahl.checkBankleitzahl( new Long( num ) ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[4] );
                 }
@@ -879,7 +883,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_C4, IllegalDataMessage.TYPE_BANKLEITZAHL, position + CRECORD_OFFSETS1[4],
                         Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -897,7 +901,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( !Kontonummer.checkKontonummer( new Long( num ) ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[5] );
                 }
@@ -907,7 +911,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_C5, IllegalDataMessage.TYPE_KONTONUMMER, position + CRECORD_OFFSETS1[5],
                         Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -925,7 +929,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( !Referenznummer11.checkReferenznummer11( new Long( num ) ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[6] );
                 }
@@ -935,7 +939,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_C6A, IllegalDataMessage.TYPE_REFERENZNUMMER, position + CRECORD_OFFSETS1[6],
                         Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -964,7 +968,7 @@ public final class DTAUSTape extends AbstractLogicalFile
 
             if ( type == null )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[8] );
                 }
@@ -974,7 +978,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_C7A, IllegalDataMessage.TYPE_TEXTSCHLUESSEL,
                         position + CRECORD_OFFSETS1[8], Long.toString( keyType ) + Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -992,7 +996,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( !Bankleitzahl.checkBankleitzahl( new Long( num ) ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[12] );
                 }
@@ -1002,7 +1006,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_C10, IllegalDataMessage.TYPE_BANKLEITZAHL, position + CRECORD_OFFSETS1[12],
                         Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -1020,7 +1024,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( !Kontonummer.checkKontonummer( new Long( num ) ) )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[13] );
                 }
@@ -1030,7 +1034,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_C11, IllegalDataMessage.TYPE_KONTONUMMER, position + CRECORD_OFFSETS1[13],
                         Long.toString( num ) );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else
@@ -1076,7 +1080,7 @@ public final class DTAUSTape extends AbstractLogicalFile
         {
             if ( txt.length() != 1 )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[19] );
                 }
@@ -1086,7 +1090,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                         Fields.FIELD_C17A, IllegalDataMessage.TYPE_CURRENCY,
                         position + CRECORD_OFFSETS1[19], txt.format() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
             else if ( this.getHeader().getCreateDate() != null )
@@ -1096,7 +1100,7 @@ public final class DTAUSTape extends AbstractLogicalFile
 
                 if ( cur == null )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException( this.getImplementation(), position + CRECORD_OFFSETS1[19] );
                     }
@@ -1106,7 +1110,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                             Fields.FIELD_A12, IllegalDataMessage.TYPE_CURRENCY, position + CRECORD_OFFSETS1[19],
                             Character.toString( c ) );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
 
@@ -1139,7 +1143,7 @@ public final class DTAUSTape extends AbstractLogicalFile
             {
                 if ( transaction.getTargetExt() != null )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException(
                             this.getImplementation(),
@@ -1152,7 +1156,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                             CRECORD_EXTINDEX_TO_TYPEFIELD[search], IllegalDataMessage.TYPE_NUMERIC,
                             position + this.getBlockSize() + CRECORD_EXTINDEX_TO_TYPEOFFSET[search], Num.toString() );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
                 else
@@ -1171,7 +1175,7 @@ public final class DTAUSTape extends AbstractLogicalFile
             {
                 if ( transaction.getExecutiveExt() != null )
                 {
-                    if ( ThreadLocalMessages.isErrorsEnabled() )
+                    if ( this.getParseContext().isErrorsEnabled() )
                     {
                         throw new CorruptedException(
                             this.getImplementation(),
@@ -1184,7 +1188,7 @@ public final class DTAUSTape extends AbstractLogicalFile
                             CRECORD_EXTINDEX_TO_TYPEFIELD[search], IllegalDataMessage.TYPE_NUMERIC,
                             position + this.getBlockSize() + CRECORD_EXTINDEX_TO_TYPEOFFSET[search], Num.toString() );
 
-                        ThreadLocalMessages.getMessages().addMessage( msg );
+                        this.reportMessage( msg );
                     }
                 }
                 else
@@ -1194,7 +1198,7 @@ public final class DTAUSTape extends AbstractLogicalFile
             }
             else if ( num != NO_NUMBER )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( this.getParseContext().isErrorsEnabled() )
                 {
                     throw new CorruptedException(
                         this.getImplementation(),
@@ -1207,15 +1211,55 @@ public final class DTAUSTape extends AbstractLogicalFile
                         CRECORD_EXTINDEX_TO_TYPEFIELD[search], IllegalDataMessage.TYPE_NUMERIC,
                         position + this.getBlockSize() + CRECORD_EXTINDEX_TO_TYPEOFFSET[search], Num.toString() );
 
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( msg );
                 }
             }
         }
 
         transaction.setDescriptions( (AlphaNumericText27[]) desc.toArray( new AlphaNumericText27[ desc.size() ] ) );
+        this.fireRecordRead( 'C', transaction );
         return transaction;
     }
 
+    void readFingerprint( final long position, final DuplicateTransactionDetector.Fingerprint fingerprint )
+        throws IOException
+    {
+        fingerprint.addNumber( this.readFingerprintNumberPacked(
+            position + CRECORD_OFFSETS1[5], CRECORD_LENGTH1[5], true ) );
+
+        fingerprint.addNumber( this.readFingerprintNumberPacked(
+            position + CRECORD_OFFSETS1[4], CRECORD_LENGTH1[4], true ) );
+
+        fingerprint.addNumber( this.readFingerprintNumberPacked(
+            position + CRECORD_OFFSETS1[14], CRECORD_LENGTH1[14], true ) );
+
+        fingerprint.addNumber( this.readFingerprintNumberPacked(
+            position + CRECORD_OFFSETS1[6], CRECORD_LENGTH1[6], false ) );
+
+        fingerprint.addCurrency( this.readFingerprintCurrency( position + CRECORD_OFFSETS1[19], ENCODING_EBCDI ) );
+
+        this.readFingerprintDescription(
+            fingerprint, position + CRECORD_OFFSETS1[18], CRECORD_LENGTH1[18], ENCODING_EBCDI );
+
+        final long extCount = Math.min( this.readFingerprintNumberPacked(
+            position + CRECORD_OFFSETS1[21], CRECORD_LENGTH1[21], true ), this.getMaximumExtensionCount() );
+
+        for ( int i = 0; i < extCount; i++ )
+        {
+            final long type = this.readFingerprintNumber(
+                CRECORD_EXTINDEX_TO_TYPEFIELD[i], position + this.getBlockSize() + CRECORD_EXTINDEX_TO_TYPEOFFSET[i], 2,
+                ENCODING_EBCDI );
+
+            if ( type == 2L )
+            {
+                this.readFingerprintDescription(
+                    fingerprint, position + this.getBlockSize() + CRECORD_EXTINDEX_TO_VALUEOFFSET[i], 27,
+                    ENCODING_EBCDI );
+
+            }
+        }
+    }
+
     protected void writeTransaction( final long position, final Transaction transaction ) throws IOException
     {
         int i;
@@ -1367,6 +1411,8 @@ public final class DTAUSTape extends AbstractLogicalFile
                 ENCODING_EBCDI );
 
         }
+
+        this.fireRecordWritten( 'C', transaction );
     }
 
     protected int getBlockSize()
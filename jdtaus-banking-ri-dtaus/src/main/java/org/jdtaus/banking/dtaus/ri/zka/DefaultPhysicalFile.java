@@ -21,6 +21,7 @@
 package org.jdtaus.banking.dtaus.ri.zka;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Iterator;
 import java.util.Map;
 import org.jdtaus.banking.dtaus.Checksum;
@@ -31,6 +32,7 @@ import org.jdtaus.banking.dtaus.PhysicalFileFactory;
 import org.jdtaus.banking.dtaus.spi.HeaderValidator;
 import org.jdtaus.banking.dtaus.spi.IllegalHeaderException;
 import org.jdtaus.banking.messages.AnalysesFileMessage;
+import org.jdtaus.banking.spi.ProgressThrottle;
 import org.jdtaus.core.container.ContainerFactory;
 import org.jdtaus.core.io.FileOperations;
 import org.jdtaus.core.monitor.spi.Task;
@@ -62,6 +64,24 @@ public final class DefaultPhysicalFile implements PhysicalFile
     /** Format of this instance. */
     private final int format;
 
+    /**
+     * Listeners notified about file errors.
+     * @since 1.17
+     */
+    private final DiagnosticsListener[] diagnosticsListeners;
+
+    /**
+     * Error budget shared by all logical files of the instance while it is read or {@code null}.
+     * @since 1.17
+     */
+    private ErrorBudget errorBudget;
+
+    /**
+     * Context of the instance.
+     * @since 1.17
+     */
+    private final ParseContext parseContext;
+
     /**
      * Creates a new {@code DefaultPhysicalFile} instance.
      *
@@ -79,6 +99,32 @@ public final class DefaultPhysicalFile implements PhysicalFile
     public DefaultPhysicalFile(
         final int format, final FileOperations fileOperations, final java.util.Properties properties )
         throws IOException
+    {
+        this( format, fileOperations, properties, new DiagnosticsListener[ 0 ], ThreadLocalMessages.getParseContext() );
+    }
+
+    /**
+     * Creates a new {@code DefaultPhysicalFile} instance taking listeners to notify about file errors and a context.
+     *
+     * @param format The format of the new instance.
+     * @param fileOperations The {@code FileOperations} implementation to operate on.
+     * @param properties Configuration properties.
+     * @param diagnosticsListeners Listeners to notify about file errors.
+     * @param parseContext The context to use for reading the file.
+     *
+     * @throws NullPointerException if either {@code fileOperations}, {@code properties},
+     * {@code diagnosticsListeners} or {@code parseContext} is {@code null}.
+     * @throws IllegalArgumentException if {@code format} is not equal to {@code FORMAT_DISK} and {@code FORMAT_TAPE}.
+     * @throws IOException wenn nicht gelesen werden kann.
+     *
+     * @see PhysicalFileFactory#FORMAT_DISK
+     * @see PhysicalFileFactory#FORMAT_TAPE
+     * @see DefaultPhysicalFileFactory#ATTRIBUTE_ERROR_BUDGET
+     * @since 1.17
+     */
+    public DefaultPhysicalFile(
+        final int format, final FileOperations fileOperations, final java.util.Properties properties,
+        final DiagnosticsListener[] diagnosticsListeners, final ParseContext parseContext ) throws IOException
     {
         super();
 
@@ -94,11 +140,33 @@ public final class DefaultPhysicalFile implements PhysicalFile
         {
             throw new IllegalArgumentException( Integer.toString( format ) );
         }
+        if ( diagnosticsListeners == null )
+        {
+            throw new NullPointerException( "diagnosticsListeners" );
+        }
+        if ( parseContext == null )
+        {
+            throw new NullPointerException( "parseContext" );
+        }
 
+        final Object budget = properties.get( DefaultPhysicalFileFactory.ATTRIBUTE_ERROR_BUDGET );
+        this.errorBudget = budget != null ? new ErrorBudget( Integer.parseInt( budget.toString() ) ) : null;
+        this.diagnosticsListeners = (DiagnosticsListener[]) diagnosticsListeners.clone();
+        this.parseContext = parseContext;
         this.properties = properties;
         this.fileOperations = fileOperations;
         this.format = format;
         this.checksum();
+
+        if ( this.errorBudget != null )
+        { // The budget applies to reading the file only so that editing the file later is never aborted.
+            for ( int i = this.dtausCount - 1; i >= 0; i-- )
+            {
+                this.index[i].removeDiagnosticsListener( this.errorBudget );
+            }
+
+            this.errorBudget = null;
+        }
     }
 
     public int count()
@@ -188,6 +256,109 @@ public final class DefaultPhysicalFile implements PhysicalFile
         this.remove( index );
     }
 
+    /**
+     * Appends logical files of another physical file to the instance.
+     * <p>The bytes of the logical files are copied without decoding any records. Checksums and indexes of the logical
+     * files are taken over from {@code source}. If both files are backed by a {@code RandomAccessFileOperations}
+     * instance and the file operations of the instance are not wrapped by a caching wrapper, bytes are copied using
+     * {@code FileChannel.transferTo}.</p>
+     *
+     * @param source The physical file to append logical files of.
+     * @param fromIndex The index of the first logical file of {@code source} to append (inclusive).
+     * @param toIndex The index of the last logical file of {@code source} to append (exclusive).
+     *
+     * @throws NullPointerException if {@code source} is {@code null}.
+     * @throws IllegalArgumentException if {@code source} is the instance itself or uses a different format than the
+     * instance.
+     * @throws IndexOutOfBoundsException if {@code fromIndex} or {@code toIndex} is out of range
+     * ({@code fromIndex < 0 || toIndex > source.count() || fromIndex > toIndex}).
+     * @throws IOException if copying fails.
+     *
+     * @since 1.17
+     */
+    public void appendLogicalFiles( final DefaultPhysicalFile source, final int fromIndex, final int toIndex )
+        throws IOException
+    {
+        if ( source == null )
+        {
+            throw new NullPointerException( "source" );
+        }
+        if ( source == this )
+        {
+            throw new IllegalArgumentException( "source" );
+        }
+        if ( source.format != this.format )
+        {
+            throw new IllegalArgumentException( Integer.toString( source.format ) );
+        }
+        if ( fromIndex < 0 || toIndex > source.dtausCount || fromIndex > toIndex )
+        {
+            throw new IndexOutOfBoundsException( Integer.toString( fromIndex < 0 ? fromIndex : toIndex ) );
+        }
+
+        long position = this.dtausCount == 0 ? 0L : this.index[this.dtausCount - 1].getChecksumPosition() +
+                                                     this.index[this.dtausCount - 1].getBlockSize();
+
+        for ( int i = fromIndex; i < toIndex; i++ )
+        {
+            final long length = source.index[i].transferTo( this.getFileOperations(), position );
+
+            this.resizeIndex( this.dtausCount );
+            final AbstractLogicalFile lFile = this.newLogicalFile( position );
+            lFile.copyState( source.index[i] );
+            this.index[this.dtausCount++] = lFile;
+            position += length;
+        }
+    }
+
+    /**
+     * Extracts logical files of the instance to a new physical file.
+     * <p>The bytes of the logical files are copied without decoding any records. Checksums and indexes of the logical
+     * files are taken over from the instance. If both files are backed by a {@code RandomAccessFileOperations}
+     * instance and {@code target} is not wrapped by a caching wrapper, bytes are copied using
+     * {@code FileChannel.transferTo}.</p>
+     *
+     * @param fromIndex The index of the first logical file to extract (inclusive).
+     * @param toIndex The index of the last logical file to extract (exclusive).
+     * @param target The file to write the extracted logical files to. Any content of {@code target} is replaced.
+     *
+     * @return A physical file holding the extracted logical files.
+     *
+     * @throws NullPointerException if {@code target} is {@code null}.
+     * @throws IllegalArgumentException if {@code target} is the file of the instance, also when either one is wrapped
+     * by a caching wrapper. A file opened more than once through different {@code RandomAccessFile} instances is not
+     * detected and must not be passed as {@code target}.
+     * @throws IndexOutOfBoundsException if {@code fromIndex} or {@code toIndex} is out of range
+     * ({@code fromIndex < 0 || toIndex > count() || fromIndex > toIndex}).
+     * @throws IOException if copying fails.
+     *
+     * @since 1.17
+     */
+    public DefaultPhysicalFile extractLogicalFiles( final int fromIndex, final int toIndex,
+                                                    final FileOperations target ) throws IOException
+    {
+        if ( target == null )
+        {
+            throw new NullPointerException( "target" );
+        }
+        if ( FileChannels.isSameFile( target, this.getFileOperations() ) )
+        {
+            throw new IllegalArgumentException( "target" );
+        }
+        if ( fromIndex < 0 || toIndex > this.dtausCount || fromIndex > toIndex )
+        {
+            throw new IndexOutOfBoundsException( Integer.toString( fromIndex < 0 ? fromIndex : toIndex ) );
+        }
+
+        target.setLength( 0L );
+
+        final DefaultPhysicalFile ret = new DefaultPhysicalFile(
+            this.format, target, this.properties, this.diagnosticsListeners, this.parseContext );
+
+        ret.appendLogicalFiles( this, fromIndex, toIndex );
+        return ret;
+    }
+
     /** FileOperations requirement getter method. */
     private FileOperations getFileOperations()
     {
@@ -220,6 +391,7 @@ public final class DefaultPhysicalFile implements PhysicalFile
         task.setMinimum( 0 );
         task.setProgress( 0 );
         task.setMaximum( (int) maximumProgress );
+        final ProgressThrottle throttle = new ProgressThrottle( task );
 
         try
         {
@@ -228,7 +400,12 @@ public final class DefaultPhysicalFile implements PhysicalFile
             for ( long position = 0L; position < length;
                   position = this.index[dtausIndex].getChecksumPosition() + this.index[dtausIndex++].getBlockSize() )
             {
-                task.setProgress( (int) ( position / progressDivisor ) );
+                if ( Thread.interrupted() )
+                {
+                    throw new InterruptedIOException();
+                }
+
+                throttle.setProgress( (int) ( position / progressDivisor ) );
                 this.resizeIndex( dtausIndex );
                 this.index[dtausIndex] = this.newLogicalFile( position );
                 this.index[dtausIndex].checksum();
@@ -258,6 +435,7 @@ public final class DefaultPhysicalFile implements PhysicalFile
 
         }
 
+        ret.setParseContext( this.parseContext );
         ret.setFileOperations( this.getFileOperations() );
         ret.setHeaderPosition( headerPosition );
         ret.setChecksumPosition( headerPosition + this.format );
@@ -277,6 +455,17 @@ public final class DefaultPhysicalFile implements PhysicalFile
             }
         }
 
+        // Listeners are notified in reverse order so that the budget is notified last.
+        if ( this.errorBudget != null )
+        {
+            ret.addDiagnosticsListener( this.errorBudget );
+        }
+
+        for ( int i = 0; i < this.diagnosticsListeners.length; i++ )
+        {
+            ret.addDiagnosticsListener( this.diagnosticsListeners[i] );
+        }
+
         ret.addListener( new AbstractLogicalFile.Listener()
         {
 
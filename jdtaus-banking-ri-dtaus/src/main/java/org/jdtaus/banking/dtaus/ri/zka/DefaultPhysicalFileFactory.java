@@ -27,6 +27,7 @@ import java.io.RandomAccessFile;
 import java.util.Iterator;
 import java.util.Locale;
 import java.util.Map;
+import javax.swing.event.EventListenerList;
 import org.jdtaus.banking.dtaus.CorruptedException;
 import org.jdtaus.banking.dtaus.PhysicalFile;
 import org.jdtaus.banking.dtaus.PhysicalFileException;
@@ -34,6 +35,8 @@ import org.jdtaus.banking.dtaus.PhysicalFileFactory;
 import org.jdtaus.banking.dtaus.spi.Fields;
 import org.jdtaus.banking.messages.IllegalDataMessage;
 import org.jdtaus.banking.messages.IllegalFileLengthMessage;
+import org.jdtaus.banking.spi.OperationEvents;
+import org.jdtaus.banking.spi.OperationRecorder;
 import org.jdtaus.core.container.ContainerFactory;
 import org.jdtaus.core.container.Implementation;
 import org.jdtaus.core.container.ModelFactory;
@@ -47,6 +50,8 @@ import org.jdtaus.core.text.Message;
 
 /**
  * Default {@code PhysicalFileFactory} implementation.
+ * <p>Reading a physical file scans all its records. Interrupting the thread performing that scan stops it with an
+ * {@code InterruptedIOException} and clears the interrupted status of the thread.</p>
  *
  * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
  * @version $JDTAUS$
@@ -111,9 +116,88 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
     public static final String ATTRIBUTE_SPACE_CHARACTERS_ALLOWED =
         DefaultPhysicalFileFactory.class.getName() + ".spaceCharactersAllowed.";
 
+    /**
+     * Constant for the name of attribute {@code errorBudget}.
+     * <p>
+     * The {@code errorBudget} attribute is used to specify the maximum
+     * number of file errors to report before reading a physical file is
+     * aborted. Its expected value is of type {@code Integer}. The budget
+     * applies to reading the physical file only and is not used after the
+     * physical file got returned.
+     * </p>
+     *
+     * @since 1.17
+     */
+    public static final String ATTRIBUTE_ERROR_BUDGET =
+        DefaultPhysicalFileFactory.class.getName() + ".errorBudget";
+
     /** Implementation meta-data. */
     private Implementation implementation;
 
+    /**
+     * {@code DiagnosticsListener}s of the instance.
+     * @since 1.17
+     */
+    private final EventListenerList listeners = new EventListenerList();
+
+    /**
+     * {@code OperationRecorder}s of the instance.
+     * @since 1.17
+     */
+    private OperationRecorder[] operationRecorders;
+
+    /**
+     * Adds a {@code DiagnosticsListener} to the listener list.
+     * <p>Registered listeners get notified about every file error detected when analysing or reading physical
+     * files.</p>
+     *
+     * @param listener The listener to be added to the listener list.
+     *
+     * @throws NullPointerException if {@code listener} is {@code null}.
+     *
+     * @since 1.17
+     */
+    public void addDiagnosticsListener( final DiagnosticsListener listener )
+    {
+        if ( listener == null )
+        {
+            throw new NullPointerException( "listener" );
+        }
+
+        this.listeners.add( DiagnosticsListener.class, listener );
+    }
+
+    /**
+     * Removes a {@code DiagnosticsListener} from the listener list.
+     *
+     * @param listener The listener to be removed from the listener list.
+     *
+     * @throws NullPointerException if {@code listener} is {@code null}.
+     *
+     * @since 1.17
+     */
+    public void removeDiagnosticsListener( final DiagnosticsListener listener )
+    {
+        if ( listener == null )
+        {
+            throw new NullPointerException( "listener" );
+        }
+
+        this.listeners.remove( DiagnosticsListener.class, listener );
+    }
+
+    /**
+     * Gets all currently registered {@code DiagnosticsListener}s.
+     *
+     * @return all currently registered {@code DiagnosticsListener}s.
+     *
+     * @since 1.17
+     */
+    public DiagnosticsListener[] getDiagnosticsListeners()
+    {
+        return (DiagnosticsListener[]) this.listeners.getListeners( DiagnosticsListener.class );
+    }
+
     public int analyse( final File file ) throws PhysicalFileException, IOException
     {
         if ( file == null )
@@ -122,13 +206,40 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
         }
 
         this.assertValidProperties();
-        final FileOperations ops = new RandomAccessFileOperations( new RandomAccessFile( file, "r" ) );
-        final int format = this.analyse( ops );
-        ops.close();
-        return format;
+        final RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" );
+
+        try
+        {
+            return this.analyse( new RandomAccessFileOperations( randomAccessFile ) );
+        }
+        finally
+        {
+            randomAccessFile.close();
+        }
     }
 
     public int analyse( final FileOperations fileOperations ) throws PhysicalFileException, IOException
+    {
+        return this.analyse( fileOperations, ThreadLocalMessages.getParseContext() );
+    }
+
+    /**
+     * Analyses a file using a given context.
+     *
+     * @param fileOperations The file to analyse.
+     * @param parseContext The context to collect messages with.
+     *
+     * @return The format of the file.
+     *
+     * @throws NullPointerException if either {@code fileOperations} or {@code parseContext} is {@code null}.
+     * @throws PhysicalFileException if the file holds errors.
+     * @throws IOException if reading fails.
+     *
+     * @see #analyse(FileOperations)
+     * @since 1.17
+     */
+    public int analyse( final FileOperations fileOperations, final ParseContext parseContext )
+        throws PhysicalFileException, IOException
     {
         int blockSize = 128;
         long remainder = 0;
@@ -145,13 +256,18 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
         {
             throw new NullPointerException( "fileOperations" );
         }
+        if ( parseContext == null )
+        {
+            throw new NullPointerException( "parseContext" );
+        }
 
         this.assertValidProperties();
+        final Object[] events = OperationEvents.begin( this.getOperationRecorders(), OperationRecorder.ANALYSE );
         length = fileOperations.getLength();
         try
         {
-            ThreadLocalMessages.getMessages().clear();
-            ThreadLocalMessages.setErrorsEnabled( false );
+            parseContext.getMessages().clear();
+            parseContext.setErrorsEnabled( false );
 
             if ( length >= 128 )
             { // mindestens ein Disketten-Satzabschnitt.
@@ -188,7 +304,7 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
                     }
                     else
                     {
-                        if ( ThreadLocalMessages.isErrorsEnabled() )
+                        if ( parseContext.isErrorsEnabled() )
                         {
                             throw new CorruptedException( this.getImplementation(), 0L );
                         }
@@ -197,48 +313,55 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
                             final Message msg = new IllegalDataMessage(
                                 Fields.FIELD_A1, IllegalDataMessage.TYPE_CONSTANT, 0L, str );
 
-                            ThreadLocalMessages.getMessages().addMessage( msg );
+                            this.reportMessage( parseContext, msg, buf );
                         }
                     }
                 }
             }
             else
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( parseContext.isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), length );
                 }
                 else
                 {
                     final Message msg = new IllegalFileLengthMessage( length, blockSize );
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( parseContext, msg, null );
                 }
             }
 
             if ( remainder > 0 )
             {
-                if ( ThreadLocalMessages.isErrorsEnabled() )
+                if ( parseContext.isErrorsEnabled() )
                 {
                     throw new CorruptedException( this.getImplementation(), length );
                 }
                 else
                 {
                     final Message msg = new IllegalFileLengthMessage( length, blockSize );
-                    ThreadLocalMessages.getMessages().addMessage( msg );
+                    this.reportMessage( parseContext, msg, null );
                 }
             }
 
-            messages = ThreadLocalMessages.getMessages().getMessages();
+            messages = parseContext.getMessages().getMessages();
             if ( messages.length > 0 )
             {
                 throw new PhysicalFileException( messages );
             }
 
+            if ( events != null )
+            {
+                OperationEvents.end( this.getOperationRecorders(), events,
+                                     OperationEvents.getResource( fileOperations ), length, 0L, 0L, 0L );
+
+            }
+
             return ret;
         }
         finally
         {
-            ThreadLocalMessages.setErrorsEnabled( true );
+            parseContext.setErrorsEnabled( true );
         }
     }
 
@@ -259,9 +382,24 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
         this.assertValidProperties();
         this.assertValidProperties( properties );
 
-        FileOperations ops = new RandomAccessFileOperations( new RandomAccessFile( file, "rw" ) );
-        ops = this.configureCoalescingCaching( ops, properties );
-        return this.createPhysicalFile( ops, format, properties );
+        final RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" );
+        boolean created = false;
+
+        try
+        {
+            FileOperations ops = new RandomAccessFileOperations( randomAccessFile );
+            ops = this.configureCoalescingCaching( ops, properties );
+            final PhysicalFile physicalFile = this.createPhysicalFile( ops, format, properties );
+            created = true;
+            return physicalFile;
+        }
+        finally
+        {
+            if ( !created )
+            {
+                closeAfterFailure( randomAccessFile );
+            }
+        }
     }
 
     public PhysicalFile createPhysicalFile(
@@ -274,6 +412,31 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
 
     public PhysicalFile createPhysicalFile( FileOperations ops, final int format, final java.util.Properties properties )
         throws IOException
+    {
+        return this.createPhysicalFile( ops, format, properties, ThreadLocalMessages.getParseContext() );
+    }
+
+    /**
+     * Creates a new physical file using a given context.
+     *
+     * @param ops The file to create the physical file with.
+     * @param format The format of the physical file to create.
+     * @param properties The properties to configure the physical file with.
+     * @param parseContext The context of the physical file.
+     *
+     * @return A new physical file using {@code parseContext}.
+     *
+     * @throws NullPointerException if either {@code ops}, {@code properties} or {@code parseContext} is {@code null}.
+     * @throws IllegalArgumentException if {@code format} is not equal to {@code FORMAT_DISK} and {@code FORMAT_TAPE}
+     * or {@code properties} holds invalid values.
+     * @throws IOException if creating the physical file fails.
+     *
+     * @see #createPhysicalFile(FileOperations, int, java.util.Properties)
+     * @since 1.17
+     */
+    public PhysicalFile createPhysicalFile( final FileOperations ops, final int format,
+                                            final java.util.Properties properties, final ParseContext parseContext )
+        throws IOException
     {
         if ( ops == null )
         {
@@ -283,6 +446,10 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
         {
             throw new IllegalArgumentException( Integer.toString( format ) );
         }
+        if ( parseContext == null )
+        {
+            throw new NullPointerException( "parseContext" );
+        }
 
         this.assertValidProperties();
         this.assertValidProperties( properties );
@@ -290,7 +457,7 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
         try
         {
             ops.setLength( 0L );
-            return this.getPhysicalFile( ops, format, properties );
+            return this.getPhysicalFile( ops, format, properties, parseContext );
         }
         catch ( PhysicalFileException e )
         {
@@ -310,15 +477,44 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
 
     public PhysicalFile getPhysicalFile( final FileOperations ops, final java.util.Properties properties )
         throws PhysicalFileException, IOException
+    {
+        return this.getPhysicalFile( ops, properties, ThreadLocalMessages.getParseContext() );
+    }
+
+    /**
+     * Reads a physical file using a given context.
+     * <p>The context is kept with the physical file and its logical files so that these can be handed from one thread
+     * to another.</p>
+     *
+     * @param ops The file to read.
+     * @param properties The properties to configure the physical file with.
+     * @param parseContext The context of the physical file.
+     *
+     * @return The physical file read from {@code ops} using {@code parseContext}.
+     *
+     * @throws NullPointerException if either {@code ops}, {@code properties} or {@code parseContext} is {@code null}.
+     * @throws IllegalArgumentException if {@code properties} holds invalid values.
+     * @throws PhysicalFileException if the file holds errors.
+     * @throws IOException if reading fails.
+     *
+     * @see #getPhysicalFile(FileOperations, java.util.Properties)
+     * @since 1.17
+     */
+    public PhysicalFile getPhysicalFile( final FileOperations ops, final java.util.Properties properties,
+                                         final ParseContext parseContext ) throws PhysicalFileException, IOException
     {
         if ( ops == null )
         {
             throw new NullPointerException( "ops" );
         }
+        if ( parseContext == null )
+        {
+            throw new NullPointerException( "parseContext" );
+        }
 
         this.assertValidProperties();
         this.assertValidProperties( properties );
-        return this.getPhysicalFile( ops, this.getDefaultFormat(), properties );
+        return this.getPhysicalFile( ops, this.getDefaultFormat(), properties, parseContext );
     }
 
     public PhysicalFile getPhysicalFile( final File file, final java.util.Properties properties )
@@ -332,9 +528,43 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
         this.assertValidProperties();
         this.assertValidProperties( properties );
 
-        FileOperations ops = new RandomAccessFileOperations( new RandomAccessFile( file, "rw" ) );
-        ops = this.configureReadAheadCaching( ops, properties );
-        return this.getPhysicalFile( ops, properties );
+        final RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" );
+        boolean opened = false;
+
+        try
+        {
+            FileOperations ops = new RandomAccessFileOperations( randomAccessFile );
+            ops = this.configureReadAheadCaching( ops, properties );
+            final PhysicalFile physicalFile = this.getPhysicalFile( ops, properties );
+            opened = true;
+            return physicalFile;
+        }
+        finally
+        {
+            if ( !opened )
+            {
+                closeAfterFailure( randomAccessFile );
+            }
+        }
+    }
+
+    /**
+     * Closes a file opened by a method failing to return a physical file.
+     * <p>The file is closed directly, bypassing any caching layered on top of it, so that no pending writes are
+     * flushed and a failure closing the file does not hide the exception of the failing method.</p>
+     *
+     * @param randomAccessFile The file to close.
+     */
+    private static void closeAfterFailure( final RandomAccessFile randomAccessFile )
+    {
+        try
+        {
+            randomAccessFile.close();
+        }
+        catch ( final IOException e )
+        {
+            // Ignored, the exception of the failing method is propagated.
+        }
     }
 
     /**
@@ -387,7 +617,8 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
             }
 
             if ( value != null && ( ATTRIBUTE_READAHEAD_CACHESIZE.equals( name ) ||
-                                    ATTRIBUTE_COALESCING_BLOCKSIZE.equals( name ) ) )
+                                    ATTRIBUTE_COALESCING_BLOCKSIZE.equals( name ) ||
+                                    ATTRIBUTE_ERROR_BUDGET.equals( name ) ) )
             {
                 try
                 {
@@ -458,8 +689,8 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
         return ops;
     }
 
-    private PhysicalFile getPhysicalFile( final FileOperations ops, int format, final java.util.Properties properties )
-        throws PhysicalFileException, IOException
+    private PhysicalFile getPhysicalFile( final FileOperations ops, int format, final java.util.Properties properties,
+                                          final ParseContext parseContext ) throws PhysicalFileException, IOException
     {
         if ( ops == null )
         {
@@ -474,27 +705,106 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
 
         final DefaultPhysicalFile ret;
         final Message[] messages;
-        format = ops.getLength() > 0 ? this.analyse( ops ) : format;
+        final Object[] events =
+            OperationEvents.begin( this.getOperationRecorders(), OperationRecorder.GET_PHYSICAL_FILE );
+
+        format = ops.getLength() > 0 ? this.analyse( ops, parseContext ) : format;
 
         try
         {
-            ThreadLocalMessages.getMessages().clear();
-            ThreadLocalMessages.setErrorsEnabled( false );
-            ret = new DefaultPhysicalFile( format, ops, properties );
-            messages = ThreadLocalMessages.getMessages().getMessages();
+            parseContext.getMessages().clear();
+            parseContext.setErrorsEnabled( false );
+            ret = new DefaultPhysicalFile( format, ops, properties, this.getDiagnosticsListeners(), parseContext );
+            messages = parseContext.getMessages().getMessages();
             if ( messages.length > 0 )
             {
                 throw new PhysicalFileException( messages );
             }
 
+            if ( events != null )
+            {
+                OperationEvents.end( this.getOperationRecorders(), events, OperationEvents.getResource( ops ),
+                                     ops.getLength(), getRecordCount( ret ), 0L, 0L );
+
+            }
+
             return ret;
         }
+        catch ( final ErrorBudget.ExhaustedException e )
+        {
+            throw new PhysicalFileException( parseContext.getMessages().getMessages() );
+        }
         finally
         {
-            ThreadLocalMessages.setErrorsEnabled( true );
+            parseContext.setErrorsEnabled( true );
         }
     }
 
+    /**
+     * Reports a file error detected when analysing a file.
+     *
+     * @param parseContext The context to collect the message with.
+     * @param message The message describing the file error.
+     * @param data The data holding the error or {@code null}.
+     *
+     * @throws IOException if a {@code DiagnosticsListener} aborts the operation.
+     */
+    private void reportMessage( final ParseContext parseContext, final Message message, final byte[] data )
+        throws IOException
+    {
+        parseContext.getMessages().addMessage( message );
+
+        final Object[] list = this.listeners.getListenerList();
+        if ( list.length > 0 )
+        {
+            final DiagnosticsEvent event = new DiagnosticsEvent( this, message, data );
+            for ( int i = list.length - 2; i >= 0; i -= 2 )
+            {
+                if ( list[i] == DiagnosticsListener.class )
+                {
+                    ( (DiagnosticsListener) list[i + 1] ).diagnosticReported( event );
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the {@code OperationRecorder} implementations of the instance.
+     *
+     * @return The {@code OperationRecorder} implementations of the instance or an empty array, if no implementation is
+     * available.
+     */
+    private OperationRecorder[] getOperationRecorders()
+    {
+        if ( this.operationRecorders == null )
+        {
+            final OperationRecorder[] recorders = this.getOperationRecorder();
+            this.operationRecorders = recorders != null ? recorders : OperationEvents.NO_RECORDERS;
+        }
+
+        return this.operationRecorders;
+    }
+
+    /**
+     * Gets the number of records of a physical file.
+     *
+     * @param physicalFile The physical file to get the number of records of.
+     *
+     * @return The number of A, C and E records of {@code physicalFile}.
+     *
+     * @throws IOException if reading fails.
+     */
+    private static long getRecordCount( final PhysicalFile physicalFile ) throws IOException
+    {
+        long records = 0L;
+        for ( int i = physicalFile.count() - 1; i >= 0; i-- )
+        {
+            records += physicalFile.getLogicalFile( i ).getChecksum().getTransactionCount() + 2L;
+        }
+
+        return records;
+    }
+
     protected Implementation getImplementation()
     {
         if ( this.implementation == null )
@@ -558,6 +868,18 @@ public final class DefaultPhysicalFileFactory implements PhysicalFileFactory
 
     }
 
+    /**
+     * Gets the configured <code>OperationRecorder</code> implementation.
+     *
+     * @return The configured <code>OperationRecorder</code> implementation.
+     */
+    private OperationRecorder[] getOperationRecorder()
+    {
+        return (OperationRecorder[]) ContainerFactory.getContainer().
+            getDependency( this, "OperationRecorder" );
+
+    }
+
 // </editor-fold>//GEN-END:jdtausDependencies
 
     //------------------------------------------------------------Dependencies--
@@ -0,0 +1,153 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.util.EventObject;
+import org.jdtaus.banking.messages.IllegalDataMessage;
+import org.jdtaus.core.text.Message;
+
+/**
+ * Event describing a file error.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see DiagnosticsListener
+ * @since 1.17
+ */
+public class DiagnosticsEvent extends EventObject
+{
+
+    /** Constant returned by {@link #getField()} and {@link #getType()} for errors not related to a single field. */
+    public static final int NO_FIELD = -1;
+
+    /** Constant returned by {@link #getPosition()} for errors not related to a single position. */
+    public static final long NO_POSITION = -1L;
+
+    /** Serial version UID for backwards compatibility with 1.17.x classes. */
+    private static final long serialVersionUID = -2879045261593416538L;
+
+    /** Empty byte array. */
+    private static final byte[] NO_BYTES =
+    {
+    };
+
+    /**
+     * The message describing the file error.
+     * @serial
+     */
+    private final Message message;
+
+    /**
+     * The raw bytes of the field holding illegal data.
+     * @serial
+     */
+    private final byte[] data;
+
+    /**
+     * Creates a new {@code DiagnosticsEvent} instance.
+     *
+     * @param source The source of the event.
+     * @param message The message describing the file error.
+     * @param data The raw bytes of the field holding illegal data or {@code null} if no data is available.
+     *
+     * @throws NullPointerException if {@code message} is {@code null}.
+     * @throws IllegalArgumentException if {@code source} is {@code null}.
+     */
+    public DiagnosticsEvent( final Object source, final Message message, final byte[] data )
+    {
+        super( source );
+
+        if ( message == null )
+        {
+            throw new NullPointerException( "message" );
+        }
+
+        this.message = message;
+        this.data = data == null ? NO_BYTES : (byte[]) data.clone();
+    }
+
+    /**
+     * Gets the message describing the file error.
+     *
+     * @return The message describing the file error.
+     */
+    public Message getMessage()
+    {
+        return this.message;
+    }
+
+    /**
+     * Gets the constant of the field holding illegal data.
+     *
+     * @return The constant of the field holding illegal data or {@code NO_FIELD} if the error is not related to a
+     * single field.
+     *
+     * @see org.jdtaus.banking.dtaus.spi.Fields
+     */
+    public int getField()
+    {
+        return this.message instanceof IllegalDataMessage
+               ? ( (IllegalDataMessage) this.message ).getField() : NO_FIELD;
+
+    }
+
+    /**
+     * Gets the constant for the type of the field holding illegal data.
+     *
+     * @return The constant for the type of the field holding illegal data or {@code NO_FIELD} if the error is not
+     * related to a single field.
+     *
+     * @see IllegalDataMessage#TYPE_ALPHA
+     */
+    public int getType()
+    {
+        return this.message instanceof IllegalDataMessage
+               ? ( (IllegalDataMessage) this.message ).getType() : NO_FIELD;
+
+    }
+
+    /**
+     * Gets the absolute position of the field holding illegal data.
+     *
+     * @return The absolute position of the field holding illegal data or {@code NO_POSITION} if the error is not
+     * related to a single field.
+     */
+    public long getPosition()
+    {
+        return this.message instanceof IllegalDataMessage
+               ? ( (IllegalDataMessage) this.message ).getPosition() : NO_POSITION;
+
+    }
+
+    /**
+     * Gets the raw bytes of the field holding illegal data.
+     *
+     * @return The raw bytes of the field holding illegal data or an empty array if no data is available.
+     */
+    public byte[] getData()
+    {
+        final byte[] copy = new byte[ this.data.length ];
+        System.arraycopy( this.data, 0, copy, 0, this.data.length );
+        return copy;
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.io.IOException;
+import java.util.EventListener;
+
+/**
+ * Listener receiving file errors as they are detected.
+ * <p>Other than the messages collected by a {@link ParseContext} which are limited to a fixed number of messages,
+ * listeners get notified about every file error detected. This allows to report errors of arbitrary large files without
+ * keeping them in memory.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see DefaultPhysicalFileFactory#addDiagnosticsListener(DiagnosticsListener)
+ * @see AbstractLogicalFile#addDiagnosticsListener(DiagnosticsListener)
+ * @since 1.17
+ */
+public interface DiagnosticsListener extends EventListener
+{
+
+    /**
+     * Gets called whenever a file error got detected.
+     *
+     * @param event The event describing the file error.
+     *
+     * @throws IOException if handling the event fails. Throwing an exception aborts the operation in progress.
+     */
+    void diagnosticReported( DiagnosticsEvent event ) throws IOException;
+
+}
@@ -0,0 +1,917 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.Date;
+import java.util.List;
+import org.jdtaus.banking.AlphaNumericText27;
+import org.jdtaus.banking.dtaus.Header;
+import org.jdtaus.banking.dtaus.LogicalFile;
+import org.jdtaus.banking.dtaus.Transaction;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.lang.spi.MemoryManager;
+
+/**
+ * Detects transactions submitted more than once.
+ * <p>Every transaction is reduced to a 64-bit fingerprint of its target account, target bank, amount, currency,
+ * reference and descriptions. Descriptions are normalized by ignoring case and whitespace differences. Fingerprints are
+ * kept in an open-addressing hash table of primitive arrays together with the day of execution of the logical file
+ * holding the transaction. No objects are created per fingerprint so that tens of millions of fingerprints can be
+ * held in memory. A fingerprint only counts as a duplicate if it has been seen within a given number of days.</p>
+ * <p>Fingerprints of the transactions of the logical files of this implementation are computed from the bytes of the
+ * fingerprinted fields while scanning a logical file. Transactions are decoded only whenever a fingerprint is found
+ * which has been added from a logical file added to the same instance. The two transactions are then compared field
+ * by field and a mere collision of fingerprints is not reported as a duplicate.
+ * Fingerprints read from a stream carry no such information and are reported without verification. Logical files
+ * added to an instance therefore need to stay readable for as long as the instance is in use.</p>
+ * <p><b>Note:</b><br/>
+ * This implementation is not thread-safe.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see #write(OutputStream)
+ * @see #read(InputStream)
+ * @since 1.17
+ */
+public final class DuplicateTransactionDetector
+{
+
+    /** Magic number of the stream format. */
+    private static final int MAGIC = 0x44544644;
+
+    /** Version of the stream format. */
+    private static final int VERSION = 1;
+
+    /** Milliseconds of a day. */
+    private static final long DAY_MILLIS = 86400000L;
+
+    /** Value of an empty slot. */
+    private static final long EMPTY = 0L;
+
+    /** Location of a fingerprint read from a stream. */
+    private static final long NO_LOCATION = -1L;
+
+    /** Minimum capacity of the table. */
+    private static final int MINIMUM_CAPACITY = 16;
+
+    /** Maximum capacity of the table. */
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /** FNV-1a 64 bit offset basis. */
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+    /** FNV-1a 64 bit prime. */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /** Number of days a fingerprint is considered for detecting duplicates. */
+    private final int windowDays;
+
+    /** Fingerprints of the table. */
+    private long[] fingerprints;
+
+    /** Days of execution of the table. */
+    private int[] days;
+
+    /** Locations of the transactions of the table. */
+    private long[] locations;
+
+    /** Number of fingerprints in the table. */
+    private int size;
+
+    /** Number of fingerprint collisions detected. */
+    private long collisionCount;
+
+    /** Logical files added to the instance. */
+    private final List logicalFiles = new ArrayList();
+
+    /** Temporary transaction used for verification. */
+    private final Transaction verificationTransaction = new Transaction();
+
+    /** Temporary transaction of the transaction to verify. */
+    private final Transaction currentTransaction = new Transaction();
+
+    /**
+     * Creates a new {@code DuplicateTransactionDetector} instance taking the number of days a fingerprint is
+     * considered for detecting duplicates.
+     *
+     * @param windowDays The number of days a fingerprint is considered for detecting duplicates.
+     *
+     * @throws IllegalArgumentException if {@code windowDays} is negative.
+     */
+    public DuplicateTransactionDetector( final int windowDays )
+    {
+        this( windowDays, MINIMUM_CAPACITY );
+    }
+
+    /**
+     * Creates a new {@code DuplicateTransactionDetector} instance taking the number of days a fingerprint is
+     * considered for detecting duplicates and the expected number of fingerprints.
+     *
+     * @param windowDays The number of days a fingerprint is considered for detecting duplicates.
+     * @param expectedSize The expected number of fingerprints.
+     *
+     * @throws IllegalArgumentException if {@code windowDays} or {@code expectedSize} is negative.
+     */
+    public DuplicateTransactionDetector( final int windowDays, final int expectedSize )
+    {
+        super();
+
+        if ( windowDays < 0 )
+        {
+            throw new IllegalArgumentException( Integer.toString( windowDays ) );
+        }
+        if ( expectedSize < 0 )
+        {
+            throw new IllegalArgumentException( Integer.toString( expectedSize ) );
+        }
+
+        this.windowDays = windowDays;
+        this.allocate( getCapacity( expectedSize ) );
+    }
+
+    /**
+     * Gets the number of days a fingerprint is considered for detecting duplicates.
+     *
+     * @return The number of days a fingerprint is considered for detecting duplicates.
+     */
+    public int getWindowDays()
+    {
+        return this.windowDays;
+    }
+
+    /**
+     * Gets the number of fingerprints held by the instance.
+     *
+     * @return The number of fingerprints held by the instance.
+     */
+    public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of fingerprint collisions detected when verifying duplicates.
+     *
+     * @return The number of fingerprint collisions detected when verifying duplicates.
+     */
+    public long getCollisionCount()
+    {
+        return this.collisionCount;
+    }
+
+    /**
+     * Computes the fingerprint of a transaction.
+     *
+     * @param transaction The transaction to compute the fingerprint of.
+     *
+     * @return The fingerprint of {@code transaction}. The value {@code 0} is never returned.
+     *
+     * @throws NullPointerException if {@code transaction} is {@code null}.
+     */
+    public static long getFingerprint( final Transaction transaction )
+    {
+        if ( transaction == null )
+        {
+            throw new NullPointerException( "transaction" );
+        }
+
+        final Fingerprint fingerprint = new Fingerprint();
+        fingerprint.addTransaction( transaction );
+        return fingerprint.getValue();
+    }
+
+    /**
+     * Adds the transactions of a logical file.
+     * <p>The day of execution of the transactions is taken from the execution date of the header of
+     * {@code logicalFile}, or from the create date, if no execution date is set.</p>
+     *
+     * @param logicalFile The logical file to add.
+     *
+     * @return The indices of the transactions of {@code logicalFile} already seen within the window of the instance
+     * in ascending order.
+     *
+     * @throws NullPointerException if {@code logicalFile} is {@code null}.
+     * @throws IOException if reading fails.
+     */
+    public int[] add( final LogicalFile logicalFile ) throws IOException
+    {
+        if ( logicalFile == null )
+        {
+            throw new NullPointerException( "logicalFile" );
+        }
+
+        final Header header = logicalFile.getHeader();
+        final Date date = header.getExecutionDate() != null ? header.getExecutionDate() : header.getCreateDate();
+        final int day = (int) ( date.getTime() / DAY_MILLIS );
+        final int count = logicalFile.getChecksum().getTransactionCount();
+        final long file = (long) this.logicalFiles.size() << 32;
+        int[] duplicates = new int[ MINIMUM_CAPACITY ];
+        int duplicateCount = 0;
+        final Fingerprint fingerprint = new Fingerprint();
+
+        this.logicalFiles.add( logicalFile );
+
+        for ( int i = 0; i < count; i++ )
+        {
+            if ( this.add( getFingerprint( logicalFile, i, fingerprint ), day, logicalFile, file | i ) )
+            {
+                if ( duplicateCount == duplicates.length )
+                {
+                    final int[] tmp = new int[ duplicates.length * 2 ];
+                    System.arraycopy( duplicates, 0, tmp, 0, duplicates.length );
+                    duplicates = tmp;
+                }
+
+                duplicates[duplicateCount++] = i;
+            }
+        }
+
+        final int[] ret = new int[ duplicateCount ];
+        System.arraycopy( duplicates, 0, ret, 0, duplicateCount );
+        return ret;
+    }
+
+    /**
+     * Removes all fingerprints whose day of execution is before a given date minus the window of the instance.
+     * <p>Logical files no longer holding the transaction of any remaining fingerprint are released.</p>
+     *
+     * @param date The date to remove fingerprints relative to.
+     *
+     * @throws NullPointerException if {@code date} is {@code null}.
+     */
+    public void removeExpired( final Date date )
+    {
+        if ( date == null )
+        {
+            throw new NullPointerException( "date" );
+        }
+
+        final int day = (int) ( date.getTime() / DAY_MILLIS );
+        final long[] oldFingerprints = this.fingerprints;
+        final int[] oldDays = this.days;
+        final long[] oldLocations = this.locations;
+        final int[] fileIndices = new int[ this.logicalFiles.size() ];
+        int remaining = 0;
+
+        Arrays.fill( fileIndices, -1 );
+
+        for ( int i = oldFingerprints.length - 1; i >= 0; i-- )
+        {
+            if ( oldFingerprints[i] != EMPTY && !this.isExpired( oldDays[i], day ) )
+            {
+                if ( oldLocations[i] != NO_LOCATION )
+                {
+                    fileIndices[(int) ( oldLocations[i] >>> 32 )] = 0;
+                }
+
+                remaining++;
+            }
+        }
+
+        // Drop the logical files no longer referenced by any fingerprint and renumber the remaining ones.
+        final List referencedFiles = new ArrayList( this.logicalFiles.size() );
+
+        for ( int i = 0; i < fileIndices.length; i++ )
+        {
+            if ( fileIndices[i] != -1 )
+            {
+                fileIndices[i] = referencedFiles.size();
+                referencedFiles.add( this.logicalFiles.get( i ) );
+            }
+        }
+
+        this.logicalFiles.clear();
+        this.logicalFiles.addAll( referencedFiles );
+        this.allocate( getCapacity( remaining ) );
+
+        for ( int i = oldFingerprints.length - 1; i >= 0; i-- )
+        {
+            if ( oldFingerprints[i] != EMPTY && !this.isExpired( oldDays[i], day ) )
+            {
+                final long location = oldLocations[i] != NO_LOCATION
+                                      ? (long) fileIndices[(int) ( oldLocations[i] >>> 32 )] << 32
+                                        | ( oldLocations[i] & 0xFFFFFFFFL )
+                                      : NO_LOCATION;
+
+                this.put( oldFingerprints[i], oldDays[i], location );
+            }
+        }
+    }
+
+    /**
+     * Writes the fingerprints of the instance to a stream.
+     *
+     * @param out The stream to write to.
+     *
+     * @throws NullPointerException if {@code out} is {@code null}.
+     * @throws IOException if writing fails.
+     *
+     * @see #read(InputStream)
+     */
+    public void write( final OutputStream out ) throws IOException
+    {
+        if ( out == null )
+        {
+            throw new NullPointerException( "out" );
+        }
+
+        final DataOutputStream data = new DataOutputStream( out );
+        data.writeInt( MAGIC );
+        data.writeInt( VERSION );
+        data.writeInt( this.size );
+
+        for ( int i = 0; i < this.fingerprints.length; i++ )
+        {
+            if ( this.fingerprints[i] != EMPTY )
+            {
+                data.writeLong( this.fingerprints[i] );
+                data.writeInt( this.days[i] );
+            }
+        }
+
+        data.flush();
+    }
+
+    /**
+     * Reads fingerprints previously written by {@link #write(OutputStream)} and adds them to the instance.
+     *
+     * @param in The stream to read from.
+     *
+     * @throws NullPointerException if {@code in} is {@code null}.
+     * @throws IOException if reading fails or if {@code in} does not hold fingerprints.
+     *
+     * @see #write(OutputStream)
+     */
+    public void read( final InputStream in ) throws IOException
+    {
+        if ( in == null )
+        {
+            throw new NullPointerException( "in" );
+        }
+
+        final DataInputStream data = new DataInputStream( in );
+
+        if ( data.readInt() != MAGIC )
+        {
+            throw new IOException( "magic" );
+        }
+
+        final int version = data.readInt();
+        if ( version != VERSION )
+        {
+            throw new IOException( Integer.toString( version ) );
+        }
+
+        final int count = data.readInt();
+        if ( count < 0 )
+        {
+            throw new IOException( Integer.toString( count ) );
+        }
+
+        this.ensureCapacity( this.size + count );
+
+        for ( int i = 0; i < count; i++ )
+        {
+            final long fingerprint = data.readLong();
+            final int day = data.readInt();
+            final int slot = this.getSlot( fingerprint );
+
+            if ( this.fingerprints[slot] == EMPTY )
+            {
+                this.put( fingerprint, day, NO_LOCATION );
+            }
+            else if ( this.days[slot] < day )
+            {
+                this.days[slot] = day;
+            }
+        }
+    }
+
+    /**
+     * Adds a fingerprint to the table.
+     *
+     * @param fingerprint The fingerprint to add.
+     * @param day The day of execution of the transaction of {@code fingerprint}.
+     * @param logicalFile The logical file holding the transaction of {@code fingerprint}.
+     * @param location The location of the transaction of {@code fingerprint}.
+     *
+     * @return {@code true}, if the transaction of {@code fingerprint} is a duplicate; {@code false}, if not.
+     *
+     * @throws IOException if reading a transaction for verification fails.
+     */
+    private boolean add( final long fingerprint, final int day, final LogicalFile logicalFile, final long location )
+        throws IOException
+    {
+        int slot = this.getSlot( fingerprint );
+
+        if ( this.fingerprints[slot] == EMPTY )
+        {
+            if ( this.ensureCapacity( this.size + 1 ) )
+            {
+                slot = this.getSlot( fingerprint );
+            }
+
+            this.fingerprints[slot] = fingerprint;
+            this.days[slot] = day;
+            this.locations[slot] = location;
+            this.size++;
+            return false;
+        }
+
+        final boolean duplicate;
+
+        if ( !this.isWithinWindow( this.days[slot], day ) )
+        {
+            duplicate = false;
+        }
+        else if ( this.locations[slot] != NO_LOCATION )
+        {
+            // Only fingerprints found twice get their transactions decoded.
+            final LogicalFile seenFile =
+                (LogicalFile) this.logicalFiles.get( (int) ( this.locations[slot] >>> 32 ) );
+
+            final Transaction seen = getTransaction(
+                seenFile, (int) ( this.locations[slot] & 0xFFFFFFFFL ), this.verificationTransaction );
+
+            final Transaction transaction =
+                getTransaction( logicalFile, (int) ( location & 0xFFFFFFFFL ), this.currentTransaction );
+
+            duplicate = isDuplicate( seen, transaction );
+
+            if ( !duplicate )
+            {
+                this.collisionCount++;
+            }
+        }
+        else
+        {
+            duplicate = true;
+        }
+
+        if ( !duplicate || this.days[slot] < day )
+        {
+            // Keep the most recent transaction of a fingerprint.
+            this.days[slot] = day;
+            this.locations[slot] = location;
+        }
+
+        return duplicate;
+    }
+
+    /**
+     * Puts a fingerprint into an empty slot of the table.
+     *
+     * @param fingerprint The fingerprint to put.
+     * @param day The day of execution of the fingerprint.
+     * @param location The location of the fingerprint.
+     */
+    private void put( final long fingerprint, final int day, final long location )
+    {
+        final int slot = this.getSlot( fingerprint );
+        this.fingerprints[slot] = fingerprint;
+        this.days[slot] = day;
+        this.locations[slot] = location;
+        this.size++;
+    }
+
+    /**
+     * Gets the slot of a fingerprint.
+     *
+     * @param fingerprint The fingerprint to get the slot of.
+     *
+     * @return The slot holding {@code fingerprint} or the empty slot to put {@code fingerprint} into.
+     */
+    private int getSlot( final long fingerprint )
+    {
+        final int mask = this.fingerprints.length - 1;
+        int slot = (int) ( fingerprint ^ ( fingerprint >>> 32 ) ) & mask;
+
+        while ( this.fingerprints[slot] != EMPTY && this.fingerprints[slot] != fingerprint )
+        {
+            slot = ( slot + 1 ) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Ensures the table can hold a given number of fingerprints.
+     *
+     * @param minimumSize The number of fingerprints the table needs to be able to hold.
+     *
+     * @return {@code true}, if the table got resized; {@code false}, if not.
+     */
+    private boolean ensureCapacity( final int minimumSize )
+    {
+        final int capacity = getCapacity( minimumSize );
+
+        if ( capacity <= this.fingerprints.length )
+        {
+            return false;
+        }
+
+        final long[] oldFingerprints = this.fingerprints;
+        final int[] oldDays = this.days;
+        final long[] oldLocations = this.locations;
+
+        this.allocate( capacity );
+
+        for ( int i = oldFingerprints.length - 1; i >= 0; i-- )
+        {
+            if ( oldFingerprints[i] != EMPTY )
+            {
+                this.put( oldFingerprints[i], oldDays[i], oldLocations[i] );
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Replaces the table with an empty table of a given capacity.
+     *
+     * @param capacity The capacity of the new table.
+     */
+    private void allocate( final int capacity )
+    {
+        this.fingerprints = this.getMemoryManager().allocateLongs( capacity );
+        this.days = this.getMemoryManager().allocateInts( capacity );
+        this.locations = this.getMemoryManager().allocateLongs( capacity );
+        this.size = 0;
+        Arrays.fill( this.fingerprints, EMPTY );
+    }
+
+    /**
+     * Tests a day of execution of a fingerprint to be before the window of the instance.
+     *
+     * @param seenDay The day of execution of a fingerprint.
+     * @param day The day to test {@code seenDay} against.
+     *
+     * @return {@code true}, if {@code seenDay} is more than the window of the instance before {@code day};
+     * {@code false}, if not.
+     */
+    private boolean isExpired( final int seenDay, final int day )
+    {
+        return (long) day - seenDay > this.windowDays;
+    }
+
+    /**
+     * Tests two days of execution to be within the window of the instance.
+     * <p>Logical files are not required to be added in order of their days of execution. A fingerprint therefore
+     * counts as a duplicate of a fingerprint seen on a later day the same way it does for one seen on an earlier
+     * day.</p>
+     *
+     * @param seenDay The day of execution of a fingerprint.
+     * @param day The day to test {@code seenDay} against.
+     *
+     * @return {@code true}, if {@code seenDay} and {@code day} are at most the window of the instance apart;
+     * {@code false}, if not.
+     */
+    private boolean isWithinWindow( final int seenDay, final int day )
+    {
+        return Math.abs( (long) day - seenDay ) <= this.windowDays;
+    }
+
+    /**
+     * Reads a transaction of a logical file.
+     *
+     * @param logicalFile The logical file to read a transaction of.
+     * @param index The index of the transaction to read.
+     * @param transaction An instance to read the transaction into, if supported by {@code logicalFile}.
+     *
+     * @return The transaction at {@code index} of {@code logicalFile}.
+     *
+     * @throws IOException if reading fails.
+     */
+    private static Transaction getTransaction( final LogicalFile logicalFile, final int index,
+                                              final Transaction transaction ) throws IOException
+    {
+        return logicalFile instanceof AbstractLogicalFile
+               ? ( (AbstractLogicalFile) logicalFile ).getTransaction( index, transaction )
+               : logicalFile.getTransaction( index );
+
+    }
+
+    /**
+     * Computes the fingerprint of a transaction of a logical file.
+     * <p>The fingerprint of a transaction of an {@code AbstractLogicalFile} is computed from the bytes of the
+     * fingerprinted fields without decoding the transaction.</p>
+     *
+     * @param logicalFile The logical file holding the transaction.
+     * @param index The index of the transaction.
+     * @param fingerprint An instance to compute the fingerprint with.
+     *
+     * @return The fingerprint of the transaction at {@code index} of {@code logicalFile}.
+     *
+     * @throws IOException if reading fails.
+     */
+    private static long getFingerprint( final LogicalFile logicalFile, final int index,
+                                        final Fingerprint fingerprint ) throws IOException
+    {
+        if ( logicalFile instanceof AbstractLogicalFile )
+        {
+            return ( (AbstractLogicalFile) logicalFile ).getFingerprint( index, fingerprint );
+        }
+
+        fingerprint.reset();
+        fingerprint.addTransaction( logicalFile.getTransaction( index ) );
+        return fingerprint.getValue();
+    }
+
+    /**
+     * Compares the fingerprinted fields of two transactions.
+     *
+     * @param t1 The first transaction to compare.
+     * @param t2 The second transaction to compare.
+     *
+     * @return {@code true}, if {@code t1} and {@code t2} have equal fingerprints because of equal values;
+     * {@code false}, if their fingerprints merely collide.
+     */
+    private static boolean isDuplicate( final Transaction t1, final Transaction t2 )
+    {
+        return equals( t1.getTargetAccount(), t2.getTargetAccount() )
+               && equals( t1.getTargetBank(), t2.getTargetBank() )
+               && equals( t1.getAmount(), t2.getAmount() )
+               && equals( t1.getReference(), t2.getReference() )
+               && equals( t1.getCurrency(), t2.getCurrency() )
+               && normalize( t1.getDescriptions() ).equals( normalize( t2.getDescriptions() ) );
+
+    }
+
+    private static boolean equals( final Object o1, final Object o2 )
+    {
+        return o1 == null ? o2 == null : o1.equals( o2 );
+    }
+
+    /**
+     * Normalizes descriptions the same way they are fingerprinted.
+     *
+     * @param descriptions The descriptions to normalize.
+     *
+     * @return The normalized text of {@code descriptions}.
+     */
+    private static String normalize( final AlphaNumericText27[] descriptions )
+    {
+        final StringBuffer buf = new StringBuffer( descriptions.length * 28 );
+        boolean space = false;
+
+        for ( int i = 0; i < descriptions.length; i++ )
+        {
+            for ( int j = 0; j < descriptions[i].length(); j++ )
+            {
+                final char c = descriptions[i].charAt( j );
+
+                if ( Character.isWhitespace( c ) )
+                {
+                    space = buf.length() > 0;
+                }
+                else
+                {
+                    if ( space )
+                    {
+                        buf.append( ' ' );
+                        space = false;
+                    }
+
+                    buf.append( Character.toUpperCase( c ) );
+                }
+            }
+
+            space = buf.length() > 0;
+        }
+
+        return buf.toString();
+    }
+
+    /**
+     * Gets the capacity of a table to hold a given number of fingerprints.
+     *
+     * @param size The number of fingerprints to hold.
+     *
+     * @return The power of two capacity of a table to hold {@code size} fingerprints at a load factor of at most 0.75.
+     *
+     * @throws IllegalStateException if {@code size} exceeds the maximum supported number of fingerprints.
+     */
+    private static int getCapacity( final int size )
+    {
+        final long required = (long) size + ( size / 3 ) + 1L;
+
+        if ( required > MAXIMUM_CAPACITY )
+        {
+            throw new IllegalStateException( Integer.toString( size ) );
+        }
+
+        int capacity = MINIMUM_CAPACITY;
+        while ( capacity < required )
+        {
+            capacity <<= 1;
+        }
+
+        return capacity;
+    }
+
+    private static long hash( long hash, final long value )
+    {
+        for ( int i = 0; i < 64; i += 8 )
+        {
+            hash ^= ( value >>> i ) & 0xFFL;
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    private static long hash( long hash, final char value )
+    {
+        hash ^= value & 0xFF;
+        hash *= FNV_PRIME;
+        hash ^= value >>> 8;
+        hash *= FNV_PRIME;
+        return hash;
+    }
+
+    /**
+     * Computes a fingerprint from the values of the fingerprinted fields of a transaction.
+     * <p>Values need to be added in the order target account, target bank, amount, reference, currency and
+     * descriptions. Whitespace of descriptions is collapsed and leading and trailing whitespace is ignored.</p>
+     *
+     * @see AbstractLogicalFile#getFingerprint(int, DuplicateTransactionDetector.Fingerprint)
+     */
+    static final class Fingerprint
+    {
+
+        /** The hash computed so far. */
+        private long hash = FNV_OFFSET;
+
+        /** Flag indicating characters of descriptions have been added. */
+        private boolean text;
+
+        /** Flag indicating whitespace is pending. */
+        private boolean space;
+
+        /** Creates a new {@code Fingerprint} instance. */
+        Fingerprint()
+        {
+            super();
+        }
+
+        /** Resets the instance for computing another fingerprint. */
+        void reset()
+        {
+            this.hash = FNV_OFFSET;
+            this.text = false;
+            this.space = false;
+        }
+
+        /**
+         * Adds a number.
+         *
+         * @param value The number to add or a negative value, if no number is available.
+         */
+        void addNumber( final long value )
+        {
+            this.hash = hash( this.hash, value >= 0L ? value : -1L );
+        }
+
+        /**
+         * Adds a currency.
+         *
+         * @param currency The currency to add or {@code null}, if no currency is available.
+         */
+        void addCurrency( final Currency currency )
+        {
+            if ( currency != null )
+            {
+                final String code = currency.getCurrencyCode();
+                for ( int i = 0; i < code.length(); i++ )
+                {
+                    this.hash = hash( this.hash, code.charAt( i ) );
+                }
+            }
+        }
+
+        /**
+         * Adds a character of a description.
+         *
+         * @param c The character to add.
+         */
+        void addDescriptionCharacter( final char c )
+        {
+            if ( Character.isWhitespace( c ) )
+            {
+                this.space = this.text;
+            }
+            else
+            {
+                if ( this.space )
+                {
+                    this.hash = hash( this.hash, ' ' );
+                    this.space = false;
+                }
+
+                this.hash = hash( this.hash, Character.toUpperCase( c ) );
+                this.text = true;
+            }
+        }
+
+        /** Ends a description. */
+        void endDescription()
+        {
+            this.space = this.text;
+        }
+
+        /**
+         * Adds the fingerprinted fields of a transaction.
+         *
+         * @param transaction The transaction to add.
+         */
+        void addTransaction( final Transaction transaction )
+        {
+            this.addNumber( transaction.getTargetAccount() != null
+                            ? transaction.getTargetAccount().longValue() : -1L );
+
+            this.addNumber( transaction.getTargetBank() != null ? transaction.getTargetBank().longValue() : -1L );
+            this.addNumber( transaction.getAmount() != null ? transaction.getAmount().longValue() : -1L );
+            this.addNumber( transaction.getReference() != null ? transaction.getReference().longValue() : -1L );
+            this.addCurrency( transaction.getCurrency() );
+
+            final AlphaNumericText27[] descriptions = transaction.getDescriptions();
+
+            for ( int i = 0; i < descriptions.length; i++ )
+            {
+                for ( int j = 0; j < descriptions[i].length(); j++ )
+                {
+                    this.addDescriptionCharacter( descriptions[i].charAt( j ) );
+                }
+
+                this.endDescription();
+            }
+        }
+
+        /**
+         * Gets the fingerprint of the values added.
+         *
+         * @return The fingerprint of the values added. The value {@code 0} is never returned.
+         */
+        long getValue()
+        {
+            // Final avalanche of the FNV hash.
+            long value = this.hash;
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb9fe1a85ec53L;
+            value ^= value >>> 33;
+            return value != EMPTY ? value : 1L;
+        }
+
+    }
+
+    //--Dependencies------------------------------------------------------------
+
+// <editor-fold defaultstate="collapsed" desc=" Generated Code ">//GEN-BEGIN:jdtausDependencies
+    // This section is managed by jdtaus-container-mojo.
+
+    /**
+     * Gets the configured <code>MemoryManager</code> implementation.
+     *
+     * @return The configured <code>MemoryManager</code> implementation.
+     */
+    private MemoryManager getMemoryManager()
+    {
+        return (MemoryManager) ContainerFactory.getContainer().
+            getDependency( this, "MemoryManager" );
+
+    }
+
+// </editor-fold>//GEN-END:jdtausDependencies
+
+    //------------------------------------------------------------Dependencies--
+}
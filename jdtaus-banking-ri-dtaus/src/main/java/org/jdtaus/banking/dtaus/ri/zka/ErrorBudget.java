@@ -0,0 +1,88 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.io.IOException;
+
+/**
+ * {@code DiagnosticsListener} aborting an operation after a maximum number of file errors got reported.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see DefaultPhysicalFileFactory#ATTRIBUTE_ERROR_BUDGET
+ */
+final class ErrorBudget implements DiagnosticsListener
+{
+
+    /** Gets thrown when the number of reported file errors reaches the budget. */
+    static final class ExhaustedException extends IOException
+    {
+
+        /** Serial version UID for backwards compatibility with 1.17.x classes. */
+        private static final long serialVersionUID = 4790243360567434416L;
+
+        /**
+         * Creates a new {@code ExhaustedException} instance.
+         *
+         * @param budget The exhausted budget.
+         */
+        ExhaustedException( final int budget )
+        {
+            super( Integer.toString( budget ) );
+        }
+
+    }
+
+    /** Maximum number of file errors to report before aborting. */
+    private final int budget;
+
+    /** Number of file errors reported so far. */
+    private int errors;
+
+    /**
+     * Creates a new {@code ErrorBudget} instance.
+     *
+     * @param budget Maximum number of file errors to report before aborting.
+     *
+     * @throws IllegalArgumentException if {@code budget} is negative or zero.
+     */
+    ErrorBudget( final int budget )
+    {
+        super();
+
+        if ( budget <= 0 )
+        {
+            throw new IllegalArgumentException( Integer.toString( budget ) );
+        }
+
+        this.budget = budget;
+    }
+
+    public void diagnosticReported( final DiagnosticsEvent event ) throws IOException
+    {
+        if ( ++this.errors >= this.budget )
+        {
+            throw new ExhaustedException( this.budget );
+        }
+    }
+
+}
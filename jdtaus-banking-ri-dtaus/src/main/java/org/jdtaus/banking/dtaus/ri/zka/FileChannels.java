@@ -0,0 +1,390 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import org.jdtaus.core.io.FileOperations;
+import org.jdtaus.core.io.util.CoalescingFileOperations;
+import org.jdtaus.core.io.util.FlushableFileOperations;
+import org.jdtaus.core.io.util.RandomAccessFileOperations;
+import org.jdtaus.core.io.util.ReadAheadFileOperations;
+
+/**
+ * Static helper methods for accessing the {@code FileChannel} backing a {@code FileOperations} implementation.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+final class FileChannels
+{
+
+    /** Capacity of the direct buffers used for moving bytes, a multiple of common page sizes. */
+    static final int BUFFER_CAPACITY = 65536;
+
+    /** Creates a new {@code FileChannels} instance. */
+    private FileChannels()
+    {
+        super();
+    }
+
+    /**
+     * Gets the {@code FileChannel} backing a given {@code FileOperations} implementation for reading and writing.
+     * <p>Only a {@code RandomAccessFileOperations} implementation not wrapped by any caching wrapper is backed by a
+     * channel for writing. Caching wrappers such as {@code ReadAheadFileOperations} cannot be told about bytes written
+     * to the channel and would keep answering reads from stale caches.</p>
+     *
+     * @param fileOperations The implementation to get the backing channel of.
+     *
+     * @return The {@code FileChannel} backing {@code fileOperations} or {@code null} if {@code fileOperations} is not
+     * backed by a {@code FileChannel}.
+     *
+     * @throws NullPointerException if {@code fileOperations} is {@code null}.
+     */
+    static FileChannel getFileChannel( final FileOperations fileOperations )
+    {
+        if ( fileOperations == null )
+        {
+            throw new NullPointerException( "fileOperations" );
+        }
+
+        return fileOperations instanceof RandomAccessFileOperations
+               ? ( (RandomAccessFileOperations) fileOperations ).getRandomAccessFile().getChannel()
+               : null;
+
+    }
+
+    /**
+     * Gets the {@code FileChannel} backing a given {@code FileOperations} implementation for reading.
+     * <p>The channel of a {@code RandomAccessFileOperations} implementation is also found when wrapped by any number
+     * of {@code ReadAheadFileOperations} and {@code CoalescingFileOperations} instances, as done by the
+     * {@code File} based methods of {@code DefaultPhysicalFileFactory}. When a channel is found, every wrapper is
+     * flushed from the outermost to the innermost one so that buffered changes are written to the file before the
+     * channel is read.</p>
+     *
+     * @param fileOperations The implementation to get the backing channel of.
+     *
+     * @return The {@code FileChannel} backing {@code fileOperations} or {@code null} if {@code fileOperations} is not
+     * backed by a {@code FileChannel}.
+     *
+     * @throws NullPointerException if {@code fileOperations} is {@code null}.
+     * @throws IOException if flushing buffered changes fails.
+     */
+    static FileChannel getReadableFileChannel( final FileOperations fileOperations ) throws IOException
+    {
+        if ( fileOperations == null )
+        {
+            throw new NullPointerException( "fileOperations" );
+        }
+
+        final FileOperations unwrapped = unwrap( fileOperations );
+
+        if ( unwrapped instanceof RandomAccessFileOperations )
+        {
+            for ( FileOperations ops = fileOperations; ops != null; ops = getWrapped( ops ) )
+            {
+                if ( ops instanceof FlushableFileOperations )
+                {
+                    ( (FlushableFileOperations) ops ).flush();
+                }
+            }
+
+            return ( (RandomAccessFileOperations) unwrapped ).getRandomAccessFile().getChannel();
+        }
+
+        return null;
+    }
+
+    /**
+     * Tests two {@code FileOperations} implementations to operate on the same file.
+     * <p>Both implementations are unwrapped from any number of {@code ReadAheadFileOperations} and
+     * {@code CoalescingFileOperations} instances before comparing them. A file opened through different
+     * {@code RandomAccessFile} instances is not detected.</p>
+     *
+     * @param a The first implementation to test.
+     * @param b The second implementation to test.
+     *
+     * @return {@code true}, if {@code a} and {@code b} operate on the same file; {@code false}, if not or if this
+     * cannot be determined.
+     *
+     * @throws NullPointerException if {@code a} or {@code b} is {@code null}.
+     */
+    static boolean isSameFile( final FileOperations a, final FileOperations b )
+    {
+        if ( a == null )
+        {
+            throw new NullPointerException( "a" );
+        }
+        if ( b == null )
+        {
+            throw new NullPointerException( "b" );
+        }
+
+        final FileOperations unwrappedA = unwrap( a );
+        final FileOperations unwrappedB = unwrap( b );
+
+        return unwrappedA == unwrappedB
+               || ( unwrappedA instanceof RandomAccessFileOperations && unwrappedB instanceof RandomAccessFileOperations
+                    && ( (RandomAccessFileOperations) unwrappedA ).getRandomAccessFile()
+                       == ( (RandomAccessFileOperations) unwrappedB ).getRandomAccessFile() );
+
+    }
+
+    /**
+     * Gets the innermost {@code FileOperations} implementation of a chain of caching wrappers.
+     *
+     * @param fileOperations The implementation to unwrap.
+     *
+     * @return The innermost implementation wrapped by {@code fileOperations} or {@code fileOperations} itself, if
+     * {@code fileOperations} does not wrap another implementation.
+     */
+    private static FileOperations unwrap( final FileOperations fileOperations )
+    {
+        FileOperations ops = fileOperations;
+
+        for ( FileOperations wrapped = getWrapped( ops ); wrapped != null; wrapped = getWrapped( ops ) )
+        {
+            ops = wrapped;
+        }
+
+        return ops;
+    }
+
+    /**
+     * Gets the {@code FileOperations} implementation wrapped by a caching wrapper.
+     *
+     * @param fileOperations The implementation to get the wrapped implementation of.
+     *
+     * @return The implementation wrapped by {@code fileOperations} or {@code null}, if {@code fileOperations} is not a
+     * {@code ReadAheadFileOperations} or {@code CoalescingFileOperations} instance.
+     */
+    private static FileOperations getWrapped( final FileOperations fileOperations )
+    {
+        if ( fileOperations instanceof ReadAheadFileOperations )
+        {
+            return ( (ReadAheadFileOperations) fileOperations ).getFileOperations();
+        }
+        if ( fileOperations instanceof CoalescingFileOperations )
+        {
+            return ( (CoalescingFileOperations) fileOperations ).getFileOperations();
+        }
+
+        return null;
+    }
+
+    /**
+     * Copies a range of bytes from one file to another using the {@code FileChannel}s backing both files.
+     * <p>Bytes are copied using
+     * {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}. The length of {@code target}
+     * is extended as needed. If either file is not backed by a {@code FileChannel}, no bytes are copied and
+     * {@code false} is returned so that the caller can copy bytes using method
+     * {@link #copy(FileOperations, long, long, FileOperations, long, byte[])}.</p>
+     *
+     * @param source The file to copy bytes from.
+     * @param sourcePosition The position in {@code source} to start copying bytes at.
+     * @param length The number of bytes to copy.
+     * @param target The file to copy bytes to.
+     * @param targetPosition The position in {@code target} to start writing bytes at.
+     *
+     * @return {@code true}, if bytes got copied; {@code false}, if either file is not backed by a
+     * {@code FileChannel}.
+     *
+     * @throws NullPointerException if {@code source} or {@code target} is {@code null}.
+     * @throws IllegalArgumentException if {@code sourcePosition}, {@code length} or {@code targetPosition} is
+     * negative.
+     * @throws EOFException if {@code source} holds less than {@code length} bytes at {@code sourcePosition}.
+     * @throws IOException if copying fails.
+     */
+    static boolean transfer( final FileOperations source, final long sourcePosition, final long length,
+                             final FileOperations target, final long targetPosition ) throws IOException
+    {
+        assertValidRange( source, sourcePosition, length, target, targetPosition );
+
+        final FileChannel in = getReadableFileChannel( source );
+        final FileChannel out = in != null ? getFileChannel( target ) : null;
+
+        if ( in == null || out == null )
+        {
+            return false;
+        }
+
+        if ( target.getLength() < targetPosition + length )
+        {
+            target.setLength( targetPosition + length );
+        }
+
+        long transferred = 0L;
+        out.position( targetPosition );
+
+        while ( transferred < length )
+        {
+            final long count = in.transferTo( sourcePosition + transferred, length - transferred, out );
+
+            if ( count <= 0L )
+            {
+                throw new EOFException();
+            }
+
+            transferred += count;
+        }
+
+        return true;
+    }
+
+    /**
+     * Copies a range of bytes from one file to another using a buffer.
+     * <p>The length of {@code target} is extended as needed.</p>
+     *
+     * @param source The file to copy bytes from.
+     * @param sourcePosition The position in {@code source} to start copying bytes at.
+     * @param length The number of bytes to copy.
+     * @param target The file to copy bytes to.
+     * @param targetPosition The position in {@code target} to start writing bytes at.
+     * @param buffer The buffer to copy bytes with.
+     *
+     * @throws NullPointerException if {@code source}, {@code target} or {@code buffer} is {@code null}.
+     * @throws IllegalArgumentException if {@code sourcePosition}, {@code length} or {@code targetPosition} is
+     * negative or if {@code buffer} is empty.
+     * @throws EOFException if {@code source} holds less than {@code length} bytes at {@code sourcePosition}.
+     * @throws IOException if copying fails.
+     *
+     * @see #transfer(FileOperations, long, long, FileOperations, long)
+     */
+    static void copy( final FileOperations source, final long sourcePosition, final long length,
+                      final FileOperations target, final long targetPosition, final byte[] buffer )
+        throws IOException
+    {
+        if ( buffer == null )
+        {
+            throw new NullPointerException( "buffer" );
+        }
+        if ( buffer.length == 0 )
+        {
+            throw new IllegalArgumentException( Integer.toString( buffer.length ) );
+        }
+
+        assertValidRange( source, sourcePosition, length, target, targetPosition );
+
+        if ( target.getLength() < targetPosition + length )
+        {
+            target.setLength( targetPosition + length );
+        }
+
+        long transferred = 0L;
+
+        while ( transferred < length )
+        {
+            final int len = length - transferred > buffer.length ? buffer.length : (int) ( length - transferred );
+            int read = 0;
+            int total = 0;
+
+            source.setFilePointer( sourcePosition + transferred );
+
+            do
+            {
+                read = source.read( buffer, total, len - total );
+
+                if ( read == FileOperations.EOF )
+                {
+                    throw new EOFException();
+                }
+
+                total += read;
+            }
+            while ( total < len );
+
+            target.setFilePointer( targetPosition + transferred );
+            target.write( buffer, 0, len );
+            transferred += len;
+        }
+    }
+
+    private static void assertValidRange( final FileOperations source, final long sourcePosition, final long length,
+                                          final FileOperations target, final long targetPosition )
+        throws IOException
+    {
+        if ( source == null )
+        {
+            throw new NullPointerException( "source" );
+        }
+        if ( target == null )
+        {
+            throw new NullPointerException( "target" );
+        }
+        if ( sourcePosition < 0L )
+        {
+            throw new IllegalArgumentException( Long.toString( sourcePosition ) );
+        }
+        if ( length < 0L )
+        {
+            throw new IllegalArgumentException( Long.toString( length ) );
+        }
+        if ( targetPosition < 0L )
+        {
+            throw new IllegalArgumentException( Long.toString( targetPosition ) );
+        }
+        if ( sourcePosition + length > source.getLength() )
+        {
+            throw new EOFException();
+        }
+    }
+
+    /**
+     * Moves a range of bytes within a file.
+     * <p>Bytes are read into {@code buffer} using positional reads and written from {@code buffer} using positional
+     * writes. The position of {@code channel} is not changed. Moving a range larger than the capacity of
+     * {@code buffer} requires repeated calls in an order keeping source bytes not yet moved from being overwritten.</p>
+     *
+     * @param channel The channel of the file to move bytes in.
+     * @param sourcePosition The position of the bytes to move.
+     * @param targetPosition The position to move the bytes to.
+     * @param length The number of bytes to move, not greater than the capacity of {@code buffer}.
+     * @param buffer The buffer to move bytes with.
+     *
+     * @throws EOFException if {@code channel} holds less than {@code length} bytes at {@code sourcePosition}.
+     * @throws IOException if moving bytes fails.
+     */
+    static void move( final FileChannel channel, final long sourcePosition, final long targetPosition,
+                      final int length, final ByteBuffer buffer ) throws IOException
+    {
+        buffer.clear();
+        buffer.limit( length );
+
+        while ( buffer.hasRemaining() )
+        {
+            if ( channel.read( buffer, sourcePosition + buffer.position() ) == -1 )
+            {
+                throw new EOFException();
+            }
+        }
+
+        buffer.flip();
+
+        while ( buffer.hasRemaining() )
+        {
+            channel.write( buffer, targetPosition + buffer.position() );
+        }
+    }
+
+}
@@ -0,0 +1,292 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.util.Arrays;
+
+/**
+ * Maps {@code long} keys to any number of {@code int} values.
+ * <p>Keys are kept in an open-addressing hash table. The values of a key are kept in a linked list of entries held in
+ * {@code int} arrays. No objects are created per key or value. Keys are never removed from the table; a key whose
+ * values have all been removed keeps its slot with an empty list.</p>
+ * <p><b>Note:</b><br/>
+ * This implementation is not thread-safe.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @since 1.17
+ */
+final class LongIntMultimap
+{
+
+    /** Empty array of values. */
+    private static final int[] NO_VALUES =
+    {
+    };
+
+    /** Value of an unused slot or the end of a list. */
+    private static final int NONE = -1;
+
+    /** Minimum capacity of the tables. */
+    private static final int MINIMUM_CAPACITY = 16;
+
+    /** Keys of the hash table. */
+    private long[] keys;
+
+    /** First entry of the list of values of a key or {@code NONE} for unused slots. */
+    private int[] heads;
+
+    /** Whether a slot of the hash table is used. */
+    private boolean[] used;
+
+    /** Number of used slots. */
+    private int keyCount;
+
+    /** Values of the entries. */
+    private int[] values;
+
+    /** Next entry of the entries or {@code NONE}. */
+    private int[] next;
+
+    /** Number of entries ever used. */
+    private int entryCount;
+
+    /** First entry of the list of free entries or {@code NONE}. */
+    private int free = NONE;
+
+    /**
+     * Creates a new {@code LongIntMultimap} instance taking the expected number of values.
+     *
+     * @param expectedSize The expected number of values.
+     */
+    LongIntMultimap( final int expectedSize )
+    {
+        super();
+
+        int capacity = MINIMUM_CAPACITY;
+        while ( capacity < expectedSize + ( expectedSize / 3 ) + 1 )
+        {
+            capacity <<= 1;
+        }
+
+        this.keys = new long[ capacity ];
+        this.heads = new int[ capacity ];
+        this.used = new boolean[ capacity ];
+        this.values = new int[ capacity ];
+        this.next = new int[ capacity ];
+        Arrays.fill( this.heads, NONE );
+    }
+
+    /**
+     * Adds a value to the values of a key.
+     *
+     * @param key The key to add {@code value} to.
+     * @param value The value to add.
+     */
+    void put( final long key, final int value )
+    {
+        int slot = this.getSlot( key );
+
+        if ( !this.used[slot] )
+        {
+            if ( ( this.keyCount + 1 ) * 4 > this.keys.length * 3 )
+            {
+                this.rehash( this.keys.length * 2 );
+                slot = this.getSlot( key );
+            }
+
+            this.used[slot] = true;
+            this.keys[slot] = key;
+            this.heads[slot] = NONE;
+            this.keyCount++;
+        }
+
+        final int entry = this.newEntry();
+        this.values[entry] = value;
+        this.next[entry] = this.heads[slot];
+        this.heads[slot] = entry;
+    }
+
+    /**
+     * Removes a value from the values of a key.
+     *
+     * @param key The key to remove {@code value} from.
+     * @param value The value to remove.
+     *
+     * @return {@code true}, if {@code value} was removed; {@code false}, if {@code key} is not mapped to {@code value}.
+     */
+    boolean remove( final long key, final int value )
+    {
+        final int slot = this.getSlot( key );
+
+        if ( this.used[slot] )
+        {
+            for ( int entry = this.heads[slot], previous = NONE; entry != NONE;
+                  previous = entry, entry = this.next[entry] )
+            {
+                if ( this.values[entry] == value )
+                {
+                    if ( previous == NONE )
+                    {
+                        this.heads[slot] = this.next[entry];
+                    }
+                    else
+                    {
+                        this.next[previous] = this.next[entry];
+                    }
+
+                    this.next[entry] = this.free;
+                    this.free = entry;
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the values of a key.
+     *
+     * @param key The key to get the values of.
+     *
+     * @return The values of {@code key} in ascending order or an empty array, if {@code key} is not mapped to any
+     * value.
+     */
+    int[] get( final long key )
+    {
+        final int slot = this.getSlot( key );
+
+        if ( !this.used[slot] || this.heads[slot] == NONE )
+        {
+            return NO_VALUES;
+        }
+
+        int count = 0;
+        for ( int entry = this.heads[slot]; entry != NONE; entry = this.next[entry] )
+        {
+            count++;
+        }
+
+        final int[] ret = new int[ count ];
+        for ( int entry = this.heads[slot], i = 0; entry != NONE; entry = this.next[entry] )
+        {
+            ret[i++] = this.values[entry];
+        }
+
+        Arrays.sort( ret );
+        return ret;
+    }
+
+    /**
+     * Decrements every value greater than a given value by one.
+     *
+     * @param value The value to decrement all greater values of.
+     */
+    void decrementValuesAbove( final int value )
+    {
+        for ( int i = this.entryCount - 1; i >= 0; i-- )
+        {
+            if ( this.values[i] > value )
+            {
+                this.values[i]--;
+            }
+        }
+    }
+
+    /**
+     * Gets an unused entry.
+     *
+     * @return An unused entry.
+     */
+    private int newEntry()
+    {
+        if ( this.free != NONE )
+        {
+            final int entry = this.free;
+            this.free = this.next[entry];
+            return entry;
+        }
+
+        if ( this.entryCount == this.values.length )
+        {
+            final int[] newValues = new int[ this.values.length * 2 ];
+            final int[] newNext = new int[ this.next.length * 2 ];
+            System.arraycopy( this.values, 0, newValues, 0, this.entryCount );
+            System.arraycopy( this.next, 0, newNext, 0, this.entryCount );
+            this.values = newValues;
+            this.next = newNext;
+        }
+
+        return this.entryCount++;
+    }
+
+    /**
+     * Gets the slot of a key.
+     *
+     * @param key The key to get the slot of.
+     *
+     * @return The slot holding {@code key} or the unused slot to put {@code key} into.
+     */
+    private int getSlot( final long key )
+    {
+        final int mask = this.keys.length - 1;
+        long hash = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) ( hash ^ ( hash >>> 32 ) ) & mask;
+
+        while ( this.used[slot] && this.keys[slot] != key )
+        {
+            slot = ( slot + 1 ) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Resizes the hash table.
+     *
+     * @param capacity The new capacity of the hash table.
+     */
+    private void rehash( final int capacity )
+    {
+        final long[] oldKeys = this.keys;
+        final int[] oldHeads = this.heads;
+        final boolean[] oldUsed = this.used;
+
+        this.keys = new long[ capacity ];
+        this.heads = new int[ capacity ];
+        this.used = new boolean[ capacity ];
+        Arrays.fill( this.heads, NONE );
+
+        for ( int i = oldKeys.length - 1; i >= 0; i-- )
+        {
+            if ( oldUsed[i] )
+            {
+                final int slot = this.getSlot( oldKeys[i] );
+                this.used[slot] = true;
+                this.keys[slot] = oldKeys[i];
+                this.heads[slot] = oldHeads[i];
+            }
+        }
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import org.jdtaus.core.text.Messages;
+
+/**
+ * Context of parsing a physical file.
+ * <p>A context holds the messages collected and the error mode applied when reading a physical file. Other than the
+ * thread-local state provided by {@link ThreadLocalMessages}, a context is passed along with the physical file and its
+ * logical files so that these can be handed from one thread to another. A context must not be shared by multiple
+ * physical files used concurrently.</p>
+ * <p><b>Note:</b><br/>
+ * This implementation is not thread-safe.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see DefaultPhysicalFileFactory#getPhysicalFile(org.jdtaus.core.io.FileOperations, java.util.Properties, ParseContext)
+ * @see AbstractLogicalFile#setParseContext(ParseContext)
+ * @see ThreadLocalMessages#getParseContext()
+ * @since 1.17
+ */
+public class ParseContext
+{
+
+    /** Collection of messages of the instance. */
+    private Messages messages;
+
+    /** Flag indicating that {@code CorruptedException}s are enabled. */
+    private boolean errorsEnabled = true;
+
+    /** Creates a new {@code ParseContext} instance. */
+    public ParseContext()
+    {
+        super();
+    }
+
+    /**
+     * Flag indicating that {@code CorruptedException}s are enabled.
+     *
+     * @return {@code true} if a {@code CorruptedException} must be thrown whenever a file error is detected;
+     * {@code false} to not throw any exception when detecting a file error.
+     */
+    public boolean isErrorsEnabled()
+    {
+        return this.errorsEnabled;
+    }
+
+    /**
+     * Setter for property {@code errorsEnabled}.
+     *
+     * @param value {@code true} if a {@code CorruptedException} should be thrown whenever a file error is detected;
+     * {@code false} to not throw any exception when detecting a file error.
+     */
+    public void setErrorsEnabled( final boolean value )
+    {
+        this.errorsEnabled = value;
+    }
+
+    /**
+     * Gets the collection of messages of the context.
+     * <p>The number of messages collected is limited. Use a {@link DiagnosticsListener} to get notified about every
+     * file error detected.</p>
+     *
+     * @return collection of messages of the context.
+     */
+    public Messages getMessages()
+    {
+        if ( this.messages == null )
+        {
+            this.messages = new BoundedMessages();
+        }
+
+        return this.messages;
+    }
+
+}
@@ -0,0 +1,166 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.math.BigInteger;
+import org.jdtaus.banking.Bankleitzahl;
+import org.jdtaus.banking.Kontonummer;
+import org.jdtaus.banking.Referenznummer11;
+import org.jdtaus.banking.dtaus.Transaction;
+
+/**
+ * Secondary indexes of the transactions of a logical file.
+ * <p>Maps the target account and bank, the reference and the amount of transactions to the indices of the
+ * transactions. Transactions with a {@code null} value of an indexed property are not part of the corresponding
+ * index.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see AbstractLogicalFile#getTransactionsByTarget(Kontonummer, Bankleitzahl)
+ * @see AbstractLogicalFile#getTransactionsByReference(Referenznummer11)
+ * @see AbstractLogicalFile#getTransactionsByAmount(BigInteger)
+ * @since 1.17
+ */
+final class SecondaryIndexes
+{
+
+    /** Factor combining a {@code Kontonummer} and a {@code Bankleitzahl} into a single key. */
+    private static final long TARGET_FACTOR = 100000000L;
+
+    /** Index of target account and bank. */
+    private final LongIntMultimap targets;
+
+    /** Index of references. */
+    private final LongIntMultimap references;
+
+    /** Index of amounts. */
+    private final LongIntMultimap amounts;
+
+    /**
+     * Creates a new {@code SecondaryIndexes} instance taking the expected number of transactions.
+     *
+     * @param expectedSize The expected number of transactions.
+     */
+    SecondaryIndexes( final int expectedSize )
+    {
+        super();
+        this.targets = new LongIntMultimap( expectedSize );
+        this.references = new LongIntMultimap( expectedSize );
+        this.amounts = new LongIntMultimap( expectedSize );
+    }
+
+    /**
+     * Adds a transaction to the indexes.
+     *
+     * @param index The index of {@code transaction}.
+     * @param transaction The transaction to add.
+     */
+    void add( final int index, final Transaction transaction )
+    {
+        if ( transaction.getTargetAccount() != null && transaction.getTargetBank() != null )
+        {
+            this.targets.put( getKey( transaction.getTargetAccount(), transaction.getTargetBank() ), index );
+        }
+        if ( transaction.getReference() != null )
+        {
+            this.references.put( transaction.getReference().longValue(), index );
+        }
+        if ( transaction.getAmount() != null )
+        {
+            this.amounts.put( transaction.getAmount().longValue(), index );
+        }
+    }
+
+    /**
+     * Removes a transaction from the indexes.
+     *
+     * @param index The index of {@code transaction}.
+     * @param transaction The transaction to remove.
+     * @param shift {@code true}, to decrement the indices of all transactions following {@code index}; {@code false},
+     * to keep the indices of all other transactions.
+     */
+    void remove( final int index, final Transaction transaction, final boolean shift )
+    {
+        if ( transaction.getTargetAccount() != null && transaction.getTargetBank() != null )
+        {
+            this.targets.remove( getKey( transaction.getTargetAccount(), transaction.getTargetBank() ), index );
+        }
+        if ( transaction.getReference() != null )
+        {
+            this.references.remove( transaction.getReference().longValue(), index );
+        }
+        if ( transaction.getAmount() != null )
+        {
+            this.amounts.remove( transaction.getAmount().longValue(), index );
+        }
+
+        if ( shift )
+        {
+            this.targets.decrementValuesAbove( index );
+            this.references.decrementValuesAbove( index );
+            this.amounts.decrementValuesAbove( index );
+        }
+    }
+
+    /**
+     * Gets the indices of the transactions of a given target account and bank.
+     *
+     * @param account The target account to search.
+     * @param bank The target bank to search.
+     *
+     * @return The indices of the transactions of {@code account} at {@code bank} in ascending order.
+     */
+    int[] getTransactionsByTarget( final Kontonummer account, final Bankleitzahl bank )
+    {
+        return this.targets.get( getKey( account, bank ) );
+    }
+
+    /**
+     * Gets the indices of the transactions of a given reference.
+     *
+     * @param reference The reference to search.
+     *
+     * @return The indices of the transactions of {@code reference} in ascending order.
+     */
+    int[] getTransactionsByReference( final Referenznummer11 reference )
+    {
+        return this.references.get( reference.longValue() );
+    }
+
+    /**
+     * Gets the indices of the transactions of a given amount.
+     *
+     * @param amount The amount to search.
+     *
+     * @return The indices of the transactions of {@code amount} in ascending order.
+     */
+    int[] getTransactionsByAmount( final BigInteger amount )
+    {
+        return this.amounts.get( amount.longValue() );
+    }
+
+    private static long getKey( final Kontonummer account, final Bankleitzahl bank )
+    {
+        return account.longValue() * TARGET_FACTOR + bank.longValue();
+    }
+
+}
@@ -20,11 +20,14 @@
  */
 package org.jdtaus.banking.dtaus.ri.zka;
 
-import org.jdtaus.core.text.Message;
 import org.jdtaus.core.text.Messages;
 
 /**
  * Thread-local collections of messages.
+ * <p>The number of messages collected per thread is limited. Use a {@link DiagnosticsListener} to get notified about
+ * every file error detected.</p>
+ * <p>The thread-local state is used whenever no {@code ParseContext} got passed explicitly. Use a {@link ParseContext}
+ * to hand a physical file from one thread to another.</p>
  *
  * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
  * @version $JDTAUS$
@@ -32,46 +35,13 @@ import org.jdtaus.core.text.Messages;
 public abstract class ThreadLocalMessages
 {
 
-    /** Maximum number of messages added to the collection. */
-    private static final int MAXIMUM_MESSAGES = 100;
-
     /** Thread local collections of messages. */
     private static final ThreadLocal current = new ThreadLocal()
     {
 
         public Object initialValue()
         {
-            return new Messages()
-            {
-
-                /** Number of messages added to the instance. */
-                private int messageCount = 0;
-
-                public void addMessage( final Message message )
-                {
-                    if ( this.messageCount + 1L <= Integer.MAX_VALUE && this.messageCount + 1 < MAXIMUM_MESSAGES )
-                    {
-                        this.messageCount++;
-                        super.addMessage( message );
-                    }
-                }
-
-                public void removeMessage( final Message message )
-                {
-                    if ( this.messageCount - 1 >= 0 )
-                    {
-                        this.messageCount--;
-                        super.removeMessage( message );
-                    }
-                }
-
-                public void clear()
-                {
-                    this.messageCount = 0;
-                    super.clear();
-                }
-
-            };
+            return new BoundedMessages();
         }
 
     };
@@ -116,6 +86,39 @@ public abstract class ThreadLocalMessages
         errorsEnabled.set( value ? Boolean.TRUE : Boolean.FALSE );
     }
 
+    /** {@code ParseContext} backed by the state of the current thread of execution. */
+    private static final ParseContext parseContext = new ParseContext()
+    {
+
+        public boolean isErrorsEnabled()
+        {
+            return ThreadLocalMessages.isErrorsEnabled();
+        }
+
+        public void setErrorsEnabled( final boolean value )
+        {
+            ThreadLocalMessages.setErrorsEnabled( value );
+        }
+
+        public Messages getMessages()
+        {
+            return ThreadLocalMessages.getMessages();
+        }
+
+    };
+
+    /**
+     * Gets a {@code ParseContext} backed by the state of the current thread of execution.
+     *
+     * @return A {@code ParseContext} backed by the state of the current thread of execution.
+     *
+     * @since 1.17
+     */
+    public static ParseContext getParseContext()
+    {
+        return parseContext;
+    }
+
     /**
      * Gets the collection of messages stored with the current thread of execution.
      *
@@ -0,0 +1,232 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.Currency;
+import org.jdtaus.banking.dtaus.Transaction;
+
+/**
+ * {@code Comparator} comparing {@code Transaction}s by a list of properties.
+ * <p>Properties are compared in the order given. {@code null} values are ordered before any other value.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see AbstractLogicalFile#sortTransactions(Comparator)
+ * @since 1.17
+ */
+public final class TransactionComparator implements Comparator, Serializable
+{
+
+    /** Serial version UID for backwards compatibility with 1.17.x classes. */
+    private static final long serialVersionUID = 3168740216839560017L;
+
+    /** Supported properties. */
+    private static final String[] PROPERTIES =
+    {
+        Transaction.PROP_TYPE, Transaction.PROP_AMOUNT, Transaction.PROP_REFERENCE, Transaction.PROP_PRIMARYBANK,
+        Transaction.PROP_EXECUTIVEACCOUNT, Transaction.PROP_EXECUTIVEBANK, Transaction.PROP_EXECUTIVENAME,
+        Transaction.PROP_EXECUTIVEEXT, Transaction.PROP_TARGETACCOUNT, Transaction.PROP_TARGETBANK,
+        Transaction.PROP_TARGETNAME, Transaction.PROP_TARGETEXT, Transaction.PROP_CURRENCY
+    };
+
+    /**
+     * Properties to compare.
+     * @serial
+     */
+    private final String[] properties;
+
+    /**
+     * Creates a new {@code TransactionComparator} instance taking the properties to compare.
+     *
+     * @param properties The properties to compare in the order to compare them.
+     *
+     * @throws NullPointerException if {@code properties} is {@code null}.
+     * @throws IllegalArgumentException if {@code properties} is empty or holds a property not supported for
+     * comparison.
+     *
+     * @see Transaction#PROP_TYPE
+     */
+    public TransactionComparator( final String[] properties )
+    {
+        super();
+
+        if ( properties == null )
+        {
+            throw new NullPointerException( "properties" );
+        }
+        if ( properties.length == 0 )
+        {
+            throw new IllegalArgumentException( "properties" );
+        }
+
+        for ( int i = properties.length - 1; i >= 0; i-- )
+        {
+            boolean supported = false;
+
+            for ( int j = PROPERTIES.length - 1; j >= 0 && !supported; j-- )
+            {
+                supported = PROPERTIES[j].equals( properties[i] );
+            }
+
+            if ( !supported )
+            {
+                throw new IllegalArgumentException( properties[i] );
+            }
+        }
+
+        this.properties = (String[]) properties.clone();
+    }
+
+    /**
+     * Compares two {@code Transaction}s.
+     *
+     * @param o1 The first {@code Transaction} to compare.
+     * @param o2 The second {@code Transaction} to compare.
+     *
+     * @return A negative integer, zero, or a positive integer as {@code o1} is less than, equal to, or greater than
+     * {@code o2}.
+     *
+     * @throws NullPointerException if {@code o1} or {@code o2} is {@code null}.
+     * @throws ClassCastException if {@code o1} or {@code o2} is not a {@code Transaction}.
+     */
+    public int compare( final Object o1, final Object o2 )
+    {
+        if ( o1 == null )
+        {
+            throw new NullPointerException( "o1" );
+        }
+        if ( o2 == null )
+        {
+            throw new NullPointerException( "o2" );
+        }
+
+        final Transaction t1 = (Transaction) o1;
+        final Transaction t2 = (Transaction) o2;
+        int ret = 0;
+
+        for ( int i = 0; i < this.properties.length && ret == 0; i++ )
+        {
+            ret = compareValues( getValue( t1, this.properties[i] ), getValue( t2, this.properties[i] ) );
+        }
+
+        return ret;
+    }
+
+    /**
+     * Gets the comparable value of a property of a given {@code Transaction}.
+     *
+     * @param transaction The {@code Transaction} to get the value of a property of.
+     * @param property The property to get the value of.
+     *
+     * @return The comparable value of {@code property} of {@code transaction} or {@code null}.
+     */
+    private static Comparable getValue( final Transaction transaction, final String property )
+    {
+        final Comparable ret;
+
+        if ( Transaction.PROP_TYPE.equals( property ) )
+        {
+            ret = transaction.getType();
+        }
+        else if ( Transaction.PROP_AMOUNT.equals( property ) )
+        {
+            ret = transaction.getAmount();
+        }
+        else if ( Transaction.PROP_REFERENCE.equals( property ) )
+        {
+            ret = transaction.getReference();
+        }
+        else if ( Transaction.PROP_PRIMARYBANK.equals( property ) )
+        {
+            ret = transaction.getPrimaryBank();
+        }
+        else if ( Transaction.PROP_EXECUTIVEACCOUNT.equals( property ) )
+        {
+            ret = transaction.getExecutiveAccount();
+        }
+        else if ( Transaction.PROP_EXECUTIVEBANK.equals( property ) )
+        {
+            ret = transaction.getExecutiveBank();
+        }
+        else if ( Transaction.PROP_EXECUTIVENAME.equals( property ) )
+        {
+            ret = transaction.getExecutiveName();
+        }
+        else if ( Transaction.PROP_EXECUTIVEEXT.equals( property ) )
+        {
+            ret = transaction.getExecutiveExt();
+        }
+        else if ( Transaction.PROP_TARGETACCOUNT.equals( property ) )
+        {
+            ret = transaction.getTargetAccount();
+        }
+        else if ( Transaction.PROP_TARGETBANK.equals( property ) )
+        {
+            ret = transaction.getTargetBank();
+        }
+        else if ( Transaction.PROP_TARGETNAME.equals( property ) )
+        {
+            ret = transaction.getTargetName();
+        }
+        else if ( Transaction.PROP_TARGETEXT.equals( property ) )
+        {
+            ret = transaction.getTargetExt();
+        }
+        else if ( Transaction.PROP_CURRENCY.equals( property ) )
+        {
+            final Currency currency = transaction.getCurrency();
+            ret = currency != null ? currency.getCurrencyCode() : null;
+        }
+        else
+        {
+            throw new AssertionError( property );
+        }
+
+        return ret;
+    }
+
+    /**
+     * Compares two values with {@code null} values ordered first.
+     *
+     * @param v1 The first value to compare or {@code null}.
+     * @param v2 The second value to compare or {@code null}.
+     *
+     * @return A negative integer, zero, or a positive integer as {@code v1} is less than, equal to, or greater than
+     * {@code v2}.
+     */
+    private static int compareValues( final Comparable v1, final Comparable v2 )
+    {
+        if ( v1 == null )
+        {
+            return v2 == null ? 0 : -1;
+        }
+        if ( v2 == null )
+        {
+            return 1;
+        }
+
+        return v1.compareTo( v2 );
+    }
+
+}
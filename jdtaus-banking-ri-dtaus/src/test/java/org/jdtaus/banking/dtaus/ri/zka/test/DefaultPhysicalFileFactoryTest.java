@@ -20,8 +20,19 @@
  */
 package org.jdtaus.banking.dtaus.ri.zka.test;
 
+import java.io.IOException;
+import java.util.Properties;
+import junit.framework.Assert;
+import org.jdtaus.banking.dtaus.PhysicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFileException;
 import org.jdtaus.banking.dtaus.it.PhysicalFileFactoryTest;
+import org.jdtaus.banking.dtaus.ri.zka.AbstractLogicalFile;
 import org.jdtaus.banking.dtaus.ri.zka.DefaultPhysicalFileFactory;
+import org.jdtaus.banking.dtaus.ri.zka.DiagnosticsEvent;
+import org.jdtaus.banking.dtaus.ri.zka.DiagnosticsListener;
+import org.jdtaus.banking.dtaus.ri.zka.ParseContext;
+import org.jdtaus.banking.dtaus.ri.zka.ThreadLocalMessages;
+import org.jdtaus.core.io.util.MemoryFileOperations;
 
 /**
  * Tests the {@link DefaultPhysicalFileFactory} implementation.
@@ -39,4 +50,103 @@ public class DefaultPhysicalFileFactoryTest extends PhysicalFileFactoryTest
         this.setPhysicalFileFactory( new DefaultPhysicalFileFactory() );
     }
 
+    /** {@code DiagnosticsListener} counting events. */
+    private static final class CountingDiagnosticsListener implements DiagnosticsListener
+    {
+
+        /** Number of events received. */
+        int events;
+
+        public void diagnosticReported( final DiagnosticsEvent event ) throws IOException
+        {
+            Assert.assertNotNull( event.getMessage() );
+            Assert.assertNotNull( event.getData() );
+            this.events++;
+        }
+
+    }
+
+    public void testDiagnosticsListener() throws Exception
+    {
+        final DefaultPhysicalFileFactory factory = new DefaultPhysicalFileFactory();
+        final CountingDiagnosticsListener listener = new CountingDiagnosticsListener();
+        final MemoryFileOperations ops = new MemoryFileOperations();
+        ops.write( this.getClass().getResourceAsStream( "dtaus0_valid_header_checksum_illegal_format_transaction" ) );
+        factory.addDiagnosticsListener( listener );
+
+        try
+        {
+            factory.getPhysicalFile( ops );
+            Assert.fail();
+        }
+        catch ( final PhysicalFileException e )
+        {
+            Assert.assertTrue( listener.events > 0 );
+            Assert.assertTrue( e.getMessages().length <= listener.events );
+        }
+    }
+
+    public void testParseContext() throws Exception
+    {
+        final DefaultPhysicalFileFactory factory = new DefaultPhysicalFileFactory();
+        final ParseContext context = new ParseContext();
+        final MemoryFileOperations ops = new MemoryFileOperations();
+        ops.write( this.getClass().getResourceAsStream( "dtaus0_valid_header_checksum_illegal_format_transaction" ) );
+        ThreadLocalMessages.getMessages().clear();
+
+        try
+        {
+            factory.getPhysicalFile( ops, new Properties(), context );
+            Assert.fail();
+        }
+        catch ( final PhysicalFileException e )
+        {
+            Assert.assertTrue( context.getMessages().getMessages().length > 0 );
+            Assert.assertTrue( context.isErrorsEnabled() );
+            Assert.assertEquals( 0, ThreadLocalMessages.getMessages().getMessages().length );
+        }
+    }
+
+    public void testErrorBudget() throws Exception
+    {
+        final DefaultPhysicalFileFactory factory = new DefaultPhysicalFileFactory();
+        final CountingDiagnosticsListener listener = new CountingDiagnosticsListener();
+        final MemoryFileOperations ops = new MemoryFileOperations();
+        final Properties properties = new Properties();
+        properties.setProperty( DefaultPhysicalFileFactory.ATTRIBUTE_ERROR_BUDGET, "1" );
+        ops.write( this.getClass().getResourceAsStream( "dtaus0_valid_header_checksum_illegal_format_transaction" ) );
+        factory.addDiagnosticsListener( listener );
+
+        try
+        {
+            factory.getPhysicalFile( ops, properties );
+            Assert.fail();
+        }
+        catch ( final PhysicalFileException e )
+        {
+            Assert.assertEquals( 1, listener.events );
+            Assert.assertEquals( 1, e.getMessages().length );
+        }
+    }
+
+    public void testErrorBudgetRemovedAfterReading() throws Exception
+    {
+        final DefaultPhysicalFileFactory factory = new DefaultPhysicalFileFactory();
+        final CountingDiagnosticsListener listener = new CountingDiagnosticsListener();
+        final MemoryFileOperations ops = new MemoryFileOperations();
+        final Properties properties = new Properties();
+        properties.setProperty( DefaultPhysicalFileFactory.ATTRIBUTE_ERROR_BUDGET, "1" );
+        ops.write( this.getClass().getResourceAsStream( "dtaus0_valid_header_checksum_and_transaction" ) );
+        factory.addDiagnosticsListener( listener );
+
+        final PhysicalFile physicalFile = factory.getPhysicalFile( ops, properties );
+        Assert.assertEquals( 1, physicalFile.getLogicalFileCount() );
+
+        final DiagnosticsListener[] listeners =
+            ( (AbstractLogicalFile) physicalFile.getLogicalFile( 0 ) ).getDiagnosticsListeners();
+
+        Assert.assertEquals( 1, listeners.length );
+        Assert.assertSame( listener, listeners[0] );
+    }
+
 }
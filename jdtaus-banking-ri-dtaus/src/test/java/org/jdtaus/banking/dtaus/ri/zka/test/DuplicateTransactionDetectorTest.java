@@ -0,0 +1,248 @@
+/*
+ *  jDTAUS Banking RI DTAUS
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.ri.zka.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.jdtaus.banking.AlphaNumericText27;
+import org.jdtaus.banking.Referenznummer11;
+import org.jdtaus.banking.dtaus.Header;
+import org.jdtaus.banking.dtaus.LogicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFileFactory;
+import org.jdtaus.banking.dtaus.Transaction;
+import org.jdtaus.banking.dtaus.ri.zka.DuplicateTransactionDetector;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.io.util.MemoryFileOperations;
+
+/**
+ * Tests the {@link DuplicateTransactionDetector} implementation.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+public class DuplicateTransactionDetectorTest extends TestCase
+{
+
+    /** Milliseconds of a day. */
+    private static final long DAY_MILLIS = 86400000L;
+
+    public void testFingerprint() throws Exception
+    {
+        final Transaction transaction = LogicalFileTest.getLegalTransaction();
+        final Transaction normalized = LogicalFileTest.getLegalTransaction();
+        transaction.setDescriptions( new AlphaNumericText27[]
+            {
+                AlphaNumericText27.valueOf( "INVOICE 1" ), AlphaNumericText27.valueOf( "CUSTOMER 2" )
+            } );
+
+        normalized.setDescriptions( new AlphaNumericText27[]
+            {
+                AlphaNumericText27.valueOf( "INVOICE   1 CUSTOMER" ), AlphaNumericText27.valueOf( " 2" )
+            } );
+
+        Assert.assertEquals( DuplicateTransactionDetector.getFingerprint( transaction ),
+                             DuplicateTransactionDetector.getFingerprint( normalized ) );
+
+        normalized.setReference( Referenznummer11.valueOf( new Long( 1L ) ) );
+        Assert.assertFalse( DuplicateTransactionDetector.getFingerprint( transaction )
+                            == DuplicateTransactionDetector.getFingerprint( normalized ) );
+
+    }
+
+    public void testDetectDuplicates() throws Exception
+    {
+        final PhysicalFile pFile = this.createPhysicalFile( PhysicalFileFactory.FORMAT_DISK );
+        final DuplicateTransactionDetector detector = new DuplicateTransactionDetector( 30 );
+
+        Assert.assertEquals( 0, detector.add( pFile.getLogicalFile( 0 ) ).length );
+        Assert.assertEquals( 2, detector.size() );
+
+        final int[] duplicates = detector.add( pFile.getLogicalFile( 1 ) );
+        Assert.assertEquals( 1, duplicates.length );
+        Assert.assertEquals( 0, duplicates[0] );
+        Assert.assertEquals( 3, detector.size() );
+
+        // Outside the window.
+        Assert.assertEquals( 0, detector.add( pFile.getLogicalFile( 2 ) ).length );
+        Assert.assertEquals( 0L, detector.getCollisionCount() );
+    }
+
+    public void testPersistence() throws Exception
+    {
+        final PhysicalFile pFile = this.createPhysicalFile( PhysicalFileFactory.FORMAT_DISK );
+        final DuplicateTransactionDetector detector = new DuplicateTransactionDetector( 30 );
+        detector.add( pFile.getLogicalFile( 0 ) );
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        detector.write( out );
+
+        final DuplicateTransactionDetector read = new DuplicateTransactionDetector( 30 );
+        read.read( new ByteArrayInputStream( out.toByteArray() ) );
+        Assert.assertEquals( detector.size(), read.size() );
+
+        final int[] duplicates = read.add( pFile.getLogicalFile( 1 ) );
+        Assert.assertEquals( 1, duplicates.length );
+        Assert.assertEquals( 0, duplicates[0] );
+
+        read.removeExpired( new Date( pFile.getLogicalFile( 2 ).getHeader().getCreateDate().getTime() ) );
+        Assert.assertEquals( 0, read.size() );
+    }
+
+    public void testRemoveExpired() throws Exception
+    {
+        final PhysicalFile pFile = this.createPhysicalFile( PhysicalFileFactory.FORMAT_DISK );
+        final DuplicateTransactionDetector detector = new DuplicateTransactionDetector( 30 );
+        detector.add( pFile.getLogicalFile( 2 ) );
+        Assert.assertEquals( 2, detector.size() );
+
+        // Fingerprints of days after the date are kept.
+        detector.removeExpired( pFile.getLogicalFile( 0 ).getHeader().getCreateDate() );
+        Assert.assertEquals( 2, detector.size() );
+
+        detector.removeExpired( new Date( pFile.getLogicalFile( 2 ).getHeader().getCreateDate().getTime()
+                                          + 31L * DAY_MILLIS ) );
+
+        Assert.assertEquals( 0, detector.size() );
+    }
+
+    public void testRemoveExpiredReleasesLogicalFiles() throws Exception
+    {
+        final PhysicalFile pFile = this.createPhysicalFile( PhysicalFileFactory.FORMAT_DISK );
+        final DuplicateTransactionDetector detector = new DuplicateTransactionDetector( 30 );
+
+        // The fingerprints of the first logical file get taken over by the later third logical file.
+        detector.add( pFile.getLogicalFile( 0 ) );
+        detector.add( pFile.getLogicalFile( 2 ) );
+        Assert.assertEquals( 2, detector.size() );
+
+        detector.removeExpired( pFile.getLogicalFile( 2 ).getHeader().getCreateDate() );
+        Assert.assertEquals( 2, detector.size() );
+
+        // Verifying duplicates needs to find the third logical file after the first one got released.
+        Assert.assertEquals( 2, detector.add( pFile.getLogicalFile( 2 ) ).length );
+        Assert.assertEquals( 0L, detector.getCollisionCount() );
+    }
+
+    public void testFieldFingerprints() throws Exception
+    {
+        this.assertFieldFingerprints( PhysicalFileFactory.FORMAT_DISK );
+        this.assertFieldFingerprints( PhysicalFileFactory.FORMAT_TAPE );
+    }
+
+    public void testDetectDuplicatesAcrossFormats() throws Exception
+    {
+        final PhysicalFile disk = this.createPhysicalFile( PhysicalFileFactory.FORMAT_DISK );
+        final PhysicalFile tape = this.createPhysicalFile( PhysicalFileFactory.FORMAT_TAPE );
+        final DuplicateTransactionDetector detector = new DuplicateTransactionDetector( 30 );
+
+        Assert.assertEquals( 0, detector.add( disk.getLogicalFile( 0 ) ).length );
+        Assert.assertEquals( 2, detector.add( tape.getLogicalFile( 0 ) ).length );
+        Assert.assertEquals( 0L, detector.getCollisionCount() );
+    }
+
+    /**
+     * Tests fingerprints computed from the fields of a logical file to equal the fingerprints of the decoded
+     * transactions.
+     *
+     * @param format The format of the physical file to test.
+     *
+     * @throws Exception if testing fails.
+     */
+    private void assertFieldFingerprints( final int format ) throws Exception
+    {
+        final PhysicalFile pFile = this.createPhysicalFile( format );
+        final DuplicateTransactionDetector detector = new DuplicateTransactionDetector( 30 );
+        detector.add( pFile.getLogicalFile( 0 ) );
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        detector.write( out );
+
+        final DataInputStream in = new DataInputStream( new ByteArrayInputStream( out.toByteArray() ) );
+        in.readInt();
+        in.readInt();
+        Assert.assertEquals( 2, in.readInt() );
+
+        final Set fingerprints = new HashSet();
+        fingerprints.add( new Long( in.readLong() ) );
+        in.readInt();
+        fingerprints.add( new Long( in.readLong() ) );
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            Assert.assertTrue( fingerprints.contains( new Long( DuplicateTransactionDetector.getFingerprint(
+                pFile.getLogicalFile( 0 ).getTransaction( i ) ) ) ) );
+
+        }
+    }
+
+    /**
+     * Creates a physical file with three logical files. The first logical file holds two transactions. The second
+     * logical file holds a duplicate of the first transaction of the first logical file and a new transaction. The
+     * third logical file is created 60 days later and holds the same transactions as the first logical file.
+     *
+     * @param format The format of the physical file to create.
+     *
+     * @return A new physical file.
+     *
+     * @throws Exception if creating the file fails.
+     */
+    private PhysicalFile createPhysicalFile( final int format ) throws Exception
+    {
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        final PhysicalFile pFile =
+            factory.createPhysicalFile( new MemoryFileOperations(), format );
+
+        final Header later = LogicalFileTest.getLegalHeader();
+        later.setCreateDate( new Date( later.getCreateDate().getTime() + 60L * DAY_MILLIS ) );
+        later.setExecutionDate( later.getCreateDate() );
+
+        final LogicalFile first = pFile.addLogicalFile( LogicalFileTest.getLegalHeader() );
+        first.addTransaction( this.getTransaction( 1L ) );
+        first.addTransaction( this.getTransaction( 2L ) );
+
+        final LogicalFile second = pFile.addLogicalFile( LogicalFileTest.getLegalHeader() );
+        second.addTransaction( this.getTransaction( 1L ) );
+        second.addTransaction( this.getTransaction( 3L ) );
+
+        final LogicalFile third = pFile.addLogicalFile( later );
+        third.addTransaction( this.getTransaction( 1L ) );
+        third.addTransaction( this.getTransaction( 2L ) );
+
+        return pFile;
+    }
+
+    private Transaction getTransaction( final long reference )
+    {
+        final Transaction transaction = LogicalFileTest.getLegalTransaction();
+        transaction.setReference( Referenznummer11.valueOf( new Long( reference ) ) );
+        return transaction;
+    }
+
+}
@@ -20,18 +20,35 @@
  */
 package org.jdtaus.banking.dtaus.ri.zka.test;
 
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.math.BigInteger;
+import java.util.Arrays;
 import junit.framework.Assert;
 import junit.framework.TestCase;
+import org.jdtaus.banking.AlphaNumericText27;
+import org.jdtaus.banking.Bankleitzahl;
+import org.jdtaus.banking.Kontonummer;
 import org.jdtaus.banking.Referenznummer10;
 import org.jdtaus.banking.Referenznummer11;
+import org.jdtaus.banking.dtaus.Checksum;
+import org.jdtaus.banking.dtaus.CorruptedException;
 import org.jdtaus.banking.dtaus.Header;
 import org.jdtaus.banking.dtaus.LogicalFile;
 import org.jdtaus.banking.dtaus.PhysicalFile;
+import org.jdtaus.banking.dtaus.PhysicalFileException;
 import org.jdtaus.banking.dtaus.PhysicalFileFactory;
 import org.jdtaus.banking.dtaus.Transaction;
+import org.jdtaus.banking.dtaus.ri.zka.AbstractLogicalFile;
+import org.jdtaus.banking.dtaus.ri.zka.DTAUSFormatConverter;
+import org.jdtaus.banking.dtaus.ri.zka.DTAUSGenerator;
+import org.jdtaus.banking.dtaus.ri.zka.DefaultPhysicalFile;
+import org.jdtaus.banking.dtaus.ri.zka.TransactionComparator;
 import org.jdtaus.core.container.ContainerFactory;
 import org.jdtaus.core.io.FileOperations;
 import org.jdtaus.core.io.util.MemoryFileOperations;
+import org.jdtaus.core.io.util.RandomAccessFileOperations;
+import org.jdtaus.core.io.util.ReadAheadFileOperations;
 
 /**
  * Tests für {@link PhysicalFile}.
@@ -120,6 +137,464 @@ public class PhysicalFileTest extends TestCase
         pFile.commit();
     }
 
+    public void testAddDeleteFileChannel() throws Exception
+    {
+        final File file = File.createTempFile( "jdtaus", ".dta" );
+        final RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" );
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        try
+        {
+            final FileOperations ops = new RandomAccessFileOperations( randomAccessFile );
+            final FileOperations memory = new MemoryFileOperations();
+
+            this.createLegalFile( factory.createPhysicalFile( ops, PhysicalFileFactory.FORMAT_DISK ) );
+            this.createLegalFile( factory.createPhysicalFile( memory, PhysicalFileFactory.FORMAT_DISK ) );
+            Assert.assertEquals( memory.getLength(), ops.getLength() );
+            this.assertEquals( factory.getPhysicalFile( memory ), factory.getPhysicalFile( ops ) );
+
+            final PhysicalFile pFile = factory.getPhysicalFile( ops );
+            while ( pFile.getLogicalFileCount() > 0 )
+            {
+                pFile.removeLogicalFile( 0 );
+            }
+
+            pFile.commit();
+            Assert.assertEquals( 0L, ops.getLength() );
+        }
+        finally
+        {
+            randomAccessFile.close();
+            file.delete();
+        }
+    }
+
+    public void testAddDeleteCachedFileChannel() throws Exception
+    {
+        final File file = File.createTempFile( "jdtaus", ".dta" );
+        final RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" );
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        try
+        {
+            // Zwischenspeicher größer als die Datei, verschobene Datensätze werden über ihn erneut gelesen.
+            final FileOperations ops =
+                new ReadAheadFileOperations( new RandomAccessFileOperations( randomAccessFile ), 1048576 );
+
+            final FileOperations memory = new MemoryFileOperations();
+
+            this.createLegalFile( factory.createPhysicalFile( ops, PhysicalFileFactory.FORMAT_DISK ) );
+            this.createLegalFile( factory.createPhysicalFile( memory, PhysicalFileFactory.FORMAT_DISK ) );
+
+            final PhysicalFile pFile = factory.getPhysicalFile( ops );
+            final PhysicalFile pMemory = factory.getPhysicalFile( memory );
+            this.assertEquals( pMemory, pFile );
+
+            final Transaction transaction = LogicalFileTest.getLegalTransaction();
+            transaction.setReference( Referenznummer11.valueOf( new Long( 1L ) ) );
+
+            final int index = pFile.getLogicalFile( 0 ).addTransaction( transaction );
+            pMemory.getLogicalFile( 0 ).addTransaction( transaction );
+            this.assertEquals( pMemory, pFile );
+
+            Assert.assertEquals( transaction, pFile.getLogicalFile( 0 ).removeTransaction( index ) );
+            pMemory.getLogicalFile( 0 ).removeTransaction( index );
+            this.assertEquals( pMemory, pFile );
+
+            pFile.removeLogicalFile( 0 );
+            pMemory.removeLogicalFile( 0 );
+            this.assertEquals( pMemory, pFile );
+            pFile.commit();
+            pMemory.commit();
+            Assert.assertEquals( memory.getLength(), ops.getLength() );
+        }
+        finally
+        {
+            randomAccessFile.close();
+            file.delete();
+        }
+    }
+
+    public void testAddDeleteFile() throws Exception
+    {
+        final File file = File.createTempFile( "jdtaus", ".dta" );
+        final FileOperations memory = new MemoryFileOperations();
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        try
+        {
+            // Dateien werden mit Zwischenspeicher geöffnet, Bytes daher ohne den Kanal der Datei verschoben.
+            this.createLegalFile( factory.createPhysicalFile( file, PhysicalFileFactory.FORMAT_DISK ) );
+            this.createLegalFile( factory.createPhysicalFile( memory, PhysicalFileFactory.FORMAT_DISK ) );
+            Assert.assertEquals( memory.getLength(), file.length() );
+
+            PhysicalFile pFile = factory.getPhysicalFile( file );
+            final PhysicalFile pMemory = factory.getPhysicalFile( memory );
+            this.assertEquals( pMemory, pFile );
+
+            final int index = pFile.getLogicalFile( 0 ).addTransaction( LogicalFileTest.getLegalTransaction() );
+            pMemory.getLogicalFile( 0 ).addTransaction( LogicalFileTest.getLegalTransaction() );
+            this.assertEquals( pMemory, pFile );
+
+            Assert.assertEquals( LogicalFileTest.getLegalTransaction(),
+                                 pFile.getLogicalFile( 0 ).removeTransaction( index ) );
+
+            pMemory.getLogicalFile( 0 ).removeTransaction( index );
+            this.assertEquals( pMemory, pFile );
+            pFile.removeLogicalFile( 0 );
+            pMemory.removeLogicalFile( 0 );
+            this.assertEquals( pMemory, pFile );
+            pFile.commit();
+            pMemory.commit();
+
+            Assert.assertEquals( memory.getLength(), file.length() );
+            pFile = factory.getPhysicalFile( file );
+            this.assertEquals( factory.getPhysicalFile( memory ), pFile );
+
+            while ( pFile.getLogicalFileCount() > 0 )
+            {
+                pFile.removeLogicalFile( 0 );
+            }
+
+            pFile.commit();
+            Assert.assertEquals( 0L, file.length() );
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    public void testConvertDiskTape() throws Exception
+    {
+        final FileOperations disk = new MemoryFileOperations();
+        final FileOperations tape = new MemoryFileOperations();
+        final FileOperations converted = new MemoryFileOperations();
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        this.createLegalFile( factory.createPhysicalFile( disk, PhysicalFileFactory.FORMAT_DISK ) );
+
+        final DTAUSFormatConverter converter = new DTAUSFormatConverter();
+        converter.convert( disk, PhysicalFileFactory.FORMAT_DISK, tape, PhysicalFileFactory.FORMAT_TAPE );
+        Assert.assertEquals( PhysicalFileFactory.FORMAT_TAPE, factory.analyse( tape ) );
+        this.assertEquals( factory.getPhysicalFile( disk ), factory.getPhysicalFile( tape ) );
+
+        converter.convert( tape, PhysicalFileFactory.FORMAT_TAPE, converted, PhysicalFileFactory.FORMAT_DISK );
+        Assert.assertEquals( PhysicalFileFactory.FORMAT_DISK, factory.analyse( converted ) );
+        this.assertEquals( factory.getPhysicalFile( disk ), factory.getPhysicalFile( converted ) );
+    }
+
+    public void testConvertCorruptedTape() throws Exception
+    {
+        final FileOperations disk = new MemoryFileOperations();
+        final FileOperations tape = new MemoryFileOperations();
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        this.createLegalFile( factory.createPhysicalFile( disk, PhysicalFileFactory.FORMAT_DISK ) );
+
+        final DTAUSFormatConverter converter = new DTAUSFormatConverter();
+        converter.convert( disk, PhysicalFileFactory.FORMAT_DISK, tape, PhysicalFileFactory.FORMAT_TAPE );
+
+        // Record type of the first A record changed to 'C' in EBCDIC.
+        tape.setFilePointer( 4L );
+        tape.write( new byte[]
+            {
+                (byte) 0xC3
+            }, 0, 1 );
+
+        try
+        {
+            converter.convert( tape, PhysicalFileFactory.FORMAT_TAPE, new MemoryFileOperations(),
+                               PhysicalFileFactory.FORMAT_DISK );
+
+            Assert.fail();
+        }
+        catch ( final CorruptedException e )
+        {
+            Assert.assertEquals( 4L, e.getPosition() );
+        }
+    }
+
+    public void testAppendExtractLogicalFiles() throws Exception
+    {
+        final FileOperations ops = new MemoryFileOperations();
+        final FileOperations extracted = new MemoryFileOperations();
+        final FileOperations appended = new MemoryFileOperations();
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        this.createLegalFile( factory.createPhysicalFile( ops, PhysicalFileFactory.FORMAT_DISK ) );
+
+        final DefaultPhysicalFile pFile = (DefaultPhysicalFile) factory.getPhysicalFile( ops );
+        final DefaultPhysicalFile extractedFile = pFile.extractLogicalFiles( 2, 5, extracted );
+        Assert.assertEquals( 3, extractedFile.getLogicalFileCount() );
+        this.assertEquals( extractedFile, factory.getPhysicalFile( extracted ) );
+
+        final DefaultPhysicalFile appendedFile =
+            (DefaultPhysicalFile) factory.createPhysicalFile( appended, PhysicalFileFactory.FORMAT_DISK );
+
+        appendedFile.appendLogicalFiles( pFile, 0, pFile.getLogicalFileCount() );
+        this.assertEquals( pFile, appendedFile );
+        appendedFile.commit();
+        this.assertEquals( pFile, factory.getPhysicalFile( appended ) );
+        Assert.assertEquals( ops.getLength(), appended.getLength() );
+    }
+
+    public void testAppendExtractLogicalFilesFileChannel() throws Exception
+    {
+        final File file = File.createTempFile( "jdtaus", ".dta" );
+        final File extracted = File.createTempFile( "jdtaus", ".dta" );
+        final File appended = File.createTempFile( "jdtaus", ".dta" );
+        final RandomAccessFile randomAccessFile = new RandomAccessFile( file, "rw" );
+        final RandomAccessFile extractedAccessFile = new RandomAccessFile( extracted, "rw" );
+        final RandomAccessFile appendedAccessFile = new RandomAccessFile( appended, "rw" );
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        try
+        {
+            // Bytes werden über die Kanäle der Dateien kopiert, aus der Quelle auch an ihrem Zwischenspeicher vorbei.
+            final FileOperations ops =
+                new ReadAheadFileOperations( new RandomAccessFileOperations( randomAccessFile ) );
+
+            final FileOperations extractedOps = new RandomAccessFileOperations( extractedAccessFile );
+            final FileOperations appendedOps = new RandomAccessFileOperations( appendedAccessFile );
+            this.createLegalFile( factory.createPhysicalFile( ops, PhysicalFileFactory.FORMAT_DISK ) );
+
+            final DefaultPhysicalFile pFile = (DefaultPhysicalFile) factory.getPhysicalFile( ops );
+            final DefaultPhysicalFile extractedFile = pFile.extractLogicalFiles( 2, 5, extractedOps );
+            Assert.assertEquals( 3, extractedFile.getLogicalFileCount() );
+            this.assertEquals( extractedFile, factory.getPhysicalFile( extractedOps ) );
+
+            final DefaultPhysicalFile appendedFile =
+                (DefaultPhysicalFile) factory.createPhysicalFile( appendedOps, PhysicalFileFactory.FORMAT_DISK );
+
+            appendedFile.appendLogicalFiles( pFile, 0, pFile.getLogicalFileCount() );
+            this.assertEquals( pFile, appendedFile );
+            appendedFile.commit();
+            this.assertEquals( pFile, factory.getPhysicalFile( appendedOps ) );
+            Assert.assertEquals( ops.getLength(), appendedOps.getLength() );
+
+            try
+            {
+                // Dieselbe Datei ohne Zwischenspeicher.
+                pFile.extractLogicalFiles( 0, 1, new RandomAccessFileOperations( randomAccessFile ) );
+                Assert.fail();
+            }
+            catch ( final IllegalArgumentException e )
+            {
+                Assert.assertNotNull( e.getMessage() );
+            }
+        }
+        finally
+        {
+            randomAccessFile.close();
+            extractedAccessFile.close();
+            appendedAccessFile.close();
+            file.delete();
+            extracted.delete();
+            appended.delete();
+        }
+    }
+
+    public void testGenerate() throws Exception
+    {
+        final MemoryFileOperations disk = new MemoryFileOperations();
+        final MemoryFileOperations tape = new MemoryFileOperations();
+        final MemoryFileOperations again = new MemoryFileOperations();
+        final MemoryFileOperations defective = new MemoryFileOperations();
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        final DTAUSGenerator generator = new DTAUSGenerator();
+        generator.setSeed( 42L );
+        generator.setCreateDate( LogicalFileTest.getLegalHeader().getCreateDate() );
+        generator.setLogicalFileCount( 3 );
+        generator.setTransactionCount( 100 );
+        generator.setExtensionWeights( new double[]
+            {
+                4.0D, 2.0D, 1.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 1.0D, 1.0D
+            } );
+
+        generator.generate( disk );
+        generator.generate( again );
+        Assert.assertTrue( Arrays.equals( disk.getData(), again.getData() ) );
+
+        final PhysicalFile pFile = factory.getPhysicalFile( disk );
+        Assert.assertEquals( 3, pFile.getLogicalFileCount() );
+        Assert.assertEquals( 100, pFile.getLogicalFile( 2 ).getChecksum().getTransactionCount() );
+
+        generator.setFormat( PhysicalFileFactory.FORMAT_TAPE );
+        generator.generate( tape );
+        Assert.assertEquals( PhysicalFileFactory.FORMAT_TAPE, factory.analyse( tape ) );
+        this.assertEquals( pFile, factory.getPhysicalFile( tape ) );
+
+        generator.setChecksumDefectRate( 1.0D );
+        generator.generate( defective );
+
+        try
+        {
+            factory.getPhysicalFile( defective );
+            Assert.fail();
+        }
+        catch ( final PhysicalFileException e )
+        {
+            Assert.assertTrue( e.getMessages().length > 0 );
+        }
+    }
+
+    public void testSortTransactions() throws Exception
+    {
+        this.assertSortTransactions( 50, 7 );
+    }
+
+    public void testSortTransactionsMultiplePasses() throws Exception
+    {
+        // 100 runs exceed the maximum number of runs merged at once.
+        this.assertSortTransactions( 200, 2 );
+    }
+
+    private void assertSortTransactions( final int transactionCount, final int runLength ) throws Exception
+    {
+        final FileOperations ops = new MemoryFileOperations();
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        final PhysicalFile pFile = factory.createPhysicalFile( ops, PhysicalFileFactory.FORMAT_DISK );
+        final AbstractLogicalFile lFile =
+            (AbstractLogicalFile) pFile.addLogicalFile( LogicalFileTest.getLegalHeader() );
+
+        for ( int i = 0; i < transactionCount; i++ )
+        {
+            final Transaction transaction = LogicalFileTest.getLegalTransaction();
+            transaction.setTargetAccount( Kontonummer.valueOf( new Long( ( i * 7 ) % 5 + 1 ) ) );
+            transaction.setReference( Referenznummer11.valueOf( new Long( i ) ) );
+
+            if ( i % 3 == 0 )
+            {
+                transaction.setDescriptions( new AlphaNumericText27[]
+                    {
+                        AlphaNumericText27.valueOf( Integer.toString( i ) )
+                    } );
+
+            }
+
+            lFile.addTransaction( transaction );
+        }
+
+        final Checksum checksum = lFile.getChecksum();
+        final long length = ops.getLength();
+        lFile.setSortRunLength( new Integer( runLength ) );
+        lFile.sortTransactions( new TransactionComparator( new String[]
+            {
+                Transaction.PROP_TARGETACCOUNT
+            } ) );
+
+        Assert.assertEquals( checksum, lFile.getChecksum() );
+        Assert.assertEquals( length, ops.getLength() );
+        pFile.commit();
+
+        final LogicalFile sorted = factory.getPhysicalFile( ops ).getLogicalFile( 0 );
+        Assert.assertEquals( checksum, sorted.getChecksum() );
+
+        for ( int i = 1; i < transactionCount; i++ )
+        {
+            final Transaction previous = sorted.getTransaction( i - 1 );
+            final Transaction current = sorted.getTransaction( i );
+            final int order = previous.getTargetAccount().compareTo( current.getTargetAccount() );
+            Assert.assertTrue( order <= 0 );
+
+            if ( order == 0 )
+            {
+                Assert.assertTrue( previous.getReference().compareTo( current.getReference() ) < 0 );
+            }
+
+            Assert.assertEquals( current.getReference().longValue() % 3 == 0 ? 1 : 14,
+                                 current.getDescriptions().length );
+
+        }
+    }
+
+    public void testSecondaryIndexes() throws Exception
+    {
+        final FileOperations ops = new MemoryFileOperations();
+        final PhysicalFileFactory factory = (PhysicalFileFactory) ContainerFactory.getContainer().
+            getObject( PhysicalFileFactory.class, "jDTAUS Banking SPI" );
+
+        final PhysicalFile pFile = factory.createPhysicalFile( ops, PhysicalFileFactory.FORMAT_DISK );
+        final AbstractLogicalFile lFile =
+            (AbstractLogicalFile) pFile.addLogicalFile( LogicalFileTest.getLegalHeader() );
+
+        for ( int i = 0; i < 10; i++ )
+        {
+            final Transaction transaction = LogicalFileTest.getLegalTransaction();
+            transaction.setTargetAccount( Kontonummer.valueOf( new Long( i % 3 + 1 ) ) );
+            transaction.setReference( Referenznummer11.valueOf( new Long( i ) ) );
+            transaction.setAmount( BigInteger.valueOf( i % 2 + 1 ) );
+            lFile.addTransaction( transaction );
+        }
+
+        final Bankleitzahl bank = LogicalFileTest.getLegalTransaction().getTargetBank();
+        final Kontonummer account = Kontonummer.valueOf( new Long( 2L ) );
+        this.assertEquals( new int[] { 1, 4, 7 }, lFile.getTransactionsByTarget( account, bank ) );
+        final Referenznummer11 reference = Referenznummer11.valueOf( new Long( 5L ) );
+        this.assertEquals( new int[] { 5 }, lFile.getTransactionsByReference( reference ) );
+        Assert.assertEquals( 5, lFile.getTransactionsByAmount( BigInteger.ONE ).length );
+
+        final Transaction transaction = lFile.getTransaction( 4 );
+        transaction.setTargetAccount( Kontonummer.valueOf( new Long( 1L ) ) );
+        lFile.setTransaction( 4, transaction );
+        this.assertEquals( new int[] { 1, 7 }, lFile.getTransactionsByTarget( account, bank ) );
+
+        lFile.removeTransaction( 0 );
+        this.assertEquals( new int[] { 0, 6 }, lFile.getTransactionsByTarget( account, bank ) );
+        this.assertEquals( new int[] { 4 }, lFile.getTransactionsByReference( reference ) );
+
+        lFile.addTransaction( transaction );
+        this.assertEquals( new int[] { 2, 3, 5, 8, 9 },
+                           lFile.getTransactionsByTarget( Kontonummer.valueOf( new Long( 1L ) ), bank ) );
+
+        pFile.commit();
+
+        final AbstractLogicalFile read = (AbstractLogicalFile) factory.getPhysicalFile( ops ).getLogicalFile( 0 );
+        this.assertEquals( new int[] { 2, 3, 5, 8, 9 },
+                           read.getTransactionsByTarget( Kontonummer.valueOf( new Long( 1L ) ), bank ) );
+
+    }
+
+    private void assertEquals( final int[] expected, final int[] actual )
+    {
+        Assert.assertEquals( expected.length, actual.length );
+
+        for ( int i = expected.length - 1; i >= 0; i-- )
+        {
+            Assert.assertEquals( expected[i], actual[i] );
+        }
+    }
+
+    private void assertEquals( final PhysicalFile expected, final PhysicalFile actual ) throws Exception
+    {
+        Assert.assertEquals( expected.getLogicalFileCount(), actual.getLogicalFileCount() );
+
+        for ( int i = expected.getLogicalFileCount() - 1; i >= 0; i-- )
+        {
+            final LogicalFile e = expected.getLogicalFile( i );
+            final LogicalFile a = actual.getLogicalFile( i );
+            Assert.assertEquals( e.getHeader(), a.getHeader() );
+            Assert.assertEquals( e.getChecksum(), a.getChecksum() );
+
+            for ( int j = e.getChecksum().getTransactionCount() - 1; j >= 0; j-- )
+            {
+                Assert.assertEquals( e.getTransaction( j ), a.getTransaction( j ) );
+            }
+        }
+    }
+
     private void createLegalFile( final PhysicalFile pFile ) throws Exception
     {
         Assert.assertTrue( pFile.getLogicalFileCount() == 0 );
@@ -0,0 +1,111 @@
+/*
+ *  jDTAUS Banking RI JFR
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.ri.jfr;
+
+import jdk.jfr.EventType;
+import org.jdtaus.banking.spi.OperationRecorder;
+
+/**
+ * jDTAUS Banking SPI {@code OperationRecorder} implementation emitting Java Flight Recorder events.
+ * <p>Operations are recorded as events {@code org.jdtaus.banking.dtaus.PhysicalFile},
+ * {@code org.jdtaus.banking.dtaus.LogicalFile} and {@code org.jdtaus.banking.Directory}. No event is created for an
+ * operation, if its event type is not enabled in any recording.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+public final class JfrOperationRecorder implements OperationRecorder
+{
+    //--Constructors------------------------------------------------------------
+
+// <editor-fold defaultstate="collapsed" desc=" Generated Code ">//GEN-BEGIN:jdtausConstructors
+    // This section is managed by jdtaus-container-mojo.
+
+    /** Standard implementation constructor <code>org.jdtaus.banking.ri.jfr.JfrOperationRecorder</code>. */
+    public JfrOperationRecorder()
+    {
+        super();
+    }
+
+// </editor-fold>//GEN-END:jdtausConstructors
+
+    //------------------------------------------------------------Constructors--
+    //--OperationRecorder-------------------------------------------------------
+
+    public Object beginOperation( final String operation )
+    {
+        final OperationEvent event;
+
+        if ( ANALYSE.equals( operation ) || GET_PHYSICAL_FILE.equals( operation ) )
+        {
+            event = PHYSICAL_FILE_EVENT_TYPE.isEnabled() ? new PhysicalFileEvent() : null;
+        }
+        else if ( CHECKSUM.equals( operation ) || INSERT_BYTES.equals( operation )
+                  || REMOVE_BYTES.equals( operation ) )
+        {
+            event = LOGICAL_FILE_EVENT_TYPE.isEnabled() ? new LogicalFileEvent() : null;
+        }
+        else
+        {
+            event = DIRECTORY_EVENT_TYPE.isEnabled() ? new DirectoryEvent() : null;
+        }
+
+        if ( event != null )
+        {
+            event.operation = operation;
+            event.begin();
+        }
+
+        return event;
+    }
+
+    public void endOperation( final Object event, final String resource, final long size, final long records,
+                              final long bytes, final long movedBytes )
+    {
+        final OperationEvent operationEvent = (OperationEvent) event;
+        operationEvent.end();
+
+        if ( operationEvent.shouldCommit() )
+        {
+            operationEvent.resource = resource;
+            operationEvent.size = size;
+            operationEvent.records = records;
+            operationEvent.bytes = bytes;
+            operationEvent.movedBytes = movedBytes;
+            operationEvent.commit();
+        }
+    }
+
+    //-------------------------------------------------------OperationRecorder--
+    //--JfrOperationRecorder----------------------------------------------------
+
+    /** Type of physical file events. */
+    private static final EventType PHYSICAL_FILE_EVENT_TYPE = EventType.getEventType( PhysicalFileEvent.class );
+
+    /** Type of logical file events. */
+    private static final EventType LOGICAL_FILE_EVENT_TYPE = EventType.getEventType( LogicalFileEvent.class );
+
+    /** Type of directory events. */
+    private static final EventType DIRECTORY_EVENT_TYPE = EventType.getEventType( DirectoryEvent.class );
+
+    //----------------------------------------------------JfrOperationRecorder--
+}
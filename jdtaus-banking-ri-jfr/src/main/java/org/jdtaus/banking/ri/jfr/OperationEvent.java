@@ -0,0 +1,67 @@
+/*
+ *  jDTAUS Banking RI JFR
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.ri.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+
+/**
+ * Base class of flight recorder events of jDTAUS operations.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+@Category( { "jDTAUS", "Banking" } )
+abstract class OperationEvent extends jdk.jfr.Event
+{
+
+    /** The operation performed. */
+    @Label( "Operation" )
+    String operation;
+
+    /** The identity of the file or resources the operation was performed on. */
+    @Label( "Resource" )
+    String resource;
+
+    /** The length of the file or resources. */
+    @Label( "Size" )
+    @Description( "Length of the file or resources or -1, if unknown." )
+    @DataAmount
+    long size;
+
+    /** The number of records processed. */
+    @Label( "Records" )
+    long records;
+
+    /** The number of bytes inserted or removed. */
+    @Label( "Bytes" )
+    @DataAmount
+    long bytes;
+
+    /** The number of bytes moved. */
+    @Label( "Moved Bytes" )
+    @DataAmount
+    long movedBytes;
+
+}
@@ -0,0 +1,101 @@
+/*
+ *  jDTAUS Banking RI JFR
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.ri.jfr.test;
+
+import java.io.File;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.jdtaus.banking.ri.jfr.JfrOperationRecorder;
+import org.jdtaus.banking.spi.OperationRecorder;
+import org.jdtaus.core.container.ContainerFactory;
+
+/**
+ * Tests the {@link JfrOperationRecorder} implementation.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+public class JfrOperationRecorderTest extends TestCase
+{
+
+    private JfrOperationRecorder getOperationRecorder()
+    {
+        final OperationRecorder[] recorders = (OperationRecorder[]) ContainerFactory.getContainer().
+            getObject( OperationRecorder.class );
+
+        for ( int i = recorders.length - 1; i >= 0; i-- )
+        {
+            if ( recorders[i] instanceof JfrOperationRecorder )
+            {
+                return (JfrOperationRecorder) recorders[i];
+            }
+        }
+
+        Assert.fail();
+        return null;
+    }
+
+    public void testNotRecording() throws Exception
+    {
+        Assert.assertNull( this.getOperationRecorder().beginOperation( OperationRecorder.CHECKSUM ) );
+    }
+
+    public void testRecording() throws Exception
+    {
+        final JfrOperationRecorder recorder = this.getOperationRecorder();
+        final File file = File.createTempFile( "jdtaus", ".jfr" );
+        final Recording recording = new Recording();
+
+        try
+        {
+            recording.enable( "org.jdtaus.banking.dtaus.LogicalFile" );
+            recording.start();
+
+            final Object event = recorder.beginOperation( OperationRecorder.INSERT_BYTES );
+            Assert.assertNotNull( event );
+            recorder.endOperation( event, "test", 1024L, 0L, 128L, 512L );
+
+            recording.stop();
+            recording.dump( file.toPath() );
+
+            final List<RecordedEvent> events = RecordingFile.readAllEvents( file.toPath() );
+            Assert.assertEquals( 1, events.size() );
+
+            final RecordedEvent recorded = events.get( 0 );
+            Assert.assertEquals( "org.jdtaus.banking.dtaus.LogicalFile", recorded.getEventType().getName() );
+            Assert.assertEquals( OperationRecorder.INSERT_BYTES, recorded.getString( "operation" ) );
+            Assert.assertEquals( "test", recorded.getString( "resource" ) );
+            Assert.assertEquals( 1024L, recorded.getLong( "size" ) );
+            Assert.assertEquals( 128L, recorded.getLong( "bytes" ) );
+            Assert.assertEquals( 512L, recorded.getLong( "movedBytes" ) );
+        }
+        finally
+        {
+            recording.close();
+            file.delete();
+        }
+    }
+
+}
@@ -0,0 +1,473 @@
+/*
+ *  jDTAUS Banking RI JMX
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.ri.jmx;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.jdtaus.banking.dtaus.spi.MetricsCollector;
+import org.jdtaus.core.container.ContainerFactory;
+import org.jdtaus.core.logging.spi.Logger;
+
+/**
+ * jDTAUS Banking SPI {@code MetricsCollector} implementation publishing metrics via JMX.
+ * <p>Instances register themselves at the platform {@code MBeanServer} when the first metric is collected. Every
+ * instance is registered under its own name {@code org.jdtaus.banking:type=MetricsCollector,instance=<n>} with
+ * {@code <n>} numbering the instances of the class loader in order of creation. If registration fails, the instance
+ * keeps collecting metrics without being accessible via JMX.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+public final class JmxMetricsCollector implements MetricsCollector, JmxMetricsCollectorMXBean
+{
+    //--Constructors------------------------------------------------------------
+
+// <editor-fold defaultstate="collapsed" desc=" Generated Code ">//GEN-BEGIN:jdtausConstructors
+    // This section is managed by jdtaus-container-mojo.
+
+    /** Standard implementation constructor <code>org.jdtaus.banking.ri.jmx.JmxMetricsCollector</code>. */
+    public JmxMetricsCollector()
+    {
+        super();
+    }
+
+// </editor-fold>//GEN-END:jdtausConstructors
+
+    //------------------------------------------------------------Constructors--
+    //--Dependencies------------------------------------------------------------
+
+// <editor-fold defaultstate="collapsed" desc=" Generated Code ">//GEN-BEGIN:jdtausDependencies
+    // This section is managed by jdtaus-container-mojo.
+
+    /**
+     * Gets the configured <code>Logger</code> implementation.
+     *
+     * @return The configured <code>Logger</code> implementation.
+     */
+    private Logger getLogger()
+    {
+        return (Logger) ContainerFactory.getContainer().
+            getDependency( this, "Logger" );
+
+    }
+
+    /**
+     * Gets the configured <code>Locale</code> implementation.
+     *
+     * @return The configured <code>Locale</code> implementation.
+     */
+    private Locale getLocale()
+    {
+        return (Locale) ContainerFactory.getContainer().
+            getDependency( this, "Locale" );
+
+    }
+
+// </editor-fold>//GEN-END:jdtausDependencies
+
+    //------------------------------------------------------------Dependencies--
+    //--MetricsCollector--------------------------------------------------------
+
+    public void bytesInserted( final long bytes, final long movedBytes, final long nanos )
+    {
+        this.register();
+        this.insertCount.incrementAndGet();
+        this.bytesInserted.addAndGet( bytes );
+        this.bytesMovedByInsert.addAndGet( movedBytes );
+        this.insertNanos.addAndGet( nanos );
+    }
+
+    public void bytesRemoved( final long bytes, final long movedBytes, final long nanos )
+    {
+        this.register();
+        this.removeCount.incrementAndGet();
+        this.bytesRemoved.addAndGet( bytes );
+        this.bytesMovedByRemove.addAndGet( movedBytes );
+        this.removeNanos.addAndGet( nanos );
+    }
+
+    public void recordRead( final char type, final int bytes )
+    {
+        this.register();
+        this.recordsRead.incrementAndGet();
+        this.bytesRead.addAndGet( bytes );
+    }
+
+    public void recordWritten( final char type, final int bytes )
+    {
+        this.register();
+        this.recordsWritten.incrementAndGet();
+        this.bytesWritten.addAndGet( bytes );
+    }
+
+    public void decodeFailed( final int field )
+    {
+        this.register();
+        this.decodeFailures.incrementAndGet();
+        increment( this.decodeFailuresByField, Integer.toHexString( field ).toUpperCase( Locale.ENGLISH ), 1L );
+    }
+
+    public void checksumScanned( final int transactionCount, final long nanos )
+    {
+        this.register();
+        this.checksumScans.incrementAndGet();
+        this.checksumScannedTransactions.addAndGet( transactionCount );
+        this.checksumNanos.addAndGet( nanos );
+    }
+
+    public void indexResized( final int oldCapacity, final int newCapacity )
+    {
+        this.register();
+        this.indexResizes.incrementAndGet();
+    }
+
+    public void validated( final Class validatorClass, final long nanos )
+    {
+        this.register();
+        increment( this.validations, validatorClass.getName(), 1L );
+        increment( this.validationNanos, validatorClass.getName(), nanos );
+    }
+
+    //--------------------------------------------------------MetricsCollector--
+    //--JmxMetricsCollectorMXBean-----------------------------------------------
+
+    public long getInsertCount()
+    {
+        return this.insertCount.get();
+    }
+
+    public long getBytesInserted()
+    {
+        return this.bytesInserted.get();
+    }
+
+    public long getBytesMovedByInsert()
+    {
+        return this.bytesMovedByInsert.get();
+    }
+
+    public long getInsertNanos()
+    {
+        return this.insertNanos.get();
+    }
+
+    public long getRemoveCount()
+    {
+        return this.removeCount.get();
+    }
+
+    public long getBytesRemoved()
+    {
+        return this.bytesRemoved.get();
+    }
+
+    public long getBytesMovedByRemove()
+    {
+        return this.bytesMovedByRemove.get();
+    }
+
+    public long getRemoveNanos()
+    {
+        return this.removeNanos.get();
+    }
+
+    public long getRecordsRead()
+    {
+        return this.recordsRead.get();
+    }
+
+    public long getBytesRead()
+    {
+        return this.bytesRead.get();
+    }
+
+    public long getRecordsWritten()
+    {
+        return this.recordsWritten.get();
+    }
+
+    public long getBytesWritten()
+    {
+        return this.bytesWritten.get();
+    }
+
+    public double getByteShiftingAmplification()
+    {
+        final long written = this.bytesWritten.get();
+        return written == 0L
+               ? 0.0D
+               : (double) ( this.bytesMovedByInsert.get() + this.bytesMovedByRemove.get() ) / written;
+
+    }
+
+    public long getDecodeFailures()
+    {
+        return this.decodeFailures.get();
+    }
+
+    public Map<String, Long> getDecodeFailuresByField()
+    {
+        return snapshot( this.decodeFailuresByField );
+    }
+
+    public long getChecksumScans()
+    {
+        return this.checksumScans.get();
+    }
+
+    public long getChecksumScannedTransactions()
+    {
+        return this.checksumScannedTransactions.get();
+    }
+
+    public long getChecksumNanos()
+    {
+        return this.checksumNanos.get();
+    }
+
+    public long getIndexResizes()
+    {
+        return this.indexResizes.get();
+    }
+
+    public Map<String, Long> getValidations()
+    {
+        return snapshot( this.validations );
+    }
+
+    public Map<String, Long> getValidationNanos()
+    {
+        return snapshot( this.validationNanos );
+    }
+
+    public void reset()
+    {
+        this.insertCount.set( 0L );
+        this.bytesInserted.set( 0L );
+        this.bytesMovedByInsert.set( 0L );
+        this.insertNanos.set( 0L );
+        this.removeCount.set( 0L );
+        this.bytesRemoved.set( 0L );
+        this.bytesMovedByRemove.set( 0L );
+        this.removeNanos.set( 0L );
+        this.recordsRead.set( 0L );
+        this.bytesRead.set( 0L );
+        this.recordsWritten.set( 0L );
+        this.bytesWritten.set( 0L );
+        this.decodeFailures.set( 0L );
+        this.decodeFailuresByField.clear();
+        this.checksumScans.set( 0L );
+        this.checksumScannedTransactions.set( 0L );
+        this.checksumNanos.set( 0L );
+        this.indexResizes.set( 0L );
+        this.validations.clear();
+        this.validationNanos.clear();
+    }
+
+    //-----------------------------------------------JmxMetricsCollectorMXBean--
+    //--JmxMetricsCollector-----------------------------------------------------
+
+    /** Name of the beans at the platform {@code MBeanServer} without the key identifying an instance. */
+    public static final String OBJECT_NAME = "org.jdtaus.banking:type=MetricsCollector";
+
+    /** Number of instances created. */
+    private static final AtomicInteger instanceCount = new AtomicInteger();
+
+    /** Name of the instance at the platform {@code MBeanServer}. */
+    private final String objectName = OBJECT_NAME + ",instance=" + instanceCount.incrementAndGet();
+
+    /** Flag indicating the instance got registered at the platform {@code MBeanServer}. */
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    /** Number of insert operations. */
+    private final AtomicLong insertCount = new AtomicLong();
+
+    /** Number of bytes inserted. */
+    private final AtomicLong bytesInserted = new AtomicLong();
+
+    /** Number of bytes moved by insert operations. */
+    private final AtomicLong bytesMovedByInsert = new AtomicLong();
+
+    /** Duration of insert operations. */
+    private final AtomicLong insertNanos = new AtomicLong();
+
+    /** Number of remove operations. */
+    private final AtomicLong removeCount = new AtomicLong();
+
+    /** Number of bytes removed. */
+    private final AtomicLong bytesRemoved = new AtomicLong();
+
+    /** Number of bytes moved by remove operations. */
+    private final AtomicLong bytesMovedByRemove = new AtomicLong();
+
+    /** Duration of remove operations. */
+    private final AtomicLong removeNanos = new AtomicLong();
+
+    /** Number of records read. */
+    private final AtomicLong recordsRead = new AtomicLong();
+
+    /** Number of bytes read. */
+    private final AtomicLong bytesRead = new AtomicLong();
+
+    /** Number of records written. */
+    private final AtomicLong recordsWritten = new AtomicLong();
+
+    /** Number of bytes written. */
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    /** Number of decode failures. */
+    private final AtomicLong decodeFailures = new AtomicLong();
+
+    /** Number of decode failures by field. */
+    private final ConcurrentMap<String, AtomicLong> decodeFailuresByField =
+        new ConcurrentHashMap<String, AtomicLong>();
+
+    /** Number of checksum scans. */
+    private final AtomicLong checksumScans = new AtomicLong();
+
+    /** Number of transactions scanned by checksum scans. */
+    private final AtomicLong checksumScannedTransactions = new AtomicLong();
+
+    /** Duration of checksum scans. */
+    private final AtomicLong checksumNanos = new AtomicLong();
+
+    /** Number of index resize operations. */
+    private final AtomicLong indexResizes = new AtomicLong();
+
+    /** Number of validations by validator. */
+    private final ConcurrentMap<String, AtomicLong> validations = new ConcurrentHashMap<String, AtomicLong>();
+
+    /** Duration of validations by validator. */
+    private final ConcurrentMap<String, AtomicLong> validationNanos = new ConcurrentHashMap<String, AtomicLong>();
+
+    /**
+     * Gets the name of the instance at the platform {@code MBeanServer}.
+     *
+     * @return The name the instance is registered under at the platform {@code MBeanServer}.
+     */
+    public String getObjectName()
+    {
+        return this.objectName;
+    }
+
+    /** Registers the instance at the platform {@code MBeanServer} unless it already tried to. */
+    private void register()
+    {
+        if ( this.registered.get() || !this.registered.compareAndSet( false, true ) )
+        {
+            return;
+        }
+
+        try
+        {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean( this, new ObjectName( this.objectName ) );
+        }
+        catch ( final JMException e )
+        {
+            this.getLogger().warn( this.getRegistrationFailedMessage(
+                this.getLocale(), this.objectName, e.getMessage() ) );
+
+        }
+        catch ( final SecurityException e )
+        {
+            this.getLogger().warn( this.getRegistrationFailedMessage(
+                this.getLocale(), this.objectName, e.getMessage() ) );
+
+        }
+    }
+
+    private static void increment( final ConcurrentMap<String, AtomicLong> map, final String key, final long delta )
+    {
+        AtomicLong counter = map.get( key );
+
+        if ( counter == null )
+        {
+            final AtomicLong created = new AtomicLong();
+            counter = map.putIfAbsent( key, created );
+
+            if ( counter == null )
+            {
+                counter = created;
+            }
+        }
+
+        counter.addAndGet( delta );
+    }
+
+    private static Map<String, Long> snapshot( final ConcurrentMap<String, AtomicLong> map )
+    {
+        final Map<String, Long> snapshot = new TreeMap<String, Long>();
+
+        for ( Map.Entry<String, AtomicLong> e : map.entrySet() )
+        {
+            snapshot.put( e.getKey(), e.getValue().get() );
+        }
+
+        return snapshot;
+    }
+
+    //-----------------------------------------------------JmxMetricsCollector--
+    //--Messages----------------------------------------------------------------
+
+// <editor-fold defaultstate="collapsed" desc=" Generated Code ">//GEN-BEGIN:jdtausMessages
+    // This section is managed by jdtaus-container-mojo.
+
+    /**
+     * Gets the text of message <code>registrationFailed</code>.
+     * <blockquote><pre>{0} konnte nicht registriert werden. {1}</pre></blockquote>
+     * <blockquote><pre>{0} could not be registered. {1}</pre></blockquote>
+     *
+     * @param locale The locale of the message instance to return.
+     * @param objectName format parameter.
+     * @param detailMessage format parameter.
+     *
+     * @return the text of message <code>registrationFailed</code>.
+     */
+    private String getRegistrationFailedMessage( final Locale locale,
+            final java.lang.String objectName,
+            final java.lang.String detailMessage )
+    {
+        return ContainerFactory.getContainer().
+            getMessage( this, "registrationFailed", locale,
+                new Object[]
+                {
+                    objectName,
+                    detailMessage
+                });
+
+    }
+
+// </editor-fold>//GEN-END:jdtausMessages
+
+    //----------------------------------------------------------------Messages--
+}
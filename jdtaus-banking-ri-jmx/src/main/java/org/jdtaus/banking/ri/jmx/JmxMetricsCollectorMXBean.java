@@ -0,0 +1,189 @@
+/*
+ *  jDTAUS Banking RI JMX
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.ri.jmx;
+
+import java.util.Map;
+
+/**
+ * Management interface of the {@code JmxMetricsCollector}.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+public interface JmxMetricsCollectorMXBean
+{
+
+    /**
+     * Gets the number of insert operations.
+     *
+     * @return The number of insert operations.
+     */
+    long getInsertCount();
+
+    /**
+     * Gets the number of bytes inserted.
+     *
+     * @return The number of bytes inserted.
+     */
+    long getBytesInserted();
+
+    /**
+     * Gets the number of bytes moved by insert operations.
+     *
+     * @return The number of bytes moved by insert operations.
+     */
+    long getBytesMovedByInsert();
+
+    /**
+     * Gets the total duration of insert operations.
+     *
+     * @return The total duration of insert operations in nanoseconds.
+     */
+    long getInsertNanos();
+
+    /**
+     * Gets the number of remove operations.
+     *
+     * @return The number of remove operations.
+     */
+    long getRemoveCount();
+
+    /**
+     * Gets the number of bytes removed.
+     *
+     * @return The number of bytes removed.
+     */
+    long getBytesRemoved();
+
+    /**
+     * Gets the number of bytes moved by remove operations.
+     *
+     * @return The number of bytes moved by remove operations.
+     */
+    long getBytesMovedByRemove();
+
+    /**
+     * Gets the total duration of remove operations.
+     *
+     * @return The total duration of remove operations in nanoseconds.
+     */
+    long getRemoveNanos();
+
+    /**
+     * Gets the number of records read.
+     *
+     * @return The number of records read.
+     */
+    long getRecordsRead();
+
+    /**
+     * Gets the number of bytes of the records read.
+     *
+     * @return The number of bytes of the records read.
+     */
+    long getBytesRead();
+
+    /**
+     * Gets the number of records written.
+     *
+     * @return The number of records written.
+     */
+    long getRecordsWritten();
+
+    /**
+     * Gets the number of bytes of the records written.
+     *
+     * @return The number of bytes of the records written.
+     */
+    long getBytesWritten();
+
+    /**
+     * Gets the number of bytes moved per byte written.
+     * <p>Inserting or removing records in the middle of a file requires moving all following bytes. A value much
+     * greater than {@code 1} indicates a file being edited in a way leading to quadratic behaviour.</p>
+     *
+     * @return The number of bytes moved by insert and remove operations divided by the number of bytes written or
+     * {@code 0}, if no bytes have been written.
+     */
+    double getByteShiftingAmplification();
+
+    /**
+     * Gets the number of fields whose data could not be decoded.
+     *
+     * @return The number of fields whose data could not be decoded.
+     */
+    long getDecodeFailures();
+
+    /**
+     * Gets the number of fields whose data could not be decoded by field.
+     *
+     * @return The number of fields whose data could not be decoded keyed by hexadecimal field constant (e.g.
+     * {@code A07}).
+     */
+    Map<String, Long> getDecodeFailuresByField();
+
+    /**
+     * Gets the number of checksum scans.
+     *
+     * @return The number of checksum scans.
+     */
+    long getChecksumScans();
+
+    /**
+     * Gets the number of transactions scanned by checksum scans.
+     *
+     * @return The number of transactions scanned by checksum scans.
+     */
+    long getChecksumScannedTransactions();
+
+    /**
+     * Gets the total duration of checksum scans.
+     *
+     * @return The total duration of checksum scans in nanoseconds.
+     */
+    long getChecksumNanos();
+
+    /**
+     * Gets the number of index resize operations.
+     *
+     * @return The number of index resize operations.
+     */
+    long getIndexResizes();
+
+    /**
+     * Gets the number of validations by validator.
+     *
+     * @return The number of validations keyed by validator class name.
+     */
+    Map<String, Long> getValidations();
+
+    /**
+     * Gets the total duration of validations by validator.
+     *
+     * @return The total duration of validations in nanoseconds keyed by validator class name.
+     */
+    Map<String, Long> getValidationNanos();
+
+    /** Resets all metrics to zero. */
+    void reset();
+
+}
@@ -0,0 +1,126 @@
+/*
+ *  jDTAUS Banking RI JMX
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.ri.jmx.test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.jdtaus.banking.dtaus.spi.Fields;
+import org.jdtaus.banking.dtaus.spi.MetricsCollector;
+import org.jdtaus.banking.ri.jmx.JmxMetricsCollector;
+import org.jdtaus.core.container.ContainerFactory;
+
+/**
+ * Tests the {@link JmxMetricsCollector} implementation.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+public class JmxMetricsCollectorTest extends TestCase
+{
+
+    private JmxMetricsCollector getMetricsCollector()
+    {
+        final MetricsCollector[] collectors = (MetricsCollector[]) ContainerFactory.getContainer().
+            getObject( MetricsCollector.class );
+
+        for ( int i = collectors.length - 1; i >= 0; i-- )
+        {
+            if ( collectors[i] instanceof JmxMetricsCollector )
+            {
+                return (JmxMetricsCollector) collectors[i];
+            }
+        }
+
+        Assert.fail();
+        return null;
+    }
+
+    public void testRegistered() throws Exception
+    {
+        final JmxMetricsCollector collector = this.getMetricsCollector();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        collector.recordRead( 'A', 128 );
+        Assert.assertTrue( server.isRegistered( new ObjectName( collector.getObjectName() ) ) );
+    }
+
+    public void testRegisteredPerInstance() throws Exception
+    {
+        final JmxMetricsCollector first = new JmxMetricsCollector();
+        final JmxMetricsCollector second = new JmxMetricsCollector();
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        Assert.assertFalse( server.isRegistered( new ObjectName( first.getObjectName() ) ) );
+
+        first.recordRead( 'A', 128 );
+        second.recordRead( 'A', 128 );
+
+        try
+        {
+            Assert.assertFalse( first.getObjectName().equals( second.getObjectName() ) );
+            Assert.assertTrue( server.isRegistered( new ObjectName( first.getObjectName() ) ) );
+            Assert.assertTrue( server.isRegistered( new ObjectName( second.getObjectName() ) ) );
+        }
+        finally
+        {
+            server.unregisterMBean( new ObjectName( first.getObjectName() ) );
+            server.unregisterMBean( new ObjectName( second.getObjectName() ) );
+        }
+    }
+
+    public void testMetrics() throws Exception
+    {
+        final JmxMetricsCollector collector = this.getMetricsCollector();
+        collector.reset();
+
+        collector.recordWritten( 'C', 187 );
+        collector.recordWritten( 'C', 216 );
+        collector.bytesInserted( 187, 200, 10 );
+        collector.bytesRemoved( 187, 203, 20 );
+        collector.decodeFailed( Fields.FIELD_C7A );
+        collector.decodeFailed( Fields.FIELD_C7A );
+        collector.checksumScanned( 2, 30 );
+        collector.validated( String.class, 40 );
+        collector.validated( String.class, 2 );
+
+        Assert.assertEquals( 2L, collector.getRecordsWritten() );
+        Assert.assertEquals( 403L, collector.getBytesWritten() );
+        Assert.assertEquals( 1L, collector.getInsertCount() );
+        Assert.assertEquals( 200L, collector.getBytesMovedByInsert() );
+        Assert.assertEquals( 1L, collector.getRemoveCount() );
+        Assert.assertEquals( 203L, collector.getBytesMovedByRemove() );
+        Assert.assertEquals( 1.0D, collector.getByteShiftingAmplification(), 0.0D );
+        Assert.assertEquals( 2L, collector.getDecodeFailures() );
+        Assert.assertEquals( Long.valueOf( 2L ), collector.getDecodeFailuresByField().get( "C7A" ) );
+        Assert.assertEquals( 2L, collector.getChecksumScannedTransactions() );
+        Assert.assertEquals( Long.valueOf( 2L ), collector.getValidations().get( String.class.getName() ) );
+        Assert.assertEquals( Long.valueOf( 42L ), collector.getValidationNanos().get( String.class.getName() ) );
+
+        collector.reset();
+
+        Assert.assertEquals( 0L, collector.getRecordsWritten() );
+        Assert.assertEquals( 0.0D, collector.getByteShiftingAmplification(), 0.0D );
+        Assert.assertTrue( collector.getDecodeFailuresByField().isEmpty() );
+        Assert.assertTrue( collector.getValidations().isEmpty() );
+    }
+
+}
@@ -48,6 +48,9 @@ import org.jdtaus.banking.Textschluessel;
 import org.jdtaus.banking.TextschluesselVerzeichnis;
 import org.jdtaus.banking.messages.ReadsTextschluesselMessage;
 import org.jdtaus.banking.messages.SearchesTextschluesselMessage;
+import org.jdtaus.banking.spi.OperationEvents;
+import org.jdtaus.banking.spi.OperationRecorder;
+import org.jdtaus.banking.spi.ProgressThrottle;
 import org.jdtaus.core.container.ContainerFactory;
 import org.jdtaus.core.container.PropertyException;
 import org.jdtaus.core.logging.spi.Logger;
@@ -281,16 +284,19 @@ public class JaxpTextschluesselVerzeichnis implements TextschluesselVerzeichnis
             task.setMinimum( 0 );
             task.setProgress( 0 );
 
+            final boolean monitoring = task.getMaximum() > this.getMonitoringThreshold();
+            final ProgressThrottle throttle = new ProgressThrottle( task );
+
             try
             {
-                if ( task.getMaximum() > this.getMonitoringThreshold() )
+                if ( monitoring )
                 {
                     this.getTaskMonitor().monitor( task );
                 }
 
                 for ( int i = this.instances.length - 1; i >= 0 && !task.isCancelled(); i-- )
                 {
-                    task.setProgress( task.getMaximum() - i );
+                    throttle.setProgress( task.getMaximum() - i );
 
                     if ( ( debit == null ? true : this.instances[i].isDebit() == debit.booleanValue() )
                          && ( remittance == null ? true : this.instances[i].isRemittance() == remittance.booleanValue() )
@@ -308,7 +314,7 @@ public class JaxpTextschluesselVerzeichnis implements TextschluesselVerzeichnis
             }
             finally
             {
-                if ( task.getMaximum() > this.getMonitoringThreshold() )
+                if ( monitoring )
                 {
                     this.getTaskMonitor().finish( task );
                 }
@@ -356,6 +362,8 @@ public class JaxpTextschluesselVerzeichnis implements TextschluesselVerzeichnis
                 this.textschluesselMap.clear();
                 this.variableTextschluesselMap.clear();
 
+                final OperationRecorder[] recorders = this.getOperationRecorder();
+                final Object[] events = OperationEvents.begin( recorders, OperationRecorder.TEXTSCHLUESSEL_PARSE );
                 final List/*<Document>*/ documents = this.parseResources();
                 final Collection parsedTextschluessel = new LinkedList();
 
@@ -409,6 +417,13 @@ public class JaxpTextschluesselVerzeichnis implements TextschluesselVerzeichnis
                     this.getLocale(), new Integer( this.instances.length ), new Integer( documents.size() ) ) );
 
                 this.initialized = true;
+
+                if ( events != null )
+                {
+                    OperationEvents.end( recorders, events, OperationEvents.getResource( this.getResources() ), -1L,
+                                         this.instances.length, 0L, 0L );
+
+                }
             }
         }
         catch ( final IOException e )
@@ -963,6 +978,18 @@ public class JaxpTextschluesselVerzeichnis implements TextschluesselVerzeichnis
 
     }
 
+    /**
+     * Gets the configured <code>OperationRecorder</code> implementation.
+     *
+     * @return The configured <code>OperationRecorder</code> implementation.
+     */
+    private OperationRecorder[] getOperationRecorder()
+    {
+        return (OperationRecorder[]) ContainerFactory.getContainer().
+            getDependency( this, "OperationRecorder" );
+
+    }
+
 // </editor-fold>//GEN-END:jdtausDependencies
 
     //------------------------------------------------------------Dependencies--
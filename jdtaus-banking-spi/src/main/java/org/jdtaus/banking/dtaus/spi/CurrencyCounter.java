@@ -112,6 +112,39 @@ public class CurrencyCounter implements Serializable
         this.getCurrencyMap().put( currency.getCurrencyCode(), new Long( value + 1L ) );
     }
 
+    /**
+     * Adds the counters of another instance to the counters of the instance.
+     *
+     * @param counter The instance to add the counters of.
+     *
+     * @throws NullPointerException if {@code counter} is {@code null}.
+     * @throws IndexOutOfBoundsException if the value of a counter would exceed {@link Long#MAX_VALUE}.
+     *
+     * @since 1.17
+     */
+    public void addAll( final CurrencyCounter counter )
+    {
+        if ( counter == null )
+        {
+            throw new NullPointerException( "counter" );
+        }
+
+        for ( Iterator it = counter.getCurrencyMap().entrySet().iterator(); it.hasNext(); )
+        {
+            final Map.Entry entry = (Map.Entry) it.next();
+            final Long value = (Long) this.getCurrencyMap().get( entry.getKey() );
+            final long current = value != null ? value.longValue() : 0L;
+            final long added = ( (Long) entry.getValue() ).longValue();
+
+            if ( current > Long.MAX_VALUE - added )
+            {
+                throw new IndexOutOfBoundsException();
+            }
+
+            this.getCurrencyMap().put( entry.getKey(), new Long( current + added ) );
+        }
+    }
+
     /**
      * Substracts from the counter of a currency.
      *
@@ -0,0 +1,109 @@
+/*
+ *  jDTAUS Banking SPI
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.dtaus.spi;
+
+/**
+ * Collects metrics of logical file operations.
+ * <p>jDTAUS Banking SPI {@code MetricsCollector} specification to be used by implementations to collect counts and
+ * durations of the operations performed by logical file implementations. Implementations are notified after an
+ * operation completed successfully. Durations are given in nanoseconds. Their resolution depends on the platform and
+ * may be as coarse as milliseconds. Logical file implementations do not measure any durations, if no
+ * {@code MetricsCollector} implementation is available.</p>
+ * <p>Implementations are required to be thread-safe.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+public interface MetricsCollector
+{
+
+    /**
+     * Called after bytes got inserted into a file.
+     *
+     * @param bytes The number of bytes inserted.
+     * @param movedBytes The number of bytes moved to make room for the inserted bytes.
+     * @param nanos The duration of the operation in nanoseconds.
+     */
+    void bytesInserted( long bytes, long movedBytes, long nanos );
+
+    /**
+     * Called after bytes got removed from a file.
+     *
+     * @param bytes The number of bytes removed.
+     * @param movedBytes The number of bytes moved to fill the gap of the removed bytes.
+     * @param nanos The duration of the operation in nanoseconds.
+     */
+    void bytesRemoved( long bytes, long movedBytes, long nanos );
+
+    /**
+     * Called after a record got read.
+     *
+     * @param type The type of the record read ({@code A}, {@code C} or {@code E}).
+     * @param bytes The length of the record in bytes.
+     */
+    void recordRead( char type, int bytes );
+
+    /**
+     * Called after a record got written.
+     *
+     * @param type The type of the record written ({@code A}, {@code C} or {@code E}).
+     * @param bytes The length of the record in bytes.
+     */
+    void recordWritten( char type, int bytes );
+
+    /**
+     * Called after decoding the data of a field failed.
+     *
+     * @param field The constant of the field whose data could not be decoded.
+     *
+     * @see Fields
+     */
+    void decodeFailed( int field );
+
+    /**
+     * Called after the records of a logical file got scanned to compute its checksum.
+     *
+     * @param transactionCount The number of transactions scanned.
+     * @param nanos The duration of the scan in nanoseconds.
+     */
+    void checksumScanned( int transactionCount, long nanos );
+
+    /**
+     * Called after the index of the transactions of a logical file got resized.
+     *
+     * @param oldCapacity The capacity of the index before resizing.
+     * @param newCapacity The capacity of the index after resizing.
+     */
+    void indexResized( int oldCapacity, int newCapacity );
+
+    /**
+     * Called after a validator validated a {@code Header} or {@code Transaction} instance.
+     *
+     * @param validatorClass The class of the validator.
+     * @param nanos The duration of the validation in nanoseconds.
+     *
+     * @see HeaderValidator
+     * @see TransactionValidator
+     */
+    void validated( Class validatorClass, long nanos );
+
+}
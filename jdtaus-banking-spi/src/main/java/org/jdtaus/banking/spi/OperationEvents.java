@@ -0,0 +1,168 @@
+/*
+ *  jDTAUS Banking SPI
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.spi;
+
+import java.net.URL;
+
+/**
+ * Notifies {@code OperationRecorder} implementations about operations.
+ * <p>No objects are created for an operation, if no {@code OperationRecorder} implementation records it. Recording
+ * an operation never causes the operation to fail. A {@code RuntimeException} thrown by an implementation is ignored
+ * and the implementation is not notified about the operation any further.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ *
+ * @see OperationRecorder
+ * @since 1.17
+ */
+public final class OperationEvents
+{
+
+    /** Empty array of recorders. */
+    public static final OperationRecorder[] NO_RECORDERS =
+    {
+    };
+
+    /** Creates a new {@code OperationEvents} instance. */
+    private OperationEvents()
+    {
+        super();
+    }
+
+    /**
+     * Notifies recorders about an operation starting.
+     *
+     * @param recorders The recorders to notify or {@code null}.
+     * @param operation The operation starting.
+     *
+     * @return The events of {@code recorders} to pass to method {@code end} or {@code null}, if no recorder records
+     * {@code operation}.
+     */
+    public static Object[] begin( final OperationRecorder[] recorders, final String operation )
+    {
+        Object[] events = null;
+
+        for ( int i = recorders != null ? recorders.length - 1 : -1; i >= 0; i-- )
+        {
+            Object event = null;
+
+            try
+            {
+                event = recorders[i].beginOperation( operation );
+            }
+            catch ( final RuntimeException e )
+            {
+                // Ignored, the operation is not recorded by the failing recorder.
+            }
+
+            if ( event != null )
+            {
+                if ( events == null )
+                {
+                    events = new Object[ recorders.length ];
+                }
+
+                events[i] = event;
+            }
+        }
+
+        return events;
+    }
+
+    /**
+     * Notifies recorders about an operation having completed.
+     *
+     * @param recorders The recorders to notify.
+     * @param events The events returned by method {@code begin} or {@code null}.
+     * @param resource The identity of the file or resources the operation was performed on.
+     * @param size The length of the file or resources in bytes or {@code -1}, if unknown.
+     * @param records The number of records processed by the operation or {@code 0}, if not applicable.
+     * @param bytes The number of bytes inserted or removed by the operation or {@code 0}, if not applicable.
+     * @param movedBytes The number of bytes moved by the operation or {@code 0}, if not applicable.
+     */
+    public static void end( final OperationRecorder[] recorders, final Object[] events, final String resource,
+                            final long size, final long records, final long bytes, final long movedBytes )
+    {
+        for ( int i = events != null ? events.length - 1 : -1; i >= 0; i-- )
+        {
+            if ( events[i] != null )
+            {
+                try
+                {
+                    recorders[i].endOperation( events[i], resource, size, records, bytes, movedBytes );
+                }
+                catch ( final RuntimeException e )
+                {
+                    // Ignored, the operation completed successfully.
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the identity of an object an operation is performed on.
+     *
+     * @param object The object to get the identity of.
+     *
+     * @return The identity of {@code object}.
+     *
+     * @throws NullPointerException if {@code object} is {@code null}.
+     */
+    public static String getResource( final Object object )
+    {
+        if ( object == null )
+        {
+            throw new NullPointerException( "object" );
+        }
+
+        return object.getClass().getName() + '@' + Integer.toHexString( System.identityHashCode( object ) );
+    }
+
+    /**
+     * Gets the identity of resources an operation is performed on.
+     * <p>The identity is made up of the external forms of the resources separated by a space character. No resource
+     * is accessed, so that the size of the resources needs to be reported as unknown.</p>
+     *
+     * @param resources The resources to get the identity of.
+     *
+     * @return The identity of {@code resources}.
+     *
+     * @throws NullPointerException if {@code resources} is {@code null}.
+     */
+    public static String getResource( final URL[] resources )
+    {
+        if ( resources == null )
+        {
+            throw new NullPointerException( "resources" );
+        }
+
+        final StringBuffer resource = new StringBuffer();
+
+        for ( int i = 0; i < resources.length; i++ )
+        {
+            resource.append( i > 0 ? " " : "" ).append( resources[i].toExternalForm() );
+        }
+
+        return resource.toString();
+    }
+
+}
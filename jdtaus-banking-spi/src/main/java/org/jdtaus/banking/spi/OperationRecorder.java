@@ -0,0 +1,94 @@
+/*
+ *  jDTAUS Banking SPI
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.spi;
+
+/**
+ * Records the duration of operations of file and directory implementations.
+ * <p>jDTAUS Banking SPI {@code OperationRecorder} specification to be used by implementations to record operations
+ * for correlating them with other events of a profiler or flight recorder. Implementations are called before an
+ * operation starts and, if the operation completes successfully, after it completed. Operations failing with an
+ * exception are not recorded. Implementations return {@code null} from method {@code beginOperation} whenever they
+ * are not recording, so that no further work is performed for the operation.</p>
+ * <p>Implementations are required to be thread-safe.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+public interface OperationRecorder
+{
+
+    /** Analysing a physical file. */
+    String ANALYSE = "analyse";
+
+    /** Reading a physical file. */
+    String GET_PHYSICAL_FILE = "getPhysicalFile";
+
+    /** Computing the checksum of a logical file. */
+    String CHECKSUM = "checksum";
+
+    /** Inserting bytes into a file. */
+    String INSERT_BYTES = "insertBytes";
+
+    /** Removing bytes from a file. */
+    String REMOVE_BYTES = "removeBytes";
+
+    /** Reading the bank files of a {@code BankleitzahlenVerzeichnis}. */
+    String BANKFILE_RELOAD = "bankfileReload";
+
+    /** Parsing the XML resources of a {@code TextschluesselVerzeichnis}. */
+    String TEXTSCHLUESSEL_PARSE = "textschluesselParse";
+
+    /** Parsing the XML resources of a {@code CurrencyDirectory}. */
+    String CURRENCY_PARSE = "currencyParse";
+
+    /**
+     * Called before an operation starts.
+     *
+     * @param operation The operation starting.
+     *
+     * @return An object to pass to method {@code endOperation} when the operation completed or {@code null}, if the
+     * operation is not recorded.
+     *
+     * @see #ANALYSE
+     * @see #GET_PHYSICAL_FILE
+     * @see #CHECKSUM
+     * @see #INSERT_BYTES
+     * @see #REMOVE_BYTES
+     * @see #BANKFILE_RELOAD
+     * @see #TEXTSCHLUESSEL_PARSE
+     * @see #CURRENCY_PARSE
+     */
+    Object beginOperation( String operation );
+
+    /**
+     * Called after an operation completed successfully.
+     *
+     * @param event The object returned by method {@code beginOperation} when the operation started.
+     * @param resource The identity of the file or resources the operation was performed on.
+     * @param size The length of the file or resources in bytes or {@code -1}, if unknown.
+     * @param records The number of records processed by the operation or {@code 0}, if not applicable.
+     * @param bytes The number of bytes inserted or removed by the operation or {@code 0}, if not applicable.
+     * @param movedBytes The number of bytes moved by the operation or {@code 0}, if not applicable.
+     */
+    void endOperation( Object event, String resource, long size, long records, long bytes, long movedBytes );
+
+}
@@ -0,0 +1,202 @@
+/*
+ *  jDTAUS Banking SPI
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.spi;
+
+import org.jdtaus.core.monitor.spi.Task;
+
+/**
+ * Limits the number of progress updates of a {@code Task}.
+ * <p>Loops processing a large number of items would update the progress of a task once per item, causing a
+ * {@code TaskMonitor} to be notified far more often than any user interface can follow. This class forwards a
+ * progress value to its task only if the progress advanced by a given percentage step of the task's range since the
+ * last update, if a given number of milliseconds passed since the last update, or if the maximum of the task's range
+ * is reached. The number of updates therefore is bounded independently of the number of items processed.</p>
+ * <p>The defaults used by constructor {@link #ProgressThrottle(Task)} may be specified by system properties
+ * {@code org.jdtaus.banking.spi.ProgressThrottle.percentageStep} and
+ * {@code org.jdtaus.banking.spi.ProgressThrottle.intervalMillis}.</p>
+ *
+ * <p><b>Note:</b><br/>This class is not synchronized and must not be used concurrently without external
+ * synchronization.</p>
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ * @since 1.17
+ */
+public final class ProgressThrottle
+{
+
+    /** Default percentage step. */
+    public static final int DEFAULT_PERCENTAGE_STEP = 1;
+
+    /** Default interval in milliseconds. */
+    public static final long DEFAULT_INTERVAL_MILLIS = 250L;
+
+    /** Percentage step used by constructor {@code ProgressThrottle(Task)}. */
+    private static final int PERCENTAGE_STEP = Integer.getInteger(
+        ProgressThrottle.class.getName() + ".percentageStep", DEFAULT_PERCENTAGE_STEP ).intValue();
+
+    /** Interval used by constructor {@code ProgressThrottle(Task)}. */
+    private static final long INTERVAL_MILLIS = Long.getLong(
+        ProgressThrottle.class.getName() + ".intervalMillis", DEFAULT_INTERVAL_MILLIS ).longValue();
+
+    /** The task to update. */
+    private final Task task;
+
+    /** Number of milliseconds to pass before the task is updated regardless of the percentage step. */
+    private final long intervalMillis;
+
+    /** Progress to advance by before the task is updated. */
+    private final int step;
+
+    /** Maximum progress of the task. */
+    private final int maximum;
+
+    /** Progress the task will be updated at next. */
+    private int nextProgress;
+
+    /** Progress passed to method {@code setProgress} last. */
+    private int progress;
+
+    /** Progress the task has been updated with last. */
+    private int reportedProgress;
+
+    /** System time of the last update of the task. */
+    private long lastUpdateMillis;
+
+    /**
+     * Creates a new {@code ProgressThrottle} instance taking the task to update using the default percentage step and
+     * interval.
+     * <p>The range of {@code task} needs to be set up before creating the instance.</p>
+     *
+     * @param task The task to update.
+     *
+     * @throws NullPointerException if {@code task} is {@code null}.
+     */
+    public ProgressThrottle( final Task task )
+    {
+        this( task, PERCENTAGE_STEP, INTERVAL_MILLIS );
+    }
+
+    /**
+     * Creates a new {@code ProgressThrottle} instance taking the task to update, a percentage step and an interval.
+     * <p>The range of {@code task} needs to be set up before creating the instance.</p>
+     *
+     * @param task The task to update.
+     * @param percentageStep Percentage of the range of {@code task} the progress needs to advance by before
+     * {@code task} is updated or {@code 0}, to update {@code task} whenever the progress changes.
+     * @param intervalMillis Number of milliseconds to pass before {@code task} is updated regardless of
+     * {@code percentageStep} or {@code 0}, to update {@code task} based on {@code percentageStep} only.
+     *
+     * @throws NullPointerException if {@code task} is {@code null}.
+     * @throws IllegalArgumentException if {@code percentageStep} is negative or greater than {@code 100} or if
+     * {@code intervalMillis} is negative.
+     */
+    public ProgressThrottle( final Task task, final int percentageStep, final long intervalMillis )
+    {
+        super();
+
+        if ( task == null )
+        {
+            throw new NullPointerException( "task" );
+        }
+        if ( percentageStep < 0 || percentageStep > 100 )
+        {
+            throw new IllegalArgumentException( Integer.toString( percentageStep ) );
+        }
+        if ( intervalMillis < 0L )
+        {
+            throw new IllegalArgumentException( Long.toString( intervalMillis ) );
+        }
+
+        final long range = (long) task.getMaximum() - task.getMinimum();
+        final long stepLength = range * percentageStep / 100L;
+
+        this.task = task;
+        this.intervalMillis = intervalMillis;
+        this.step = stepLength > 1L ? (int) stepLength : 1;
+        this.maximum = task.getMaximum();
+        this.progress = task.getProgress();
+        this.reportedProgress = this.progress;
+        this.nextProgress = this.progress + this.step;
+        this.lastUpdateMillis = intervalMillis > 0L ? System.currentTimeMillis() : 0L;
+    }
+
+    /**
+     * Gets the task updated by the instance.
+     *
+     * @return The task updated by the instance.
+     */
+    public Task getTask()
+    {
+        return this.task;
+    }
+
+    /**
+     * Gets the progress passed to method {@code setProgress} last.
+     * <p>The progress of the task may lag behind the value returned by this method.</p>
+     *
+     * @return The progress passed to method {@code setProgress} last.
+     */
+    public int getProgress()
+    {
+        return this.progress;
+    }
+
+    /**
+     * Sets the progress, updating the task if the percentage step or interval has been reached.
+     *
+     * @param value The progress to set.
+     */
+    public void setProgress( final int value )
+    {
+        this.progress = value;
+
+        if ( value >= this.nextProgress || value >= this.maximum || value < this.reportedProgress
+             || ( this.intervalMillis > 0L
+                  && System.currentTimeMillis() - this.lastUpdateMillis >= this.intervalMillis ) )
+        {
+            this.update();
+        }
+    }
+
+    /** Updates the task with the progress passed to method {@code setProgress} last, if not already done. */
+    public void flush()
+    {
+        if ( this.reportedProgress != this.progress )
+        {
+            this.update();
+        }
+    }
+
+    /** Updates the task. */
+    private void update()
+    {
+        this.task.setProgress( this.progress );
+        this.reportedProgress = this.progress;
+        this.nextProgress = this.progress + this.step;
+
+        if ( this.intervalMillis > 0L )
+        {
+            this.lastUpdateMillis = System.currentTimeMillis();
+        }
+    }
+
+}
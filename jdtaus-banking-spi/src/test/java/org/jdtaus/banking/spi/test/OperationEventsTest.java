@@ -0,0 +1,126 @@
+/*
+ *  jDTAUS Banking SPI
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.spi.test;
+
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.jdtaus.banking.spi.OperationEvents;
+import org.jdtaus.banking.spi.OperationRecorder;
+
+/**
+ * Tests the {@link OperationEvents} class.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+public class OperationEventsTest extends TestCase
+{
+    //--Tests-------------------------------------------------------------------
+
+    /** {@code OperationRecorder} collecting the resources of completed operations. */
+    private static final class CollectingOperationRecorder implements OperationRecorder
+    {
+
+        /** The resources of completed operations. */
+        final List resources = new ArrayList();
+
+        /** The sizes of completed operations. */
+        final List sizes = new ArrayList();
+
+        public Object beginOperation( final String operation )
+        {
+            return operation;
+        }
+
+        public void endOperation( final Object event, final String resource, final long size, final long records,
+                                  final long bytes, final long movedBytes )
+        {
+            this.resources.add( resource );
+            this.sizes.add( new Long( size ) );
+        }
+
+    }
+
+    /** {@code OperationRecorder} failing on every call. */
+    private static final class FailingOperationRecorder implements OperationRecorder
+    {
+
+        /** Whether method {@code beginOperation} fails. */
+        private final boolean failBegin;
+
+        FailingOperationRecorder( final boolean failBegin )
+        {
+            super();
+            this.failBegin = failBegin;
+        }
+
+        public Object beginOperation( final String operation )
+        {
+            if ( this.failBegin )
+            {
+                throw new IllegalStateException( operation );
+            }
+
+            return operation;
+        }
+
+        public void endOperation( final Object event, final String resource, final long size, final long records,
+                                  final long bytes, final long movedBytes )
+        {
+            throw new IllegalStateException( resource );
+        }
+
+    }
+
+    public void testNoRecorders() throws Exception
+    {
+        Assert.assertNull( OperationEvents.begin( null, OperationRecorder.ANALYSE ) );
+        Assert.assertNull( OperationEvents.begin( OperationEvents.NO_RECORDERS, OperationRecorder.ANALYSE ) );
+        OperationEvents.end( OperationEvents.NO_RECORDERS, null, "resource", -1L, 0L, 0L, 0L );
+    }
+
+    public void testFailingRecorders() throws Exception
+    {
+        final CollectingOperationRecorder collecting = new CollectingOperationRecorder();
+        final OperationRecorder[] recorders =
+        {
+            new FailingOperationRecorder( true ), collecting, new FailingOperationRecorder( false )
+        };
+
+        final Object[] events = OperationEvents.begin( recorders, OperationRecorder.BANKFILE_RELOAD );
+        Assert.assertNotNull( events );
+        Assert.assertNull( events[0] );
+
+        final URL[] resources =
+        {
+            new URL( "file:/a.txt" ), new URL( "file:/b.txt" )
+        };
+
+        OperationEvents.end( recorders, events, OperationEvents.getResource( resources ), -1L, 10L, 0L, 0L );
+        Assert.assertEquals( 1, collecting.resources.size() );
+        Assert.assertEquals( "file:/a.txt file:/b.txt", collecting.resources.get( 0 ) );
+        Assert.assertEquals( new Long( -1L ), collecting.sizes.get( 0 ) );
+    }
+
+}
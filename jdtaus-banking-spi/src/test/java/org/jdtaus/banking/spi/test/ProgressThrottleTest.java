@@ -0,0 +1,114 @@
+/*
+ *  jDTAUS Banking SPI
+ *  Copyright (C) 2005 Christian Schulte
+ *  <cs@schulte.it>
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+ *
+ */
+package org.jdtaus.banking.spi.test;
+
+import junit.framework.Assert;
+import junit.framework.TestCase;
+import org.jdtaus.banking.spi.ProgressThrottle;
+import org.jdtaus.core.monitor.spi.Task;
+
+/**
+ * Tests the {@link ProgressThrottle} class.
+ *
+ * @author <a href="mailto:cs@schulte.it">Christian Schulte</a>
+ * @version $JDTAUS$
+ */
+public class ProgressThrottleTest extends TestCase
+{
+    //--Tests-------------------------------------------------------------------
+
+    public void testPercentageStep() throws Exception
+    {
+        final Task task = new Task();
+        task.setMinimum( 0 );
+        task.setMaximum( 1000 );
+        task.setProgress( 0 );
+
+        final ProgressThrottle throttle = new ProgressThrottle( task, 10, 0L );
+
+        throttle.setProgress( 99 );
+        Assert.assertEquals( 0, task.getProgress() );
+        Assert.assertEquals( 99, throttle.getProgress() );
+
+        throttle.setProgress( 100 );
+        Assert.assertEquals( 100, task.getProgress() );
+
+        throttle.setProgress( 150 );
+        Assert.assertEquals( 100, task.getProgress() );
+
+        throttle.flush();
+        Assert.assertEquals( 150, task.getProgress() );
+
+        throttle.setProgress( 1000 );
+        Assert.assertEquals( 1000, task.getProgress() );
+    }
+
+    public void testUnthrottled() throws Exception
+    {
+        final Task task = new Task();
+        task.setMinimum( 0 );
+        task.setMaximum( 1000 );
+        task.setProgress( 0 );
+
+        final ProgressThrottle throttle = new ProgressThrottle( task, 0, 0L );
+
+        for ( int i = 1; i <= 1000; i++ )
+        {
+            throttle.setProgress( i );
+            Assert.assertEquals( i, task.getProgress() );
+        }
+    }
+
+    public void testIllegalArguments() throws Exception
+    {
+        try
+        {
+            new ProgressThrottle( null );
+            Assert.fail();
+        }
+        catch ( final NullPointerException e )
+        {
+            Assert.assertNotNull( e.getMessage() );
+        }
+
+        try
+        {
+            new ProgressThrottle( new Task(), 101, 0L );
+            Assert.fail();
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            Assert.assertNotNull( e.getMessage() );
+        }
+
+        try
+        {
+            new ProgressThrottle( new Task(), 1, -1L );
+            Assert.fail();
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            Assert.assertNotNull( e.getMessage() );
+        }
+    }
+
+    //-------------------------------------------------------------------Tests--
+}
@@ -20,15 +20,27 @@
  */
 package org.jdtaus.banking.util;
 
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.io.LineNumberReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -38,6 +50,7 @@ import java.util.Map;
 import org.jdtaus.banking.Bankleitzahl;
 import org.jdtaus.banking.BankleitzahlInfo;
 import org.jdtaus.banking.messages.UpdatesBankleitzahlenDateiMessage;
+import org.jdtaus.banking.spi.ProgressThrottle;
 import org.jdtaus.core.container.ContainerFactory;
 import org.jdtaus.core.container.PropertyException;
 import org.jdtaus.core.logging.spi.Logger;
@@ -181,16 +194,54 @@ public final class BankleitzahlenDatei
         FIELD_TO_OFFSET[14] + FIELD_TO_LENGTH[14]
     };
 
+    /**
+     * Magic number of snapshot files.
+     * @since 1.17
+     */
+    private static final int SNAPSHOT_MAGIC = 0x424C5A53;
+
+    /**
+     * Version of the format of snapshot files.
+     * @since 1.17
+     */
+    private static final int SNAPSHOT_VERSION = 1;
+
+    /**
+     * Default minimum number of bytes parsed by a single thread.
+     * @since 1.17
+     */
+    private static final int MIN_CHUNK_LENGTH = 262144;
+
+    /**
+     * Name of the system property specifying the minimum number of bytes parsed by a single thread.
+     * @since 1.17
+     */
+    private static final String MIN_CHUNK_LENGTH_PROPERTY = BankleitzahlenDatei.class.getName() + ".minChunkLength";
+
+    /**
+     * Name of the system property specifying the maximum number of threads parsing a file.
+     * @since 1.17
+     */
+    private static final String PARALLELISM_PROPERTY = BankleitzahlenDatei.class.getName() + ".parallelism";
+
     /** Records held by the instance. */
     private Map records = new HashMap( 5000 );
     private Map deletedRecords = new HashMap( 5000 );
-    private Map headOffices = new HashMap( 5000 );
-    private Map branchOffices = new HashMap( 5000 );
-    private Map deletedHeadOffices = new HashMap( 5000 );
-    private Map deletedBranchOffices = new HashMap( 5000 );
     private BankleitzahlInfo[] cachedRecords;
     private BankleitzahlInfo[] cachedDeletedRecords;
 
+    /**
+     * Index of the head and branch offices of the records held by the instance.
+     * @since 1.17
+     */
+    private Index index;
+
+    /**
+     * Index of the head and branch offices of the records deleted during updating.
+     * @since 1.17
+     */
+    private Index deletedIndex;
+
     /** Encoding to use when reading bankfile resources. */
     private String encoding;
 
@@ -378,6 +429,23 @@ public final class BankleitzahlenDatei
         this.readBankfile( resource );
     }
 
+    /**
+     * Creates a new {@code BankleitzahlenDatei} instance holding no records.
+     *
+     * @param format The format of the file.
+     * @param dateOfValidity The date of validity of the file or {@code null}.
+     * @param dateOfExpiration The date of expiration of the file or {@code null}.
+     *
+     * @see #readSnapshot(java.io.File, java.lang.String)
+     */
+    private BankleitzahlenDatei( final int format, final Date dateOfValidity, final Date dateOfExpiration )
+    {
+        super();
+        this.format = format;
+        this.dateOfValidity = dateOfValidity;
+        this.dateOfExpiration = dateOfExpiration;
+    }
+
     /**
      * Gets the encoding used for reading bankfile resources.
      *
@@ -522,6 +590,7 @@ public final class BankleitzahlenDatei
      * found.
      *
      * @throws NullPointerException if {@code bankCode} is {@code null}.
+     * @throws IllegalStateException if the records hold more than one head office record for a bank code.
      *
      * @see #getRecords()
      * @see BankleitzahlInfo#isHeadOffice()
@@ -534,7 +603,7 @@ public final class BankleitzahlenDatei
             throw new NullPointerException( "bankCode" );
         }
 
-        return (BankleitzahlInfo) this.headOffices.get( bankCode );
+        return this.getIndex().getHeadOffice( bankCode.intValue() );
     }
 
     /**
@@ -546,6 +615,7 @@ public final class BankleitzahlenDatei
      * record is found.
      *
      * @throws NullPointerException if {@code bankCode} is {@code null}.
+     * @throws IllegalStateException if the deleted records hold more than one head office record for a bank code.
      *
      * @see #getDeletedRecords()
      * @see BankleitzahlInfo#isHeadOffice()
@@ -559,7 +629,7 @@ public final class BankleitzahlenDatei
             throw new NullPointerException( "bankCode" );
         }
 
-        return (BankleitzahlInfo) this.deletedHeadOffices.get( bankCode );
+        return this.getDeletedIndex().getHeadOffice( bankCode.intValue() );
     }
 
     /**
@@ -570,6 +640,7 @@ public final class BankleitzahlenDatei
      * @return The branch office records of the bank identified by {@code bankCode}.
      *
      * @throws NullPointerException if {@code bankCode} is {@code null}.
+     * @throws IllegalStateException if the records hold more than one head office record for a bank code.
      *
      * @see #getRecords()
      * @see BankleitzahlInfo#isHeadOffice()
@@ -582,11 +653,7 @@ public final class BankleitzahlenDatei
             throw new NullPointerException( "bankCode" );
         }
 
-        final List records = (List) this.branchOffices.get( bankCode );
-        return records != null
-               ? (BankleitzahlInfo[]) records.toArray( new BankleitzahlInfo[ records.size() ] )
-               : NO_RECORDS;
-
+        return this.getIndex().getBranchOffices( bankCode.intValue() );
     }
 
     /**
@@ -597,6 +664,7 @@ public final class BankleitzahlenDatei
      * @return The deleted branch office records of the bank identified by {@code bankCode}.
      *
      * @throws NullPointerException if {@code bankCode} is {@code null}.
+     * @throws IllegalStateException if the deleted records hold more than one head office record for a bank code.
      *
      * @see #getDeletedRecords()
      * @see BankleitzahlInfo#isHeadOffice()
@@ -609,11 +677,7 @@ public final class BankleitzahlenDatei
             throw new NullPointerException( "bankCode" );
         }
 
-        final List records = (List) this.deletedBranchOffices.get( bankCode );
-        return records != null
-               ? (BankleitzahlInfo[]) records.toArray( new BankleitzahlInfo[ records.size() ] )
-               : NO_RECORDS;
-
+        return this.getDeletedIndex().getBranchOffices( bankCode.intValue() );
     }
 
     /**
@@ -648,6 +712,7 @@ public final class BankleitzahlenDatei
         task.setMinimum( 0 );
         task.setMaximum( file.getRecords().length );
         task.setProgress( progress );
+        ProgressThrottle throttle = new ProgressThrottle( task );
 
         try
         {
@@ -655,7 +720,7 @@ public final class BankleitzahlenDatei
 
             for ( int i = file.getRecords().length - 1; i >= 0; i-- )
             {
-                task.setProgress( progress++ );
+                throttle.setProgress( progress++ );
                 final BankleitzahlInfo newVersion = file.getRecords()[i];
 
                 if ( 'A' == newVersion.getChangeLabel() )
@@ -740,6 +805,7 @@ public final class BankleitzahlenDatei
         task.setMinimum( 0 );
         task.setMaximum( this.records.size() );
         task.setProgress( progress );
+        throttle = new ProgressThrottle( task );
 
         try
         {
@@ -747,7 +813,7 @@ public final class BankleitzahlenDatei
 
             for ( final Iterator it = this.records.values().iterator(); it.hasNext(); )
             {
-                task.setProgress( progress++ );
+                throttle.setProgress( progress++ );
                 final BankleitzahlInfo oldVersion = (BankleitzahlInfo) it.next();
 
                 if ( 'D' == oldVersion.getChangeLabel() )
@@ -785,6 +851,158 @@ public final class BankleitzahlenDatei
         this.updateRecords();
     }
 
+    /**
+     * Writes a binary snapshot of the instance.
+     * <p>The snapshot holds the format, the dates of validity and expiration and all records including the records
+     * deleted during updating. Reading a snapshot using method {@link #readSnapshot(java.io.File, java.lang.String)}
+     * is considerably faster than parsing and updating the Bankleitzahlendateien the instance got created from.
+     * Snapshots are tagged with a string identifying their origin. Snapshots are not meant for archiving; a snapshot
+     * written by one version of this class may be rejected by another version.</p>
+     *
+     * @param out The stream to write the snapshot to.
+     * @param tag A string identifying the origin of the snapshot.
+     *
+     * @throws NullPointerException if either {@code out} or {@code tag} is {@code null}.
+     * @throws IOException if writing fails.
+     *
+     * @since 1.17
+     */
+    public void writeSnapshot( final OutputStream out, final String tag ) throws IOException
+    {
+        if ( out == null )
+        {
+            throw new NullPointerException( "out" );
+        }
+        if ( tag == null )
+        {
+            throw new NullPointerException( "tag" );
+        }
+
+        final DataOutputStream data = new DataOutputStream( new BufferedOutputStream( out ) );
+        data.writeInt( SNAPSHOT_MAGIC );
+        data.writeInt( SNAPSHOT_VERSION );
+        data.writeUTF( tag );
+        data.writeInt( this.getFormat() );
+        writeDate( data, this.dateOfValidity );
+        writeDate( data, this.dateOfExpiration );
+
+        final BankleitzahlInfo[] recs = this.getRecords();
+        data.writeInt( recs.length );
+        for ( int i = 0; i < recs.length; i++ )
+        {
+            writeRecord( data, recs[i] );
+        }
+
+        final BankleitzahlInfo[] deleted = this.getDeletedRecords();
+        data.writeInt( deleted.length );
+        for ( int i = 0; i < deleted.length; i++ )
+        {
+            writeRecord( data, deleted[i] );
+        }
+
+        data.flush();
+    }
+
+    /**
+     * Reads a binary snapshot written by method {@link #writeSnapshot(java.io.OutputStream, java.lang.String)}.
+     * <p>The file is read into memory and decoded in a single pass. The file is closed before decoding starts and is
+     * not kept open or mapped afterwards, so that it can be replaced as soon as this method returns.</p>
+     *
+     * @param file The file holding the snapshot.
+     * @param tag The string identifying the expected origin of the snapshot.
+     *
+     * @return A new {@code BankleitzahlenDatei} instance holding the data of the snapshot or {@code null}, if
+     * {@code file} does not hold a snapshot tagged {@code tag} in a format supported by this class.
+     *
+     * @throws NullPointerException if either {@code file} or {@code tag} is {@code null}.
+     * @throws IOException if reading fails or {@code file} holds a corrupted snapshot.
+     *
+     * @since 1.17
+     */
+    public static BankleitzahlenDatei readSnapshot( final File file, final String tag ) throws IOException
+    {
+        if ( file == null )
+        {
+            throw new NullPointerException( "file" );
+        }
+        if ( tag == null )
+        {
+            throw new NullPointerException( "tag" );
+        }
+
+        final ByteBuffer buffer;
+        final RandomAccessFile randomAccessFile = new RandomAccessFile( file, "r" );
+
+        try
+        {
+            // A mapping would keep the file locked on some platforms until garbage collected.
+            final long length = randomAccessFile.length();
+            if ( length > Integer.MAX_VALUE )
+            {
+                throw new IOException( file.getAbsolutePath() );
+            }
+
+            final byte[] bytes = new byte[ (int) length ];
+            randomAccessFile.readFully( bytes );
+            buffer = ByteBuffer.wrap( bytes );
+        }
+        finally
+        {
+            randomAccessFile.close();
+        }
+
+        final DataInputStream data = new DataInputStream( new ByteBufferInputStream( buffer ) );
+
+        if ( buffer.remaining() < 8 || data.readInt() != SNAPSHOT_MAGIC || data.readInt() != SNAPSHOT_VERSION
+             || !tag.equals( data.readUTF() ) )
+        {
+            return null;
+        }
+
+        final int format = data.readInt();
+        if ( format != JUNE_2006_FORMAT && format != JUNE_2013_FORMAT )
+        {
+            throw new IOException( file.getAbsolutePath() );
+        }
+
+        final BankleitzahlenDatei ret = new BankleitzahlenDatei( format, readDate( data ), readDate( data ) );
+
+        try
+        {
+            for ( int i = data.readInt(); i > 0; i-- )
+            {
+                final BankleitzahlInfo record = readRecord( data );
+                if ( ret.records.put( record.getSerialNumber(), record ) != null )
+                {
+                    throw new IOException( file.getAbsolutePath() );
+                }
+            }
+
+            for ( int i = data.readInt(); i > 0; i-- )
+            {
+                final BankleitzahlInfo record = readRecord( data );
+                if ( ret.deletedRecords.put( record.getSerialNumber(), record ) != null )
+                {
+                    throw new IOException( file.getAbsolutePath() );
+                }
+            }
+
+            if ( buffer.hasRemaining() )
+            {
+                throw new IOException( file.getAbsolutePath() );
+            }
+
+            ret.updateRecords();
+        }
+        catch ( final RuntimeException e )
+        {
+            // Values rejected by the records or inconsistent records of a corrupted snapshot.
+            throw (IOException) new IOException( file.getAbsolutePath() ).initCause( e );
+        }
+
+        return ret;
+    }
+
     /**
      * Checks configured properties.
      *
@@ -846,105 +1064,93 @@ public final class BankleitzahlenDatei
             this.getLogger().debug( this.getFileNameInfoMessage( this.getLocale(), resource.toExternalForm() ) );
         }
 
+        final char[] characters = getSingleByteCharacters( this.getEncoding() );
         LineNumberReader reader = null;
-        final NumberFormat plzFmt = new DecimalFormat( "00000" );
-        final NumberFormat serFmt = new DecimalFormat( "000000" );
-        final NumberFormat blzFmt = new DecimalFormat( "00000000" );
 
         try
         {
-            reader = new LineNumberReader( new InputStreamReader( resource.openStream(), this.getEncoding() ) );
-            boolean emptyLine = false;
-
-            for ( String line = reader.readLine(); line != null; line = reader.readLine() )
+            if ( characters != null )
             {
-                if ( line.trim().length() == 0 )
-                {
-                    emptyLine = true;
-                    continue;
-                }
+                this.parseBankfile( resource, characters );
+            }
+            else
+            {
+                final NumberFormat plzFmt = new DecimalFormat( "00000" );
+                final NumberFormat serFmt = new DecimalFormat( "000000" );
+                final NumberFormat blzFmt = new DecimalFormat( "00000000" );
+                reader = new LineNumberReader( new InputStreamReader( resource.openStream(), this.getEncoding() ) );
+                boolean emptyLine = false;
 
-                if ( emptyLine )
+                for ( String line = reader.readLine(); line != null; line = reader.readLine() )
                 {
-                    throw new IllegalArgumentException( this.getUnexpectedDataMessage(
-                        this.getLocale(), new Integer( reader.getLineNumber() ), resource.toExternalForm() ) );
-
-                }
-
-                final BankleitzahlInfo r = new BankleitzahlInfo();
+                    if ( line.trim().length() == 0 )
+                    {
+                        emptyLine = true;
+                        continue;
+                    }
 
-                // Field 1
-                r.setBankCode( Bankleitzahl.parse( field( line, FIELD_TO_OFFSET[0], FIELD_TO_ENDOFFSET[0] ) ) );
-                // Field 2
-                r.setHeadOffice( "1".equals( field( line, FIELD_TO_OFFSET[1], FIELD_TO_ENDOFFSET[1] ) ) );
-                // Field 3
-                r.setName( field( line, FIELD_TO_OFFSET[2], FIELD_TO_ENDOFFSET[2] ) );
-                // Field 4
-                r.setPostalCode( plzFmt.parse( field( line, FIELD_TO_OFFSET[3], FIELD_TO_ENDOFFSET[3] ) ).intValue() );
-                // Field 5
-                r.setCity( field( line, FIELD_TO_OFFSET[4], FIELD_TO_ENDOFFSET[4] ) );
-                // Field 6
-                r.setDescription( field( line, FIELD_TO_OFFSET[5], FIELD_TO_ENDOFFSET[5] ) );
-                // Field 7
-                String field = field( line, FIELD_TO_OFFSET[6], FIELD_TO_ENDOFFSET[6] );
-                r.setPanInstituteNumber( field.length() > 0 ? plzFmt.parse( field ).intValue() : 0 );
-                // Field 8
-                r.setBic( field( line, FIELD_TO_OFFSET[7], FIELD_TO_ENDOFFSET[7] ) );
-                // Field 9
-                r.setValidationLabel( field( line, FIELD_TO_OFFSET[8], FIELD_TO_ENDOFFSET[8] ) );
-                // Field 10
-                field = field( line, FIELD_TO_OFFSET[9], FIELD_TO_ENDOFFSET[9] );
-                r.setSerialNumber( new Integer( serFmt.parse( field ).intValue() ) );
-                // Field 11
-                r.setChangeLabel( field( line, FIELD_TO_OFFSET[10], FIELD_TO_ENDOFFSET[10] ).toCharArray()[0] );
-                // Field 12
-                r.setMarkedForDeletion( "1".equals( field( line, FIELD_TO_OFFSET[11], FIELD_TO_ENDOFFSET[11] ) ) );
-                // Field 13
-                Number blz = blzFmt.parse( field( line, FIELD_TO_OFFSET[12], FIELD_TO_ENDOFFSET[12] ) );
-                if ( blz.intValue() != 0 )
-                {
-                    r.setReplacingBankCode( Bankleitzahl.valueOf( blz ) );
-                }
-                else
-                {
-                    r.setReplacingBankCode( null );
-                }
+                    if ( emptyLine )
+                    {
+                        throw new IllegalArgumentException( this.getUnexpectedDataMessage(
+                            this.getLocale(), new Integer( reader.getLineNumber() ), resource.toExternalForm() ) );
 
-                if ( this.getFormat() >= JUNE_2013_FORMAT )
-                {
-                    // Field 14
-                    r.setIbanRuleLabel( Integer.valueOf( field( line, FIELD_TO_OFFSET[13],
-                                                                FIELD_TO_ENDOFFSET[13] ) ) );
+                    }
 
-                    r.setIbanRuleVersion( Integer.valueOf( field( line, FIELD_TO_OFFSET[14],
-                                                                  FIELD_TO_ENDOFFSET[14] ) ) );
+                    final BankleitzahlInfo r = new BankleitzahlInfo();
+
+                    // Field 1
+                    r.setBankCode( Bankleitzahl.parse( field( line, FIELD_TO_OFFSET[0], FIELD_TO_ENDOFFSET[0] ) ) );
+                    // Field 2
+                    r.setHeadOffice( "1".equals( field( line, FIELD_TO_OFFSET[1], FIELD_TO_ENDOFFSET[1] ) ) );
+                    // Field 3
+                    r.setName( field( line, FIELD_TO_OFFSET[2], FIELD_TO_ENDOFFSET[2] ) );
+                    // Field 4
+                    r.setPostalCode( plzFmt.parse( field( line, FIELD_TO_OFFSET[3],
+                                                          FIELD_TO_ENDOFFSET[3] ) ).intValue() );
+
+                    // Field 5
+                    r.setCity( field( line, FIELD_TO_OFFSET[4], FIELD_TO_ENDOFFSET[4] ) );
+                    // Field 6
+                    r.setDescription( field( line, FIELD_TO_OFFSET[5], FIELD_TO_ENDOFFSET[5] ) );
+                    // Field 7
+                    String field = field( line, FIELD_TO_OFFSET[6], FIELD_TO_ENDOFFSET[6] );
+                    r.setPanInstituteNumber( field.length() > 0 ? plzFmt.parse( field ).intValue() : 0 );
+                    // Field 8
+                    r.setBic( field( line, FIELD_TO_OFFSET[7], FIELD_TO_ENDOFFSET[7] ) );
+                    // Field 9
+                    r.setValidationLabel( field( line, FIELD_TO_OFFSET[8], FIELD_TO_ENDOFFSET[8] ) );
+                    // Field 10
+                    field = field( line, FIELD_TO_OFFSET[9], FIELD_TO_ENDOFFSET[9] );
+                    r.setSerialNumber( new Integer( serFmt.parse( field ).intValue() ) );
+                    // Field 11
+                    r.setChangeLabel( field( line, FIELD_TO_OFFSET[10], FIELD_TO_ENDOFFSET[10] ).toCharArray()[0] );
+                    // Field 12
+                    r.setMarkedForDeletion( "1".equals( field( line, FIELD_TO_OFFSET[11],
+                                                               FIELD_TO_ENDOFFSET[11] ) ) );
+
+                    // Field 13
+                    Number blz = blzFmt.parse( field( line, FIELD_TO_OFFSET[12], FIELD_TO_ENDOFFSET[12] ) );
+                    if ( blz.intValue() != 0 )
+                    {
+                        r.setReplacingBankCode( Bankleitzahl.valueOf( blz ) );
+                    }
+                    else
+                    {
+                        r.setReplacingBankCode( null );
+                    }
 
-                }
+                    if ( this.getFormat() >= JUNE_2013_FORMAT )
+                    {
+                        // Field 14
+                        r.setIbanRuleLabel( Integer.valueOf( field( line, FIELD_TO_OFFSET[13],
+                                                                    FIELD_TO_ENDOFFSET[13] ) ) );
 
-                switch ( r.getChangeLabel() )
-                {
-                    case 'A':
-                        r.setCreationDate( this.getDateOfValidity() );
-                        break;
-                    case 'M':
-                        r.setModificationDate( this.getDateOfValidity() );
-                        break;
-                    case 'D':
-                        r.setDeletionDate( this.getDateOfExpiration() );
-                        break;
-                    case 'U':
-                        // ignored
-                        break;
-                    default:
-                        throw new AssertionError( r.getChangeLabel() );
-                }
+                        r.setIbanRuleVersion( Integer.valueOf( field( line, FIELD_TO_OFFSET[14],
+                                                                      FIELD_TO_ENDOFFSET[14] ) ) );
 
-                if ( this.records.put( r.getSerialNumber(), r ) != null )
-                {
-                    this.resetRecords();
-                    throw new IllegalArgumentException( this.getCannotAddDuplicateRecordMessage(
-                        this.getLocale(), r.getSerialNumber() ) );
+                    }
 
+                    this.addRecord( r );
                 }
             }
         }
@@ -967,6 +1173,8 @@ public final class BankleitzahlenDatei
         {
             this.cachedRecords = null;
             this.cachedDeletedRecords = null;
+            this.index = null;
+            this.deletedIndex = null;
 
             if ( reader != null )
             {
@@ -975,98 +1183,1116 @@ public final class BankleitzahlenDatei
         }
     }
 
-    private void resetRecords()
+    /**
+     * Parses a Bankleitzahlendatei encoded using a single-byte encoding.
+     * <p>The file is read into memory and split at line boundaries into chunks parsed concurrently, one per
+     * available processor. Fields are taken from the fixed positions of the record layout without creating strings
+     * for the lines. Numbers are parsed from the bytes of their fields and the strings of fields repeated across
+     * records are shared. The records of the chunks are added to the instance in the order of the file so that
+     * duplicate records and data following empty lines are reported as if the file got parsed line by line.</p>
+     * <p>The number of threads defaults to the number of available processors and may be limited by system property
+     * {@code org.jdtaus.banking.util.BankleitzahlenDatei.parallelism}. The minimum number of bytes of a chunk
+     * defaults to 256k and may be specified by system property
+     * {@code org.jdtaus.banking.util.BankleitzahlenDatei.minChunkLength}.</p>
+     *
+     * @param resource An URL to a Bankleitzahlendatei.
+     * @param characters The characters of the encoding of {@code resource} by byte value.
+     *
+     * @throws IllegalArgumentException if {@code resource} does not provide a valid Bankleitzahlendatei.
+     * @throws IndexOutOfBoundsException if a record of {@code resource} is too short.
+     * @throws ParseException if a field of {@code resource} cannot be parsed.
+     * @throws IOException if reading fails.
+     */
+    private void parseBankfile( final URL resource, final char[] characters ) throws IOException, ParseException
     {
-        this.records.clear();
-        this.deletedRecords.clear();
-        this.updateRecords();
-    }
+        final byte[] buf = readFully( resource );
+        final int recordLength = FIELD_TO_ENDOFFSET[this.getFormat() >= JUNE_2013_FORMAT ? 14 : 12];
+        final int threads = Integer.getInteger(
+            PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors() ).intValue();
 
-    private void updateRecords()
-    {
-        this.headOffices.clear();
-        this.deletedHeadOffices.clear();
-        this.branchOffices.clear();
-        this.deletedBranchOffices.clear();
-        this.cachedRecords = null;
-        this.cachedDeletedRecords = null;
+        final int minChunkLength = Math.max( 1, Integer.getInteger(
+            MIN_CHUNK_LENGTH_PROPERTY, MIN_CHUNK_LENGTH ).intValue() );
 
-        for ( int i = 0, l0 = this.getRecords().length; i < l0; i++ )
+        final int parallelism = Math.max( 1, Math.min( threads, buf.length / minChunkLength ) );
+
+        final Chunk[] chunks = new Chunk[ parallelism ];
+        int start = 0;
+        for ( int i = 0; i < chunks.length; i++ )
         {
-            final BankleitzahlInfo record = this.getRecords()[i];
+            int end = i == chunks.length - 1 ? buf.length : (int) ( (long) buf.length * ( i + 1 ) / chunks.length );
 
-            if ( record.isHeadOffice() )
+            if ( end < start )
             {
-                if ( this.headOffices.put( record.getBankCode(), record ) != null )
-                {
-                    this.resetRecords();
-                    throw new IllegalStateException( this.getCannotAddDuplicateHeadOfficeRecordMessage(
-                        this.getLocale(), record.getBankCode() ) );
-
-                }
+                end = start;
             }
-            else
+
+            while ( end > 0 && end < buf.length && buf[end - 1] != '\n' )
             {
-                List list = (List) this.branchOffices.get( record.getBankCode() );
+                end++;
+            }
 
-                if ( list == null )
-                {
-                    list = new ArrayList();
-                    this.branchOffices.put( record.getBankCode(), list );
-                }
+            chunks[i] = new Chunk( buf, start, end, recordLength, characters );
+            start = end;
+        }
 
-                list.add( record );
+        final Thread[] workers = new Thread[ chunks.length - 1 ];
+        for ( int i = 0; i < workers.length; i++ )
+        {
+            workers[i] = new Thread( chunks[i], this.getClass().getName() );
+            workers[i].setDaemon( true );
+            workers[i].start();
+        }
+
+        chunks[chunks.length - 1].run();
+
+        try
+        {
+            for ( int i = 0; i < workers.length; i++ )
+            {
+                workers[i].join();
             }
         }
+        catch ( final InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw (IOException) new InterruptedIOException( resource.toExternalForm() ).initCause( e );
+        }
 
-        for ( int i = 0, l0 = this.getDeletedRecords().length; i < l0; i++ )
+        int lineNumber = 0;
+        boolean emptyLine = false;
+        for ( int i = 0; i < chunks.length; i++ )
         {
-            final BankleitzahlInfo record = this.getDeletedRecords()[i];
+            final Chunk chunk = chunks[i];
 
-            if ( record.isHeadOffice() )
+            if ( emptyLine && chunk.firstData >= 0 )
             {
-                if ( this.deletedHeadOffices.put( record.getBankCode(), record ) != null )
-                {
-                    this.resetRecords();
-                    throw new IllegalStateException( this.getCannotAddDuplicateHeadOfficeRecordMessage(
-                        this.getLocale(), record.getBankCode() ) );
+                throw new IllegalArgumentException( this.getUnexpectedDataMessage(
+                    this.getLocale(), new Integer( lineNumber + chunk.firstData + 1 ), resource.toExternalForm() ) );
 
-                }
             }
-            else
+            if ( chunk.dataAfterEmpty >= 0 )
             {
-                List list = (List) this.deletedBranchOffices.get( record.getBankCode() );
+                throw new IllegalArgumentException( this.getUnexpectedDataMessage(
+                    this.getLocale(), new Integer( lineNumber + chunk.dataAfterEmpty + 1 ),
+                    resource.toExternalForm() ) );
 
-                if ( list == null )
-                {
-                    list = new ArrayList();
-                    this.deletedBranchOffices.put( record.getBankCode(), list );
-                }
+            }
+            if ( chunk.failure instanceof ParseException )
+            {
+                throw (ParseException) chunk.failure;
+            }
+            if ( chunk.failure instanceof IndexOutOfBoundsException )
+            {
+                // The chunk stopped at the failing line so that its line count is the number of that line.
+                throw (IndexOutOfBoundsException) new IndexOutOfBoundsException(
+                    Integer.toString( lineNumber + chunk.lineCount ) ).initCause( chunk.failure );
+
+            }
+            if ( chunk.failure instanceof RuntimeException )
+            {
+                throw (RuntimeException) chunk.failure;
+            }
+            if ( chunk.failure instanceof Error )
+            {
+                throw (Error) chunk.failure;
+            }
 
-                list.add( record );
+            for ( int j = 0, s0 = chunk.records.size(); j < s0; j++ )
+            {
+                this.addRecord( (BankleitzahlInfo) chunk.records.get( j ) );
             }
+
+            emptyLine |= chunk.firstEmpty >= 0;
+            lineNumber += chunk.lineCount;
         }
     }
 
-    private static String field( final String line, final int startOffset, final int endOffset )
+    /**
+     * Reads all bytes of a resource.
+     *
+     * @param resource The resource to read.
+     *
+     * @return The bytes of {@code resource}.
+     *
+     * @throws IOException if reading fails.
+     */
+    private static byte[] readFully( final URL resource ) throws IOException
     {
-        return line.substring( startOffset, endOffset ).trim();
+        final InputStream in = resource.openStream();
+
+        try
+        {
+            byte[] buf = new byte[ 1048576 ];
+            int length = 0;
+
+            for ( int read = in.read( buf, 0, buf.length ); read >= 0;
+                  read = in.read( buf, length, buf.length - length ) )
+            {
+                length += read;
+
+                if ( length == buf.length )
+                {
+                    final byte[] grown = new byte[ buf.length * 2 ];
+                    System.arraycopy( buf, 0, grown, 0, length );
+                    buf = grown;
+                }
+            }
+
+            final byte[] ret = new byte[ length ];
+            System.arraycopy( buf, 0, ret, 0, length );
+            return ret;
+        }
+        finally
+        {
+            in.close();
+        }
     }
 
-    private static String toFormatName( final long format )
+    /**
+     * Adds a record read from a Bankleitzahlendatei to the records of the instance.
+     *
+     * @param r The record to add.
+     *
+     * @throws IllegalArgumentException if the instance already holds a record with the serial number of {@code r}.
+     */
+    private void addRecord( final BankleitzahlInfo r )
     {
-        String name = "";
+        switch ( r.getChangeLabel() )
+        {
+            case 'A':
+                r.setCreationDate( this.getDateOfValidity() );
+                break;
+            case 'M':
+                r.setModificationDate( this.getDateOfValidity() );
+                break;
+            case 'D':
+                r.setDeletionDate( this.getDateOfExpiration() );
+                break;
+            case 'U':
+                // ignored
+                break;
+            default:
+                throw new AssertionError( r.getChangeLabel() );
+        }
 
-        if ( format == JUNE_2006_FORMAT )
+        if ( this.records.put( r.getSerialNumber(), r ) != null )
         {
-            name = "JUNE2006";
+            this.resetRecords();
+            throw new IllegalArgumentException( this.getCannotAddDuplicateRecordMessage(
+                this.getLocale(), r.getSerialNumber() ) );
+
         }
-        else if ( format == JUNE_2013_FORMAT )
+    }
+
+    private void resetRecords()
+    {
+        this.records.clear();
+        this.deletedRecords.clear();
+        this.updateRecords();
+    }
+
+    private void updateRecords()
+    {
+        this.cachedRecords = null;
+        this.cachedDeletedRecords = null;
+        this.index = null;
+        this.deletedIndex = null;
+
+        final Index updatedIndex = new Index( this.getRecords() );
+        if ( updatedIndex.duplicateHeadOffice != null )
         {
-            name = "JUNE2013";
+            this.resetRecords();
+            throw new IllegalStateException( this.getCannotAddDuplicateHeadOfficeRecordMessage(
+                this.getLocale(), updatedIndex.duplicateHeadOffice.getBankCode() ) );
+
+        }
+
+        final Index updatedDeletedIndex = new Index( this.getDeletedRecords() );
+        if ( updatedDeletedIndex.duplicateHeadOffice != null )
+        {
+            this.resetRecords();
+            throw new IllegalStateException( this.getCannotAddDuplicateHeadOfficeRecordMessage(
+                this.getLocale(), updatedDeletedIndex.duplicateHeadOffice.getBankCode() ) );
+
+        }
+
+        this.index = updatedIndex;
+        this.deletedIndex = updatedDeletedIndex;
+    }
+
+    /**
+     * Gets the index of the records held by the instance.
+     *
+     * @return The index of the records held by the instance.
+     */
+    private Index getIndex()
+    {
+        Index current = this.index;
+
+        if ( current == null )
+        {
+            current = this.createIndex( this.getRecords() );
+            this.index = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Gets the index of the records deleted during updating.
+     *
+     * @return The index of the records deleted during updating.
+     */
+    private Index getDeletedIndex()
+    {
+        Index current = this.deletedIndex;
+
+        if ( current == null )
+        {
+            current = this.createIndex( this.getDeletedRecords() );
+            this.deletedIndex = current;
+        }
+
+        return current;
+    }
+
+    /**
+     * Creates an index of records not indexed during updating.
+     *
+     * @param records The records to index.
+     *
+     * @return An index of {@code records}.
+     *
+     * @throws IllegalStateException if {@code records} hold more than one head office record for a bank code.
+     */
+    private Index createIndex( final BankleitzahlInfo[] records )
+    {
+        final Index created = new Index( records );
+
+        if ( created.duplicateHeadOffice != null )
+        {
+            throw new IllegalStateException( this.getCannotAddDuplicateHeadOfficeRecordMessage(
+                this.getLocale(), created.duplicateHeadOffice.getBankCode() ) );
+
+        }
+
+        return created;
+    }
+
+    private static void writeRecord( final DataOutputStream out, final BankleitzahlInfo record ) throws IOException
+    {
+        out.writeInt( record.getBankCode().intValue() );
+        out.writeBoolean( record.isHeadOffice() );
+        writeString( out, record.getName() );
+        out.writeInt( record.getPostalCode() );
+        writeString( out, record.getCity() );
+        writeString( out, record.getDescription() );
+        out.writeInt( record.getPanInstituteNumber() );
+        writeString( out, record.getBic() );
+        writeString( out, record.getValidationLabel() );
+        out.writeInt( record.getSerialNumber().intValue() );
+        out.writeChar( record.getChangeLabel() );
+        out.writeBoolean( record.isMarkedForDeletion() );
+        out.writeInt( record.getReplacingBankCode() != null ? record.getReplacingBankCode().intValue() : 0 );
+        writeInteger( out, record.getIbanRuleLabel() );
+        writeInteger( out, record.getIbanRuleVersion() );
+        writeDate( out, record.getCreationDate() );
+        writeDate( out, record.getModificationDate() );
+        writeDate( out, record.getDeletionDate() );
+    }
+
+    private static BankleitzahlInfo readRecord( final DataInputStream in ) throws IOException
+    {
+        final BankleitzahlInfo record = new BankleitzahlInfo();
+        record.setBankCode( Bankleitzahl.valueOf( new Integer( in.readInt() ) ) );
+        record.setHeadOffice( in.readBoolean() );
+        record.setName( readString( in ) );
+        record.setPostalCode( in.readInt() );
+        record.setCity( readString( in ) );
+        record.setDescription( readString( in ) );
+        record.setPanInstituteNumber( in.readInt() );
+        record.setBic( readString( in ) );
+        record.setValidationLabel( readString( in ) );
+        record.setSerialNumber( new Integer( in.readInt() ) );
+        record.setChangeLabel( in.readChar() );
+        record.setMarkedForDeletion( in.readBoolean() );
+
+        final int replacingBankCode = in.readInt();
+        record.setReplacingBankCode( replacingBankCode != 0
+                                     ? Bankleitzahl.valueOf( new Integer( replacingBankCode ) )
+                                     : null );
+
+        record.setIbanRuleLabel( readInteger( in ) );
+        record.setIbanRuleVersion( readInteger( in ) );
+        record.setCreationDate( readDate( in ) );
+        record.setModificationDate( readDate( in ) );
+        record.setDeletionDate( readDate( in ) );
+        return record;
+    }
+
+    private static void writeString( final DataOutputStream out, final String value ) throws IOException
+    {
+        out.writeBoolean( value != null );
+        if ( value != null )
+        {
+            out.writeUTF( value );
+        }
+    }
+
+    private static String readString( final DataInputStream in ) throws IOException
+    {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeInteger( final DataOutputStream out, final Integer value ) throws IOException
+    {
+        out.writeBoolean( value != null );
+        if ( value != null )
+        {
+            out.writeInt( value.intValue() );
+        }
+    }
+
+    private static Integer readInteger( final DataInputStream in ) throws IOException
+    {
+        return in.readBoolean() ? new Integer( in.readInt() ) : null;
+    }
+
+    private static void writeDate( final DataOutputStream out, final Date value ) throws IOException
+    {
+        out.writeBoolean( value != null );
+        if ( value != null )
+        {
+            out.writeLong( value.getTime() );
+        }
+    }
+
+    private static Date readDate( final DataInputStream in ) throws IOException
+    {
+        return in.readBoolean() ? new Date( in.readLong() ) : null;
+    }
+
+    /**
+     * Gets the characters of a single-byte encoding by byte value.
+     *
+     * @param encoding The name of the encoding.
+     *
+     * @return The characters of {@code encoding} indexed by byte value or {@code null}, if {@code encoding} is not a
+     * single-byte encoding or does not encode carriage return and line feed like ASCII.
+     */
+    private static char[] getSingleByteCharacters( final String encoding )
+    {
+        char[] characters = null;
+
+        try
+        {
+            final Charset charset = Charset.forName( encoding );
+
+            if ( charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1.0F )
+            {
+                final byte[] bytes = new byte[ 256 ];
+                for ( int i = bytes.length - 1; i >= 0; i-- )
+                {
+                    bytes[i] = (byte) i;
+                }
+
+                final String decoded = new String( bytes, encoding );
+                // Lines are split at the ASCII bytes of carriage return and line feed.
+                if ( decoded.length() == bytes.length && decoded.charAt( '\n' ) == '\n'
+                         && decoded.charAt( '\r' ) == '\r' )
+                {
+                    characters = decoded.toCharArray();
+                }
+            }
+        }
+        catch ( final IllegalArgumentException e )
+        {
+            characters = null;
+        }
+        catch ( final UnsupportedEncodingException e )
+        {
+            characters = null;
+        }
+
+        return characters;
+    }
+
+    private static int trimStart( final byte[] buf, final int start, final int end, final char[] characters )
+    {
+        int i = start;
+        while ( i < end && characters[buf[i] & 0xFF] <= ' ' )
+        {
+            i++;
+        }
+
+        return i;
+    }
+
+    private static int trimEnd( final byte[] buf, final int start, final int end, final char[] characters )
+    {
+        int i = end;
+        while ( i > start && characters[buf[i - 1] & 0xFF] <= ' ' )
+        {
+            i--;
+        }
+
+        return i;
+    }
+
+    private static String text( final byte[] buf, final int start, final int end, final char[] characters )
+    {
+        final char[] chars = new char[ end - start ];
+        for ( int i = chars.length - 1; i >= 0; i-- )
+        {
+            chars[i] = characters[buf[start + i] & 0xFF];
+        }
+
+        return new String( chars );
+    }
+
+    private static boolean isOne( final byte[] buf, final int line, final int field, final char[] characters )
+    {
+        final int start = trimStart( buf, line + FIELD_TO_OFFSET[field], line + FIELD_TO_ENDOFFSET[field],
+                                     characters );
+
+        final int end = trimEnd( buf, start, line + FIELD_TO_ENDOFFSET[field], characters );
+        return end - start == 1 && characters[buf[start] & 0xFF] == '1';
+    }
+
+    /**
+     * Parses the leading digits of a field.
+     *
+     * @param buf The bytes of the file.
+     * @param line The offset of the line in {@code buf}.
+     * @param field The index of the field to parse.
+     * @param characters The characters of the encoding by byte value.
+     * @param emptyIsZero {@code true}, to parse an empty field as zero; {@code false}, to reject an empty field.
+     *
+     * @return The value of the leading digits of the field.
+     *
+     * @throws ParseException if the field does not start with a digit.
+     */
+    private static int parseNumber( final byte[] buf, final int line, final int field, final char[] characters,
+                                    final boolean emptyIsZero ) throws ParseException
+    {
+        final int end = line + FIELD_TO_ENDOFFSET[field];
+        final int start = trimStart( buf, line + FIELD_TO_OFFSET[field], end, characters );
+        int value = 0;
+        int i = start;
+
+        for ( ; i < end; i++ )
+        {
+            final char c = characters[buf[i] & 0xFF];
+            if ( c < '0' || c > '9' )
+            {
+                break;
+            }
+
+            value = value * 10 + ( c - '0' );
+        }
+
+        if ( i == start && !( emptyIsZero && trimEnd( buf, start, end, characters ) == start ) )
+        {
+            throw new ParseException( text( buf, line + FIELD_TO_OFFSET[field], end, characters ), 0 );
+        }
+
+        return value;
+    }
+
+    /**
+     * Parses a field holding digits only.
+     *
+     * @param buf The bytes of the file.
+     * @param line The offset of the line in {@code buf}.
+     * @param field The index of the field to parse.
+     * @param characters The characters of the encoding by byte value.
+     *
+     * @return The value of the field.
+     *
+     * @throws NumberFormatException if the field is empty or holds characters other than digits.
+     */
+    private static int parseInteger( final byte[] buf, final int line, final int field, final char[] characters )
+    {
+        final int start = trimStart( buf, line + FIELD_TO_OFFSET[field], line + FIELD_TO_ENDOFFSET[field],
+                                     characters );
+
+        final int end = trimEnd( buf, start, line + FIELD_TO_ENDOFFSET[field], characters );
+        int value = 0;
+
+        for ( int i = start; i < end; i++ )
+        {
+            final char c = characters[buf[i] & 0xFF];
+            if ( c < '0' || c > '9' )
+            {
+                throw new NumberFormatException( text( buf, start, end, characters ) );
+            }
+
+            value = value * 10 + ( c - '0' );
+        }
+
+        if ( start == end )
+        {
+            throw new NumberFormatException( "" );
+        }
+
+        return value;
+    }
+
+    /**
+     * Parses the bank code field of a line.
+     *
+     * @param buf The bytes of the file.
+     * @param line The offset of the line in {@code buf}.
+     * @param characters The characters of the encoding by byte value.
+     *
+     * @return The bank code of the line.
+     *
+     * @throws ParseException if the field does not hold a valid bank code.
+     */
+    private static int parseBankCode( final byte[] buf, final int line, final char[] characters )
+        throws ParseException
+    {
+        final int start = trimStart( buf, line + FIELD_TO_OFFSET[0], line + FIELD_TO_ENDOFFSET[0], characters );
+        final int end = trimEnd( buf, start, line + FIELD_TO_ENDOFFSET[0], characters );
+        int value = 0;
+
+        for ( int i = start; i < end; i++ )
+        {
+            final char c = characters[buf[i] & 0xFF];
+            if ( c < '0' || c > '9' )
+            {
+                throw new ParseException( text( buf, start, end, characters ), i - start );
+            }
+
+            value = value * 10 + ( c - '0' );
+        }
+
+        if ( start == end || !Bankleitzahl.checkBankleitzahl( new Integer( value ) ) )
+        {
+            throw new ParseException( text( buf, start, end, characters ), 0 );
+        }
+
+        return value;
+    }
+
+    private static String field( final String line, final int startOffset, final int endOffset )
+    {
+        return line.substring( startOffset, endOffset ).trim();
+    }
+
+    private static String toFormatName( final long format )
+    {
+        String name = "";
+
+        if ( format == JUNE_2006_FORMAT )
+        {
+            name = "JUNE2006";
+        }
+        else if ( format == JUNE_2013_FORMAT )
+        {
+            name = "JUNE2013";
+        }
+
+        return name;
+    }
+
+    /**
+     * Read-optimized index of the head and branch offices of a set of records.
+     * <p>The index holds the distinct bank codes of the records in a sorted {@code int} array searched by binary
+     * search. For each bank code, the index holds the head office record at the same position and the range of
+     * branch office records in an array of all branch office records ordered by bank code. Lookups of head offices
+     * allocate no objects. An index is never modified after construction.</p>
+     */
+    private static final class Index
+    {
+
+        /** Orders records by bank code and serial number. */
+        private static final Comparator BANK_CODE_COMPARATOR = new Comparator()
+        {
+
+            public int compare( final Object o1, final Object o2 )
+            {
+                final BankleitzahlInfo r1 = (BankleitzahlInfo) o1;
+                final BankleitzahlInfo r2 = (BankleitzahlInfo) o2;
+                final int c1 = r1.getBankCode().intValue();
+                final int c2 = r2.getBankCode().intValue();
+                int ret = c1 < c2 ? -1 : c1 > c2 ? 1 : 0;
+
+                if ( ret == 0 )
+                {
+                    ret = r1.getSerialNumber().compareTo( r2.getSerialNumber() );
+                }
+
+                return ret;
+            }
+
+        };
+
+        /** Distinct bank codes of the records in ascending order. */
+        private final int[] bankCodes;
+
+        /** Head office records by index of bank code; {@code null} for bank codes without head office record. */
+        private final BankleitzahlInfo[] headOffices;
+
+        /** Branch office records ordered by bank code. */
+        private final BankleitzahlInfo[] branchOffices;
+
+        /**
+         * Offsets of the branch office records by index of bank code. The branch office records of the bank code at
+         * index {@code i} start at {@code branchOfficeOffsets[i]} and end at {@code branchOfficeOffsets[i + 1]}
+         * exclusive.
+         */
+        private final int[] branchOfficeOffsets;
+
+        /** A head office record sharing its bank code with another head office record or {@code null}. */
+        final BankleitzahlInfo duplicateHeadOffice;
+
+        /**
+         * Creates a new {@code Index} instance taking the records to index.
+         *
+         * @param records The records to index.
+         */
+        Index( final BankleitzahlInfo[] records )
+        {
+            super();
+
+            final BankleitzahlInfo[] sorted = (BankleitzahlInfo[]) records.clone();
+            Arrays.sort( sorted, BANK_CODE_COMPARATOR );
+
+            int codeCount = 0;
+            int branchCount = 0;
+            for ( int i = 0; i < sorted.length; i++ )
+            {
+                if ( i == 0 || sorted[i].getBankCode().intValue() != sorted[i - 1].getBankCode().intValue() )
+                {
+                    codeCount++;
+                }
+                if ( !sorted[i].isHeadOffice() )
+                {
+                    branchCount++;
+                }
+            }
+
+            this.bankCodes = new int[ codeCount ];
+            this.headOffices = new BankleitzahlInfo[ codeCount ];
+            this.branchOffices = new BankleitzahlInfo[ branchCount ];
+            this.branchOfficeOffsets = new int[ codeCount + 1 ];
+
+            BankleitzahlInfo duplicate = null;
+            int code = -1;
+            int branch = 0;
+            for ( int i = 0; i < sorted.length; i++ )
+            {
+                final BankleitzahlInfo record = sorted[i];
+
+                if ( code < 0 || record.getBankCode().intValue() != this.bankCodes[code] )
+                {
+                    code++;
+                    this.bankCodes[code] = record.getBankCode().intValue();
+                    this.branchOfficeOffsets[code] = branch;
+                }
+
+                if ( record.isHeadOffice() )
+                {
+                    if ( this.headOffices[code] == null )
+                    {
+                        this.headOffices[code] = record;
+                    }
+                    else if ( duplicate == null )
+                    {
+                        duplicate = record;
+                    }
+                }
+                else
+                {
+                    this.branchOffices[branch++] = record;
+                }
+            }
+
+            this.branchOfficeOffsets[codeCount] = branch;
+            this.duplicateHeadOffice = duplicate;
+        }
+
+        /**
+         * Gets the head office record of a bank code.
+         *
+         * @param bankCode The bank code of the head office record to return.
+         *
+         * @return The head office record of {@code bankCode} or {@code null}, if no such record is indexed.
+         */
+        BankleitzahlInfo getHeadOffice( final int bankCode )
+        {
+            final int i = Arrays.binarySearch( this.bankCodes, bankCode );
+            return i >= 0 ? this.headOffices[i] : null;
+        }
+
+        /**
+         * Gets the branch office records of a bank code.
+         *
+         * @param bankCode The bank code of the branch office records to return.
+         *
+         * @return The branch office records of {@code bankCode}.
+         */
+        BankleitzahlInfo[] getBranchOffices( final int bankCode )
+        {
+            final int i = Arrays.binarySearch( this.bankCodes, bankCode );
+            final int length = i >= 0 ? this.branchOfficeOffsets[i + 1] - this.branchOfficeOffsets[i] : 0;
+
+            if ( length == 0 )
+            {
+                return NO_RECORDS;
+            }
+
+            final BankleitzahlInfo[] ret = new BankleitzahlInfo[ length ];
+            System.arraycopy( this.branchOffices, this.branchOfficeOffsets[i], ret, 0, length );
+            return ret;
+        }
+
+    }
+
+    /**
+     * Lines of a Bankleitzahlendatei parsed by a single thread.
+     * <p>A chunk stops parsing at the first line which cannot be parsed or which holds data following an empty line.
+     * Line numbers are relative to the start of the chunk and start at zero. They are made absolute when the results
+     * of the chunks are combined.</p>
+     */
+    private static final class Chunk implements Runnable
+    {
+
+        /** The bytes of the file. */
+        private final byte[] buf;
+
+        /** The offset of the first byte of the chunk. */
+        private final int start;
+
+        /** The offset of the byte following the last byte of the chunk. */
+        private final int end;
+
+        /** The minimum length of a record. */
+        private final int recordLength;
+
+        /** The characters of the encoding by byte value. */
+        private final char[] characters;
+
+        /** The records parsed from the chunk in the order of the file. */
+        final List records = new ArrayList( 8192 );
+
+        /** The number of lines of the chunk. */
+        int lineCount;
+
+        /** The number of the first empty line of the chunk or {@code -1}. */
+        int firstEmpty = -1;
+
+        /** The number of the first line holding data or {@code -1}. */
+        int firstData = -1;
+
+        /** The number of the first line holding data following an empty line or {@code -1}. */
+        int dataAfterEmpty = -1;
+
+        /** The exception thrown parsing the chunk or {@code null}. */
+        Throwable failure;
+
+        /**
+         * Creates a new {@code Chunk} instance.
+         *
+         * @param buf The bytes of the file.
+         * @param start The offset of the first byte of the chunk.
+         * @param end The offset of the byte following the last byte of the chunk.
+         * @param recordLength The minimum length of a record.
+         * @param characters The characters of the encoding by byte value.
+         */
+        Chunk( final byte[] buf, final int start, final int end, final int recordLength, final char[] characters )
+        {
+            super();
+            this.buf = buf;
+            this.start = start;
+            this.end = end;
+            this.recordLength = recordLength;
+            this.characters = characters;
+        }
+
+        public void run()
+        {
+            try
+            {
+                this.parse();
+            }
+            catch ( final Throwable t )
+            {
+                this.failure = t;
+            }
+        }
+
+        private void parse() throws ParseException
+        {
+            final byte[] b = this.buf;
+            final char[] c = this.characters;
+            final StringTable strings = new StringTable( c );
+            int lastBankCode = -1;
+            Bankleitzahl lastBankleitzahl = null;
+
+            for ( int line = this.start, eol; line < this.end; line = eol )
+            {
+                eol = line;
+                while ( eol < this.end && b[eol] != '\n' && b[eol] != '\r' )
+                {
+                    eol++;
+                }
+
+                final int lineNumber = this.lineCount++;
+                final int lineEnd = eol;
+
+                if ( eol < this.end )
+                {
+                    eol += b[eol] == '\r' && eol + 1 < this.end && b[eol + 1] == '\n' ? 2 : 1;
+                }
+
+                if ( trimStart( b, line, lineEnd, c ) == lineEnd )
+                {
+                    if ( this.firstEmpty < 0 )
+                    {
+                        this.firstEmpty = lineNumber;
+                    }
+
+                    continue;
+                }
+
+                if ( this.firstData < 0 )
+                {
+                    this.firstData = lineNumber;
+                }
+                if ( this.firstEmpty >= 0 )
+                {
+                    this.dataAfterEmpty = lineNumber;
+                    return;
+                }
+                if ( lineEnd - line < this.recordLength )
+                {
+                    throw new IndexOutOfBoundsException( Integer.toString( lineNumber ) );
+                }
+
+                final BankleitzahlInfo r = new BankleitzahlInfo();
+
+                // Field 1
+                final int bankCode = parseBankCode( b, line, c );
+                if ( bankCode != lastBankCode )
+                {
+                    lastBankCode = bankCode;
+                    lastBankleitzahl = Bankleitzahl.valueOf( new Integer( bankCode ) );
+                }
+                r.setBankCode( lastBankleitzahl );
+                // Field 2
+                r.setHeadOffice( isOne( b, line, 1, c ) );
+                // Field 3
+                r.setName( strings.get( b, line, 2 ) );
+                // Field 4
+                r.setPostalCode( parseNumber( b, line, 3, c, false ) );
+                // Field 5
+                r.setCity( strings.get( b, line, 4 ) );
+                // Field 6
+                r.setDescription( strings.get( b, line, 5 ) );
+                // Field 7
+                r.setPanInstituteNumber( parseNumber( b, line, 6, c, true ) );
+                // Field 8
+                r.setBic( strings.get( b, line, 7 ) );
+                // Field 9
+                r.setValidationLabel( strings.get( b, line, 8 ) );
+                // Field 10
+                r.setSerialNumber( new Integer( parseNumber( b, line, 9, c, false ) ) );
+                // Field 11
+                final int changeLabel = trimStart( b, line + FIELD_TO_OFFSET[10], line + FIELD_TO_ENDOFFSET[10], c );
+                if ( changeLabel == line + FIELD_TO_ENDOFFSET[10] )
+                {
+                    throw new IndexOutOfBoundsException( Integer.toString( lineNumber ) );
+                }
+                r.setChangeLabel( c[b[changeLabel] & 0xFF] );
+                // Field 12
+                r.setMarkedForDeletion( isOne( b, line, 11, c ) );
+                // Field 13
+                final int replacingBankCode = parseNumber( b, line, 12, c, false );
+                r.setReplacingBankCode( replacingBankCode != 0
+                                        ? Bankleitzahl.valueOf( new Integer( replacingBankCode ) )
+                                        : null );
+
+                if ( this.recordLength >= FIELD_TO_ENDOFFSET[14] )
+                {
+                    // Field 14
+                    r.setIbanRuleLabel( new Integer( parseInteger( b, line, 13, c ) ) );
+                    r.setIbanRuleVersion( new Integer( parseInteger( b, line, 14, c ) ) );
+                }
+
+                this.records.add( r );
+            }
+        }
+
+    }
+
+    /**
+     * Table of the strings of the fields of a Bankleitzahlendatei.
+     * <p>Names, cities and descriptions repeat across the records of a file. The table returns the same string
+     * instance for equal field values so that no duplicate strings are created.</p>
+     */
+    private static final class StringTable
+    {
+
+        /** The characters of the encoding by byte value. */
+        private final char[] characters;
+
+        /** The strings of the table; open addressing with linear probing. */
+        private String[] table = new String[ 8192 ];
+
+        /** The number of strings in the table. */
+        private int size;
+
+        /**
+         * Creates a new {@code StringTable} instance taking the characters of the encoding.
+         *
+         * @param characters The characters of the encoding by byte value.
+         */
+        StringTable( final char[] characters )
+        {
+            super();
+            this.characters = characters;
+        }
+
+        /**
+         * Gets the trimmed string of a field.
+         *
+         * @param buf The bytes of the file.
+         * @param line The offset of the line in {@code buf}.
+         * @param field The index of the field.
+         *
+         * @return The trimmed string of the field.
+         */
+        String get( final byte[] buf, final int line, final int field )
+        {
+            final int start = trimStart( buf, line + FIELD_TO_OFFSET[field], line + FIELD_TO_ENDOFFSET[field],
+                                         this.characters );
+
+            final int end = trimEnd( buf, start, line + FIELD_TO_ENDOFFSET[field], this.characters );
+
+            if ( start == end )
+            {
+                return "";
+            }
+
+            int hash = 0;
+            for ( int i = start; i < end; i++ )
+            {
+                hash = 31 * hash + this.characters[buf[i] & 0xFF];
+            }
+
+            final int mask = this.table.length - 1;
+            int slot = ( hash ^ ( hash >>> 16 ) ) & mask;
+
+            for ( String s = this.table[slot]; s != null; s = this.table[slot] )
+            {
+                if ( this.matches( s, buf, start, end ) )
+                {
+                    return s;
+                }
+
+                slot = ( slot + 1 ) & mask;
+            }
+
+            final String s = text( buf, start, end, this.characters );
+            this.table[slot] = s;
+
+            if ( ++this.size * 2 > this.table.length )
+            {
+                this.grow();
+            }
+
+            return s;
+        }
+
+        private boolean matches( final String s, final byte[] buf, final int start, final int end )
+        {
+            if ( s.length() != end - start )
+            {
+                return false;
+            }
+
+            for ( int i = start; i < end; i++ )
+            {
+                if ( s.charAt( i - start ) != this.characters[buf[i] & 0xFF] )
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private void grow()
+        {
+            final String[] old = this.table;
+            this.table = new String[ old.length * 2 ];
+            final int mask = this.table.length - 1;
+
+            for ( int i = old.length - 1; i >= 0; i-- )
+            {
+                if ( old[i] != null )
+                {
+                    final int hash = old[i].hashCode();
+                    int slot = ( hash ^ ( hash >>> 16 ) ) & mask;
+
+                    while ( this.table[slot] != null )
+                    {
+                        slot = ( slot + 1 ) & mask;
+                    }
+
+                    this.table[slot] = old[i];
+                }
+            }
+        }
+
+    }
+
+    /** {@code InputStream} reading the remaining bytes of a {@code ByteBuffer}. */
+    private static final class ByteBufferInputStream extends InputStream
+    {
+
+        /** The buffer to read. */
+        private final ByteBuffer buffer;
+
+        /**
+         * Creates a new {@code ByteBufferInputStream} instance taking the buffer to read.
+         *
+         * @param buffer The buffer to read.
+         */
+        ByteBufferInputStream( final ByteBuffer buffer )
+        {
+            super();
+            this.buffer = buffer;
+        }
+
+        public int read()
+        {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        public int read( final byte[] b, final int off, final int len )
+        {
+            if ( len == 0 )
+            {
+                return 0;
+            }
+            if ( !this.buffer.hasRemaining() )
+            {
+                return -1;
+            }
+
+            final int n = Math.min( len, this.buffer.remaining() );
+            this.buffer.get( b, off, n );
+            return n;
+        }
+
+        public int available()
+        {
+            return this.buffer.remaining();
         }
 
-        return name;
     }
 
     //-----------------------------------------------------BankleitzahlenDatei--